@@ -1,6 +1,7 @@
 package cz.adaptech.tesseract4android.sample;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
@@ -24,15 +25,6 @@ public class Assets {
         return context.getFilesDir();
     }
 
-    /**
-     * Returns locally accessible directory path which contains the "tessdata" subdirectory
-     * with *.traineddata files.
-     */
-    @NonNull
-    public static String getTessDataPath(@NonNull Context context) {
-        return getLocalDir(context).getAbsolutePath();
-    }
-
     @NonNull
     public static File getImageFile(@NonNull Context context) {
         return new File(getLocalDir(context), Config.IMAGE_NAME);
@@ -43,6 +35,16 @@ public class Assets {
         return BitmapFactory.decodeFile(getImageFile(context).getAbsolutePath());
     }
 
+    /**
+     * Opens the traineddata file for given language directly from the APK. It is stored
+     * uncompressed (see build.gradle), so Tesseract can use it without extracting.
+     */
+    @NonNull
+    public static AssetFileDescriptor openTrainedData(@NonNull Context context,
+                                                      @NonNull String language) throws IOException {
+        return context.getAssets().openFd(language + ".traineddata");
+    }
+
     public static void extractAssets(@NonNull Context context) {
         AssetManager am = context.getAssets();
 
@@ -51,27 +53,15 @@ public class Assets {
             throw new RuntimeException("Can't create directory " + localDir);
         }
 
-        File tessDir = new File(getTessDataPath(context), "tessdata");
-        if (!tessDir.exists() && !tessDir.mkdir()) {
-            throw new RuntimeException("Can't create directory " + tessDir);
-        }
-
         // Extract our assets to local directory.
+        // The *.traineddata files are not extracted, Tesseract reads them from the APK directly.
         // Note we don't use am.list() to get list of all assets, because we wouldn't know which
 		// files are ours and which were added by other libraries
         String[] filesToExtract = new String[]{
-                "eng.traineddata",
                 "sample.jpg",
         };
         for (String assetName : filesToExtract) {
-            final File targetFile;
-
-            // Put all *.traineddata into "tessdata" subdirectory, other files into root.
-            if (assetName.endsWith(".traineddata")) {
-                targetFile = new File(tessDir, assetName);
-            } else {
-                targetFile = new File(localDir, assetName);
-            }
+            final File targetFile = new File(localDir, assetName);
             if (!targetFile.exists()) {
                 copyFile(am, assetName, targetFile);
             }
@@ -32,12 +32,11 @@ public class MainFragment extends Fragment {
         super.onCreate(savedInstanceState);
         viewModel = new ViewModelProvider(this).get(MainViewModel.class);
 
-        // Copy sample image and language data to storage
+        // Copy sample image to storage
         Assets.extractAssets(requireContext());
 
         if (!viewModel.isInitialized()) {
-            String dataPath = Assets.getTessDataPath(requireContext());
-            viewModel.initTesseract(dataPath, Config.TESS_LANG, Config.TESS_ENGINE);
+            viewModel.initTesseract(Config.TESS_LANG, Config.TESS_ENGINE);
         }
     }
 
@@ -1,18 +1,29 @@
 package cz.adaptech.tesseract4android.sample.ui.main;
 
 import android.app.Application;
-import android.os.SystemClock;
+import android.content.res.AssetFileDescriptor;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.googlecode.leptonica.android.Pix;
+import com.googlecode.leptonica.android.ReadFile;
+import com.googlecode.tesseract.android.OcrFuture;
+import com.googlecode.tesseract.android.OcrResult;
+import com.googlecode.tesseract.android.RecognitionOptions;
 import com.googlecode.tesseract.android.TessBaseAPI;
 
+import cz.adaptech.tesseract4android.sample.Assets;
+
 import java.io.File;
+import java.io.IOException;
 import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 public class MainViewModel extends AndroidViewModel {
 
@@ -28,20 +39,17 @@ public class MainViewModel extends AndroidViewModel {
 
     private boolean tessInit;
 
-    private volatile boolean stopped;
-
-    private volatile boolean tessProcessing;
-
-    private volatile boolean recycleAfterProcessing;
-
-    private final Object recycleLock = new Object();
+    @Nullable
+    private OcrFuture ocrTask;
 
     public MainViewModel(@NonNull Application application) {
         super(application);
 
-        tessApi = new TessBaseAPI(progressValues -> {
-            progress.postValue("Progress: " + progressValues.getPercent() + " %");
-        });
+        tessApi = new TessBaseAPI();
+        // Only the percent is shown, so skip the callbacks which don't change it
+        tessApi.setProgressListener((percent, wordLeft, wordTop, wordRight, wordBottom) -> {
+            progress.postValue("Progress: " + percent + " %");
+        }, 1, 0);
 
         // Show Tesseract version and library flavor at startup
         progress.setValue(String.format(Locale.ENGLISH, "Tesseract %s (%s)",
@@ -50,25 +58,19 @@ public class MainViewModel extends AndroidViewModel {
 
     @Override
     protected void onCleared() {
-        synchronized (recycleLock) {
-            if (tessProcessing) {
-                // Processing is active, set flag to recycle tessApi after processing is completed
-                recycleAfterProcessing = true;
-                // Stop the processing as we don't care about the result anymore
-                tessApi.stop();
-            } else {
-                // No ongoing processing, we must recycle it here
-                tessApi.recycle();
-            }
-        }
+        // Stops the ongoing processing (if any) and releases the native Tesseract instance
+        // once it is done
+        tessApi.recycle();
     }
 
-    public void initTesseract(@NonNull String dataPath, @NonNull String language, int engineMode) {
-        Log.i(TAG, "Initializing Tesseract with: dataPath = [" + dataPath + "], " +
+    public void initTesseract(@NonNull String language, int engineMode) {
+        Log.i(TAG, "Initializing Tesseract with: " +
                 "language = [" + language + "], engineMode = [" + engineMode + "]");
-        try {
-            tessInit = tessApi.init(dataPath, language, engineMode);
-        } catch (IllegalArgumentException e) {
+        // Initialize directly from the APK assets, without extracting the traineddata first.
+        // To use language data on the storage, call tessApi.init(dataPath, language, engineMode).
+        try (AssetFileDescriptor trainedData = Assets.openTrainedData(getApplication(), language)) {
+            tessInit = tessApi.init(trainedData, language, engineMode);
+        } catch (IOException | IllegalArgumentException e) {
             tessInit = false;
             Log.e(TAG, "Cannot initialize Tesseract:", e);
         }
@@ -79,78 +81,69 @@ public class MainViewModel extends AndroidViewModel {
             Log.e(TAG, "recognizeImage: Tesseract is not initialized");
             return;
         }
-        if (tessProcessing) {
+        if (ocrTask != null && !ocrTask.isDone()) {
             Log.e(TAG, "recognizeImage: Processing is in progress");
             return;
         }
-        tessProcessing = true;
+
+        Pix image = ReadFile.readFile(imagePath);
+        // Or read it from Bitmap, byte array,...
+        // Pix image = ReadFile.readBitmap(imageBitmap);
+        if (image == null) {
+            Log.e(TAG, "recognizeImage: Cannot read image " + imagePath);
+            return;
+        }
 
         result.setValue("");
         processing.setValue(true);
         progress.setValue("Processing...");
-        stopped = false;
-
-        // Start process in another thread
-        new Thread(() -> {
-            tessApi.setImage(imagePath);
-            // Or set it as Bitmap, Pix,...
-            // tessApi.setImage(imageBitmap);
-
-            // Set page segmentation mode (default is PSM_SINGLE_BLOCK)
-            tessApi.setPageSegMode(TessBaseAPI.PageSegMode.PSM_AUTO_OSD);
 
-            long startTime = SystemClock.uptimeMillis();
+        // Set page segmentation mode (default is PSM_SINGLE_BLOCK)
+        RecognitionOptions options = new RecognitionOptions()
+                .setPageSegMode(TessBaseAPI.PageSegMode.PSM_AUTO_OSD);
 
-            // Use getHOCRText(0) method to trigger recognition with progress notifications and
-            // ability to cancel ongoing processing.
-            tessApi.getHOCRText(0);
+        // Start the recognition in background. Progress notifications are delivered to the
+        // ProgressListener set in the constructor.
+        OcrFuture task = tessApi.recognizeAsync(image, options);
+        ocrTask = task;
 
-            // At this point the recognition has completed (or was interrupted by calling stop())
-            // and we can get the results we want. In this case just normal UTF8 text.
-            //
-            // Note that calling only this method (without the getHOCRText() above) would also
-            // trigger the recognition and return the same result, but we would received no progress
-            // notifications and we wouldn't be able to stop() the ongoing recognition.
-            String text = tessApi.getUTF8Text();
+        // The task keeps its own copy of the image
+        image.recycle();
 
-            // Alternatively we can get resulting text filtered based on confidence threshold.
-            // Note this call internally calls getResultIterator() which means we need to call
-            // getHOCRText or getUTF8Text method before to make sure there are results to process.
-            //String text = tessApi.getConfidentText(40, TessBaseAPI.PageIteratorLevel.RIL_WORD);
+        // Listener runs on the recognition thread once the recognition is completed or stopped
+        task.addListener(() -> {
+            String text = "";
+            try {
+                OcrResult ocrResult = task.get();
+                text = ocrResult.getText();
 
-            // We can free up the recognition results and any stored image data in the tessApi
-            // if we don't need them anymore.
-            tessApi.clear();
-
-            // Publish the results
-            result.postValue(text);
-            processing.postValue(false);
-            if (stopped) {
-                progress.postValue("Stopped.");
-            } else {
-                long duration = SystemClock.uptimeMillis() - startTime;
+                long duration = ocrResult.getRecognitionTimeMillis();
                 progress.postValue(String.format(Locale.ENGLISH,
                         "Completed in %.3fs.", (duration / 1000f)));
+            } catch (CancellationException e) {
+                progress.postValue("Stopped.");
+            } catch (ExecutionException | InterruptedException e) {
+                Log.e(TAG, "Recognition failed", e);
+                progress.postValue("Failed.");
             }
 
-            synchronized (recycleLock) {
-                tessProcessing = false;
+            // Alternatively we could filter resulting text based on confidence threshold using
+            // tessApi.getConfidentText(40, TessBaseAPI.PageIteratorLevel.RIL_WORD) after calling
+            // synchronous getUTF8Text() on a background thread.
 
-                // Recycle the instance here if the view model is already destroyed
-                if (recycleAfterProcessing) {
-                    tessApi.recycle();
-                }
-            }
-        }).start();
+            // Publish the results
+            result.postValue(text);
+            processing.postValue(false);
+        }, Runnable::run);
     }
 
     public void stop() {
-        if (!tessProcessing) {
+        if (ocrTask == null || ocrTask.isDone()) {
             return;
         }
         progress.setValue("Stopping...");
-        stopped = true;
-        tessApi.stop();
+        // Stops the native recognition if it is running already
+        ocrTask.cancel(true);
     }
 
     public boolean isInitialized() {
@@ -17,6 +17,57 @@
 
 package com.googlecode.leptonica.android;
 
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+
 public class AdaptiveMapTest {
+	@After
+	public void tearDown() {
+		Parallelism.setThreadCount(Parallelism.THREAD_COUNT_AUTO);
+	}
+
+	@Test
+	public void testBackgroundNormMorph_parallel() {
+		Pix color = TestUtils.createTestPix(1200, 900);
+		Pix gray = BinarizeTest.createGrayPix(1200, 900);
+
+		for (Pix pixs : new Pix[]{gray, color}) {
+			// A single thread runs the unmodified Leptonica function
+			Parallelism.setThreadCount(1);
+			Pix serial = AdaptiveMap.backgroundNormMorph(pixs);
+
+			Parallelism.setThreadCount(4);
+			Pix parallel = AdaptiveMap.backgroundNormMorph(pixs);
+
+			assertEquals(pixs.getDepth(), parallel.getDepth());
+			assertEquals(1.0f, TestUtils.comparePix(serial, parallel), 0.0f);
+
+			serial.recycle();
+			parallel.recycle();
+		}
+
+		color.recycle();
+		gray.recycle();
+	}
+
+	@Test
+	public void testPixContrastNorm_parallel() {
+		Pix pixs = BinarizeTest.createGrayPix(1200, 900);
+
+		// A single thread runs the unmodified Leptonica function
+		Parallelism.setThreadCount(1);
+		Pix serial = AdaptiveMap.pixContrastNorm(pixs);
+
+		Parallelism.setThreadCount(4);
+		Pix parallel = AdaptiveMap.pixContrastNorm(pixs);
+
+		assertEquals(8, parallel.getDepth());
+		assertEquals(1.0f, TestUtils.comparePix(serial, parallel), 0.0f);
 
+		serial.recycle();
+		parallel.recycle();
+		pixs.recycle();
+	}
 }
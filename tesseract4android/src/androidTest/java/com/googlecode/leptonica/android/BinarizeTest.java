@@ -17,6 +17,67 @@
 
 package com.googlecode.leptonica.android;
 
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+
 public class BinarizeTest {
+	@After
+	public void tearDown() {
+		Parallelism.setThreadCount(Parallelism.THREAD_COUNT_AUTO);
+	}
+
+	@Test
+	public void testSauvolaBinarizeTiled_parallel() {
+		Pix pixs = createGrayPix(1200, 900);
+
+		// A single thread runs the unmodified Leptonica function
+		Parallelism.setThreadCount(1);
+		Pix serial = Binarize.sauvolaBinarizeTiled(pixs);
+		Pix serialTiled = Binarize.sauvolaBinarizeTiled(pixs, 8, 0.35f, 3, 2);
+
+		Parallelism.setThreadCount(4);
+		assertEquals(4, Parallelism.getThreadCount());
+		Pix parallel = Binarize.sauvolaBinarizeTiled(pixs);
+		Pix parallelTiled = Binarize.sauvolaBinarizeTiled(pixs, 8, 0.35f, 3, 2);
+
+		assertEquals(1, parallel.getDepth());
+		assertEquals(1.0f, TestUtils.comparePix(serial, parallel), 0.0f);
+		assertEquals(1.0f, TestUtils.comparePix(serialTiled, parallelTiled), 0.0f);
+		// Tiles overlap, the tiling doesn't change the result
+		assertEquals(1.0f, TestUtils.comparePix(serial, serialTiled), 0.0f);
+
+		serial.recycle();
+		serialTiled.recycle();
+		parallel.recycle();
+		parallelTiled.recycle();
+		pixs.recycle();
+	}
+
+	@Test
+	public void testOtsuAdaptiveThreshold_parallel() {
+		Pix pixs = createGrayPix(1200, 900);
+
+		// A single thread runs the unmodified Leptonica function
+		Parallelism.setThreadCount(1);
+		Pix serial = Binarize.otsuAdaptiveThreshold(pixs);
+
+		Parallelism.setThreadCount(4);
+		Pix parallel = Binarize.otsuAdaptiveThreshold(pixs);
+
+		assertEquals(1, parallel.getDepth());
+		assertEquals(1.0f, TestUtils.comparePix(serial, parallel), 0.0f);
+
+		serial.recycle();
+		parallel.recycle();
+		pixs.recycle();
+	}
 
+	static Pix createGrayPix(int width, int height) {
+		Pix pix = TestUtils.createTestPix(width, height);
+		Pix gray = Convert.convertTo8(pix);
+		pix.recycle();
+		return gray;
+	}
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.leptonica.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.graphics.Rect;
+
+import org.junit.Test;
+
+public class PixPipelineTest {
+	@Test
+	public void testProcessMatchesSingleSteps() {
+		Pix pixs = TestUtils.createTestPix(640, 480);
+
+		PixPipeline pipeline = new PixPipeline()
+				.convertTo8()
+				.backgroundNormMorph()
+				.sauvolaBinarize()
+				.scale(0.5f);
+		assertEquals(4, pipeline.getStepCount());
+		Pix pixd = pipeline.process(pixs);
+
+		Pix gray = Convert.convertTo8(pixs);
+		Pix normalized = AdaptiveMap.backgroundNormMorph(gray);
+		Pix binary = Binarize.sauvolaBinarizeTiled(normalized);
+		Pix expected = Scale.scale(binary, 0.5f);
+
+		assertEquals(expected.getWidth(), pixd.getWidth());
+		assertEquals(expected.getHeight(), pixd.getHeight());
+		assertEquals(expected.getDepth(), pixd.getDepth());
+		assertEquals(1.0f, TestUtils.comparePix(expected, pixd), 0.0f);
+
+		// Source is not modified
+		assertEquals(32, pixs.getDepth());
+		assertEquals(640, pixs.getWidth());
+
+		gray.recycle();
+		normalized.recycle();
+		binary.recycle();
+		expected.recycle();
+		pixd.recycle();
+		pixs.recycle();
+	}
+
+	@Test
+	public void testProcessInPlaceSteps() {
+		Pix pixs = TestUtils.createTestPix(640, 480);
+		Pix gray = Convert.convertTo8(pixs);
+		int pixel = gray.getPixel(10, 10);
+
+		// Skipped conversion followed by in-place inversion must not touch the source
+		Pix pixd = new PixPipeline()
+				.convertTo8()
+				.invert()
+				.process(gray);
+
+		assertEquals(pixel, gray.getPixel(10, 10));
+		assertEquals(0xFF - (pixel & 0xFF), pixd.getPixel(10, 10) & 0xFF);
+
+		pixd.recycle();
+		gray.recycle();
+		pixs.recycle();
+	}
+
+	@Test
+	public void testProcessGeometry() {
+		Pix pixs = TestUtils.createTestPix(640, 480);
+
+		Pix pixd = new PixPipeline()
+				.clip(new Rect(0, 0, 320, 200))
+				.rotateOrth(1)
+				.scale(1.0f)
+				.process(pixs);
+
+		assertEquals(200, pixd.getWidth());
+		assertEquals(320, pixd.getHeight());
+
+		pixd.recycle();
+		pixs.recycle();
+	}
+
+	@Test
+	public void testProcessEmpty() {
+		Pix pixs = TestUtils.createTestPix(64, 48);
+		Pix pixd = new PixPipeline().process(pixs);
+
+		assertTrue(pixs.getNativePix() != pixd.getNativePix());
+		assertEquals(1.0f, TestUtils.comparePix(pixs, pixd), 0.0f);
+
+		pixd.recycle();
+		pixs.recycle();
+	}
+
+	@Test
+	public void testProcessFailedStep() {
+		Pix pixs = TestUtils.createTestPix(64, 48);
+
+		// Sauvola binarization requires 8 bpp input
+		PixPipeline pipeline = new PixPipeline()
+				.scale(0.5f)
+				.sauvolaBinarize();
+		try {
+			pipeline.process(pixs);
+			fail("Binarization of 32 bpp image must fail");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().contains("sauvolaBinarize"));
+		}
+
+		pixs.recycle();
+	}
+}
@@ -20,16 +20,20 @@ package com.googlecode.leptonica.android;
 import android.graphics.Bitmap;
 import android.graphics.Bitmap.CompressFormat;
 import android.graphics.Color;
+import android.graphics.Rect;
 
 import org.junit.Test;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class PixTest {
 	@Test
@@ -119,4 +123,70 @@ public class PixTest {
 
 		pix.recycle();
 	}
+
+	@Test
+	public void testGetDataBuffer() {
+		Pix pix = new Pix(10, 3, 8);
+		pix.setPixel(1, 2, Color.rgb(0x40, 0x40, 0x40));
+
+		// 10 pixels of 8 bits each fit into 3 words
+		assertEquals(3, pix.getWpl());
+
+		ByteBuffer buffer = pix.getDataBuffer();
+		assertTrue(buffer.isDirect());
+		assertEquals(4 * pix.getWpl() * pix.getHeight(), buffer.capacity());
+
+		// Second pixel of the line is in the second most significant byte
+		int word = buffer.getInt(4 * 2 * pix.getWpl());
+		assertEquals(0x40, (word >> 16) & 0xFF);
+
+		// Changes made through the buffer are visible in the Pix
+		buffer.putInt(0, 0xFF000000);
+		assertEquals(Color.WHITE, pix.getPixel(0, 0));
+		assertEquals(Color.BLACK, pix.getPixel(1, 0));
+
+		// Buffer keeps the raster alive after the Pix is recycled
+		pix.recycle();
+		assertEquals(0xFF000000, buffer.getInt(0));
+		assertEquals(0x40, (buffer.getInt(4 * 2 * 3) >> 16) & 0xFF);
+	}
+
+	@Test
+	public void testPixPixelsOps() {
+		Pix pix = new Pix(64, 48, 32);
+		Rect rect = new Rect(10, 20, 13, 22);
+
+		int[] colors = {
+				Color.RED, Color.GREEN, Color.BLUE,
+				Color.BLACK, Color.WHITE, Color.RED
+		};
+		pix.setPixels(rect, colors);
+
+		// Bulk access matches single pixel access
+		assertEquals(Color.RED, pix.getPixel(10, 20));
+		assertEquals(Color.BLUE, pix.getPixel(12, 20));
+		assertEquals(Color.WHITE, pix.getPixel(11, 21));
+
+		int[] result = new int[colors.length];
+		pix.getPixels(rect, result);
+		for (int i = 0; i < colors.length; i++) {
+			assertEquals(colors[i], result[i]);
+		}
+
+		try {
+			pix.getPixels(new Rect(60, 40, 70, 48), new int[80]);
+			fail("Rect exceeding the image must be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		try {
+			pix.getPixels(rect, new int[5]);
+			fail("Too small array must be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		pix.recycle();
+	}
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.leptonica.android;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PixTransformTest {
+	private static final Rect SQUARE = new Rect(145, 15, 155, 25);
+
+	@Test
+	public void testNotTracked() {
+		Pix pixs = createPix();
+		Pix pixd = Scale.scale(pixs, 0.5f);
+
+		assertNull(pixs.getTransform());
+		assertNull(pixd.getTransform());
+
+		pixs.recycle();
+		pixd.recycle();
+	}
+
+	@Test
+	public void testTrackTransform() {
+		Pix pixs = createPix();
+		pixs.trackTransform();
+
+		PixTransform transform = pixs.getTransform();
+		assertNotNull(transform);
+		assertTrue(transform.isIdentity());
+		assertEquals(200, transform.getSourceWidth());
+		assertEquals(100, transform.getSourceHeight());
+		assertEquals(SQUARE, transform.mapRect(SQUARE));
+
+		pixs.recycle();
+	}
+
+	@Test
+	public void testMapToSource() {
+		Pix pixs = createPix();
+		pixs.trackTransform();
+
+		Pix pix1 = Scale.scale(pixs, 0.5f);
+		Pix pix2 = Rotate.rotateOrth(pix1, 1);
+		Pix pix3 = Clip.clipRectangle(pix2, new Box(0, 50, 50, 50));
+		Pix pix4 = Rotate.rotate(pix3, 10, true);
+		Pix pixd = Convert.convertTo8(pix4);
+
+		assertNotNull(pixd.getTransform());
+		assertMapsToSquare(pixd);
+
+		pixs.recycle();
+		pix1.recycle();
+		pix2.recycle();
+		pix3.recycle();
+		pix4.recycle();
+		pixd.recycle();
+	}
+
+	@Test
+	public void testMapToSource_pipeline() {
+		Pix pixs = createPix();
+		pixs.trackTransform();
+
+		Pix pixd = new PixPipeline()
+				.convertTo8()
+				.scale(0.5f)
+				.rotateOrth(3)
+				.clip(new Rect(0, 10, 50, 100))
+				.process(pixs);
+
+		assertNotNull(pixd.getTransform());
+		assertMapsToSquare(pixd);
+
+		pixs.recycle();
+		pixd.recycle();
+	}
+
+	/**
+	 * Creates a white 200x100 image with a black square.
+	 */
+	private static Pix createPix() {
+		Bitmap bmp = Bitmap.createBitmap(200, 100, Bitmap.Config.ARGB_8888);
+		Canvas canvas = new Canvas(bmp);
+		Paint paint = new Paint();
+
+		canvas.drawColor(Color.WHITE);
+		paint.setColor(Color.BLACK);
+		canvas.drawRect(SQUARE, paint);
+
+		Pix pix = ReadFile.readBitmap(bmp);
+		bmp.recycle();
+		return pix;
+	}
+
+	/**
+	 * Checks that the dark pixels of the transformed image map to the square.
+	 */
+	private static void assertMapsToSquare(Pix pix) {
+		Rect dark = new Rect();
+		for (int y = 0; y < pix.getHeight(); y++) {
+			for (int x = 0; x < pix.getWidth(); x++) {
+				int value = pix.getDepth() == 8 ? pix.getPixel(x, y) : Color.red(pix.getPixel(x, y));
+				if (value < 128)
+					dark.union(x, y, x + 1, y + 1);
+			}
+		}
+		assertTrue("Square not found.", !dark.isEmpty());
+
+		Rect mapped = pix.getTransform().mapRect(dark);
+		assertEquals(SQUARE.centerX(), mapped.centerX(), 2);
+		assertEquals(SQUARE.centerY(), mapped.centerY(), 2);
+		assertTrue("Square maps to " + mapped, mapped.width() <= 20 && mapped.height() <= 20);
+	}
+}
@@ -19,13 +19,18 @@ package com.googlecode.leptonica.android;
 
 import android.graphics.Bitmap;
 import android.graphics.Bitmap.CompressFormat;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.ParcelFileDescriptor;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -67,6 +72,31 @@ public class ReadFileTest {
 		pix.recycle();
 	}
 
+	@Test
+	public void testReadBitmapGray() {
+		// Odd width covers both the vectorized and the remaining pixels
+		Bitmap bmp = TestUtils.createTestBitmap(101, 100, Bitmap.Config.ARGB_8888);
+		Pix pix = ReadFile.readBitmapGray(bmp);
+		assertNotNull(pix);
+		assertEquals(8, pix.getDepth());
+		assertEquals(bmp.getWidth(), pix.getWidth());
+		assertEquals(bmp.getHeight(), pix.getHeight());
+
+		for (int y = 0; y < bmp.getHeight(); y += 7) {
+			for (int x = 0; x < bmp.getWidth(); x++) {
+				int color = bmp.getPixel(x, y);
+				double expected = 0.3 * Color.red(color) + 0.5 * Color.green(color)
+						+ 0.2 * Color.blue(color);
+				int gray = Color.red(pix.getPixel(x, y));
+				assertTrue("Gray value " + gray + " at " + x + "," + y + " differs from " + expected,
+						Math.abs(gray - expected) <= 2);
+			}
+		}
+
+		bmp.recycle();
+		pix.recycle();
+	}
+
 	@Test
 	public void testReadFile_bmp() throws IOException {
 		File file = File.createTempFile("testReadFile", ".bmp");
@@ -111,6 +141,35 @@ public class ReadFileTest {
 		pix.recycle();
 	}
 
+	@Test
+	public void testReadFile_jpgOptions() throws IOException {
+		File file = File.createTempFile("testReadFile", ".jpg");
+		FileOutputStream fileStream = new FileOutputStream(file);
+		Bitmap bmp = TestUtils.createTestBitmap(640, 480, Bitmap.Config.RGB_565);
+		boolean compressed = bmp.compress(CompressFormat.JPEG, 85, fileStream);
+		fileStream.close();
+
+		assertTrue(compressed);
+
+		Pix pix = ReadFile.readFile(file, new ReadOptions().setScaleDenominator(4));
+		assertNotNull(pix);
+		assertEquals(160, pix.getWidth());
+		assertEquals(120, pix.getHeight());
+		assertEquals(32, pix.getDepth());
+		pix.recycle();
+
+		// Longer side is reduced in 1/8 steps to at least the target size
+		pix = ReadFile.readFile(file, new ReadOptions().setTargetDimension(200)
+				.setGrayscale(true));
+		assertNotNull(pix);
+		assertEquals(240, pix.getWidth());
+		assertEquals(180, pix.getHeight());
+		assertEquals(8, pix.getDepth());
+		pix.recycle();
+
+		bmp.recycle();
+	}
+
 	@Test
 	public void testReadFile_png() throws IOException {
 		File file = File.createTempFile("testReadFile", ".png");
@@ -180,4 +239,218 @@ public class ReadFileTest {
 		encodedData = null;
 		pix.recycle();
 	}
+
+	@Test
+	public void testReadMem_byteBuffer() throws IOException {
+		ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		Bitmap bmp = TestUtils.createTestBitmap(100, 100, Bitmap.Config.RGB_565);
+		boolean compressed = bmp.compress(CompressFormat.JPEG, 85, byteStream);
+
+		assertTrue(compressed);
+
+		byte[] encodedData = byteStream.toByteArray();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(encodedData.length);
+		buffer.put(encodedData);
+		buffer.flip();
+
+		Pix pix = ReadFile.readMem(buffer);
+		assertNotNull(pix);
+		assertEquals(bmp.getWidth(), pix.getWidth());
+		assertEquals(bmp.getHeight(), pix.getHeight());
+
+		float match = TestUtils.compareImages(pix, bmp, 15);
+		assertTrue("Images do not match. match=" + match, (match >= 0.98f));
+
+		byteStream.close();
+		bmp.recycle();
+		pix.recycle();
+	}
+
+	@Test
+	public void testReadFd() throws IOException {
+		File file = File.createTempFile("testReadFd", ".png");
+		FileOutputStream fileStream = new FileOutputStream(file);
+		Bitmap bmp = TestUtils.createTestBitmap(100, 100, Bitmap.Config.RGB_565);
+		boolean compressed = bmp.compress(CompressFormat.PNG, 100, fileStream);
+		fileStream.close();
+
+		assertTrue(compressed);
+
+		ParcelFileDescriptor fd = ParcelFileDescriptor.open(file,
+				ParcelFileDescriptor.MODE_READ_ONLY);
+		Pix pix = ReadFile.readFd(fd);
+		fd.close();
+
+		assertNotNull(pix);
+		assertEquals(bmp.getWidth(), pix.getWidth());
+		assertEquals(bmp.getHeight(), pix.getHeight());
+
+		float match = TestUtils.compareImages(pix, bmp);
+		assertTrue("Images do not match. match=" + match, (match >= 0.99f));
+
+		bmp.recycle();
+		pix.recycle();
+	}
+
+	@Test
+	public void testReadStream_jpg() throws IOException {
+		testReadStream(CompressFormat.JPEG, 85, 15, 0.98f);
+	}
+
+	@Test
+	public void testReadStream_png() throws IOException {
+		testReadStream(CompressFormat.PNG, 100, 0, 0.99f);
+	}
+
+	private void testReadStream(CompressFormat format, int quality, int tolerance,
+			float minMatch) throws IOException {
+		ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		Bitmap bmp = TestUtils.createTestBitmap(640, 480, Bitmap.Config.RGB_565);
+		boolean compressed = bmp.compress(format, quality, byteStream);
+
+		assertTrue(compressed);
+
+		Pix pix = ReadFile.readStream(new ByteArrayInputStream(byteStream.toByteArray()));
+		assertNotNull(pix);
+		assertEquals(bmp.getWidth(), pix.getWidth());
+		assertEquals(bmp.getHeight(), pix.getHeight());
+
+		float match = TestUtils.compareImages(pix, bmp, tolerance);
+		assertTrue("Images do not match. match=" + match, (match >= minMatch));
+
+		byteStream.close();
+		bmp.recycle();
+		pix.recycle();
+	}
+
+	@Test
+	public void testReadRegion_jpg() throws IOException {
+		File file = File.createTempFile("testReadRegion", ".jpg");
+		FileOutputStream fileStream = new FileOutputStream(file);
+		Bitmap bmp = TestUtils.createTestBitmap(640, 480, Bitmap.Config.RGB_565);
+		boolean compressed = bmp.compress(CompressFormat.JPEG, 85, fileStream);
+		fileStream.close();
+
+		assertTrue(compressed);
+
+		Rect region = new Rect(100, 50, 300, 150);
+		Pix pix = ReadFile.readRegion(file, region);
+		assertNotNull(pix);
+		assertEquals(region.width(), pix.getWidth());
+		assertEquals(region.height(), pix.getHeight());
+		assertEquals(32, pix.getDepth());
+		pix.recycle();
+
+		// Luminance of the region is the same as of the whole image
+		ReadOptions options = new ReadOptions().setGrayscale(true);
+		pix = ReadFile.readRegion(file, region, options);
+		Pix full = ReadFile.readFile(file, options);
+		Box box = new Box(region.left, region.top, region.width(), region.height());
+		Pix clipped = Clip.clipRectangle(full, box);
+		assertNotNull(pix);
+		assertEquals(1.0f, TestUtils.comparePix(clipped, pix), 0.0f);
+
+		// Region is clipped to the image bounds
+		Pix edge = ReadFile.readRegion(file, new Rect(600, 400, 700, 500));
+		assertNotNull(edge);
+		assertEquals(40, edge.getWidth());
+		assertEquals(80, edge.getHeight());
+
+		edge.recycle();
+		clipped.recycle();
+		box.recycle();
+		full.recycle();
+		pix.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testReadRegion_png() throws IOException {
+		ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		Bitmap bmp = TestUtils.createTestBitmap(640, 480, Bitmap.Config.ARGB_8888);
+		boolean compressed = bmp.compress(CompressFormat.PNG, 100, byteStream);
+
+		assertTrue(compressed);
+
+		byte[] encodedData = byteStream.toByteArray();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(encodedData.length);
+		buffer.put(encodedData);
+		buffer.flip();
+
+		Rect region = new Rect(10, 20, 110, 70);
+		Pix pix = ReadFile.readRegion(buffer, region);
+		assertNotNull(pix);
+		assertEquals(region.width(), pix.getWidth());
+		assertEquals(region.height(), pix.getHeight());
+
+		Bitmap expected = Bitmap.createBitmap(bmp, region.left, region.top, region.width(),
+				region.height());
+		float match = TestUtils.compareImages(pix, expected);
+		assertTrue("Images do not match. match=" + match, (match >= 0.99f));
+
+		byteStream.close();
+		expected.recycle();
+		bmp.recycle();
+		pix.recycle();
+	}
+
+	@Test
+	public void testReadYPlane() {
+		// 4x3 frame with padded rows, pixel value encodes its coordinates
+		final int width = 4, height = 3, rowStride = 6;
+		ByteBuffer plane = createYPlane(width, height, rowStride, 1);
+
+		Pix pix = ReadFile.readYPlane(plane, width, height, rowStride, 1, null);
+		assertEquals(width, pix.getWidth());
+		assertEquals(height, pix.getHeight());
+		assertEquals(8, pix.getDepth());
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				assertEquals(y * 16 + x, Color.red(pix.getPixel(x, y)));
+			}
+		}
+		pix.recycle();
+	}
+
+	@Test
+	public void testReadYPlane_cropRotate() {
+		final int width = 4, height = 3, rowStride = 10, pixelStride = 2;
+		ByteBuffer plane = createYPlane(width, height, rowStride, pixelStride);
+		Rect crop = new Rect(1, 0, 4, 2);
+
+		// Cropped frame is 3x2, rotated by 90 degrees it is 2x3
+		Pix pix = ReadFile.readYPlane(plane, width, height, rowStride, pixelStride, crop, 90);
+		assertEquals(2, pix.getWidth());
+		assertEquals(3, pix.getHeight());
+		// Top-left comes from the bottom-left of the crop
+		assertEquals(1 * 16 + 1, Color.red(pix.getPixel(0, 0)));
+		assertEquals(0 * 16 + 1, Color.red(pix.getPixel(1, 0)));
+		assertEquals(1 * 16 + 3, Color.red(pix.getPixel(0, 2)));
+		pix.recycle();
+
+		pix = ReadFile.readYPlane(plane, width, height, rowStride, pixelStride, crop, 180);
+		assertEquals(3, pix.getWidth());
+		assertEquals(2, pix.getHeight());
+		assertEquals(1 * 16 + 3, Color.red(pix.getPixel(0, 0)));
+		assertEquals(0 * 16 + 1, Color.red(pix.getPixel(2, 1)));
+		pix.recycle();
+
+		pix = ReadFile.readYPlane(plane, width, height, rowStride, pixelStride, crop, 270);
+		assertEquals(2, pix.getWidth());
+		assertEquals(3, pix.getHeight());
+		// Top-left comes from the top-right of the crop
+		assertEquals(0 * 16 + 3, Color.red(pix.getPixel(0, 0)));
+		assertEquals(1 * 16 + 1, Color.red(pix.getPixel(1, 2)));
+		pix.recycle();
+	}
+
+	private static ByteBuffer createYPlane(int width, int height, int rowStride, int pixelStride) {
+		ByteBuffer plane = ByteBuffer.allocateDirect(rowStride * height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				plane.put(y * rowStride + x * pixelStride, (byte) (y * 16 + x));
+			}
+		}
+		return plane;
+	}
 }
@@ -18,12 +18,14 @@
 package com.googlecode.leptonica.android;
 
 import android.graphics.Bitmap;
+import android.graphics.Color;
 
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -59,6 +61,76 @@ public class WriteFileTest {
 		assertTrue("Images do not match. match=" + match, (match >= 0.99f));
 	}
 
+	@Test
+	public void testWriteBitmap_doesNotModifySource() {
+		Pix pix = TestUtils.createTestPix(101, 100);
+		byte[] data = pix.getData();
+
+		Bitmap bmp = WriteFile.writeBitmap(pix);
+		assertNotNull(bmp);
+		assertArrayEquals(data, pix.getData());
+
+		// Pix without alpha gives opaque bitmap
+		assertEquals(0xFF, Color.alpha(bmp.getPixel(0, 0)));
+
+		pix.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testWriteBitmap_8bpp() {
+		Pix pixs = TestUtils.createTestPix(101, 100);
+		Pix pix = Convert.convertTo8(pixs);
+		Bitmap bmp = WriteFile.writeBitmap(pix);
+		assertNotNull(bmp);
+
+		for (int y = 0; y < pix.getHeight(); y += 9) {
+			for (int x = 0; x < pix.getWidth(); x++) {
+				assertEquals(pix.getPixel(x, y), bmp.getPixel(x, y));
+			}
+		}
+
+		pixs.recycle();
+		pix.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testWriteBitmap_1bpp() {
+		Pix pixs = TestUtils.createTestPix(101, 100);
+		Pix pix = GrayQuant.pixThresholdToBinary(Convert.convertTo8(pixs), 128);
+		Bitmap bmp = WriteFile.writeBitmap(pix);
+		assertNotNull(bmp);
+
+		// Top left is white, top right is black, foreground (1) is black
+		assertEquals(Color.WHITE, bmp.getPixel(10, 10));
+		assertEquals(Color.BLACK, bmp.getPixel(90, 10));
+		assertEquals(Color.BLACK, bmp.getPixel(100, 10));
+
+		pixs.recycle();
+		pix.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testWriteBitmap_4bpp() {
+		Pix pix = new Pix(33, 2, 4);
+		for (int x = 0; x < pix.getWidth(); x++) {
+			pix.setPixel(x, 0, Color.WHITE);
+			pix.setPixel(x, 1, Color.BLACK);
+		}
+		Bitmap bmp = WriteFile.writeBitmap(pix);
+		assertNotNull(bmp);
+
+		for (int x = 0; x < pix.getWidth(); x++) {
+			assertEquals(Color.WHITE, bmp.getPixel(x, 0));
+			assertEquals(Color.BLACK, bmp.getPixel(x, 1));
+		}
+
+		pix.recycle();
+		bmp.recycle();
+	}
+
 	@Test
 	public void testWriteBytes8_1x1() {
 		testWriteBytes8(1, 1);
@@ -34,6 +34,7 @@ import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
 import android.graphics.Rect;
 import android.os.AsyncTask;
+import android.os.Build;
 import android.text.Html;
 import android.util.Pair;
 
@@ -41,8 +42,12 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
 import androidx.test.platform.app.InstrumentationRegistry;
 
+import com.googlecode.leptonica.android.Box;
+import com.googlecode.leptonica.android.Clip;
 import com.googlecode.leptonica.android.Pix;
 import com.googlecode.leptonica.android.Pixa;
+import com.googlecode.leptonica.android.ReadFile;
+import com.googlecode.leptonica.android.Scale;
 import com.googlecode.tesseract.android.TessBaseAPI.PageIteratorLevel;
 import com.googlecode.tesseract.android.TessBaseAPI.ProgressNotifier;
 import com.googlecode.tesseract.android.TessBaseAPI.ProgressValues;
@@ -51,13 +56,23 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @SmallTest
 @RunWith(AndroidJUnit4.class)
@@ -121,7 +136,7 @@ public class TessBaseAPITest {
 		bmp.recycle();
 	}
 
-	private static Bitmap getTextImage(String text, int width, int height) {
+	static Bitmap getTextImage(String text, int width, int height) {
 		final Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
 
 		final Canvas canvas = new Canvas(bmp);
@@ -280,6 +295,86 @@ public class TessBaseAPITest {
 		baseApi.recycle();
 	}
 
+	@Test
+	public void testGetResultSnapshot() {
+		final String inputText = "one two three";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+		baseApi.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
+		baseApi.setImage(bmp);
+		baseApi.getUTF8Text();
+
+		ResultSnapshot snapshot = baseApi.getResultSnapshot(PageIteratorLevel.RIL_WORD);
+		assertNotNull(snapshot);
+		assertEquals(PageIteratorLevel.RIL_WORD, snapshot.getLevel());
+
+		// Block, paragraph and line precede the words, each is the parent of the next
+		assertEquals(PageIteratorLevel.RIL_BLOCK, snapshot.getLevel(0));
+		assertEquals(-1, snapshot.getParent(0));
+		assertEquals(PageIteratorLevel.RIL_TEXTLINE, snapshot.getLevel(2));
+		assertEquals(1, snapshot.getParent(2));
+
+		StringBuilder words = new StringBuilder();
+		for (int i = 0; i < snapshot.size(); i++) {
+			if (snapshot.getLevel(i) != PageIteratorLevel.RIL_WORD)
+				continue;
+
+			assertEquals(PageIteratorLevel.RIL_TEXTLINE, snapshot.getLevel(snapshot.getParent(i)));
+			assertTrue(snapshot.getConfidence(i) > 0);
+			assertTrue(snapshot.getBoundingRect(i).width() > 0);
+			assertTrue(snapshot.getBoundingRect(snapshot.getParent(i))
+					.contains(snapshot.getBoundingRect(i)));
+
+			if (words.length() > 0)
+				words.append(' ');
+			words.append(snapshot.getText(i).trim());
+		}
+		assertEquals(inputText, words.toString());
+
+		assertEquals(inputText, baseApi.getConfidentText(0, PageIteratorLevel.RIL_WORD));
+		assertEquals("", baseApi.getConfidentText(101, PageIteratorLevel.RIL_WORD));
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testRecognizeCascade() {
+		final String inputText = "one two three";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+		final Pix pix = ReadFile.readBitmap(bmp);
+
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		assertTrue(baseApi.init(tessDataPath, language));
+		final TessBaseAPI refiner = new TessBaseAPI();
+		assertTrue(refiner.init(tessDataPath, language));
+		refiner.setPageSegMode(TessBaseAPI.PageSegMode.PSM_AUTO);
+
+		// Nothing below the threshold, refiner is not used
+		ResultSnapshot snapshot = baseApi.recognizeCascade(pix, refiner, 0, PageIteratorLevel.RIL_TEXTLINE);
+		assertNotNull(snapshot);
+		assertEquals(inputText, snapshot.getText());
+
+		// Everything is re-recognized, results are merged back
+		snapshot = baseApi.recognizeCascade(pix, refiner, 101, PageIteratorLevel.RIL_WORD);
+		assertNotNull(snapshot);
+		assertEquals(PageIteratorLevel.RIL_WORD, snapshot.getLevel());
+		assertEquals(inputText, snapshot.getText());
+		assertEquals(TessBaseAPI.PageSegMode.PSM_AUTO, refiner.getPageSegMode());
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		refiner.recycle();
+		pix.recycle();
+		bmp.recycle();
+	}
+
 	@Test
 	public void testGetThresholdedImage() {
 		// Attempt to initialize the API.
@@ -447,6 +542,210 @@ public class TessBaseAPITest {
 		bmp.recycle();
 	}
 
+	@Test
+	public void testInit_memoryMapped() {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean result = baseApi.init(tessDataPath, language, TessBaseAPI.OEM_DEFAULT,
+				Collections.emptyMap(), TessBaseAPI.InitFlags.MEMORY_MAPPED);
+		assertTrue("Init was unsuccessful.", result);
+
+		TessBaseAPI.InitStats stats = baseApi.getLastInitStats();
+		assertNotNull(stats);
+		assertEquals(TessBaseAPI.InitFlags.MEMORY_MAPPED, stats.getFlags());
+		assertTrue(stats.getInitTimeMillis() >= 0);
+
+		baseApi.setImage(bmp);
+		assertEquals(inputText, baseApi.getUTF8Text());
+
+		// Multiple languages fall back to regular init.
+		result = baseApi.init(tessDataPath, language + "+" + language, TessBaseAPI.OEM_DEFAULT,
+				Collections.emptyMap(), TessBaseAPI.InitFlags.MEMORY_MAPPED);
+		assertTrue("Init was unsuccessful.", result);
+		assertEquals(0, baseApi.getLastInitStats().getFlags());
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testInit_shareLstm() {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+		final int sharedBefore = TessBaseAPI.getSharedLstmCount();
+
+		// Attempt to initialize two APIs sharing the network.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		final TessBaseAPI otherApi = new TessBaseAPI();
+		boolean result = baseApi.init(tessDataPath, language, TessBaseAPI.OEM_LSTM_ONLY,
+				Collections.emptyMap(), TessBaseAPI.InitFlags.SHARE_LSTM);
+		assertTrue("Init was unsuccessful.", result);
+		assertEquals(TessBaseAPI.InitFlags.SHARE_LSTM, baseApi.getLastInitStats().getFlags());
+		result = otherApi.init(tessDataPath, language, TessBaseAPI.OEM_LSTM_ONLY,
+				Collections.emptyMap(), TessBaseAPI.InitFlags.SHARE_LSTM);
+		assertTrue("Init was unsuccessful.", result);
+		assertEquals(sharedBefore + 1, TessBaseAPI.getSharedLstmCount());
+
+		baseApi.setImage(bmp);
+		otherApi.setImage(bmp);
+		assertEquals(inputText, baseApi.getUTF8Text());
+		assertEquals(inputText, otherApi.getUTF8Text());
+
+		// Network stays while any API uses it.
+		baseApi.recycle();
+		assertEquals(sharedBefore + 1, TessBaseAPI.getSharedLstmCount());
+		otherApi.clear();
+		otherApi.setImage(bmp);
+		assertEquals(inputText, otherApi.getUTF8Text());
+
+		// Attempt to shut down the API.
+		otherApi.recycle();
+		assertEquals(sharedBefore, TessBaseAPI.getSharedLstmCount());
+		bmp.recycle();
+	}
+
+	@Test
+	public void testInit_quantizeLstm() {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean result = baseApi.init(tessDataPath, language, TessBaseAPI.OEM_LSTM_ONLY,
+				Collections.emptyMap(), TessBaseAPI.InitFlags.QUANTIZE_LSTM);
+		assertTrue("Init was unsuccessful.", result);
+
+		TessBaseAPI.InitStats stats = baseApi.getLastInitStats();
+		assertNotNull(stats);
+		assertEquals(TessBaseAPI.InitFlags.QUANTIZE_LSTM, stats.getFlags());
+		assertTrue(stats.getQuantization() != TessBaseAPI.Quantization.NONE);
+		final TessBaseAPI.InitStats firstStats = stats;
+
+		baseApi.setImage(bmp);
+		assertEquals(inputText, baseApi.getUTF8Text());
+
+		// Converted model is loaded from the cache the next time.
+		result = baseApi.init(tessDataPath, language, TessBaseAPI.OEM_LSTM_ONLY,
+				Collections.emptyMap(), TessBaseAPI.InitFlags.QUANTIZE_LSTM);
+		assertTrue("Init was unsuccessful.", result);
+		stats = baseApi.getLastInitStats();
+		assertTrue(stats.getQuantization() == TessBaseAPI.Quantization.CACHED
+				|| stats.getQuantization() == TessBaseAPI.Quantization.ALREADY_INT);
+		assertEquals(0, stats.getQuantizeTimeMillis());
+		if (firstStats.getQuantization() == TessBaseAPI.Quantization.CONVERTED) {
+			// Cache hit reports the time the conversion took.
+			assertEquals(firstStats.getQuantizeTimeMillis(), stats.getQuantizeTimeSavedMillis());
+		} else if (stats.getQuantization() == TessBaseAPI.Quantization.ALREADY_INT) {
+			assertEquals(0, stats.getQuantizeTimeSavedMillis());
+		}
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testInit_quantizeLstmConcurrently() throws InterruptedException {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+
+		// Start without a cache, so all engines convert the model at once.
+		final File[] caches = new File(tessDataPath, "tessdata").listFiles(
+				(dir, name) -> name.startsWith(language + ".traineddata."));
+		if (caches != null) {
+			for (File cache : caches) {
+				assertTrue(cache.delete());
+			}
+		}
+
+		final int count = 4;
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final String[] texts = new String[count];
+		final Thread[] threads = new Thread[count];
+		for (int i = 0; i < count; i++) {
+			final int index = i;
+			threads[i] = new Thread(() -> {
+				final TessBaseAPI baseApi = new TessBaseAPI();
+				try {
+					startLatch.await();
+					if (baseApi.init(tessDataPath, language, TessBaseAPI.OEM_LSTM_ONLY,
+							Collections.emptyMap(), TessBaseAPI.InitFlags.QUANTIZE_LSTM)) {
+						baseApi.setImage(bmp);
+						texts[index] = baseApi.getUTF8Text();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					baseApi.recycle();
+				}
+			});
+			threads[i].start();
+		}
+		startLatch.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (String text : texts) {
+			assertEquals(inputText, text);
+		}
+
+		// Ensure the cache written by the concurrent conversions is valid.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean result = baseApi.init(tessDataPath, language, TessBaseAPI.OEM_LSTM_ONLY,
+				Collections.emptyMap(), TessBaseAPI.InitFlags.QUANTIZE_LSTM);
+		assertTrue("Init was unsuccessful.", result);
+		TessBaseAPI.InitStats stats = baseApi.getLastInitStats();
+		assertTrue(stats.getQuantization() == TessBaseAPI.Quantization.CACHED
+				|| stats.getQuantization() == TessBaseAPI.Quantization.ALREADY_INT);
+
+		baseApi.setImage(bmp);
+		assertEquals(inputText, baseApi.getUTF8Text());
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testInit_byteBuffer() throws IOException {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+		final File trainedData = new File(tessDataPath, "tessdata/" + language + ".traineddata");
+
+		final TessBaseAPI baseApi = new TessBaseAPI();
+
+		// Mapped buffer is direct and passed to the engine without copying.
+		try (FileInputStream in = new FileInputStream(trainedData)) {
+			FileChannel channel = in.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			assertTrue("Init was unsuccessful.", baseApi.init(buffer, language,
+					TessBaseAPI.OEM_DEFAULT));
+		}
+
+		baseApi.setImage(bmp);
+		assertEquals(inputText, baseApi.getUTF8Text());
+
+		// Heap buffer.
+		byte[] content = new byte[(int) trainedData.length()];
+		try (DataInputStream in = new DataInputStream(new FileInputStream(trainedData))) {
+			in.readFully(content);
+		}
+		assertTrue("Init was unsuccessful.", baseApi.init(ByteBuffer.wrap(content), language,
+				TessBaseAPI.OEM_LSTM_ONLY));
+
+		baseApi.setImage(bmp);
+		assertEquals(inputText, baseApi.getUTF8Text());
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
 	@Test
 	public void testProgressValues() {
 		final String inputText = "hello";
@@ -482,6 +781,46 @@ public class TessBaseAPITest {
 		bmp.recycle();
 	}
 
+	@Test
+	public void testProgressListener() {
+		StringBuilder inputTextBuilder = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			inputTextBuilder.append("The quick brown fox jumps over the lazy dog.\n");
+		}
+		final Bitmap bmp = getTextImage(inputTextBuilder.toString(), 640, 480);
+
+		final List<Integer> percents = new ArrayList<>();
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+
+		// Callback for every word without limits
+		baseApi.setProgressListener((percent, wordLeft, wordTop, wordRight, wordBottom) -> {
+			assertTrue(wordLeft <= wordRight);
+			assertTrue(wordTop <= wordBottom);
+			percents.add(percent);
+		}, 0, 0);
+		baseApi.setImage(bmp);
+		baseApi.getUTF8Text();
+		final int unlimitedCount = percents.size();
+		assertTrue(unlimitedCount > 0);
+
+		// Only when the percent grows by at least 10
+		percents.clear();
+		baseApi.setProgressListener((percent, wordLeft, wordTop, wordRight, wordBottom) ->
+				percents.add(percent), 10, 0);
+		baseApi.setImage(bmp);
+		baseApi.getUTF8Text();
+		assertTrue(percents.size() < unlimitedCount);
+		for (int i = 1; i < percents.size(); i++) {
+			assertTrue(percents.get(i) - percents.get(i - 1) >= 10);
+		}
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
 	@Test
 	public void testProgressValues_setRectangle() {
 		class Notifier implements ProgressNotifier {
@@ -601,6 +940,59 @@ public class TessBaseAPITest {
 		bmp.recycle();
 	}
 
+	@Test
+	public void testSetImage_bitmapGray() {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+		baseApi.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
+
+		baseApi.setImage(bmp, true);
+		assertEquals(inputText, baseApi.getUTF8Text());
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testSetImage_byteBuffer() {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+		baseApi.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE);
+
+		// ARGB_8888 pixels are stored as RGBA bytes
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bmp.getByteCount());
+		bmp.copyPixelsToBuffer(buffer);
+		buffer.rewind();
+
+		baseApi.setImage(buffer, bmp.getWidth(), bmp.getHeight(), 4, bmp.getRowBytes());
+		assertEquals(0, buffer.position());
+		assertEquals(inputText, baseApi.getUTF8Text());
+
+		// Heap buffers are rejected
+		try {
+			baseApi.setImage(ByteBuffer.allocate(bmp.getByteCount()), bmp.getWidth(),
+					bmp.getHeight(), 4, bmp.getRowBytes());
+			fail("Non-direct buffer must be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
 	@Test
 	public void testSetImage_file() throws IOException {
 		// Attempt to initialize the API.
@@ -709,6 +1101,107 @@ public class TessBaseAPITest {
 		bmp.recycle();
 	}
 
+	@Test
+	public void testSetAutoScale() {
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+
+		final int width = 2400;
+		final int height = 1200;
+		final Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+		final Paint paint = new Paint();
+		final Canvas canvas = new Canvas(bmp);
+
+		canvas.drawColor(Color.WHITE);
+
+		paint.setColor(Color.BLACK);
+		paint.setStyle(Style.FILL);
+		paint.setAntiAlias(true);
+		paint.setTextAlign(Align.CENTER);
+		paint.setTextSize(120.0f);
+
+		// Draw text several times larger than the models need.
+		final String inputText = "the quick brown fox";
+		canvas.drawText(inputText, width / 2, height / 3, paint);
+		canvas.drawText(inputText, width / 2, height * 2 / 3, paint);
+
+		baseApi.setAutoScale(TessBaseAPI.DEFAULT_AUTO_SCALE_X_HEIGHT);
+		baseApi.setImage(bmp);
+
+		// Ensure the image was scaled down and the text is still recognized.
+		final float scale = baseApi.getImageScale();
+		assertTrue("Image was not scaled down.", scale < 1.0f);
+		final String result = baseApi.getUTF8Text();
+		assertEquals("Found incorrect text.", inputText + "\n" + inputText, result);
+
+		// Ensure the word boxes are in the coordinates of the original image.
+		final ResultIterator iterator = baseApi.getResultIterator();
+		iterator.begin();
+		int[] box = iterator.getBoundingBox(PageIteratorLevel.RIL_TEXTLINE);
+		assertTrue("Line box is in scaled coordinates.", box[2] > width / 2);
+		assertTrue("Line box is outside of the image.", box[0] >= 0 && box[2] <= width);
+		assertTrue("Line box is not around the first line.",
+				box[1] < height / 3 && box[3] > height / 3 - 120);
+		iterator.delete();
+
+		// Ensure the iterator maps the boxes the same way as the snapshot.
+		final ResultSnapshot snapshot = baseApi.getResultSnapshot(PageIteratorLevel.RIL_WORD);
+		final ResultIterator words = baseApi.getResultIterator();
+		words.begin();
+		for (int i = 0; i < snapshot.size(); i++) {
+			if (snapshot.getLevel(i) != PageIteratorLevel.RIL_WORD)
+				continue;
+			assertEquals(snapshot.getBoundingRect(i), words.getBoundingRect(PageIteratorLevel.RIL_WORD));
+			words.next(PageIteratorLevel.RIL_WORD);
+		}
+		words.delete();
+
+		// Ensure the scaling can be disabled again.
+		baseApi.setAutoScale(TessBaseAPI.AUTO_SCALE_DISABLED);
+		baseApi.setImage(bmp);
+		assertEquals("Image was scaled.", 1.0f, baseApi.getImageScale(), 0.0f);
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testSetImage_pixTransform() {
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+		final Pix pixs = ReadFile.readBitmap(bmp);
+		pixs.trackTransform();
+
+		// Recognize an enlarged cut-out of the middle of the image.
+		final Pix clipped = Clip.clipRectangle(pixs, new Box(160, 120, 320, 240));
+		final Pix pixd = Scale.scale(clipped, 2.0f);
+		baseApi.setImage(pixd);
+		assertEquals("Found incorrect text.", inputText, baseApi.getUTF8Text());
+
+		// Ensure the box is in the coordinates of the source image, around its center.
+		final ResultIterator iterator = baseApi.getResultIterator();
+		iterator.begin();
+		final Rect box = iterator.getBoundingRect(PageIteratorLevel.RIL_WORD);
+		assertTrue("Word box " + box + " is not around the text.",
+				box.contains(320, 235) && box.width() < 160 && box.height() < 60);
+		iterator.delete();
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		pixs.recycle();
+		clipped.recycle();
+		pixd.recycle();
+		bmp.recycle();
+	}
+
 	@Test
 	public void testGetVariable() {
 		// Attempt to initialize the API.
@@ -803,6 +1296,156 @@ public class TessBaseAPITest {
 		bmp.recycle();
 	}
 
+	@Test
+	public void testGetUTF8Text_timeout() {
+		StringBuilder inputTextBuilder = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			inputTextBuilder.append("The quick brown fox jumps over the lazy dog.\n");
+		}
+		final Bitmap bmp = getTextImage(inputTextBuilder.toString(), 640, 1000);
+
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+		baseApi.setImage(bmp);
+
+		// Recognition of the whole image takes much longer than this
+		String text = baseApi.getUTF8Text(1);
+		assertNotNull(text);
+		assertEquals(TessBaseAPI.RecognitionStatus.TIMED_OUT, baseApi.getLastStatus());
+
+		// Results of the stopped recognition are kept, not recognized again
+		assertEquals(text, baseApi.getUTF8Text());
+		assertEquals(TessBaseAPI.RecognitionStatus.TIMED_OUT, baseApi.getLastStatus());
+
+		// New image resets the status
+		final Bitmap smallBmp = getTextImage("hello", 640, 480);
+		baseApi.setImage(smallBmp);
+		assertEquals(TessBaseAPI.RecognitionStatus.OK, baseApi.getLastStatus());
+		assertEquals(TessBaseAPI.RecognitionStatus.OK, baseApi.recognize(0));
+		assertEquals("hello", baseApi.getUTF8Text());
+
+		baseApi.recycle();
+		bmp.recycle();
+		smallBmp.recycle();
+	}
+
+	@Test
+	public void testRecognizeAsync_timeout() throws Exception {
+		StringBuilder inputTextBuilder = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			inputTextBuilder.append("The quick brown fox jumps over the lazy dog.\n");
+		}
+		final Bitmap bmp = getTextImage(inputTextBuilder.toString(), 640, 1000);
+		final Pix pix = ReadFile.readBitmap(bmp);
+
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+
+		OcrFuture task = baseApi.recognizeAsync(pix, new RecognitionOptions()
+				.setTimeoutMillis(1));
+		pix.recycle();
+
+		OcrResult result = task.get(30, TimeUnit.SECONDS);
+		assertEquals(TessBaseAPI.RecognitionStatus.TIMED_OUT, result.getStatus());
+
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testRecognizeAsync() throws Exception {
+		final String inputText = "hello";
+		final Bitmap bmp = getTextImage(inputText, 640, 480);
+		final Pix pix = ReadFile.readBitmap(bmp);
+
+		// Attempt to initialize the API.
+		final TessBaseAPI baseApi = new TessBaseAPI();
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+
+		RecognitionOptions options = new RecognitionOptions()
+				.setPageSegMode(TessBaseAPI.PageSegMode.PSM_SINGLE_LINE)
+				.setHOCRText(true, 0);
+		OcrFuture first = baseApi.recognizeAsync(pix, options);
+		OcrFuture second = baseApi.recognizeAsync(pix, null);
+
+		// Image is cloned by the tasks.
+		pix.recycle();
+
+		final Semaphore listenerSem = new Semaphore(0);
+		first.addListener(listenerSem::release, Runnable::run);
+
+		OcrResult result = first.get(30, TimeUnit.SECONDS);
+		assertEquals(inputText, result.getText());
+		assertNotNull(result.getHOCRText());
+		assertTrue(result.getMeanConfidence() > 0);
+		assertTrue(listenerSem.tryAcquire(5, TimeUnit.SECONDS));
+
+		assertEquals(inputText, second.get(30, TimeUnit.SECONDS).getText());
+		assertNull(second.get().getHOCRText());
+
+		// Attempt to shut down the API.
+		baseApi.recycle();
+		bmp.recycle();
+	}
+
+	@Test
+	public void testRecognizeAsync_cancel() throws InterruptedException {
+		StringBuilder inputTextBuilder = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			inputTextBuilder.append("The quick brown fox jumps over the lazy dog.\n");
+		}
+		final Bitmap bmp = getTextImage(inputTextBuilder.toString(), 640, 1000);
+		final Pix pix = ReadFile.readBitmap(bmp);
+
+		final Semaphore progressSem = new Semaphore(0);
+		final TessBaseAPI baseApi = new TessBaseAPI(progressValues -> {
+			if (progressValues.getPercent() > 0) {
+				progressSem.release();
+			}
+		});
+		boolean success = baseApi.init(tessDataPath, language);
+		assertTrue(success);
+
+		OcrFuture running = baseApi.recognizeAsync(pix, null);
+		OcrFuture queued = baseApi.recognizeAsync(pix, null);
+		pix.recycle();
+
+		// Wait for recognition to start
+		progressSem.acquire();
+
+		assertTrue(running.cancel(true));
+		assertTrue(running.isCancelled());
+
+		// Listeners of the cancelled tasks run on the recycling thread, not
+		// under the engine's lock, so they may call back into the API
+		final AtomicBoolean calledBack = new AtomicBoolean();
+		queued.addListener(() -> {
+			Thread thread = new Thread(() -> {
+				try {
+					baseApi.recognizeAsync(pix, null);
+				} catch (IllegalStateException e) {
+					calledBack.set(true);
+				}
+			});
+			thread.start();
+			try {
+				thread.join(5000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, Runnable::run);
+
+		// Recycling cancels the queued task and releases the native data after the running one
+		baseApi.recycle();
+		assertTrue(queued.isCancelled());
+		assertTrue(calledBack.get());
+
+		bmp.recycle();
+	}
+
 	@Test
 	public void testWordConfidences() {
 		final String inputText = "one two three";
@@ -850,4 +1493,17 @@ public class TessBaseAPITest {
 		// Attempt to shut down the API.
 		baseApi.recycle();
 	}
+
+	@Test
+	public void testGetSimdKernel() {
+		final String kernel = TessBaseAPI.getSimdKernel();
+		assertNotNull("SIMD kernel returned null", kernel);
+
+		// Every supported ABI has some SIMD kernel, arm64 always has NEON.
+		if (Build.SUPPORTED_ABIS[0].equals("arm64-v8a"))
+			assertEquals("neon", kernel);
+		else
+			assertTrue("Unexpected SIMD kernel " + kernel,
+					Arrays.asList("neon", "avx2", "avx", "sse", "generic").contains(kernel));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.tesseract.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.googlecode.tesseract.android.TessEnginePool.EngineKey;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class TessEnginePoolTest {
+
+	private EngineKey key;
+	private TessEnginePool pool;
+
+	@Before
+	public void setup() {
+		Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+		// Copy language data to storage
+		Assets.extractAssets(context);
+
+		key = new EngineKey(Assets.getTessDataPath(context), Assets.getLanguage(),
+				TessBaseAPI.OEM_DEFAULT);
+		pool = new TessEnginePool(2, 0);
+	}
+
+	@After
+	public void tearDown() {
+		pool.recycle();
+	}
+
+	@Test
+	public void testBorrowRelease() throws InterruptedException {
+		final String inputText = "hello";
+		final Bitmap bmp = TessBaseAPITest.getTextImage(inputText, 640, 480);
+
+		TessBaseAPI baseApi = pool.borrow(key);
+		assertEquals(1, pool.getEngineCount(key));
+		assertEquals(0, pool.getIdleCount(key));
+
+		baseApi.setImage(bmp);
+		assertEquals(inputText, baseApi.getUTF8Text());
+		pool.release(baseApi);
+		assertEquals(1, pool.getIdleCount(key));
+
+		// Released engine is reused and ready for another image
+		TessBaseAPI reused = pool.borrow(key);
+		assertSame(baseApi, reused);
+		reused.setImage(bmp);
+		assertEquals(inputText, reused.getUTF8Text());
+		pool.release(reused);
+
+		bmp.recycle();
+	}
+
+	@Test
+	public void testBorrowLimit() throws InterruptedException {
+		TessBaseAPI first = pool.borrow(key);
+		TessBaseAPI second = pool.borrow(key);
+		assertNotSame(first, second);
+		assertEquals(2, pool.getEngineCount(key));
+
+		// Limit reached, must time out
+		assertNull(pool.borrow(key, 100, TimeUnit.MILLISECONDS));
+
+		// Waiting borrower gets the released engine
+		new Thread(() -> pool.release(first)).start();
+		TessBaseAPI third = pool.borrow(key, 10, TimeUnit.SECONDS);
+		assertSame(first, third);
+
+		pool.release(second);
+		pool.release(third);
+		assertEquals(2, pool.getIdleCount(key));
+	}
+
+	@Test
+	public void testReleaseForeignEngine() {
+		TessBaseAPI baseApi = new TessBaseAPI();
+		try {
+			pool.release(baseApi);
+			fail("Engine not borrowed from the pool must be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		} finally {
+			baseApi.recycle();
+		}
+	}
+
+	@Test
+	public void testPrewarm() throws Exception {
+		pool.prewarm(key, 5).get(30, TimeUnit.SECONDS);
+
+		// Limited by the maximum number of engines per key
+		assertEquals(2, pool.getEngineCount(key));
+		assertEquals(2, pool.getIdleCount(key));
+
+		TessBaseAPI baseApi = pool.borrow(key, 0, TimeUnit.MILLISECONDS);
+		assertNotNull(baseApi);
+		pool.release(baseApi);
+	}
+
+	@Test
+	public void testEvictIdle() throws Exception {
+		TessEnginePool evictingPool = new TessEnginePool(1, 50);
+		try {
+			TessBaseAPI baseApi = evictingPool.borrow(key);
+			evictingPool.release(baseApi);
+			assertEquals(1, evictingPool.getIdleCount(key));
+
+			Thread.sleep(500);
+			assertEquals(0, evictingPool.getEngineCount(key));
+		} finally {
+			evictingPool.recycle();
+		}
+	}
+
+	@Test
+	public void testEngineRecycledByBorrower() throws InterruptedException {
+		TessBaseAPI baseApi = pool.borrow(key);
+		baseApi.recycle();
+		pool.release(baseApi);
+
+		assertEquals(0, pool.getEngineCount(key));
+		TessBaseAPI fresh = pool.borrow(key);
+		assertNotSame(baseApi, fresh);
+		pool.release(fresh);
+		assertTrue(pool.getIdleCount(key) > 0);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.tesseract.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.googlecode.leptonica.android.Constants;
+import com.googlecode.leptonica.android.Pix;
+import com.googlecode.leptonica.android.Pixa;
+import com.googlecode.leptonica.android.ReadFile;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class TessLineRecognizerTest {
+
+	private File traineddata;
+
+	@Before
+	public void setup() {
+		Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+		// Copy language data to storage
+		Assets.extractAssets(context);
+
+		traineddata = new File(Assets.getTessDataPath(context),
+				"tessdata/" + Assets.getLanguage() + ".traineddata");
+	}
+
+	@Test
+	public void testRecognize() {
+		final String[] inputTexts = {"hello", "one two three"};
+
+		final Pixa lines = Pixa.createPixa(inputTexts.length);
+		for (String inputText : inputTexts) {
+			final Bitmap bmp = TessBaseAPITest.getTextImage(inputText, 320, 48);
+			final Pix pix = ReadFile.readBitmap(bmp);
+			lines.addPix(pix, Constants.L_CLONE);
+			pix.recycle();
+			bmp.recycle();
+		}
+
+		final TessLineRecognizer recognizer = new TessLineRecognizer(traineddata);
+		TessLineRecognizer.Result[] results = recognizer.recognize(lines);
+
+		assertEquals(inputTexts.length, results.length);
+		for (int i = 0; i < inputTexts.length; i++) {
+			assertEquals(inputTexts[i], results[i].getText());
+			assertTrue(results[i].getConfidence() > 0);
+		}
+
+		// Recognizing again gives the same results
+		TessLineRecognizer.Result[] again = recognizer.recognize(lines);
+		for (int i = 0; i < inputTexts.length; i++) {
+			assertEquals(results[i].getText(), again[i].getText());
+			assertEquals(results[i].getConfidence(), again[i].getConfidence(), 0.0f);
+		}
+
+		final Pixa empty = Pixa.createPixa(0);
+		assertEquals(0, recognizer.recognize(empty).length);
+		empty.recycle();
+
+		recognizer.recycle();
+		try {
+			recognizer.recognize(lines);
+			fail("Recognizing with recycled recognizer should throw");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+
+		lines.recycle();
+	}
+
+	@Test
+	public void testRecognize_batchMatchesSingleLines() {
+		final String[] inputTexts = {"hello", "one two three", "a", "the quick brown fox",
+				"jumps over", "the lazy dog"};
+		final int[] widths = {160, 320, 48, 480, 240, 320};
+
+		final Pixa lines = Pixa.createPixa(inputTexts.length);
+		for (int i = 0; i < inputTexts.length; i++) {
+			final Bitmap bmp = TessBaseAPITest.getTextImage(inputTexts[i], widths[i], 48);
+			final Pix pix = ReadFile.readBitmap(bmp);
+			lines.addPix(pix, Constants.L_CLONE);
+			pix.recycle();
+			bmp.recycle();
+		}
+
+		// Lines of different widths are padded and run in one batch
+		final TessLineRecognizer recognizer = new TessLineRecognizer(traineddata);
+		final TessLineRecognizer.Result[] results = recognizer.recognize(lines);
+		assertEquals(inputTexts.length, results.length);
+
+		// Each line on its own gives the same results
+		for (int i = 0; i < inputTexts.length; i++) {
+			final Pixa single = Pixa.createPixa(1);
+			final Pix pix = lines.getPix(i);
+			single.addPix(pix, Constants.L_CLONE);
+			pix.recycle();
+
+			final TessLineRecognizer.Result[] singleResults = recognizer.recognize(single);
+			assertEquals(results[i].getText(), singleResults[0].getText());
+			assertEquals(results[i].getConfidence(), singleResults[0].getConfidence(), 0.0f);
+			single.recycle();
+		}
+
+		recognizer.recycle();
+		lines.recycle();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCreate_missingFile() {
+		new TessLineRecognizer(new File(traineddata.getParentFile(), "missing.traineddata"));
+	}
+}
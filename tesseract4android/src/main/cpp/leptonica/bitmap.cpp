@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2019 Adaptech s.r.o., Robert Pösel
+ * Copyright 2011, Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "common.h"
+#include "pixconv.h"
+
+#include <cstring>
+#include <android/bitmap.h>
+
+/*
+ * Conversions between Pix and android.graphics.Bitmap, built only for Android.
+ */
+
+#ifdef __cplusplus
+extern "C" {
+#endif  /* __cplusplus */
+
+/************
+ * ReadFile *
+ ************/
+
+/**
+ * Creates a Pix of the given depth (32 or 8) from a RGBA_8888 bitmap, converting
+ * the pixels row by row.
+ */
+static PIX *readBitmap(JNIEnv *env, jobject bitmap, l_int32 depth) {
+  AndroidBitmapInfo info;
+  void* pixels;
+  int ret;
+
+  if ((ret = AndroidBitmap_getInfo(env, bitmap, &info)) < 0) {
+    LOGE("AndroidBitmap_getInfo() failed! error=%d", ret);
+    return NULL;
+  }
+
+  if (info.format != ANDROID_BITMAP_FORMAT_RGBA_8888) {
+    LOGE("Bitmap format is not RGBA_8888!");
+    return NULL;
+  }
+
+  PIX *pixd = pixCreate(info.width, info.height, depth);
+  if (!pixd) {
+    LOGE("Failed to create pix object with w=%d, h=%d, d=%d", info.width, info.height, depth);
+    return NULL;
+  }
+
+  if ((ret = AndroidBitmap_lockPixels(env, bitmap, &pixels)) < 0) {
+    LOGE("AndroidBitmap_lockPixels() failed! error=%d", ret);
+    pixDestroy(&pixd);
+    return NULL;
+  }
+
+  const l_uint8 *src = (const l_uint8 *) pixels;
+  l_uint32 *dst = pixGetData(pixd);
+  l_int32 dstWpl = pixGetWpl(pixd);
+
+  for (l_uint32 y = 0; y < info.height; y++) {
+    const l_uint8 *src_line = src + y * info.stride;
+    l_uint32 *dst_line = dst + y * dstWpl;
+
+    if (depth == 8)
+      convertRgbaToGrayRow(src_line, dst_line, info.width);
+    else
+      convertRgbaRow(src_line, dst_line, info.width);
+  }
+
+  AndroidBitmap_unlockPixels(env, bitmap);
+
+  return pixd;
+}
+
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadBitmap(JNIEnv *env, jclass clazz,
+                                                                      jobject bitmap) {
+  return (jlong) readBitmap(env, bitmap, 32);
+}
+
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadBitmapGray(JNIEnv *env,
+                                                                          jclass clazz,
+                                                                          jobject bitmap) {
+  return (jlong) readBitmap(env, bitmap, 8);
+}
+
+/*************
+ * WriteFile *
+ *************/
+
+jboolean Java_com_googlecode_leptonica_android_WriteFile_nativeWriteBitmap(JNIEnv *env,
+                                                                           jclass clazz,
+                                                                           jlong nativePix,
+                                                                           jobject bitmap) {
+  PIX *pixs = (PIX *) nativePix;
+
+  l_int32 w, h, d;
+  AndroidBitmapInfo info;
+  void* pixels;
+  int ret;
+
+  if ((ret = AndroidBitmap_getInfo(env, bitmap, &info)) < 0) {
+    LOGE("AndroidBitmap_getInfo() failed ! error=%d", ret);
+    return JNI_FALSE;
+  }
+
+  if (info.format != ANDROID_BITMAP_FORMAT_RGBA_8888) {
+    LOGE("Bitmap format is not RGBA_8888 !");
+    return JNI_FALSE;
+  }
+
+  pixGetDimensions(pixs, &w, &h, &d);
+
+  if (w != info.width || h != info.height) {
+    LOGE("Bitmap width and height do not match Pix dimensions!");
+    return JNI_FALSE;
+  }
+
+  PIXCMAP *cmap = pixGetColormap(pixs);
+  if (d != 1 && d != 2 && d != 4 && d != 8 && d != 16 && d != 32) {
+    LOGE("Unsupported Pix depth %d", d);
+    return JNI_FALSE;
+  }
+
+  // Colors of all possible pixel values for depths up to 8 bits, except
+  // plain 8bpp grayscale which has its own conversion
+  l_uint32 lut[256];
+  const bool useLut = d < 8 || (d == 8 && cmap != NULL);
+  if (useLut) {
+    const l_int32 maxVal = (1 << d) - 1;
+    for (l_int32 i = 0; i <= maxVal; i++) {
+      l_int32 r, g, b, a = 0xFF;
+      if (cmap != NULL) {
+        if (pixcmapGetRGBA(cmap, i, &r, &g, &b, &a) != 0)
+          r = g = b = 0;
+      } else if (d == 1) {
+        // 1 is black
+        r = g = b = i ? 0x00 : 0xFF;
+      } else {
+        r = g = b = i * 255 / maxVal;
+      }
+      const l_uint8 rgba[4] = {(l_uint8) r, (l_uint8) g, (l_uint8) b, (l_uint8) a};
+      memcpy(&lut[i], rgba, sizeof(rgba));
+    }
+  }
+  // Alpha is used only if the Pix has it, otherwise it is usually 0
+  const bool opaque = pixGetSpp(pixs) != 4;
+
+  if ((ret = AndroidBitmap_lockPixels(env, bitmap, &pixels)) < 0) {
+    LOGE("AndroidBitmap_lockPixels() failed ! error=%d", ret);
+    return JNI_FALSE;
+  }
+
+  // The source is only read, so it may be used by other threads at the same time
+  l_uint8 *dst = (l_uint8 *) pixels;
+  const l_uint32 *src = pixGetData(pixs);
+  const l_int32 srcWpl = pixGetWpl(pixs);
+
+  for (l_int32 y = 0; y < h; y++) {
+    l_uint8 *dst_line = dst + y * info.stride;
+    l_uint32 *dst_pixels = (l_uint32 *) dst_line;
+    const l_uint32 *src_line = src + y * srcWpl;
+
+    if (d == 32) {
+      convertPixRowToRgba(src_line, dst_line, w, opaque);
+    } else if (d == 8 && !useLut) {
+      convertGrayRowToRgba(src_line, dst_line, w);
+    } else if (d == 16) {
+      for (l_int32 x = 0; x < w; x++) {
+        const l_uint8 gray = (l_uint8) (GET_DATA_TWO_BYTES(src_line, x) >> 8);
+        l_uint8 *p = dst_line + 4 * x;
+        p[0] = p[1] = p[2] = gray;
+        p[3] = 0xFF;
+      }
+    } else if (d == 8) {
+      for (l_int32 x = 0; x < w; x++)
+        dst_pixels[x] = lut[GET_DATA_BYTE(src_line, x)];
+    } else if (d == 4) {
+      for (l_int32 x = 0; x < w; x++)
+        dst_pixels[x] = lut[GET_DATA_QBIT(src_line, x)];
+    } else if (d == 2) {
+      for (l_int32 x = 0; x < w; x++)
+        dst_pixels[x] = lut[GET_DATA_DIBIT(src_line, x)];
+    } else {
+      // Whole words at once, most significant bit is the first pixel
+      l_int32 x = 0;
+      for (; x + 32 <= w; x += 32) {
+        const l_uint32 word = src_line[x / 32];
+        for (l_int32 bit = 0; bit < 32; bit++)
+          dst_pixels[x + bit] = lut[(word >> (31 - bit)) & 1];
+      }
+      for (; x < w; x++)
+        dst_pixels[x] = lut[GET_DATA_BIT(src_line, x)];
+    }
+  }
+
+  AndroidBitmap_unlockPixels(env, bitmap);
+
+  return JNI_TRUE;
+}
+
+#ifdef __cplusplus
+}
+#endif  /* __cplusplus */
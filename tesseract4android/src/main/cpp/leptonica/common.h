@@ -21,10 +21,9 @@
 #include <jni.h>
 #include <cassert>
 #include <allheaders.h>
-#include <android/log.h>
-#include <asm/byteorder.h>
 
-#ifdef __BIG_ENDIAN
+// Not __BIG_ENDIAN, glibc defines it on every platform
+#if __BYTE_ORDER__ == __ORDER_BIG_ENDIAN__
   #define SK_A32_SHIFT 0
   #define SK_R32_SHIFT 8
   #define SK_G32_SHIFT 16
@@ -34,14 +33,32 @@
   #define SK_R32_SHIFT 16
   #define SK_G32_SHIFT 8
   #define SK_B32_SHIFT 0
-#endif /* __BIG_ENDIAN */
+#endif /* __ORDER_BIG_ENDIAN__ */
 
 #define LOG_TAG "Leptonica(native)"
+
+#ifdef __ANDROID__
+#include <android/log.h>
+
 #define LOGV(...) __android_log_print(ANDROID_LOG_VERBOSE, LOG_TAG, __VA_ARGS__)
 #define LOGD(...) __android_log_print(ANDROID_LOG_DEBUG, LOG_TAG, __VA_ARGS__)
 #define LOGI(...) __android_log_print(ANDROID_LOG_INFO, LOG_TAG, __VA_ARGS__)
 #define LOGW(...) __android_log_print(ANDROID_LOG_WARN, LOG_TAG, __VA_ARGS__)
 #define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, LOG_TAG, __VA_ARGS__)
 #define LOG_ASSERT(_cond, ...) if (!_cond) __android_log_assert("conditional", LOG_TAG, __VA_ARGS__)
+#else
+// Host build, messages go to the standard error output in logcat's brief format
+#include <cstdio>
+#include <cstdlib>
+
+#define LOG_PRINT(_level, ...) \
+  (fprintf(stderr, _level "/" LOG_TAG ": "), fprintf(stderr, __VA_ARGS__), fputc('\n', stderr))
+#define LOGV(...) LOG_PRINT("V", __VA_ARGS__)
+#define LOGD(...) LOG_PRINT("D", __VA_ARGS__)
+#define LOGI(...) LOG_PRINT("I", __VA_ARGS__)
+#define LOGW(...) LOG_PRINT("W", __VA_ARGS__)
+#define LOGE(...) LOG_PRINT("E", __VA_ARGS__)
+#define LOG_ASSERT(_cond, ...) if (!_cond) { LOG_PRINT("F", __VA_ARGS__); abort(); }
+#endif
 
 #endif
@@ -134,14 +134,10 @@ jint Java_com_googlecode_leptonica_android_Pix_nativeGetDepth(JNIEnv *env, jclas
   return (jint) pixGetDepth(pix);
 }
 
-void Java_com_googlecode_leptonica_android_Pix_nativeSetPixel(JNIEnv *env, jclass clazz,
-                                                              jlong nativePix, jint xCoord,
-                                                              jint yCoord, jint argbColor) {
-  PIX *pix = (PIX *) nativePix;
-  l_int32 d = pixGetDepth(pix);
-  l_int32 x = (l_int32) xCoord;
-  l_int32 y = (l_int32) yCoord;
-
+/**
+ * Converts Android ARGB color to the pixel value of the given depth.
+ */
+static l_uint32 colorToPixel(l_int32 d, jint argbColor) {
   // These shift values are based on RGBA_8888
   l_uint8 r = (argbColor >> SK_R32_SHIFT) & 0xFF;
   l_uint8 g = (argbColor >> SK_G32_SHIFT) & 0xFF;
@@ -149,7 +145,7 @@ void Java_com_googlecode_leptonica_android_Pix_nativeSetPixel(JNIEnv *env, jclas
   l_uint8 a = (argbColor >> SK_A32_SHIFT) & 0xFF;
   l_uint8 gray = ((r + g + b) / 3) & 0xFF;
 
-  l_uint32 color;
+  l_uint32 color = 0;
 
   switch (d) {
     case 1: // 1-bit binary
@@ -181,22 +177,16 @@ void Java_com_googlecode_leptonica_android_Pix_nativeSetPixel(JNIEnv *env, jclas
       break;
   }
 
-  pixSetPixel(pix, x, y, color);
+  return color;
 }
 
-jint Java_com_googlecode_leptonica_android_Pix_nativeGetPixel(JNIEnv *env, jclass clazz,
-                                                              jlong nativePix, jint xCoord,
-                                                              jint yCoord) {
-  PIX *pix = (PIX *) nativePix;
-  l_int32 d = pixGetDepth(pix);
-  l_int32 x = (l_int32) xCoord;
-  l_int32 y = (l_int32) yCoord;
-  l_uint32 pixel;
+/**
+ * Converts the pixel value of the given depth to Android ARGB color.
+ */
+static jint pixelToColor(l_int32 d, l_uint32 pixel) {
   l_uint32 color;
   l_uint8 a, r, g, b;
 
-  pixGetPixel(pix, x, y, &pixel);
-
   switch (d) {
     case 1: // 1-bit binary
       a = 0xFF;
@@ -240,6 +230,149 @@ jint Java_com_googlecode_leptonica_android_Pix_nativeGetPixel(JNIEnv *env, jclas
   return (jint) color;
 }
 
+/**
+ * Reads the pixel value directly from a line of the raster, for all depths
+ * except 24 bpp.
+ */
+static inline l_uint32 getLineValue(const l_uint32 *line, l_int32 x, l_int32 d) {
+  switch (d) {
+    case 1:
+      return GET_DATA_BIT(line, x);
+    case 2:
+      return GET_DATA_DIBIT(line, x);
+    case 4:
+      return GET_DATA_QBIT(line, x);
+    case 8:
+      return GET_DATA_BYTE(line, x);
+    case 16:
+      return GET_DATA_TWO_BYTES(line, x);
+    default:
+      return line[x];
+  }
+}
+
+/**
+ * Writes the pixel value directly to a line of the raster, for all depths
+ * except 24 bpp.
+ */
+static inline void setLineValue(l_uint32 *line, l_int32 x, l_int32 d, l_uint32 value) {
+  switch (d) {
+    case 1:
+      if (value)
+        SET_DATA_BIT(line, x);
+      else
+        CLEAR_DATA_BIT(line, x);
+      break;
+    case 2:
+      SET_DATA_DIBIT(line, x, value);
+      break;
+    case 4:
+      SET_DATA_QBIT(line, x, value);
+      break;
+    case 8:
+      SET_DATA_BYTE(line, x, value);
+      break;
+    case 16:
+      SET_DATA_TWO_BYTES(line, x, value);
+      break;
+    default:
+      line[x] = value;
+      break;
+  }
+}
+
+void Java_com_googlecode_leptonica_android_Pix_nativeSetPixel(JNIEnv *env, jclass clazz,
+                                                              jlong nativePix, jint xCoord,
+                                                              jint yCoord, jint argbColor) {
+  PIX *pix = (PIX *) nativePix;
+  l_int32 d = pixGetDepth(pix);
+
+  pixSetPixel(pix, (l_int32) xCoord, (l_int32) yCoord, colorToPixel(d, argbColor));
+}
+
+jint Java_com_googlecode_leptonica_android_Pix_nativeGetPixel(JNIEnv *env, jclass clazz,
+                                                              jlong nativePix, jint xCoord,
+                                                              jint yCoord) {
+  PIX *pix = (PIX *) nativePix;
+  l_int32 d = pixGetDepth(pix);
+  l_uint32 pixel;
+
+  pixGetPixel(pix, (l_int32) xCoord, (l_int32) yCoord, &pixel);
+
+  return pixelToColor(d, pixel);
+}
+
+void Java_com_googlecode_leptonica_android_Pix_nativeGetPixels(JNIEnv *env, jclass clazz,
+                                                               jlong nativePix, jint left,
+                                                               jint top, jint width,
+                                                               jint height, jintArray colors) {
+  PIX *pix = (PIX *) nativePix;
+  const l_int32 d = pixGetDepth(pix);
+  const l_uint32 *data = pixGetData(pix);
+  const l_int32 wpl = pixGetWpl(pix);
+
+  jint *dst = env->GetIntArrayElements(colors, nullptr);
+
+  for (l_int32 y = 0; y < height; y++) {
+    const l_uint32 *line = data + (top + y) * wpl;
+    jint *dst_line = dst + y * width;
+
+    for (l_int32 x = 0; x < width; x++) {
+      l_uint32 pixel;
+      if (d == 24)
+        pixGetPixel(pix, left + x, top + y, &pixel);
+      else
+        pixel = getLineValue(line, left + x, d);
+      dst_line[x] = pixelToColor(d, pixel);
+    }
+  }
+
+  env->ReleaseIntArrayElements(colors, dst, 0);
+}
+
+void Java_com_googlecode_leptonica_android_Pix_nativeSetPixels(JNIEnv *env, jclass clazz,
+                                                               jlong nativePix, jint left,
+                                                               jint top, jint width,
+                                                               jint height, jintArray colors) {
+  PIX *pix = (PIX *) nativePix;
+  const l_int32 d = pixGetDepth(pix);
+  l_uint32 *data = pixGetData(pix);
+  const l_int32 wpl = pixGetWpl(pix);
+
+  jint *src = env->GetIntArrayElements(colors, nullptr);
+
+  for (l_int32 y = 0; y < height; y++) {
+    l_uint32 *line = data + (top + y) * wpl;
+    const jint *src_line = src + y * width;
+
+    for (l_int32 x = 0; x < width; x++) {
+      l_uint32 pixel = colorToPixel(d, src_line[x]);
+      if (d == 24)
+        pixSetPixel(pix, left + x, top + y, pixel);
+      else
+        setLineValue(line, left + x, d, pixel);
+    }
+  }
+
+  env->ReleaseIntArrayElements(colors, src, JNI_ABORT);
+}
+
+jobject Java_com_googlecode_leptonica_android_Pix_nativeGetDataBuffer(JNIEnv *env, jclass clazz,
+                                                                      jlong nativePix) {
+  PIX *pix = (PIX *) nativePix;
+
+  jlong size = 4 * (jlong) pixGetWpl(pix) * pixGetHeight(pix);
+
+  return env->NewDirectByteBuffer(pixGetData(pix), size);
+}
+
+jint Java_com_googlecode_leptonica_android_Pix_nativeGetWpl(JNIEnv *env, jclass clazz,
+                                                            jlong nativePix) {
+  PIX *pix = (PIX *) nativePix;
+
+  return (jint) pixGetWpl(pix);
+}
+
 jint Java_com_googlecode_leptonica_android_Pix_nativeGetSpp(JNIEnv *env, jclass clazz,
                                                             jlong nativePix) {
   PIX *pix = (PIX *) nativePix;
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "pixconv.h"
+
+#if defined(__ARM_NEON)
+#include <arm_neon.h>
+#elif defined(__SSSE3__)
+#include <tmmintrin.h>
+#endif
+
+// Pix stores each 32-bit word in the native byte order, with the first pixel
+// (or byte) in the most significant position. On little-endian CPUs the bytes
+// of every word are therefore reversed compared to the RGBA_8888 memory layout.
+// All vector paths below rely on that and are used only on little-endian CPUs.
+#if __BYTE_ORDER__ == __ORDER_LITTLE_ENDIAN__ && (defined(__ARM_NEON) || defined(__SSSE3__))
+#define PIXCONV_SIMD 1
+#endif
+
+// Luminance weights in 1/128, Leptonica uses 0.3, 0.5 and 0.2
+#define GRAY_WEIGHT_R 38
+#define GRAY_WEIGHT_G 64
+#define GRAY_WEIGHT_B 26
+#define GRAY_SHIFT 7
+
+void convertRgbaRow(const l_uint8 *src, l_uint32 *dst, l_int32 width) {
+  l_int32 x = 0;
+
+#if defined(PIXCONV_SIMD) && defined(__ARM_NEON)
+  for (; x + 4 <= width; x += 4) {
+    uint8x16_t pixels = vld1q_u8(src + 4 * x);
+    vst1q_u8((uint8_t *) (dst + x), vrev32q_u8(pixels));
+  }
+#elif defined(PIXCONV_SIMD) && defined(__SSSE3__)
+  const __m128i reverse = _mm_setr_epi8(3, 2, 1, 0, 7, 6, 5, 4, 11, 10, 9, 8, 15, 14, 13, 12);
+  for (; x + 4 <= width; x += 4) {
+    __m128i pixels = _mm_loadu_si128((const __m128i *) (src + 4 * x));
+    _mm_storeu_si128((__m128i *) (dst + x), _mm_shuffle_epi8(pixels, reverse));
+  }
+#endif
+
+  for (; x < width; x++) {
+    const l_uint8 *p = src + 4 * x;
+    dst[x] = (l_uint32) p[0] << 24 | (l_uint32) p[1] << 16 | (l_uint32) p[2] << 8 | p[3];
+  }
+}
+
+void convertRgbaToGrayRow(const l_uint8 *src, l_uint32 *dst, l_int32 width) {
+  l_int32 x = 0;
+
+#if defined(PIXCONV_SIMD) && defined(__ARM_NEON)
+  const uint8x8_t wr = vdup_n_u8(GRAY_WEIGHT_R);
+  const uint8x8_t wg = vdup_n_u8(GRAY_WEIGHT_G);
+  const uint8x8_t wb = vdup_n_u8(GRAY_WEIGHT_B);
+  for (; x + 16 <= width; x += 16) {
+    // Deinterleaves 16 pixels into R, G, B and A vectors
+    uint8x16x4_t pixels = vld4q_u8(src + 4 * x);
+
+    uint16x8_t lo = vmull_u8(vget_low_u8(pixels.val[0]), wr);
+    lo = vmlal_u8(lo, vget_low_u8(pixels.val[1]), wg);
+    lo = vmlal_u8(lo, vget_low_u8(pixels.val[2]), wb);
+    uint16x8_t hi = vmull_u8(vget_high_u8(pixels.val[0]), wr);
+    hi = vmlal_u8(hi, vget_high_u8(pixels.val[1]), wg);
+    hi = vmlal_u8(hi, vget_high_u8(pixels.val[2]), wb);
+
+    uint8x16_t gray = vcombine_u8(vrshrn_n_u16(lo, GRAY_SHIFT), vrshrn_n_u16(hi, GRAY_SHIFT));
+    vst1q_u8((uint8_t *) dst + x, vrev32q_u8(gray));
+  }
+#elif defined(PIXCONV_SIMD) && defined(__SSSE3__)
+  const __m128i weights = _mm_setr_epi8(GRAY_WEIGHT_R, GRAY_WEIGHT_G, GRAY_WEIGHT_B, 0,
+                                        GRAY_WEIGHT_R, GRAY_WEIGHT_G, GRAY_WEIGHT_B, 0,
+                                        GRAY_WEIGHT_R, GRAY_WEIGHT_G, GRAY_WEIGHT_B, 0,
+                                        GRAY_WEIGHT_R, GRAY_WEIGHT_G, GRAY_WEIGHT_B, 0);
+  const __m128i rounding = _mm_set1_epi16(1 << (GRAY_SHIFT - 1));
+  const __m128i reverse = _mm_setr_epi8(3, 2, 1, 0, 7, 6, 5, 4, 11, 10, 9, 8, 15, 14, 13, 12);
+  for (; x + 16 <= width; x += 16) {
+    const __m128i *p = (const __m128i *) (src + 4 * x);
+
+    // Per pixel R*wr + G*wg and B*wb + A*0, then summed by pairs
+    __m128i s0 = _mm_maddubs_epi16(_mm_loadu_si128(p), weights);
+    __m128i s1 = _mm_maddubs_epi16(_mm_loadu_si128(p + 1), weights);
+    __m128i s2 = _mm_maddubs_epi16(_mm_loadu_si128(p + 2), weights);
+    __m128i s3 = _mm_maddubs_epi16(_mm_loadu_si128(p + 3), weights);
+    __m128i lo = _mm_srli_epi16(_mm_add_epi16(_mm_hadd_epi16(s0, s1), rounding), GRAY_SHIFT);
+    __m128i hi = _mm_srli_epi16(_mm_add_epi16(_mm_hadd_epi16(s2, s3), rounding), GRAY_SHIFT);
+
+    __m128i gray = _mm_packus_epi16(lo, hi);
+    _mm_storeu_si128((__m128i *) ((l_uint8 *) dst + x), _mm_shuffle_epi8(gray, reverse));
+  }
+#endif
+
+  for (; x < width; x++) {
+    const l_uint8 *p = src + 4 * x;
+    l_uint32 gray = (GRAY_WEIGHT_R * p[0] + GRAY_WEIGHT_G * p[1] + GRAY_WEIGHT_B * p[2]
+                     + (1 << (GRAY_SHIFT - 1))) >> GRAY_SHIFT;
+    SET_DATA_BYTE(dst, x, gray);
+  }
+}
+
+void convertPixRowToRgba(const l_uint32 *src, l_uint8 *dst, l_int32 width, bool opaque) {
+  l_int32 x = 0;
+
+#if defined(PIXCONV_SIMD) && defined(__ARM_NEON)
+  // Alpha is the last byte of each RGBA pixel
+  const uint8x16_t alpha = vreinterpretq_u8_u32(vdupq_n_u32(opaque ? 0xFF000000 : 0));
+  for (; x + 4 <= width; x += 4) {
+    uint8x16_t pixels = vrev32q_u8(vld1q_u8((const uint8_t *) (src + x)));
+    vst1q_u8(dst + 4 * x, vorrq_u8(pixels, alpha));
+  }
+#elif defined(PIXCONV_SIMD) && defined(__SSSE3__)
+  const __m128i reverse = _mm_setr_epi8(3, 2, 1, 0, 7, 6, 5, 4, 11, 10, 9, 8, 15, 14, 13, 12);
+  const __m128i alpha = _mm_set1_epi32(opaque ? (int) 0xFF000000 : 0);
+  for (; x + 4 <= width; x += 4) {
+    __m128i pixels = _mm_shuffle_epi8(_mm_loadu_si128((const __m128i *) (src + x)), reverse);
+    _mm_storeu_si128((__m128i *) (dst + 4 * x), _mm_or_si128(pixels, alpha));
+  }
+#endif
+
+  for (; x < width; x++) {
+    const l_uint32 pixel = src[x];
+    l_uint8 *p = dst + 4 * x;
+    p[0] = (l_uint8) (pixel >> 24);
+    p[1] = (l_uint8) (pixel >> 16);
+    p[2] = (l_uint8) (pixel >> 8);
+    p[3] = opaque ? 0xFF : (l_uint8) pixel;
+  }
+}
+
+void convertGrayRowToRgba(const l_uint32 *src, l_uint8 *dst, l_int32 width) {
+  l_int32 x = 0;
+
+#if defined(PIXCONV_SIMD) && defined(__ARM_NEON)
+  const uint8x16_t alpha = vdupq_n_u8(0xFF);
+  for (; x + 16 <= width; x += 16) {
+    uint8x16_t gray = vrev32q_u8(vld1q_u8((const uint8_t *) src + x));
+    // Interleaves into 16 RGBA pixels
+    uint8x16x4_t pixels = {{gray, gray, gray, alpha}};
+    vst4q_u8(dst + 4 * x, pixels);
+  }
+#elif defined(PIXCONV_SIMD) && defined(__SSSE3__)
+  // Pixel i of the 16 loaded bytes is at byte i ^ 3, 0x80 produces zero for the alpha byte
+  const __m128i spread0 = _mm_setr_epi8(3, 3, 3, -128, 2, 2, 2, -128, 1, 1, 1, -128, 0, 0, 0, -128);
+  const __m128i spread1 = _mm_setr_epi8(7, 7, 7, -128, 6, 6, 6, -128, 5, 5, 5, -128, 4, 4, 4, -128);
+  const __m128i spread2 = _mm_setr_epi8(11, 11, 11, -128, 10, 10, 10, -128, 9, 9, 9, -128,
+                                        8, 8, 8, -128);
+  const __m128i spread3 = _mm_setr_epi8(15, 15, 15, -128, 14, 14, 14, -128, 13, 13, 13, -128,
+                                        12, 12, 12, -128);
+  const __m128i alpha = _mm_set1_epi32((int) 0xFF000000);
+  for (; x + 16 <= width; x += 16) {
+    __m128i gray = _mm_loadu_si128((const __m128i *) ((const l_uint8 *) src + x));
+    __m128i *p = (__m128i *) (dst + 4 * x);
+    _mm_storeu_si128(p, _mm_or_si128(_mm_shuffle_epi8(gray, spread0), alpha));
+    _mm_storeu_si128(p + 1, _mm_or_si128(_mm_shuffle_epi8(gray, spread1), alpha));
+    _mm_storeu_si128(p + 2, _mm_or_si128(_mm_shuffle_epi8(gray, spread2), alpha));
+    _mm_storeu_si128(p + 3, _mm_or_si128(_mm_shuffle_epi8(gray, spread3), alpha));
+  }
+#endif
+
+  for (; x < width; x++) {
+    l_uint8 *p = dst + 4 * x;
+    p[0] = p[1] = p[2] = (l_uint8) GET_DATA_BYTE(src, x);
+    p[3] = 0xFF;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef LEPTONICA_JNI_PIXCONV_H
+#define LEPTONICA_JNI_PIXCONV_H
+
+#include <allheaders.h>
+
+/**
+ * Converts one row of RGBA_8888 pixels (bytes R, G, B, A) into a row of
+ * a 32bpp Pix. The conversion is symmetric, so it also converts a 32bpp Pix
+ * row back into RGBA_8888 pixels.
+ */
+void convertRgbaRow(const l_uint8 *src, l_uint32 *dst, l_int32 width);
+
+/**
+ * Converts one row of RGBA_8888 pixels (bytes R, G, B, A) into a row of
+ * an 8bpp grayscale Pix, using luminance weights close to Leptonica's
+ * pixConvertRGBToLuminance(). Alpha is ignored.
+ */
+void convertRgbaToGrayRow(const l_uint8 *src, l_uint32 *dst, l_int32 width);
+
+/**
+ * Converts one row of a 32bpp Pix into RGBA_8888 pixels (bytes R, G, B, A).
+ *
+ * @param opaque whether to set alpha to 255 instead of copying it
+ */
+void convertPixRowToRgba(const l_uint32 *src, l_uint8 *dst, l_int32 width, bool opaque);
+
+/**
+ * Converts one row of an 8bpp grayscale Pix (without colormap) into opaque
+ * RGBA_8888 pixels.
+ */
+void convertGrayRowToRgba(const l_uint32 *src, l_uint8 *dst, l_int32 width);
+
+#endif
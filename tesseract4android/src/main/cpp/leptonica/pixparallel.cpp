@@ -0,0 +1,511 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "common.h"
+#include "pixparallel.h"
+#include "threadpool.h"
+
+#include <algorithm>
+#include <vector>
+
+/************
+ * Binarize *
+ ************/
+
+l_ok pixSauvolaBinarizeTiledParallel(PIX *pixs, l_int32 whsize, l_float32 factor,
+                                     l_int32 nx, l_int32 ny, PIX **ppixd) {
+  if (ppixd == nullptr)
+    return 1;
+  *ppixd = nullptr;
+  if (pixs == nullptr || pixGetDepth(pixs) != 8 || pixGetColormap(pixs) != nullptr) {
+    LOGE("Sauvola binarization requires 8 bpp image without colormap");
+    return 1;
+  }
+
+  l_int32 w, h;
+  pixGetDimensions(pixs, &w, &h, nullptr);
+  if (whsize < 2 || w < 2 * whsize + 3 || h < 2 * whsize + 3 || factor < 0.0f) {
+    LOGE("Invalid Sauvola parameters whsize=%d factor=%f", whsize, factor);
+    return 1;
+  }
+
+  // Tiles overlap by the window size, so splitting the image doesn't change
+  // the result and every thread can get its own strip.
+  nx = std::max(1, nx);
+  ny = std::max(1, ny);
+  if (getThreadCount() == 1)
+    return pixSauvolaBinarizeTiled(pixs, whsize, factor, nx, ny, nullptr, ppixd);
+  if (nx == 1 && ny == 1)
+    ny = getThreadCount();
+
+  // Same limits as pixSauvolaBinarizeTiled()
+  if (w / nx < whsize + 2)
+    nx = w / (whsize + 2);
+  if (h / ny < whsize + 2)
+    ny = h / (whsize + 2);
+  if (nx <= 1 && ny <= 1)
+    return pixSauvolaBinarize(pixs, whsize, factor, 1, nullptr, nullptr, nullptr, ppixd);
+
+  PIXTILING *pt = pixTilingCreate(pixs, nx, ny, 0, 0, whsize + 1, whsize + 1);
+  if (pt == nullptr)
+    return 1;
+  pixTilingNoStripOnPaint(pt);  // pixSauvolaBinarize() does the stripping
+
+  std::vector<PIX *> tiles(nx * ny, nullptr);
+  parallelFor(nx * ny, [&](int k) {
+    PIX *pixt = pixTilingGetTile(pt, k / nx, k % nx);
+    if (pixt != nullptr)
+      pixSauvolaBinarize(pixt, whsize, factor, 0, nullptr, nullptr, nullptr, &tiles[k]);
+    pixDestroy(&pixt);
+  });
+
+  PIX *pixd = pixCreate(w, h, 1);
+  for (l_int32 k = 0; k < nx * ny; k++) {
+    if (tiles[k] == nullptr)
+      pixDestroy(&pixd);
+    else if (pixd != nullptr)
+      pixTilingPaintTile(pixd, k / nx, k % nx, tiles[k], pt);
+    pixDestroy(&tiles[k]);
+  }
+  pixTilingDestroy(&pt);
+
+  if (pixd == nullptr)
+    return 1;
+  pixCopyResolution(pixd, pixs);
+  *ppixd = pixd;
+  return 0;
+}
+
+l_ok pixOtsuAdaptiveThresholdParallel(PIX *pixs, l_int32 sx, l_int32 sy, l_int32 smoothx,
+                                      l_int32 smoothy, l_float32 scorefract, PIX **ppixd) {
+  if (ppixd == nullptr)
+    return 1;
+  *ppixd = nullptr;
+  if (pixs == nullptr || pixGetDepth(pixs) != 8) {
+    LOGE("Otsu binarization requires 8 bpp image");
+    return 1;
+  }
+  if (sx < 16 || sy < 16) {
+    LOGE("Invalid Otsu tile size %dx%d", sx, sy);
+    return 1;
+  }
+  if (getThreadCount() == 1)
+    return pixOtsuAdaptiveThreshold(pixs, sx, sy, smoothx, smoothy, scorefract, nullptr, ppixd);
+
+  l_int32 w, h;
+  pixGetDimensions(pixs, &w, &h, nullptr);
+  const l_int32 nx = std::max(1, w / sx);
+  const l_int32 ny = std::max(1, h / sy);
+  smoothx = std::min(smoothx, (nx - 1) / 2);
+  smoothy = std::min(smoothy, (ny - 1) / 2);
+
+  PIXTILING *pt = pixTilingCreate(pixs, nx, ny, 0, 0, 0, 0);
+  PIX *pixthresh = pixCreate(nx, ny, 8);
+  if (pt == nullptr || pixthresh == nullptr) {
+    pixTilingDestroy(&pt);
+    pixDestroy(&pixthresh);
+    return 1;
+  }
+
+  // Each row of tiles writes its own row of the threshold array
+  parallelFor(ny, [&](int i) {
+    for (l_int32 j = 0; j < nx; j++) {
+      PIX *pixt = pixTilingGetTile(pt, i, j);
+      l_int32 thresh = 0;
+      pixSplitDistributionFgBg(pixt, scorefract, 1, &thresh, nullptr, nullptr, nullptr);
+      pixSetPixel(pixthresh, j, i, thresh);
+      pixDestroy(&pixt);
+    }
+  });
+
+  PIX *pixth;
+  if (smoothx > 0 || smoothy > 0)
+    pixth = pixBlockconv(pixthresh, smoothx, smoothy);
+  else
+    pixth = pixClone(pixthresh);
+  pixDestroy(&pixthresh);
+
+  PIX *pixd = pixth != nullptr ? pixCreate(w, h, 1) : nullptr;
+  if (pixd != nullptr) {
+    pixCopyResolution(pixd, pixs);
+
+    // Rows of tiles cover distinct lines of the result
+    parallelFor(ny, [&](int i) {
+      for (l_int32 j = 0; j < nx; j++) {
+        PIX *pixt = pixTilingGetTile(pt, i, j);
+        l_uint32 val;
+        pixGetPixel(pixth, j, i, &val);
+        PIX *pixb = pixThresholdToBinary(pixt, val);
+        pixTilingPaintTile(pixd, i, j, pixb, pt);
+        pixDestroy(&pixt);
+        pixDestroy(&pixb);
+      }
+    });
+  }
+
+  pixDestroy(&pixth);
+  pixTilingDestroy(&pt);
+
+  *ppixd = pixd;
+  return pixd == nullptr;
+}
+
+/***************
+ * AdaptiveMap *
+ ***************/
+
+/**
+ * Same as pixApplyInvBackgroundGrayMap(), rows of map tiles are processed
+ * in parallel.
+ */
+static PIX *applyInvBackgroundGrayMap(PIX *pixs, PIX *pixm, l_int32 sx, l_int32 sy) {
+  PIX *pixd = pixCreateTemplate(pixs);
+  if (pixd == nullptr)
+    return nullptr;
+
+  l_int32 w, h, wm, hm;
+  pixGetDimensions(pixs, &w, &h, nullptr);
+  pixGetDimensions(pixm, &wm, &hm, nullptr);
+  const l_uint32 *datas = pixGetData(pixs);
+  const l_uint32 *datam = pixGetData(pixm);
+  l_uint32 *datad = pixGetData(pixd);
+  const l_int32 wpls = pixGetWpl(pixs);
+  const l_int32 wplm = pixGetWpl(pixm);
+  const l_int32 wpld = pixGetWpl(pixd);
+
+  parallelFor(hm, [&](int i) {
+    const l_uint32 *linem = datam + i * wplm;
+    for (l_int32 y = sy * i; y < sy * (i + 1) && y < h; y++) {
+      const l_uint32 *lines = datas + y * wpls;
+      l_uint32 *lined = datad + y * wpld;
+      for (l_int32 j = 0; j < wm; j++) {
+        const l_uint32 val16 = GET_DATA_TWO_BYTES(linem, j);
+        for (l_int32 x = sx * j; x < sx * (j + 1) && x < w; x++) {
+          const l_int32 vald = (GET_DATA_BYTE(lines, x) * val16) / 256;
+          SET_DATA_BYTE(lined, x, L_MIN(vald, 255));
+        }
+      }
+    }
+  });
+
+  return pixd;
+}
+
+/**
+ * Same as pixApplyInvBackgroundRGBMap(), rows of map tiles are processed
+ * in parallel.
+ */
+static PIX *applyInvBackgroundRGBMap(PIX *pixs, PIX *pixmr, PIX *pixmg, PIX *pixmb,
+                                     l_int32 sx, l_int32 sy) {
+  PIX *pixd = pixCreateTemplate(pixs);
+  if (pixd == nullptr)
+    return nullptr;
+
+  l_int32 w, h, wm, hm;
+  pixGetDimensions(pixs, &w, &h, nullptr);
+  pixGetDimensions(pixmr, &wm, &hm, nullptr);
+  const l_uint32 *datas = pixGetData(pixs);
+  const l_uint32 *datamr = pixGetData(pixmr);
+  const l_uint32 *datamg = pixGetData(pixmg);
+  const l_uint32 *datamb = pixGetData(pixmb);
+  l_uint32 *datad = pixGetData(pixd);
+  const l_int32 wpls = pixGetWpl(pixs);
+  const l_int32 wplm = pixGetWpl(pixmr);
+  const l_int32 wpld = pixGetWpl(pixd);
+
+  parallelFor(hm, [&](int i) {
+    for (l_int32 y = sy * i; y < sy * (i + 1) && y < h; y++) {
+      const l_uint32 *lines = datas + y * wpls;
+      l_uint32 *lined = datad + y * wpld;
+      for (l_int32 j = 0; j < wm; j++) {
+        const l_uint32 rval16 = GET_DATA_TWO_BYTES(datamr + i * wplm, j);
+        const l_uint32 gval16 = GET_DATA_TWO_BYTES(datamg + i * wplm, j);
+        const l_uint32 bval16 = GET_DATA_TWO_BYTES(datamb + i * wplm, j);
+        for (l_int32 x = sx * j; x < sx * (j + 1) && x < w; x++) {
+          const l_uint32 vals = lines[x];
+          const l_int32 rvald = ((vals >> 24) * rval16) / 256;
+          const l_int32 gvald = (((vals >> 16) & 0xff) * gval16) / 256;
+          const l_int32 bvald = (((vals >> 8) & 0xff) * bval16) / 256;
+          composeRGBPixel(L_MIN(rvald, 255), L_MIN(gvald, 255), L_MIN(bvald, 255), lined + x);
+        }
+      }
+    }
+  });
+
+  return pixd;
+}
+
+PIX *pixBackgroundNormMorphParallel(PIX *pixs, l_int32 reduction, l_int32 size,
+                                    l_int32 bgval) {
+  const l_int32 d = pixs != nullptr ? pixGetDepth(pixs) : 0;
+  if (d != 8 && d != 32) {
+    LOGE("Background normalization requires 8 or 32 bpp image");
+    return nullptr;
+  }
+  if (reduction < 2 || reduction > 16) {
+    LOGE("Invalid background normalization reduction %d", reduction);
+    return nullptr;
+  }
+  if (getThreadCount() == 1)
+    return pixBackgroundNormMorph(pixs, nullptr, reduction, size, bgval);
+
+  // The maps are computed from the reduced image, only applying them to
+  // the full image is worth running in parallel.
+  PIX *pixd = nullptr;
+  if (d == 8) {
+    PIX *pixm = nullptr;
+    pixGetBackgroundGrayMapMorph(pixs, nullptr, reduction, size, &pixm);
+    if (pixm == nullptr)
+      return nullptr;
+
+    PIX *pixmi = pixGetInvBackgroundMap(pixm, bgval, 0, 0);
+    if (pixmi != nullptr)
+      pixd = applyInvBackgroundGrayMap(pixs, pixmi, reduction, reduction);
+    pixDestroy(&pixm);
+    pixDestroy(&pixmi);
+  } else {
+    PIX *pixmr = nullptr, *pixmg = nullptr, *pixmb = nullptr;
+    pixGetBackgroundRGBMapMorph(pixs, nullptr, reduction, size, &pixmr, &pixmg, &pixmb);
+    if (pixmr != nullptr && pixmg != nullptr && pixmb != nullptr) {
+      PIX *pixmri = pixGetInvBackgroundMap(pixmr, bgval, 0, 0);
+      PIX *pixmgi = pixGetInvBackgroundMap(pixmg, bgval, 0, 0);
+      PIX *pixmbi = pixGetInvBackgroundMap(pixmb, bgval, 0, 0);
+      if (pixmri != nullptr && pixmgi != nullptr && pixmbi != nullptr)
+        pixd = applyInvBackgroundRGBMap(pixs, pixmri, pixmgi, pixmbi, reduction, reduction);
+      pixDestroy(&pixmri);
+      pixDestroy(&pixmgi);
+      pixDestroy(&pixmbi);
+    }
+    pixDestroy(&pixmr);
+    pixDestroy(&pixmg);
+    pixDestroy(&pixmb);
+  }
+
+  if (pixd != nullptr)
+    pixCopyResolution(pixd, pixs);
+  return pixd;
+}
+
+/**
+ * Same as pixSetLowContrast() from adaptmap.c, which is not exported.
+ */
+static void setLowContrast(PIX *pixs1, PIX *pixs2, l_int32 mindiff) {
+  if (mindiff > 254)
+    return;
+
+  l_int32 w, h;
+  pixGetDimensions(pixs1, &w, &h, nullptr);
+  l_uint32 *data1 = pixGetData(pixs1);
+  l_uint32 *data2 = pixGetData(pixs2);
+  const l_int32 wpl = pixGetWpl(pixs1);
+
+  bool found = false;
+  for (l_int32 i = 0; i < h && !found; i++) {
+    const l_uint32 *line1 = data1 + i * wpl;
+    const l_uint32 *line2 = data2 + i * wpl;
+    for (l_int32 j = 0; j < w && !found; j++)
+      found = L_ABS(GET_DATA_BYTE(line1, j) - GET_DATA_BYTE(line2, j)) >= mindiff;
+  }
+  if (!found) {
+    pixClearAll(pixs1);
+    pixClearAll(pixs2);
+    return;
+  }
+
+  for (l_int32 i = 0; i < h; i++) {
+    l_uint32 *line1 = data1 + i * wpl;
+    l_uint32 *line2 = data2 + i * wpl;
+    for (l_int32 j = 0; j < w; j++) {
+      if (L_ABS(GET_DATA_BYTE(line1, j) - GET_DATA_BYTE(line2, j)) < mindiff) {
+        SET_DATA_BYTE(line1, j, 0);
+        SET_DATA_BYTE(line2, j, 0);
+      }
+    }
+  }
+}
+
+/**
+ * Same as pixMinMaxTiles() from adaptmap.c, which is not exported. Both
+ * extremes are found in a single pass, rows of tiles in parallel.
+ */
+static l_ok minMaxTiles(PIX *pixs, l_int32 sx, l_int32 sy, l_int32 mindiff, l_int32 smoothx,
+                        l_int32 smoothy, PIX **ppixmin, PIX **ppixmax) {
+  *ppixmin = nullptr;
+  *ppixmax = nullptr;
+  if (smoothx > 5 || smoothy > 5) {
+    LOGE("Contrast normalization smoothing exceeds 5");
+    return 1;
+  }
+
+  // Same as pixScaleGrayMinMax() for sx, sy >= 5
+  l_int32 ws, hs;
+  pixGetDimensions(pixs, &ws, &hs, nullptr);
+  l_int32 wd = ws / sx;
+  if (wd == 0) {
+    wd = 1;
+    sx = ws;
+  }
+  l_int32 hd = hs / sy;
+  if (hd == 0) {
+    hd = 1;
+    sy = hs;
+  }
+
+  PIX *pixmin1 = pixCreate(wd, hd, 8);
+  PIX *pixmax1 = pixCreate(wd, hd, 8);
+  if (pixmin1 == nullptr || pixmax1 == nullptr) {
+    pixDestroy(&pixmin1);
+    pixDestroy(&pixmax1);
+    return 1;
+  }
+
+  const l_uint32 *datas = pixGetData(pixs);
+  l_uint32 *datamin = pixGetData(pixmin1);
+  l_uint32 *datamax = pixGetData(pixmax1);
+  const l_int32 wpls = pixGetWpl(pixs);
+  const l_int32 wplt = pixGetWpl(pixmin1);
+
+  parallelFor(hd, [&](int i) {
+    for (l_int32 j = 0; j < wd; j++) {
+      l_int32 minval = 255, maxval = 0;
+      for (l_int32 k = 0; k < sy; k++) {
+        const l_uint32 *lines = datas + (sy * i + k) * wpls;
+        for (l_int32 m = 0; m < sx; m++) {
+          const l_int32 val = GET_DATA_BYTE(lines, sx * j + m);
+          minval = std::min(minval, val);
+          maxval = std::max(maxval, val);
+        }
+      }
+      SET_DATA_BYTE(datamin + i * wplt, j, minval);
+      SET_DATA_BYTE(datamax + i * wplt, j, maxval);
+    }
+  });
+
+  PIX *pixmin2 = pixExtendByReplication(pixmin1, 1, 1);
+  PIX *pixmax2 = pixExtendByReplication(pixmax1, 1, 1);
+  pixDestroy(&pixmin1);
+  pixDestroy(&pixmax1);
+  if (pixmin2 == nullptr || pixmax2 == nullptr) {
+    pixDestroy(&pixmin2);
+    pixDestroy(&pixmax2);
+    return 1;
+  }
+
+  // Make sure no value is 0, then make holes where the contrast is too small
+  pixAddConstantGray(pixmin2, 1);
+  pixAddConstantGray(pixmax2, 1);
+  setLowContrast(pixmin2, pixmax2, mindiff);
+
+  l_int32 w, h;
+  pixGetDimensions(pixmin2, &w, &h, nullptr);
+  pixFillMapHoles(pixmin2, w, h, L_FILL_BLACK);
+  pixFillMapHoles(pixmax2, w, h, L_FILL_BLACK);
+
+  if (smoothx > 0 || smoothy > 0) {
+    smoothx = std::min(smoothx, (w - 1) / 2);
+    smoothy = std::min(smoothy, (h - 1) / 2);
+    *ppixmin = pixBlockconv(pixmin2, smoothx, smoothy);
+    *ppixmax = pixBlockconv(pixmax2, smoothx, smoothy);
+  } else {
+    *ppixmin = pixClone(pixmin2);
+    *ppixmax = pixClone(pixmax2);
+  }
+  pixDestroy(&pixmin2);
+  pixDestroy(&pixmax2);
+
+  if (*ppixmin == nullptr || *ppixmax == nullptr) {
+    pixDestroy(ppixmin);
+    pixDestroy(ppixmax);
+    return 1;
+  }
+  return 0;
+}
+
+PIX *pixContrastNormParallel(PIX *pixd, PIX *pixs, l_int32 sx, l_int32 sy, l_int32 mindiff,
+                             l_int32 smoothx, l_int32 smoothy) {
+  if (pixs == nullptr || pixGetDepth(pixs) != 8 || pixGetColormap(pixs) != nullptr) {
+    LOGE("Contrast normalization requires 8 bpp image without colormap");
+    return nullptr;
+  }
+  if ((pixd != nullptr && pixd != pixs) || sx < 5 || sy < 5 || smoothx < 0 || smoothy < 0) {
+    LOGE("Invalid contrast normalization parameters");
+    return nullptr;
+  }
+  if (getThreadCount() == 1) {
+    // Leptonica returns pixd on failure, which is the input when in place
+    PIX *res = pixContrastNorm(nullptr, pixs, sx, sy, mindiff, smoothx, smoothy);
+    if (res == nullptr || pixd == nullptr)
+      return res;
+    pixCopy(pixd, res);
+    pixDestroy(&res);
+    return pixd;
+  }
+
+  PIX *pixmin, *pixmax;
+  if (minMaxTiles(pixs, sx, sy, mindiff, smoothx, smoothy, &pixmin, &pixmax))
+    return nullptr;
+
+  pixd = pixCopy(pixd, pixs);
+  if (pixd == nullptr) {
+    pixDestroy(&pixmin);
+    pixDestroy(&pixmax);
+    return nullptr;
+  }
+
+  // Same mappings as iaaGetLinearTRC(), for every possible difference
+  std::vector<l_int32> trc(256 * 256);
+  for (l_int32 diff = 1; diff < 256; diff++) {
+    l_int32 *ia = trc.data() + diff * 256;
+    const l_float32 factor = 255. / (l_float32) diff;
+    for (l_int32 i = 0; i < diff + 1; i++)
+      ia[i] = (l_int32) (factor * i + 0.5);
+    for (l_int32 i = diff + 1; i < 256; i++)
+      ia[i] = 255;
+  }
+
+  l_int32 w, h, wt, ht;
+  pixGetDimensions(pixd, &w, &h, nullptr);
+  pixGetDimensions(pixmin, &wt, &ht, nullptr);
+  l_uint32 *data = pixGetData(pixd);
+  const l_uint32 *datamin = pixGetData(pixmin);
+  const l_uint32 *datamax = pixGetData(pixmax);
+  const l_int32 wpl = pixGetWpl(pixd);
+  const l_int32 wplt = pixGetWpl(pixmin);
+
+  // Same as pixLinearTRCTiled(), rows of tiles are processed in parallel
+  parallelFor(ht, [&](int i) {
+    const l_uint32 *linemin = datamin + i * wplt;
+    const l_uint32 *linemax = datamax + i * wplt;
+    for (l_int32 y = sy * i; y < sy * (i + 1) && y < h; y++) {
+      l_uint32 *line = data + y * wpl;
+      for (l_int32 j = 0; j < wt; j++) {
+        const l_int32 minval = GET_DATA_BYTE(linemin, j);
+        const l_int32 maxval = GET_DATA_BYTE(linemax, j);
+        if (maxval <= minval)
+          continue;
+        const l_int32 *ia = trc.data() + (maxval - minval) * 256;
+        for (l_int32 x = sx * j; x < sx * (j + 1) && x < w; x++) {
+          const l_int32 sval = GET_DATA_BYTE(line, x) - minval;
+          SET_DATA_BYTE(line, x, ia[L_MAX(0, sval)]);
+        }
+      }
+    }
+  });
+
+  pixDestroy(&pixmin);
+  pixDestroy(&pixmax);
+  return pixd;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef LEPTONICA_JNI_PIXPARALLEL_H
+#define LEPTONICA_JNI_PIXPARALLEL_H
+
+#include <allheaders.h>
+
+/*
+ * Multi-threaded versions of Leptonica functions working on tiles. The
+ * tiles are processed using parallelFor() and the results are identical
+ * to the single-threaded originals, which are called directly when
+ * getThreadCount() is 1.
+ */
+
+/**
+ * Same as pixSauvolaBinarizeTiled(), producing only the binarized image.
+ * If no tiling is requested, the image is split into horizontal strips,
+ * one per thread, which doesn't change the result.
+ */
+l_ok pixSauvolaBinarizeTiledParallel(PIX *pixs, l_int32 whsize, l_float32 factor,
+                                     l_int32 nx, l_int32 ny, PIX **ppixd);
+
+/**
+ * Same as pixOtsuAdaptiveThreshold(), producing only the binarized image.
+ */
+l_ok pixOtsuAdaptiveThresholdParallel(PIX *pixs, l_int32 sx, l_int32 sy, l_int32 smoothx,
+                                      l_int32 smoothy, l_float32 scorefract, PIX **ppixd);
+
+/**
+ * Same as pixBackgroundNormMorph() without the image mask.
+ */
+PIX *pixBackgroundNormMorphParallel(PIX *pixs, l_int32 reduction, l_int32 size, l_int32 bgval);
+
+/**
+ * Same as pixContrastNorm().
+ */
+PIX *pixContrastNormParallel(PIX *pixd, PIX *pixs, l_int32 sx, l_int32 sy, l_int32 mindiff,
+                             l_int32 smoothx, l_int32 smoothy);
+
+#endif
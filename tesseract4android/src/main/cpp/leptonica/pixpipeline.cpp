@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "common.h"
+#include "pixparallel.h"
+#include <vector>
+
+/**
+ * Steps of PixPipeline, codes must match PixPipeline.java.
+ */
+enum PipelineStep {
+  STEP_CONVERT_TO_8 = 1,
+  STEP_BACKGROUND_NORM_MORPH = 2,
+  STEP_CONTRAST_NORM = 3,
+  STEP_DESKEW = 4,
+  STEP_SAUVOLA_BINARIZE = 5,
+  STEP_OTSU_THRESHOLD = 6,
+  STEP_THRESHOLD_TO_BINARY = 7,
+  STEP_UNSHARP_MASKING = 8,
+  STEP_SCALE = 9,
+  STEP_ROTATE_ORTH = 10,
+  STEP_INVERT = 11,
+  STEP_CLIP = 12,
+};
+
+// Number of values describing the geometry of each step for Java
+static const int GEOMETRY_SIZE = 4;
+
+static int getParamCount(jint step) {
+  switch (step) {
+    case STEP_CONVERT_TO_8:
+    case STEP_INVERT:
+      return 0;
+    case STEP_THRESHOLD_TO_BINARY:
+    case STEP_ROTATE_ORTH:
+      return 1;
+    case STEP_UNSHARP_MASKING:
+    case STEP_SCALE:
+      return 2;
+    case STEP_BACKGROUND_NORM_MORPH:
+      return 3;
+    case STEP_SAUVOLA_BINARIZE:
+    case STEP_CLIP:
+      return 4;
+    case STEP_CONTRAST_NORM:
+    case STEP_DESKEW:
+    case STEP_OTSU_THRESHOLD:
+      return 5;
+    default:
+      return -1;
+  }
+}
+
+/**
+ * Runs a single step. The input may be modified only if it's exclusive, i.e.
+ * an intermediate image created by one of the previous steps.
+ *
+ * Steps changing the geometry store what's needed to map the result back to
+ * the input in geometry: deskew the angle, rotateOrth the number of quads and
+ * clip the origin of the clipped box.
+ *
+ * @return the result, which may be the input itself, or nullptr on failure
+ */
+static PIX *runStep(PIX *pixs, bool exclusive, jint step, const jfloat *p, jfloat *geometry) {
+  PIX *pixd = nullptr;
+
+  switch (step) {
+    case STEP_CONVERT_TO_8:
+      if (pixGetDepth(pixs) == 8 && pixGetColormap(pixs) == nullptr)
+        return pixs;
+      return pixConvertTo8(pixs, FALSE);
+
+    case STEP_BACKGROUND_NORM_MORPH:
+      return pixBackgroundNormMorphParallel(pixs, (l_int32) p[0], (l_int32) p[1],
+                                            (l_int32) p[2]);
+
+    case STEP_CONTRAST_NORM:
+      return pixContrastNormParallel(exclusive ? pixs : nullptr, pixs, (l_int32) p[0],
+                                     (l_int32) p[1], (l_int32) p[2], (l_int32) p[3],
+                                     (l_int32) p[4]);
+
+    case STEP_DESKEW: {
+      l_float32 angle = 0.0f;
+      pixd = pixDeskewGeneral(pixs, (l_int32) p[0], p[1], p[2], (l_int32) p[3],
+                              (l_int32) p[4], &angle, nullptr);
+      // Not rotated, drop the reference of the returned clone
+      if (pixd == pixs) {
+        pixDestroy(&pixd);
+        return pixs;
+      }
+      geometry[0] = angle;
+      return pixd;
+    }
+
+    case STEP_SAUVOLA_BINARIZE:
+      if (pixSauvolaBinarizeTiledParallel(pixs, (l_int32) p[0], p[1], (l_int32) p[2],
+                                          (l_int32) p[3], &pixd))
+        return nullptr;
+      return pixd;
+
+    case STEP_OTSU_THRESHOLD:
+      if (pixOtsuAdaptiveThresholdParallel(pixs, (l_int32) p[0], (l_int32) p[1], (l_int32) p[2],
+                                           (l_int32) p[3], p[4], &pixd))
+        return nullptr;
+      return pixd;
+
+    case STEP_THRESHOLD_TO_BINARY:
+      return pixThresholdToBinary(pixs, (l_int32) p[0]);
+
+    case STEP_UNSHARP_MASKING:
+      return pixUnsharpMasking(pixs, (l_int32) p[0], p[1]);
+
+    case STEP_SCALE:
+      if (p[0] == 1.0f && p[1] == 1.0f)
+        return pixs;
+      return pixScale(pixs, p[0], p[1]);
+
+    case STEP_ROTATE_ORTH:
+      if ((l_int32) p[0] == 0)
+        return pixs;
+      geometry[0] = p[0];
+      return pixRotateOrth(pixs, (l_int32) p[0]);
+
+    case STEP_INVERT:
+      return pixInvert(exclusive ? pixs : nullptr, pixs);
+
+    case STEP_CLIP: {
+      BOX *box = boxCreate((l_int32) p[0], (l_int32) p[1], (l_int32) p[2], (l_int32) p[3]);
+      if (box == nullptr)
+        return nullptr;
+      BOX *clipped = nullptr;
+      pixd = pixClipRectangle(pixs, box, &clipped);
+      boxDestroy(&box);
+      if (clipped != nullptr) {
+        l_int32 x, y;
+        boxGetGeometry(clipped, &x, &y, nullptr, nullptr);
+        geometry[0] = (jfloat) x;
+        geometry[1] = (jfloat) y;
+        boxDestroy(&clipped);
+      }
+      return pixd;
+    }
+
+    default:
+      return nullptr;
+  }
+}
+
+#ifdef __cplusplus
+extern "C" {
+#endif  /* __cplusplus */
+
+jlong Java_com_googlecode_leptonica_android_PixPipeline_nativeProcess(JNIEnv *env, jclass clazz,
+                                                                      jlong nativePix,
+                                                                      jintArray steps,
+                                                                      jint stepCount,
+                                                                      jfloatArray params,
+                                                                      jfloatArray geometry,
+                                                                      jintArray failedStep) {
+  jint *stepArray = env->GetIntArrayElements(steps, nullptr);
+  jfloat *paramArray = env->GetFloatArrayElements(params, nullptr);
+  const jsize paramLength = env->GetArrayLength(params);
+
+  // The source belongs to the caller, the first step which changes the image
+  // creates a new one and all later steps may work on their input in place.
+  PIX *pix = (PIX *) nativePix;
+  bool exclusive = false;
+  jint paramOffset = 0;
+  jint failed = -1;
+
+  // Size of the result and details of each step, see runStep()
+  std::vector<jfloat> stepGeometry(geometry != nullptr ? stepCount * GEOMETRY_SIZE : 0);
+
+  for (jint i = 0; i < stepCount; i++) {
+    const int paramCount = getParamCount(stepArray[i]);
+    if (paramCount < 0 || paramOffset + paramCount > paramLength) {
+      failed = i;
+      break;
+    }
+
+    jfloat details[2] = {0.0f, 0.0f};
+    PIX *result = runStep(pix, exclusive, stepArray[i], paramArray + paramOffset, details);
+    paramOffset += paramCount;
+
+    if (result == nullptr) {
+      LOGE("Pipeline step %d (%d) failed", i, stepArray[i]);
+      failed = i;
+      break;
+    }
+
+    // Intermediate image is freed as soon as it's no longer needed
+    if (result != pix) {
+      if (exclusive)
+        pixDestroy(&pix);
+      pix = result;
+      exclusive = true;
+    }
+
+    if (!stepGeometry.empty()) {
+      jfloat *g = &stepGeometry[i * GEOMETRY_SIZE];
+      g[0] = (jfloat) pixGetWidth(pix);
+      g[1] = (jfloat) pixGetHeight(pix);
+      g[2] = details[0];
+      g[3] = details[1];
+    }
+  }
+
+  env->ReleaseIntArrayElements(steps, stepArray, JNI_ABORT);
+  env->ReleaseFloatArrayElements(params, paramArray, JNI_ABORT);
+
+  if (failed >= 0) {
+    if (exclusive)
+      pixDestroy(&pix);
+    env->SetIntArrayRegion(failedStep, 0, 1, &failed);
+    return (jlong) 0;
+  }
+
+  if (!stepGeometry.empty())
+    env->SetFloatArrayRegion(geometry, 0, (jsize) stepGeometry.size(), stepGeometry.data());
+
+  // None of the steps changed the image, the caller still gets a new one
+  if (!exclusive)
+    pix = pixCopy(nullptr, pix);
+
+  return jlong(pix);
+}
+
+#ifdef __cplusplus
+}
+#endif  /* __cplusplus */
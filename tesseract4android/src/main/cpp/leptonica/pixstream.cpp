@@ -0,0 +1,767 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "pixstream.h"
+#include "common.h"
+#include "pixconv.h"
+
+#include <algorithm>
+#include <cerrno>
+#include <csetjmp>
+#include <cstdlib>
+#include <cstring>
+#include <fcntl.h>
+#include <unistd.h>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <jpeglib.h>
+#include <png.h>
+
+// Bytes kept from the start of a sequential source, so that the format can be
+// detected and the stream rewound before decoding
+#define SEQUENTIAL_HEAD_SIZE 4096
+
+struct MemoryStream {
+  const char *data;
+  size_t size;
+  size_t pos;
+};
+
+struct SequentialStream {
+  StreamReadFunc read;
+  void *cookie;
+  char head[SEQUENTIAL_HEAD_SIZE];
+  size_t headLength; // bytes of the source kept in head
+  size_t sourcePos; // bytes consumed from the source
+  size_t pos;
+};
+
+static ssize_t memoryRead(void *cookie, char *buffer, size_t size) {
+  MemoryStream *stream = (MemoryStream *) cookie;
+
+  size_t count = std::min(size, stream->size - stream->pos);
+  memcpy(buffer, stream->data + stream->pos, count);
+  stream->pos += count;
+  return count;
+}
+
+static off_t memorySeek(void *cookie, off_t offset, int whence) {
+  MemoryStream *stream = (MemoryStream *) cookie;
+
+  off_t base = whence == SEEK_SET ? 0 : whence == SEEK_CUR ? stream->pos : stream->size;
+  if (base + offset < 0 || (size_t) (base + offset) > stream->size) {
+    errno = EINVAL;
+    return -1;
+  }
+  stream->pos = base + offset;
+  return stream->pos;
+}
+
+static int memoryClose(void *cookie) {
+  delete (MemoryStream *) cookie;
+  return 0;
+}
+
+static ssize_t sequentialRead(void *cookie, char *buffer, size_t size) {
+  SequentialStream *stream = (SequentialStream *) cookie;
+
+  // Serve the bytes already read from the head
+  if (stream->pos < stream->headLength) {
+    size_t count = std::min(size, stream->headLength - stream->pos);
+    memcpy(buffer, stream->head + stream->pos, count);
+    stream->pos += count;
+    return count;
+  }
+
+  // Don't read past the head while it's being filled, so that nothing is lost
+  // when the stream is rewound
+  if (stream->sourcePos < SEQUENTIAL_HEAD_SIZE)
+    size = std::min(size, SEQUENTIAL_HEAD_SIZE - stream->sourcePos);
+
+  ssize_t count = stream->read(stream->cookie, buffer, size);
+  if (count <= 0)
+    return count;
+
+  if (stream->sourcePos < SEQUENTIAL_HEAD_SIZE) {
+    memcpy(stream->head + stream->headLength, buffer, count);
+    stream->headLength += count;
+  }
+  stream->sourcePos += count;
+  stream->pos += count;
+  return count;
+}
+
+static off_t sequentialSeek(void *cookie, off_t offset, int whence) {
+  SequentialStream *stream = (SequentialStream *) cookie;
+
+  if (whence == SEEK_END) {
+    errno = ESPIPE;
+    return -1;
+  }
+  off_t target = (whence == SEEK_SET ? 0 : stream->pos) + offset;
+  if (target < 0) {
+    errno = EINVAL;
+    return -1;
+  }
+
+  // Position within the head can be reached only while the source continues
+  // right after it
+  if ((size_t) target <= stream->headLength && stream->headLength == stream->sourcePos) {
+    stream->pos = target;
+    return target;
+  }
+  if ((size_t) target < stream->sourcePos) {
+    errno = ESPIPE;
+    return -1;
+  }
+
+  // Skip forward in the source
+  char buffer[1024];
+  stream->pos = stream->sourcePos;
+  while (stream->pos < (size_t) target) {
+    ssize_t count = sequentialRead(stream, buffer,
+                                   std::min(sizeof(buffer), (size_t) target - stream->pos));
+    if (count <= 0) {
+      errno = EINVAL;
+      return -1;
+    }
+  }
+  return target;
+}
+
+static int sequentialClose(void *cookie) {
+  delete (SequentialStream *) cookie;
+  return 0;
+}
+
+/**
+ * Callbacks of one stream, the stdio cookie API differs between Bionic and glibc.
+ */
+struct StreamFuncs {
+  void *cookie;
+  ssize_t (*read)(void *cookie, char *buffer, size_t size);
+  off_t (*seek)(void *cookie, off_t offset, int whence);
+  int (*close)(void *cookie);
+};
+
+#if defined(__BIONIC__)
+
+static int funcsRead(void *cookie, char *buffer, int size) {
+  StreamFuncs *funcs = (StreamFuncs *) cookie;
+  return (int) funcs->read(funcs->cookie, buffer, size);
+}
+
+static fpos_t funcsSeek(void *cookie, fpos_t offset, int whence) {
+  StreamFuncs *funcs = (StreamFuncs *) cookie;
+  return (fpos_t) funcs->seek(funcs->cookie, (off_t) offset, whence);
+}
+
+#else
+
+static ssize_t funcsRead(void *cookie, char *buffer, size_t size) {
+  StreamFuncs *funcs = (StreamFuncs *) cookie;
+  return funcs->read(funcs->cookie, buffer, size);
+}
+
+static int funcsSeek(void *cookie, off64_t *offset, int whence) {
+  StreamFuncs *funcs = (StreamFuncs *) cookie;
+  off_t pos = funcs->seek(funcs->cookie, (off_t) *offset, whence);
+  if (pos < 0)
+    return -1;
+  *offset = pos;
+  return 0;
+}
+
+#endif
+
+static int funcsClose(void *cookie) {
+  StreamFuncs *funcs = (StreamFuncs *) cookie;
+  int ret = funcs->close(funcs->cookie);
+  delete funcs;
+  return ret;
+}
+
+static FILE *openStream(const StreamFuncs &funcs) {
+  StreamFuncs *cookie = new StreamFuncs(funcs);
+
+#if defined(__BIONIC__)
+  FILE *fp = funopen(cookie, funcsRead, nullptr, funcsSeek, funcsClose);
+#else
+  cookie_io_functions_t io = {funcsRead, nullptr, funcsSeek, funcsClose};
+  FILE *fp = fopencookie(cookie, "rb", io);
+#endif
+
+  if (fp == nullptr)
+    funcsClose(cookie);
+  return fp;
+}
+
+FILE *openMemoryStream(const void *data, size_t size) {
+  MemoryStream *stream = new MemoryStream{(const char *) data, size, 0};
+  return openStream({stream, memoryRead, memorySeek, memoryClose});
+}
+
+FILE *openSequentialStream(StreamReadFunc read, void *cookie) {
+  SequentialStream *stream = new SequentialStream();
+  stream->read = read;
+  stream->cookie = cookie;
+  return openStream({stream, sequentialRead, sequentialSeek, sequentialClose});
+}
+
+/**
+ * Reads the rest of the stream into a buffer allocated with malloc().
+ */
+static char *readRemaining(FILE *fp, size_t *size) {
+  size_t capacity = 64 * 1024;
+  size_t length = 0;
+  char *data = (char *) malloc(capacity);
+
+  while (data != nullptr) {
+    length += fread(data + length, 1, capacity - length, fp);
+    if (length < capacity)
+      break;
+
+    char *grown = (char *) realloc(data, capacity * 2);
+    if (grown == nullptr)
+      free(data);
+    data = grown;
+    capacity *= 2;
+  }
+
+  if (data == nullptr || ferror(fp)) {
+    free(data);
+    return nullptr;
+  }
+  *size = length;
+  return data;
+}
+
+struct JpegErrorManager {
+  struct jpeg_error_mgr pub;
+  jmp_buf jmpbuf;
+};
+
+static void jpegErrorExit(j_common_ptr cinfo) {
+  JpegErrorManager *err = (JpegErrorManager *) cinfo->err;
+
+  char message[JMSG_LENGTH_MAX];
+  (*cinfo->err->format_message)(cinfo, message);
+  LOGE("Could not decode JPEG: %s", message);
+
+  longjmp(err->jmpbuf, 1);
+}
+
+/**
+ * Sets the DCT scaling of the decoder according to the options, before
+ * the output dimensions are calculated.
+ */
+static void setJpegScale(j_decompress_ptr cinfo, const PixReadOptions &options) {
+  l_int32 longerSide = std::max(cinfo->image_width, cinfo->image_height);
+
+  if (options.targetDimension > 0 && options.targetDimension < longerSide) {
+    // Smallest scale in 1/8 steps keeping the longer side at the target size
+    cinfo->scale_num = std::max(1, (8 * options.targetDimension + longerSide - 1) / longerSide);
+    cinfo->scale_denom = 8;
+  } else if (options.targetDimension <= 0 && options.scaleDenominator > 1) {
+    cinfo->scale_num = 1;
+    cinfo->scale_denom = options.scaleDenominator;
+  }
+}
+
+/**
+ * Converts a decoded row of JPEG samples with the given number of components
+ * into a row of Pix.
+ */
+static void convertJpegRow(const JSAMPLE *row, l_uint32 *line, l_int32 width, l_int32 spp,
+                           bool adobe) {
+  if (spp == 1) {
+    for (l_int32 x = 0; x < width; x++)
+      SET_DATA_BYTE(line, x, row[x]);
+  } else if (spp == 3) {
+    for (l_int32 x = 0; x < width; x++, row += 3)
+      composeRGBPixel(row[0], row[1], row[2], line + x);
+  } else {
+    // Same conversion as Leptonica, Adobe inverts the CMYK values
+    for (l_int32 x = 0; x < width; x++, row += 4) {
+      l_int32 c = row[0], m = row[1], y = row[2], k = row[3];
+      if (adobe)
+        composeRGBPixel(k * c / 255, k * m / 255, k * y / 255, line + x);
+      else
+        composeRGBPixel(k * (255 - c) / 255, k * (255 - m) / 255, k * (255 - y) / 255,
+                        line + x);
+    }
+  }
+}
+
+static inline l_int32 clampSample(l_int32 value) {
+  return value < 0 ? 0 : (value > 255 ? 255 : value);
+}
+
+/**
+ * Converts the region of one output row from raw (downsampled) component
+ * planes of the current iMCU row, upsampling the chroma by replication.
+ *
+ * @param rowInMcu index of the output row within the iMCU row
+ */
+static void convertRawRow(j_decompress_ptr cinfo, JSAMPIMAGE planes, l_int32 rowInMcu,
+                          l_int32 left, l_int32 width, bool gray, l_uint32 *line) {
+  const jpeg_component_info *comp = cinfo->comp_info;
+  const l_int32 maxH = cinfo->max_h_samp_factor;
+  const l_int32 maxV = cinfo->max_v_samp_factor;
+
+  const JSAMPLE *luma = planes[0][rowInMcu * comp[0].v_samp_factor / maxV];
+  if (gray) {
+    for (l_int32 x = 0; x < width; x++)
+      SET_DATA_BYTE(line, x, luma[(left + x) * comp[0].h_samp_factor / maxH]);
+    return;
+  }
+
+  const JSAMPLE *cb = planes[1][rowInMcu * comp[1].v_samp_factor / maxV];
+  const JSAMPLE *cr = planes[2][rowInMcu * comp[2].v_samp_factor / maxV];
+  for (l_int32 x = 0; x < width; x++) {
+    l_int32 y = luma[(left + x) * comp[0].h_samp_factor / maxH];
+    l_int32 u = cb[(left + x) * comp[1].h_samp_factor / maxH] - 128;
+    l_int32 v = cr[(left + x) * comp[2].h_samp_factor / maxH] - 128;
+
+    // JFIF conversion with the same fixed-point constants as libjpeg
+    composeRGBPixel(clampSample(y + ((91881 * v + 32768) >> 16)),
+                    clampSample(y - ((22554 * u + 46802 * v - 32768) >> 16)),
+                    clampSample(y + ((116130 * u + 32768) >> 16)),
+                    line + x);
+  }
+}
+
+/**
+ * Decodes a JPEG image in a single pass over the stream, scaling it in the DCT
+ * domain and decoding only the luminance if requested.
+ * <p>
+ * If a region (in coordinates of the decoded image) is given, only rows up to
+ * its bottom are decoded. YCbCr and grayscale images are then decoded as raw
+ * component planes, so rows above the region and columns outside of it skip
+ * the upsampling and color conversion.
+ */
+static PIX *pixReadStreamJpegRegion(FILE *fp, const PixRegion *region, const PixReadOptions &options) {
+  struct jpeg_decompress_struct cinfo;
+  JpegErrorManager jerr;
+  // Volatile, as they change between setjmp() and longjmp()
+  PIX *volatile pix = nullptr;
+  JSAMPLE *volatile buffer = nullptr;
+
+  cinfo.err = jpeg_std_error(&jerr.pub);
+  jerr.pub.error_exit = jpegErrorExit;
+  if (setjmp(jerr.jmpbuf)) {
+    jpeg_destroy_decompress(&cinfo);
+    PIX *failed = pix;
+    pixDestroy(&failed);
+    free(buffer);
+    return nullptr;
+  }
+
+  jpeg_create_decompress(&cinfo);
+  jpeg_stdio_src(&cinfo, fp);
+  jpeg_read_header(&cinfo, TRUE);
+
+  setJpegScale(&cinfo, options);
+
+  const bool raw = region != nullptr
+                   && ((cinfo.jpeg_color_space == JCS_YCbCr && cinfo.num_components == 3)
+                       || (cinfo.jpeg_color_space == JCS_GRAYSCALE && cinfo.num_components == 1));
+  // CMYK can't be converted to grayscale by the decoder, it's done at the end
+  const bool cmyk = cinfo.jpeg_color_space == JCS_CMYK || cinfo.jpeg_color_space == JCS_YCCK;
+  if (raw) {
+    cinfo.raw_data_out = TRUE;
+    cinfo.out_color_space = cinfo.jpeg_color_space;
+  } else if (cmyk) {
+    cinfo.out_color_space = JCS_CMYK;
+  } else if (options.grayscale || cinfo.num_components == 1) {
+    cinfo.out_color_space = JCS_GRAYSCALE;
+  } else {
+    cinfo.out_color_space = JCS_RGB;
+  }
+
+  jpeg_start_decompress(&cinfo);
+
+  l_int32 left = 0, top = 0;
+  l_int32 right = cinfo.output_width, bottom = cinfo.output_height;
+  if (region != nullptr) {
+    left = std::max(left, region->x);
+    top = std::max(top, region->y);
+    right = std::min(right, region->x + region->w);
+    bottom = std::min(bottom, region->y + region->h);
+    if (left >= right || top >= bottom) {
+      LOGE("Region is outside of the JPEG image %dx%d", cinfo.output_width, cinfo.output_height);
+      longjmp(jerr.jmpbuf, 1);
+    }
+  }
+
+  const bool gray = raw ? (options.grayscale || cinfo.num_components == 1)
+                        : cinfo.output_components == 1;
+  pix = pixCreateNoInit(right - left, bottom - top, gray ? 8 : 32);
+
+  // Raw planes of one iMCU row, or one full row of samples
+  JSAMPROW rows[MAX_COMPONENTS][MAX_SAMP_FACTOR * DCTSIZE * 2];
+  JSAMPARRAY planes[MAX_COMPONENTS];
+  size_t bufferSize = (size_t) cinfo.output_width * cinfo.output_components;
+  if (raw) {
+    const l_int32 mcuColumns = (cinfo.image_width + cinfo.max_h_samp_factor * cinfo.block_size - 1)
+                               / (cinfo.max_h_samp_factor * cinfo.block_size);
+    bufferSize = 0;
+    for (l_int32 c = 0; c < cinfo.num_components; c++) {
+      const jpeg_component_info *comp = &cinfo.comp_info[c];
+      bufferSize += (size_t) mcuColumns * comp->h_samp_factor * cinfo.min_DCT_h_scaled_size
+                    * comp->v_samp_factor * cinfo.min_DCT_v_scaled_size;
+    }
+  }
+  buffer = (JSAMPLE *) malloc(bufferSize);
+  if (pix == nullptr || buffer == nullptr) {
+    LOGE("Could not allocate JPEG image %dx%d", right - left, bottom - top);
+    longjmp(jerr.jmpbuf, 1);
+  }
+
+  l_uint32 *data = pixGetData(pix);
+  const l_int32 wpl = pixGetWpl(pix);
+
+  if (raw) {
+    const l_int32 mcuColumns = (cinfo.image_width + cinfo.max_h_samp_factor * cinfo.block_size - 1)
+                               / (cinfo.max_h_samp_factor * cinfo.block_size);
+    JSAMPLE *next = buffer;
+    for (l_int32 c = 0; c < cinfo.num_components; c++) {
+      const jpeg_component_info *comp = &cinfo.comp_info[c];
+      const l_int32 rowWidth = mcuColumns * comp->h_samp_factor * cinfo.min_DCT_h_scaled_size;
+      for (l_int32 r = 0; r < comp->v_samp_factor * cinfo.min_DCT_v_scaled_size; r++, next += rowWidth)
+        rows[c][r] = next;
+      planes[c] = rows[c];
+    }
+
+    const l_int32 mcuRows = cinfo.max_v_samp_factor * cinfo.min_DCT_v_scaled_size;
+    for (l_int32 y = 0; y < bottom; y += mcuRows) {
+      if (jpeg_read_raw_data(&cinfo, planes, mcuRows) != (JDIMENSION) mcuRows
+          || cinfo.err->num_warnings > 0) {
+        LOGE("Corrupted JPEG data at line %d", y);
+        longjmp(jerr.jmpbuf, 1);
+      }
+      for (l_int32 row = std::max(y, top); row < std::min(y + mcuRows, bottom); row++)
+        convertRawRow(&cinfo, planes, row - y, left, right - left, gray,
+                      data + (row - top) * wpl);
+    }
+  } else {
+    JSAMPROW row = buffer;
+    for (l_int32 y = 0; y < bottom; y++) {
+      if (jpeg_read_scanlines(&cinfo, &row, 1) != 1 || cinfo.err->num_warnings > 0) {
+        LOGE("Corrupted JPEG data at line %d", y);
+        longjmp(jerr.jmpbuf, 1);
+      }
+      if (y >= top)
+        convertJpegRow(row + left * cinfo.output_components, data + (y - top) * wpl,
+                       right - left, cinfo.output_components, cinfo.saw_Adobe_marker);
+    }
+  }
+
+  // Resolution of the scaled image decreases with its size
+  if (cinfo.density_unit == 1 || cinfo.density_unit == 2) {
+    l_float32 factor = (cinfo.density_unit == 2 ? 2.54f : 1.0f)
+                       * (l_float32) cinfo.output_width / cinfo.image_width;
+    pixSetResolution(pix, (l_int32) (cinfo.X_density * factor + 0.5f),
+                     (l_int32) (cinfo.Y_density * factor + 0.5f));
+  }
+
+  // Rest of the image is not needed when decoding a region
+  if (cinfo.output_scanline < cinfo.output_height)
+    jpeg_abort_decompress(&cinfo);
+  else
+    jpeg_finish_decompress(&cinfo);
+  jpeg_destroy_decompress(&cinfo);
+  free(buffer);
+
+  PIX *result = pix;
+  pixSetInputFormat(result, IFF_JFIF_JPEG);
+  if (cmyk && options.grayscale) {
+    PIX *gray8 = pixConvertRGBToLuminance(result);
+    pixDestroy(&result);
+    result = gray8;
+  }
+  return result;
+}
+
+static PIX *pixReadStreamJpegOptions(FILE *fp, const PixReadOptions &options) {
+  return pixReadStreamJpegRegion(fp, nullptr, options);
+}
+
+static void pngError(png_structp png, png_const_charp message) {
+  LOGE("Could not decode PNG: %s", message);
+  png_longjmp(png, 1);
+}
+
+/**
+ * Decodes a region of a PNG image, reading only rows up to its bottom.
+ * The result is 8 bpp grayscale or 32 bpp color.
+ *
+ * @param interlaced set if the image is interlaced and can't be read by rows
+ */
+static PIX *pixReadStreamPngRegion(FILE *fp, const PixRegion *region, const PixReadOptions &options,
+                                   bool *interlaced) {
+  *interlaced = false;
+
+  png_structp png = png_create_read_struct(PNG_LIBPNG_VER_STRING, nullptr, pngError, nullptr);
+  png_infop info = png != nullptr ? png_create_info_struct(png) : nullptr;
+  if (info == nullptr) {
+    png_destroy_read_struct(&png, nullptr, nullptr);
+    return nullptr;
+  }
+
+  // Volatile, as they change between setjmp() and longjmp()
+  PIX *volatile pix = nullptr;
+  png_bytep volatile row = nullptr;
+
+  if (setjmp(png_jmpbuf(png))) {
+    png_destroy_read_struct(&png, &info, nullptr);
+    PIX *failed = pix;
+    pixDestroy(&failed);
+    free(row);
+    return nullptr;
+  }
+
+  png_init_io(png, fp);
+  png_read_info(png, info);
+
+  if (png_get_interlace_type(png, info) != PNG_INTERLACE_NONE) {
+    png_destroy_read_struct(&png, &info, nullptr);
+    *interlaced = true;
+    return nullptr;
+  }
+
+  const l_int32 width = png_get_image_width(png, info);
+  const l_int32 height = png_get_image_height(png, info);
+  const l_int32 left = std::max(0, region->x);
+  const l_int32 top = std::max(0, region->y);
+  const l_int32 right = std::min(width, region->x + region->w);
+  const l_int32 bottom = std::min(height, region->y + region->h);
+  if (left >= right || top >= bottom) {
+    LOGE("Region is outside of the PNG image %dx%d", width, height);
+    png_longjmp(png, 1);
+  }
+
+  const png_byte colorType = png_get_color_type(png, info);
+  const bool alpha = (colorType & PNG_COLOR_MASK_ALPHA) || png_get_valid(png, info, PNG_INFO_tRNS);
+  const bool gray = options.grayscale || !(colorType & PNG_COLOR_MASK_COLOR);
+
+  // Expand everything to 8 bits per sample, either gray or RGBA
+  png_set_expand(png);
+  png_set_strip_16(png);
+  if (gray) {
+    // Same weights as pixConvertRGBToLuminance(), in 1/100000
+    if (colorType & PNG_COLOR_MASK_COLOR)
+      png_set_rgb_to_gray_fixed(png, 1, 30000, 50000);
+    if (alpha)
+      png_set_strip_alpha(png);
+  } else if (!alpha) {
+    png_set_filler(png, 0xFF, PNG_FILLER_AFTER);
+  }
+  png_read_update_info(png, info);
+
+  pix = pixCreateNoInit(right - left, bottom - top, gray ? 8 : 32);
+  row = (png_bytep) malloc(png_get_rowbytes(png, info));
+  if (pix == nullptr || row == nullptr) {
+    LOGE("Could not allocate PNG image %dx%d", right - left, bottom - top);
+    png_longjmp(png, 1);
+  }
+
+  l_uint32 *data = pixGetData(pix);
+  const l_int32 wpl = pixGetWpl(pix);
+
+  for (l_int32 y = 0; y < bottom; y++) {
+    png_read_row(png, row, nullptr);
+    if (y < top)
+      continue;
+
+    l_uint32 *line = data + (y - top) * wpl;
+    if (gray) {
+      for (l_int32 x = left; x < right; x++)
+        SET_DATA_BYTE(line, x - left, row[x]);
+    } else {
+      convertRgbaRow(row + left * 4, line, right - left);
+    }
+  }
+
+  png_uint_32 xRes, yRes;
+  int unit;
+  if (png_get_pHYs(png, info, &xRes, &yRes, &unit) && unit == PNG_RESOLUTION_METER)
+    pixSetResolution(pix, (l_int32) (xRes * 0.0254 + 0.5), (l_int32) (yRes * 0.0254 + 0.5));
+
+  // Rest of the image is not needed, so png_read_end() is skipped
+  png_destroy_read_struct(&png, &info, nullptr);
+  free(row);
+
+  PIX *result = pix;
+  if (alpha && !gray)
+    pixSetSpp(result, 4);
+  pixSetInputFormat(result, IFF_PNG);
+  return result;
+}
+
+/**
+ * Applies the options which can't be applied while decoding, i.e. grayscale
+ * output of formats other than JPEG.
+ */
+static PIX *finishRead(PIX *pix, l_int32 format, const PixReadOptions &options) {
+  if (pix == nullptr)
+    return nullptr;
+
+  pixSetInputFormat(pix, format);
+  if (!options.grayscale || (pixGetDepth(pix) == 8 && pixGetColormap(pix) == nullptr))
+    return pix;
+
+  PIX *gray = pixConvertTo8(pix, FALSE);
+  if (gray != nullptr)
+    pixSetInputFormat(gray, format);
+  pixDestroy(&pix);
+  return gray;
+}
+
+PIX *pixReadStreamOptions(FILE *fp, const PixReadOptions &options) {
+  l_int32 format = IFF_UNKNOWN;
+  findFileFormatStream(fp, &format);
+  rewind(fp);
+
+  if (format == IFF_JFIF_JPEG)
+    return pixReadStreamJpegOptions(fp, options);
+
+  return finishRead(pixReadStream(fp, 0), format, options);
+}
+
+PIX *pixReadStreamRegion(FILE *fp, const PixRegion *region, const PixReadOptions &options) {
+  l_int32 format = IFF_UNKNOWN;
+  findFileFormatStream(fp, &format);
+  rewind(fp);
+
+  if (format == IFF_JFIF_JPEG)
+    return pixReadStreamJpegRegion(fp, region, options);
+
+  if (format == IFF_PNG) {
+    bool interlaced;
+    PIX *pix = pixReadStreamPngRegion(fp, region, options, &interlaced);
+    if (!interlaced)
+      return pix;
+    rewind(fp);
+  }
+
+  // Other formats are decoded as a whole
+  PIX *pix = pixReadStreamOptions(fp, options);
+  if (pix == nullptr)
+    return nullptr;
+
+  BOX *box = boxCreate(region->x, region->y, region->w, region->h);
+  PIX *clipped = box != nullptr ? pixClipRectangle(pix, box, nullptr) : nullptr;
+  boxDestroy(&box);
+  pixDestroy(&pix);
+  return clipped;
+}
+
+PIX *pixReadSequentialStream(FILE *fp, const PixReadOptions &options) {
+  l_uint8 firstBytes[12];
+  l_int32 format = IFF_UNKNOWN;
+
+  if (fread(firstBytes, 1, sizeof(firstBytes), fp) == sizeof(firstBytes))
+    findFileFormatBuffer(firstBytes, &format);
+  if (fseek(fp, 0, SEEK_SET) != 0) {
+    LOGE("Could not rewind the image stream");
+    return nullptr;
+  }
+
+  switch (format) {
+    case IFF_JFIF_JPEG:
+      return pixReadStreamJpegOptions(fp, options);
+    case IFF_PNG:
+      return finishRead(pixReadStreamPng(fp), format, options);
+    case IFF_UNKNOWN:
+      LOGE("Unknown format of the image stream");
+      return nullptr;
+    default:
+      break;
+  }
+
+  // Other readers need to seek, or read everything into memory anyway
+  size_t size;
+  char *data = readRemaining(fp, &size);
+  if (data == nullptr) {
+    LOGE("Could not read the image stream");
+    return nullptr;
+  }
+
+  PIX *pix = nullptr;
+  FILE *memory = openMemoryStream(data, size);
+  if (memory != nullptr) {
+    pix = pixReadStreamOptions(memory, options);
+    fclose(memory);
+  }
+  free(data);
+  return pix;
+}
+
+static ssize_t fdRead(void *cookie, char *buffer, size_t size) {
+  int fd = *(int *) cookie;
+
+  ssize_t count;
+  do {
+    count = read(fd, buffer, size);
+  } while (count < 0 && errno == EINTR);
+  return count;
+}
+
+PIX *pixReadFd(int fd, const PixReadOptions &options) {
+  struct stat st;
+  if (fstat(fd, &st) != 0) {
+    LOGE("Could not stat descriptor %d", fd);
+    return nullptr;
+  }
+
+  off_t offset = S_ISREG(st.st_mode) ? lseek(fd, 0, SEEK_CUR) : -1;
+  if (offset < 0) {
+    FILE *fp = openSequentialStream(fdRead, &fd);
+    if (fp == nullptr)
+      return nullptr;
+    PIX *pix = pixReadSequentialStream(fp, options);
+    fclose(fp);
+    return pix;
+  }
+
+  if (offset >= st.st_size) {
+    LOGE("No image data in descriptor %d", fd);
+    return nullptr;
+  }
+
+  // Offset of the mapping must be aligned to the page size
+  const off_t pageSize = sysconf(_SC_PAGESIZE);
+  const off_t alignedOffset = offset - offset % pageSize;
+  const size_t delta = offset - alignedOffset;
+  const size_t length = st.st_size - offset;
+
+  void *mapping = mmap(nullptr, length + delta, PROT_READ, MAP_PRIVATE, fd, alignedOffset);
+  if (mapping == MAP_FAILED) {
+    LOGE("Could not map descriptor %d", fd);
+    return nullptr;
+  }
+  madvise(mapping, length + delta, MADV_SEQUENTIAL);
+
+  PIX *pix = nullptr;
+  FILE *fp = openMemoryStream((const char *) mapping + delta, length);
+  if (fp != nullptr) {
+    pix = pixReadStreamOptions(fp, options);
+    fclose(fp);
+  }
+  munmap(mapping, length + delta);
+  return pix;
+}
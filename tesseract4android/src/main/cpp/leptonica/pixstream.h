@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef LEPTONICA_JNI_PIXSTREAM_H
+#define LEPTONICA_JNI_PIXSTREAM_H
+
+#include <cstdio>
+#include <sys/types.h>
+#include <allheaders.h>
+
+/**
+ * Options applied while decoding an image.
+ */
+struct PixReadOptions {
+  // JPEG images are reduced by 1, 2, 4 or 8
+  l_int32 scaleDenominator = 1;
+  // JPEG images are reduced so that their longer side is close to this size,
+  // but not smaller. Takes precedence over scaleDenominator if positive.
+  l_int32 targetDimension = 0;
+  // Output is 8 bpp grayscale, JPEG images are decoded as luminance only
+  bool grayscale = false;
+};
+
+/**
+ * Rectangle of an image to decode.
+ */
+struct PixRegion {
+  l_int32 x;
+  l_int32 y;
+  l_int32 w;
+  l_int32 h;
+};
+
+/**
+ * Reads up to size bytes from a sequential source into buffer.
+ *
+ * @return number of bytes read, 0 at the end of the source or -1 on error
+ */
+typedef ssize_t (*StreamReadFunc)(void *cookie, char *buffer, size_t size);
+
+/**
+ * Opens a read-only stream over the given memory, without copying it.
+ * The memory must stay valid until the stream is closed.
+ */
+FILE *openMemoryStream(const void *data, size_t size);
+
+/**
+ * Opens a read-only stream over a sequential source. The stream can seek back
+ * only within the first bytes of the source, which is enough to detect
+ * the image format before decoding it.
+ */
+FILE *openSequentialStream(StreamReadFunc read, void *cookie);
+
+/**
+ * Decodes an image from a seekable stream.
+ */
+PIX *pixReadStreamOptions(FILE *fp, const PixReadOptions &options);
+
+/**
+ * Decodes a region of an image from a seekable stream. The region is given
+ * in coordinates of the decoded image (i.e. after reduction) and is clipped to
+ * its bounds. JPEG and PNG images are decoded only up to the bottom of the
+ * region, other formats are decoded as a whole and clipped.
+ *
+ * @return the region or nullptr if it can't be decoded or is outside the image
+ */
+PIX *pixReadStreamRegion(FILE *fp, const PixRegion *region, const PixReadOptions &options);
+
+/**
+ * Decodes an image from a stream opened by openSequentialStream(). JPEG and
+ * PNG images are decoded directly from the source, other formats are first
+ * read into native memory.
+ */
+PIX *pixReadSequentialStream(FILE *fp, const PixReadOptions &options);
+
+/**
+ * Decodes an image from the current position of the given file descriptor.
+ * Regular files are memory-mapped, other descriptors (e.g. pipes) are read
+ * sequentially. The descriptor is not closed.
+ */
+PIX *pixReadFd(int fd, const PixReadOptions &options);
+
+#endif
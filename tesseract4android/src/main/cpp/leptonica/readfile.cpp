@@ -16,9 +16,12 @@
  */
 
 #include "common.h"
+#include "pixconv.h"
+#include "pixstream.h"
 
+#include <algorithm>
+#include <cstddef>
 #include <cstring>
-#include <android/bitmap.h>
 
 #ifdef __cplusplus
 extern "C" {
@@ -40,6 +43,160 @@ jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadMem(JNIEnv *env,
   return (jlong) pix;
 }
 
+static PixReadOptions readOptions(jint scaleDenominator, jint targetDimension,
+                                  jboolean grayscale) {
+  PixReadOptions options;
+  options.scaleDenominator = scaleDenominator;
+  options.targetDimension = targetDimension;
+  options.grayscale = grayscale;
+  return options;
+}
+
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadMemBuffer(JNIEnv *env, jclass clazz,
+                                                                         jobject buffer,
+                                                                         jint offset, jint length,
+                                                                         jint scaleDenominator,
+                                                                         jint targetDimension,
+                                                                         jboolean grayscale) {
+  const l_uint8 *data = (const l_uint8 *) env->GetDirectBufferAddress(buffer);
+  if (data == nullptr) {
+    LOGE("Could not access the buffer");
+    return (jlong) NULL;
+  }
+
+  FILE *fp = openMemoryStream(data + offset, length);
+  if (fp == nullptr)
+    return (jlong) NULL;
+
+  PIX *pix = pixReadStreamOptions(fp, readOptions(scaleDenominator, targetDimension, grayscale));
+  fclose(fp);
+
+  return (jlong) pix;
+}
+
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadRegionBuffer(JNIEnv *env,
+                                                                            jclass clazz,
+                                                                            jobject buffer,
+                                                                            jint offset,
+                                                                            jint length,
+                                                                            jint x, jint y,
+                                                                            jint width,
+                                                                            jint height,
+                                                                            jint scaleDenominator,
+                                                                            jint targetDimension,
+                                                                            jboolean grayscale) {
+  const l_uint8 *data = (const l_uint8 *) env->GetDirectBufferAddress(buffer);
+  if (data == nullptr) {
+    LOGE("Could not access the buffer");
+    return (jlong) NULL;
+  }
+
+  FILE *fp = openMemoryStream(data + offset, length);
+  if (fp == nullptr)
+    return (jlong) NULL;
+
+  PixRegion region = {x, y, width, height};
+  PIX *pix = pixReadStreamRegion(fp, &region,
+                                 readOptions(scaleDenominator, targetDimension, grayscale));
+  fclose(fp);
+
+  return (jlong) pix;
+}
+
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadRegionFile(JNIEnv *env,
+                                                                          jclass clazz,
+                                                                          jstring fileName,
+                                                                          jint x, jint y,
+                                                                          jint width, jint height,
+                                                                          jint scaleDenominator,
+                                                                          jint targetDimension,
+                                                                          jboolean grayscale) {
+  const char *c_fileName = env->GetStringUTFChars(fileName, nullptr);
+  if (c_fileName == nullptr) {
+    LOGE("could not extract fileName string!");
+    return (jlong) NULL;
+  }
+
+  FILE *fp = fopenReadStream(c_fileName);
+
+  env->ReleaseStringUTFChars(fileName, c_fileName);
+
+  if (fp == nullptr)
+    return (jlong) NULL;
+
+  PixRegion region = {x, y, width, height};
+  PIX *pix = pixReadStreamRegion(fp, &region,
+                                 readOptions(scaleDenominator, targetDimension, grayscale));
+  fclose(fp);
+
+  return (jlong) pix;
+}
+
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadFd(JNIEnv *env, jclass clazz,
+                                                                  jint fd, jint scaleDenominator,
+                                                                  jint targetDimension,
+                                                                  jboolean grayscale) {
+  return (jlong) pixReadFd(fd, readOptions(scaleDenominator, targetDimension, grayscale));
+}
+
+struct InputStreamSource {
+  JNIEnv *env;
+  jobject stream;
+  jmethodID read;
+  jbyteArray buffer;
+  jsize bufferLength;
+  bool failed;
+};
+
+static ssize_t inputStreamRead(void *cookie, char *buffer, size_t size) {
+  InputStreamSource *source = (InputStreamSource *) cookie;
+  JNIEnv *env = source->env;
+
+  // Nothing may be called with the exception pending, it's thrown once we return to Java
+  if (source->failed)
+    return -1;
+
+  jint length = (jint) std::min(size, (size_t) source->bufferLength);
+  jint count = env->CallIntMethod(source->stream, source->read, source->buffer, 0, length);
+  if (env->ExceptionCheck()) {
+    source->failed = true;
+    return -1;
+  }
+  if (count <= 0)
+    return 0;
+
+  env->GetByteArrayRegion(source->buffer, 0, count, (jbyte *) buffer);
+  return count;
+}
+
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadStream(JNIEnv *env, jclass clazz,
+                                                                      jobject stream,
+                                                                      jbyteArray buffer,
+                                                                      jint scaleDenominator,
+                                                                      jint targetDimension,
+                                                                      jboolean grayscale) {
+  jclass streamClass = env->GetObjectClass(stream);
+  InputStreamSource source = {
+      env, stream, env->GetMethodID(streamClass, "read", "([BII)I"), buffer,
+      env->GetArrayLength(buffer), false
+  };
+  env->DeleteLocalRef(streamClass);
+
+  FILE *fp = openSequentialStream(inputStreamRead, &source);
+  if (fp == nullptr)
+    return (jlong) NULL;
+
+  PIX *pix = pixReadSequentialStream(fp, readOptions(scaleDenominator, targetDimension,
+                                                     grayscale));
+  fclose(fp);
+
+  if (source.failed) {
+    pixDestroy(&pix);
+    return (jlong) NULL;
+  }
+  return (jlong) pix;
+}
+
 jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadBytes8(JNIEnv *env, jclass clazz,
                                                                       jbyteArray data, jint w,
                                                                       jint h) {
@@ -104,6 +261,77 @@ jboolean Java_com_googlecode_leptonica_android_ReadFile_nativeReplaceBytes8(JNIE
   return JNI_TRUE;
 }
 
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadYPlane(JNIEnv *env, jclass clazz,
+                                                                      jobject buffer,
+                                                                      jint offset,
+                                                                      jint rowStride,
+                                                                      jint pixelStride,
+                                                                      jint cropLeft,
+                                                                      jint cropTop,
+                                                                      jint cropWidth,
+                                                                      jint cropHeight,
+                                                                      jint rotation) {
+  const l_uint8 *src = (const l_uint8 *) env->GetDirectBufferAddress(buffer);
+  if (src == nullptr) {
+    LOGE("Could not access direct buffer");
+    return (jlong) NULL;
+  }
+  src += offset;
+
+  const bool swapSides = rotation == 90 || rotation == 270;
+  const l_int32 w = swapSides ? cropHeight : cropWidth;
+  const l_int32 h = swapSides ? cropWidth : cropHeight;
+
+  PIX *pixd = pixCreateNoInit(w, h, 8);
+  if (!pixd) {
+    LOGE("Failed to create pix object with w=%d, h=%d", w, h);
+    return (jlong) NULL;
+  }
+
+  // Each destination line is read from the source starting at the given
+  // pixel, moving by the given step; rotation is clockwise.
+  const ptrdiff_t rs = rowStride;
+  const ptrdiff_t ps = pixelStride;
+  const l_uint8 *first;
+  ptrdiff_t lineStep, pixelStep;
+  switch (rotation) {
+    case 90:
+      first = src + (cropTop + cropHeight - 1) * rs + cropLeft * ps;
+      lineStep = ps;
+      pixelStep = -rs;
+      break;
+    case 180:
+      first = src + (cropTop + cropHeight - 1) * rs + (cropLeft + cropWidth - 1) * ps;
+      lineStep = -rs;
+      pixelStep = -ps;
+      break;
+    case 270:
+      first = src + cropTop * rs + (cropLeft + cropWidth - 1) * ps;
+      lineStep = -ps;
+      pixelStep = rs;
+      break;
+    default:
+      first = src + cropTop * rs + cropLeft * ps;
+      lineStep = rs;
+      pixelStep = ps;
+      break;
+  }
+
+  l_uint32 *dst = pixGetData(pixd);
+  const l_int32 dstWpl = pixGetWpl(pixd);
+
+  for (l_int32 y = 0; y < h; y++) {
+    l_uint32 *dst_line = dst + y * dstWpl;
+    const l_uint8 *p = first + y * lineStep;
+
+    for (l_int32 x = 0; x < w; x++, p += pixelStep) {
+      SET_DATA_BYTE(dst_line, x, *p);
+    }
+  }
+
+  return (jlong) pixd;
+}
+
 jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadFile(JNIEnv *env, jclass clazz,
                                                                     jstring fileName) {
   PIX *pixd = nullptr;
@@ -121,74 +349,27 @@ jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadFile(JNIEnv *env,
   return (jlong) pixd;
 }
 
-jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadBitmap(JNIEnv *env, jclass clazz,
-                                                                      jobject bitmap) {
-  AndroidBitmapInfo info;
-  void* pixels;
-  int ret;
-
-  if ((ret = AndroidBitmap_getInfo(env, bitmap, &info)) < 0) {
-    LOGE("AndroidBitmap_getInfo() failed! error=%d", ret);
-    return (jlong) NULL;
-  }
-
-  if (info.format != ANDROID_BITMAP_FORMAT_RGBA_8888) {
-    LOGE("Bitmap format is not RGBA_8888!");
+jlong Java_com_googlecode_leptonica_android_ReadFile_nativeReadFileOptions(JNIEnv *env,
+                                                                           jclass clazz,
+                                                                           jstring fileName,
+                                                                           jint scaleDenominator,
+                                                                           jint targetDimension,
+                                                                           jboolean grayscale) {
+  const char *c_fileName = env->GetStringUTFChars(fileName, nullptr);
+  if (c_fileName == nullptr) {
+    LOGE("could not extract fileName string!");
     return (jlong) NULL;
   }
 
-  if ((ret = AndroidBitmap_lockPixels(env, bitmap, &pixels)) < 0) {
-    LOGE("AndroidBitmap_lockPixels() failed! error=%d", ret);
-    return (jlong) NULL;
-  }
+  FILE *fp = fopenReadStream(c_fileName);
 
-  PIX *pixd = pixCreate(info.width, info.height, 32);
+  env->ReleaseStringUTFChars(fileName, c_fileName);
 
-  l_uint32 *src = (l_uint32 *) pixels;
-  l_uint32 *dst = pixGetData(pixd);
-  l_int32 srcWpl = (info.stride / 4);
-  l_int32 dstWpl = pixGetWpl(pixd);
-  l_uint8 a, r, g, b;
-
-  for (int y = 0; y < info.height; y++) {
-    l_uint32 *dst_line = dst + (y * dstWpl);
-    l_uint32 *src_line = src + (y * srcWpl);
-
-    for (int x = 0; x < info.width; x++) {
-      // Get pixel from RGBA_8888
-      // NOTE: For some reason we have to swap R and B constants in order to get correct values!
-      a = (*src_line >> SK_A32_SHIFT);
-      r = (*src_line >> SK_B32_SHIFT); // intentionally use B shift, see NOTE above
-      g = (*src_line >> SK_G32_SHIFT);
-      b = (*src_line >> SK_R32_SHIFT); // intentionally use R shift, see NOTE above
-
-      // Set pixel to Pix format
-      *dst_line = a << L_ALPHA_SHIFT | r << L_RED_SHIFT | g << L_GREEN_SHIFT | b << L_BLUE_SHIFT;
-
-      // Move to the next pixel
-      src_line++;
-      dst_line++;
-    }
-  }
+  if (fp == nullptr)
+    return (jlong) NULL;
 
-/*
-  // Alternative version from renard314
-  // Result should be the same, but it iterates over pixels twice, because of the pixEndianByteSwap()
-  PIX *pixd = pixCreate(info.width, info.height, 32);
-  l_uint8 *src = (l_uint8 *) pixels;
-  l_uint8 *dst = (l_uint8 *) pixGetData(pixd);
-  l_int32 srcBpl = (info.stride);
-  l_int32 dstBpl = pixGetWpl(pixd)*4;
-
-  for (int dy = 0; dy < info.height; dy++) {
-    memcpy(dst, src, 4 * info.width);
-    dst += dstBpl;
-    src += srcBpl;
-  }
-  pixEndianByteSwap(pixd);
-*/
-
-  AndroidBitmap_unlockPixels(env, bitmap);
+  PIX *pixd = pixReadStreamOptions(fp, readOptions(scaleDenominator, targetDimension, grayscale));
+  fclose(fp);
 
   return (jlong) pixd;
 }
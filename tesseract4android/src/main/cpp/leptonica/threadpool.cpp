@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "threadpool.h"
+
+#include <algorithm>
+#include <atomic>
+#include <condition_variable>
+#include <deque>
+#include <memory>
+#include <mutex>
+#include <thread>
+
+#ifdef _OPENMP
+#include <omp.h>
+#endif
+
+static std::atomic<int> configuredThreads(0);
+
+void setThreadCount(int count) {
+  configuredThreads = std::max(0, count);
+}
+
+int getThreadCount() {
+  int count = configuredThreads;
+  if (count > 0)
+    return count;
+#ifdef _OPENMP
+  return omp_get_num_procs();
+#else
+  return std::max(1u, std::thread::hardware_concurrency());
+#endif
+}
+
+#ifndef _OPENMP
+
+namespace {
+
+/**
+ * One parallelFor() call. Indices are claimed one by one by the calling
+ * thread and by the workers which joined it.
+ */
+struct Job {
+  const std::function<void(int)> *body;
+  int count;
+  // Number of workers which may still join, guarded by Pool::mutex
+  int freeSlots;
+
+  std::atomic<int> next{0};
+  std::mutex mutex;
+  std::condition_variable finishedCondition;
+  int finished = 0;
+
+  void run() {
+    int done = 0;
+    for (int i = next++; i < count; i = next++) {
+      (*body)(i);
+      done++;
+    }
+    if (done > 0) {
+      std::lock_guard<std::mutex> lock(mutex);
+      finished += done;
+      if (finished == count)
+        finishedCondition.notify_all();
+    }
+  }
+};
+
+/**
+ * Workers and jobs waiting for them. Never destroyed, the workers are still
+ * waiting for jobs when the process exits.
+ */
+struct Pool {
+  std::mutex mutex;
+  std::condition_variable jobCondition;
+  std::deque<std::shared_ptr<Job>> jobs;
+  int workerCount = 0;
+};
+
+}  // namespace
+
+static Pool &getPool() {
+  static Pool *pool = new Pool();
+  return *pool;
+}
+
+static void workerLoop() {
+  Pool &pool = getPool();
+  std::unique_lock<std::mutex> lock(pool.mutex);
+  for (;;) {
+    pool.jobCondition.wait(lock, [&pool] { return !pool.jobs.empty(); });
+
+    std::shared_ptr<Job> job = pool.jobs.front();
+    if (--job->freeSlots == 0)
+      pool.jobs.pop_front();
+
+    lock.unlock();
+    job->run();
+    lock.lock();
+  }
+}
+
+void parallelFor(int count, const std::function<void(int)> &body) {
+  const int threads = std::min(getThreadCount(), count);
+  if (threads <= 1) {
+    for (int i = 0; i < count; i++)
+      body(i);
+    return;
+  }
+
+  std::shared_ptr<Job> job = std::make_shared<Job>();
+  job->body = &body;
+  job->count = count;
+  job->freeSlots = threads - 1;
+
+  Pool &pool = getPool();
+  {
+    std::lock_guard<std::mutex> lock(pool.mutex);
+    // Workers are started on demand and kept for the lifetime of the process
+    for (; pool.workerCount < threads - 1; pool.workerCount++)
+      std::thread(workerLoop).detach();
+    pool.jobs.push_back(job);
+  }
+  pool.jobCondition.notify_all();
+
+  job->run();
+
+  {
+    std::unique_lock<std::mutex> lock(job->mutex);
+    job->finishedCondition.wait(lock, [&job] { return job->finished == job->count; });
+  }
+
+  // Not all slots were taken, workers must not join a finished job
+  std::lock_guard<std::mutex> lock(pool.mutex);
+  auto it = std::find(pool.jobs.begin(), pool.jobs.end(), job);
+  if (it != pool.jobs.end())
+    pool.jobs.erase(it);
+}
+
+#else
+
+void parallelFor(int count, const std::function<void(int)> &body) {
+  const int threads = std::min(getThreadCount(), count);
+  if (threads <= 1) {
+    for (int i = 0; i < count; i++)
+      body(i);
+    return;
+  }
+
+#pragma omp parallel for schedule(dynamic) num_threads(threads)
+  for (int i = 0; i < count; i++)
+    body(i);
+}
+
+#endif
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef LEPTONICA_JNI_THREADPOOL_H
+#define LEPTONICA_JNI_THREADPOOL_H
+
+#include <functional>
+
+/**
+ * Sets the number of threads used by parallelFor(), including the calling
+ * thread. Zero means one thread per available CPU core.
+ */
+void setThreadCount(int count);
+
+/**
+ * Returns the number of threads used by parallelFor().
+ */
+int getThreadCount();
+
+/**
+ * Calls body for each index in [0, count), distributing the calls among up
+ * to getThreadCount() threads. Returns once all calls are done. Uses OpenMP
+ * when built with it, a shared pool of worker threads otherwise.
+ *
+ * The calls may run in any order and concurrently, so they must only write
+ * to memory not touched by any other index.
+ */
+void parallelFor(int count, const std::function<void(int)> &body);
+
+#endif
@@ -16,9 +16,10 @@
  */
 
 #include "common.h"
+#include "pixparallel.h"
+#include "threadpool.h"
 
 #include <cstring>
-#include <android/bitmap.h>
 
 #ifdef __cplusplus
 extern "C" {
@@ -37,8 +38,8 @@ jlong Java_com_googlecode_leptonica_android_AdaptiveMap_nativeBackgroundNormMorp
   // Normalizes the background of each element in pixa.
 
   PIX *pixs = (PIX *) nativePix;
-  PIX *pixd = pixBackgroundNormMorph(pixs, nullptr, (l_int32) reduction, (l_int32) size,
-                                     (l_int32) bgval);
+  PIX *pixd = pixBackgroundNormMorphParallel(pixs, (l_int32) reduction, (l_int32) size,
+                                             (l_int32) bgval);
 
   return jlong(pixd);
 }
@@ -53,8 +54,8 @@ jlong Java_com_googlecode_leptonica_android_AdaptiveMap_nativePixContrastNorm(JN
                                                                               jint smoothY) {
 
   PIX *pixs = (PIX *) nativePix;
-  PIX *pixd = pixContrastNorm(nullptr, pixs, (l_int32) sizeX, (l_int32) sizeY,
-                                     (l_int32) minDiff, (l_int32) smoothX, (l_int32) smoothY);
+  PIX *pixd = pixContrastNormParallel(nullptr, pixs, (l_int32) sizeX, (l_int32) sizeY,
+                                      (l_int32) minDiff, (l_int32) smoothX, (l_int32) smoothY);
 
   return jlong(pixd);
 }
@@ -75,8 +76,8 @@ jlong Java_com_googlecode_leptonica_android_Binarize_nativeOtsuAdaptiveThreshold
   PIX *pixs = (PIX *) nativePix;
   PIX *pixd;
 
-  if (pixOtsuAdaptiveThreshold(pixs, (l_int32) sizeX, (l_int32) sizeY, (l_int32) smoothX,
-                               (l_int32) smoothY, (l_float32) scoreFract, nullptr, &pixd)) {
+  if (pixOtsuAdaptiveThresholdParallel(pixs, (l_int32) sizeX, (l_int32) sizeY, (l_int32) smoothX,
+                                       (l_int32) smoothY, (l_float32) scoreFract, &pixd)) {
     return (jlong) 0;
   }
 
@@ -94,8 +95,8 @@ jlong Java_com_googlecode_leptonica_android_Binarize_nativeSauvolaBinarizeTiled(
   PIX *pixs = (PIX *) nativePix;
   PIX *pixd;
 
-  if (pixSauvolaBinarizeTiled(pixs, (l_int32) whsize, (l_float32) factor, (l_int32) nx,
-                               (l_int32) ny, nullptr, &pixd)) {
+  if (pixSauvolaBinarizeTiledParallel(pixs, (l_int32) whsize, (l_float32) factor, (l_int32) nx,
+                                      (l_int32) ny, &pixd)) {
     return (jlong) 0;
   }
 
@@ -337,6 +338,21 @@ jlong Java_com_googlecode_leptonica_android_Rotate_nativeRotateOrth(JNIEnv *env,
   return jlong(pixd);
 }
 
+/***************
+ * Parallelism *
+ ***************/
+
+void Java_com_googlecode_leptonica_android_Parallelism_nativeSetThreadCount(JNIEnv *env,
+                                                                           jclass clazz,
+                                                                           jint count) {
+  setThreadCount((int) count);
+}
+
+jint Java_com_googlecode_leptonica_android_Parallelism_nativeGetThreadCount(JNIEnv *env,
+                                                                           jclass clazz) {
+  return (jint) getThreadCount();
+}
+
 #ifdef __cplusplus
 }
 #endif  /* __cplusplus */
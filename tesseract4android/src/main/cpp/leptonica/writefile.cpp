@@ -18,7 +18,6 @@
 #include "common.h"
 
 #include <cstring>
-#include <android/bitmap.h>
 
 #ifdef __cplusplus
 extern "C" {
@@ -75,86 +74,6 @@ jboolean Java_com_googlecode_leptonica_android_WriteFile_nativeWriteImpliedForma
   return result;
 }
 
-jboolean Java_com_googlecode_leptonica_android_WriteFile_nativeWriteBitmap(JNIEnv *env,
-                                                                           jclass clazz,
-                                                                           jlong nativePix,
-                                                                           jobject bitmap) {
-  PIX *pixs = (PIX *) nativePix;
-
-  l_int32 w, h, d;
-  AndroidBitmapInfo info;
-  void* pixels;
-  int ret;
-
-  if ((ret = AndroidBitmap_getInfo(env, bitmap, &info)) < 0) {
-    LOGE("AndroidBitmap_getInfo() failed ! error=%d", ret);
-    return JNI_FALSE;
-  }
-
-  if (info.format != ANDROID_BITMAP_FORMAT_RGBA_8888) {
-    LOGE("Bitmap format is not RGBA_8888 !");
-    return JNI_FALSE;
-  }
-
-  pixGetDimensions(pixs, &w, &h, &d);
-
-  if (w != info.width || h != info.height) {
-    LOGE("Bitmap width and height do not match Pix dimensions!");
-    return JNI_FALSE;
-  }
-
-  if ((ret = AndroidBitmap_lockPixels(env, bitmap, &pixels)) < 0) {
-    LOGE("AndroidBitmap_lockPixels() failed ! error=%d", ret);
-    return JNI_FALSE;
-  }
-
-  // FIXME: Don't swap pix bytes back and forth, fix the algorithm
-  pixEndianByteSwap(pixs);
-
-  l_uint8 *dst = (l_uint8 *) pixels;
-  l_uint8 *src = (l_uint8 *) pixGetData(pixs);
-  l_int32 dstBpl = info.stride;
-  l_int32 srcBpl = 4 * pixGetWpl(pixs);
-
-  LOGI("Writing 32bpp RGBA bitmap (w=%d, h=%d, stride=%d) from %dbpp Pix (wpl=%d)", info.width,
-       info.height, info.stride, d, pixGetWpl(pixs));
-
-  for (int dy = 0; dy < info.height; dy++) {
-    l_uint8 *dstx = dst;
-    l_uint8 *srcx = src;
-
-    if (d == 32) {
-      memcpy(dst, src, 4 * info.width);
-    } else if (d == 8) {
-      for (int dw = 0; dw < info.width; dw++) {
-        dstx[0] = dstx[1] = dstx[2] = srcx[0];
-        dstx[3] = 0xFF;
-
-        dstx += 4;
-        srcx += 1;
-      }
-    } else if (d == 1) {
-      for (int dw = 0; dw < info.width; dw++) {
-        dstx[0] = dstx[1] = dstx[2] = (1 << (7 - (dw & 7)) & srcx[0]) ? 0x00 : 0xFF;
-        dstx[3] = 0xFF;
-
-        dstx += 4;
-        srcx += ((dw % 8) == 7) ? 1 : 0;
-      }
-    }
-
-    dst += dstBpl;
-    src += srcBpl;
-  }
-
-  // FIXME: Don't swap pix bytes back and forth, fix the algorithm
-  pixEndianByteSwap(pixs);
-
-  AndroidBitmap_unlockPixels(env, bitmap);
-
-  return JNI_TRUE;
-}
-
 #ifdef __cplusplus
 }
 #endif  /* __cplusplus */
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <algorithm>
+#include <cmath>
+#include <vector>
+#include "common.h"
+#include "autoscale.h"
+
+// Text is measured on an image reduced by powers of two until it's at most this large
+static const l_int32 kMaxMeasuredSize = 1200;
+// Fewer character-like components than this are not a reliable estimate
+static const l_int32 kMinComponentCount = 20;
+// Scaling by less than this relative difference isn't worth the resampling
+static const l_float32 kMinScaleChange = 0.2f;
+// Text is never scaled up more than this, it only slows the recognition down
+static const l_float32 kMaxScale = 2.0f;
+// X-height of common body text (10-12 pt) in inches, used to derive the resolution
+static const l_float32 kXHeightInches = 0.07f;
+
+/**
+ * Returns an 8 bpp copy of the image reduced by the given power of two.
+ */
+static PIX *reduceGray(PIX *pixs, l_int32 reduction) {
+  PIX *pix = pixConvertTo8(pixs, FALSE);
+  for (l_int32 r = reduction; pix != nullptr && r > 1; r /= 2) {
+    PIX *reduced = pixScaleAreaMap2(pix);
+    pixDestroy(&pix);
+    pix = reduced;
+  }
+  return pix;
+}
+
+l_float32 estimateXHeight(PIX *pixs) {
+  l_int32 w, h;
+  pixGetDimensions(pixs, &w, &h, nullptr);
+
+  l_int32 reduction = 1;
+  while (std::max(w, h) / reduction > kMaxMeasuredSize)
+    reduction *= 2;
+
+  PIX *gray = reduceGray(pixs, reduction);
+  if (gray == nullptr)
+    return 0.0f;
+
+  // Sauvola copes with the uneven lighting of photos, window is in reduced pixels
+  PIX *binary = nullptr;
+  pixSauvolaBinarize(gray, 15, 0.34f, 1, nullptr, nullptr, nullptr, &binary);
+  pixDestroy(&gray);
+  if (binary == nullptr)
+    return 0.0f;
+
+  const l_int32 maxHeight = pixGetHeight(binary) / 4;
+  BOXA *boxa = pixConnComp(binary, nullptr, 8);
+  pixDestroy(&binary);
+  if (boxa == nullptr)
+    return 0.0f;
+
+  // Characters are roughly as wide as tall, thin lines, specks and merged
+  // blocks of text or pictures are ignored.
+  std::vector<l_int32> heights;
+  const l_int32 count = boxaGetCount(boxa);
+  for (l_int32 i = 0; i < count; i++) {
+    l_int32 bw, bh;
+    boxaGetBoxGeometry(boxa, i, nullptr, nullptr, &bw, &bh);
+    if (bh >= 3 && bh <= maxHeight && bw <= 3 * bh && bh <= 8 * bw)
+      heights.push_back(bh);
+  }
+  boxaDestroy(&boxa);
+
+  if ((l_int32) heights.size() < kMinComponentCount)
+    return 0.0f;
+
+  // Most lowercase letters have no ascenders or descenders
+  std::nth_element(heights.begin(), heights.begin() + heights.size() / 2, heights.end());
+  return (l_float32) (heights[heights.size() / 2] * reduction);
+}
+
+PIX *scaleToXHeight(PIX *pixs, l_int32 targetXHeight, l_float32 *scale) {
+  *scale = 1.0f;
+
+  const l_float32 xHeight = estimateXHeight(pixs);
+  if (xHeight <= 0.0f) {
+    LOGI("Text height not estimated, image is not scaled");
+    return pixClone(pixs);
+  }
+
+  const l_float32 factor = std::min(targetXHeight / xHeight, kMaxScale);
+  if (std::fabs(factor - 1.0f) < kMinScaleChange)
+    return pixClone(pixs);
+
+  // Binary images are scaled by sampling, gray gives Tesseract more to work with
+  PIX *pixd;
+  if (pixGetDepth(pixs) == 1 && factor < 1.0f) {
+    PIX *gray = pixConvertTo8(pixs, FALSE);
+    pixd = gray != nullptr ? pixScale(gray, factor, factor) : nullptr;
+    pixDestroy(&gray);
+  } else {
+    pixd = pixScale(pixs, factor, factor);
+  }
+  if (pixd == nullptr) {
+    LOGE("Could not scale image by %f", factor);
+    return pixClone(pixs);
+  }
+
+  // Keep the resolution of the source if it's credible, otherwise derive it
+  // from the size of the text.
+  l_int32 xres, yres;
+  pixGetResolution(pixs, &xres, &yres);
+  l_int32 res = (l_int32) std::lround(yres * factor);
+  if (yres <= 0 || res < 70 || res > 2400)
+    res = (l_int32) std::lround(targetXHeight / kXHeightInches);
+  pixSetResolution(pixd, res, res);
+
+  *scale = (l_float32) pixGetWidth(pixd) / pixGetWidth(pixs);
+  LOGI("Scaled image by %f, x-height %.0f px, resolution %d dpi", *scale, xHeight, res);
+  return pixd;
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef TESSERACT_JNI_AUTOSCALE_H
+#define TESSERACT_JNI_AUTOSCALE_H
+
+#include "allheaders.h"
+
+/**
+ * Estimates the x-height of the text in the image as the median height of
+ * character-like connected components, measured on a reduced binarized copy.
+ *
+ * @return the x-height in pixels of the given image, or 0 if the image
+ * doesn't contain enough text to tell
+ */
+l_float32 estimateXHeight(PIX *pixs);
+
+/**
+ * Scales the image so that the x-height of its text is close to the target,
+ * and sets its resolution to match the scaled text.
+ *
+ * @param targetXHeight desired x-height in pixels
+ * @param scale         receives the applied factor, 1 if the image isn't scaled
+ * @return the scaled image, or a clone of the source if no scaling is needed
+ */
+PIX *scaleToXHeight(PIX *pixs, l_int32 targetXHeight, l_float32 *scale);
+
+#endif
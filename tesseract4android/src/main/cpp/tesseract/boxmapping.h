@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef TESSERACT_JNI_BOXMAPPING_H
+#define TESSERACT_JNI_BOXMAPPING_H
+
+#include <jni.h>
+
+/**
+ * Maps a box of the image given to Tesseract back to the image passed to
+ * setImage and further to its source image, the same way as the boxes of
+ * result snapshots.
+ *
+ * @param nativeData native data of TessBaseAPI, the box is kept as is if 0
+ */
+void mapResultBox(jlong nativeData, int *left, int *top, int *right, int *bottom);
+
+#endif
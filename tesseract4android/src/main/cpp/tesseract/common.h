@@ -19,15 +19,32 @@
 #define TESSERACT_JNI_COMMON_H
 
 #include <jni.h>
-#include <android/log.h>
 #include <cassert>
 
 #define LOG_TAG "Tesseract(native)"
+
+#ifdef __ANDROID__
+#include <android/log.h>
+
 #define LOGV(...) __android_log_print(ANDROID_LOG_VERBOSE, LOG_TAG, __VA_ARGS__)
 #define LOGD(...) __android_log_print(ANDROID_LOG_DEBUG, LOG_TAG, __VA_ARGS__)
 #define LOGI(...) __android_log_print(ANDROID_LOG_INFO, LOG_TAG, __VA_ARGS__)
 #define LOGW(...) __android_log_print(ANDROID_LOG_WARN, LOG_TAG, __VA_ARGS__)
 #define LOGE(...) __android_log_print(ANDROID_LOG_ERROR, LOG_TAG, __VA_ARGS__)
 #define LOG_ASSERT(_cond, ...) if (!_cond) __android_log_assert("conditional", LOG_TAG, __VA_ARGS__)
+#else
+// Host build, messages go to the standard error output in logcat's brief format
+#include <cstdio>
+#include <cstdlib>
+
+#define LOG_PRINT(_level, ...) \
+  (fprintf(stderr, _level "/" LOG_TAG ": "), fprintf(stderr, __VA_ARGS__), fputc('\n', stderr))
+#define LOGV(...) LOG_PRINT("V", __VA_ARGS__)
+#define LOGD(...) LOG_PRINT("D", __VA_ARGS__)
+#define LOGI(...) LOG_PRINT("I", __VA_ARGS__)
+#define LOGW(...) LOG_PRINT("W", __VA_ARGS__)
+#define LOGE(...) LOG_PRINT("E", __VA_ARGS__)
+#define LOG_ASSERT(_cond, ...) if (!_cond) { LOG_PRINT("F", __VA_ARGS__); abort(); }
+#endif
 
 #endif
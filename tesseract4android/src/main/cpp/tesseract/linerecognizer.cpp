@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <jni.h>
+#include <algorithm>
+#include <memory>
+#include <string>
+#include <vector>
+#include "allheaders.h"
+#include "common.h"
+#include "imagedata.h"
+#include "lstmrecognizer.h"
+#include "modeldata.h"
+#include "networkio.h"
+#include "recodebeam.h"
+#include "tessdatamanager.h"
+
+using tesseract::Image;
+
+// Mean output below which the line is tried inverted, Tesseract's default
+// invert_threshold
+static const float kInvertThreshold = 0.7f;
+
+struct LineResult {
+  std::string text;
+  float confidence = 0.0f;
+};
+
+/**
+ * Recognizes text line images with just the LSTM network of a traineddata
+ * file, skipping the page layout analysis and word segmentation done by
+ * TessBaseAPI for each rectangle.
+ *
+ * Lines of similar width are run through the network together by
+ * LSTMRecognizer::RecognizeLines, which reads the weights once for the whole
+ * batch. The network output of each line is the same as when Tesseract
+ * recognizes the line on a page. The output is decoded without the
+ * dictionary.
+ */
+class LineRecognizer {
+public:
+  bool load(const ModelData &model) {
+    tesseract::TessdataManager mgr;
+    if (!mgr.LoadMemBuffer(model.path.c_str(), model.data(), (int) model.size(), true))
+      return false;
+    // Without the language, no dictionary is loaded
+    if (!recognizer.Load(nullptr, "", &mgr))
+      return false;
+    search.reset(new tesseract::RecodeBeamSearch(recognizer.GetRecoder(), recognizer.null_char(),
+                                                 recognizer.SimpleTextOutput(), nullptr));
+    return true;
+  }
+
+  void recognize(const std::vector<Image> &lines, std::vector<LineResult> &results) {
+    results.assign(lines.size(), LineResult());
+
+    // Lines are scaled to the same height, so sorting them by their aspect
+    // ratio keeps the padding to the widest line of each batch small
+    std::vector<size_t> order;
+    for (size_t i = 0; i < lines.size(); i++) {
+      if (lines[i] != nullptr)
+        order.push_back(i);
+    }
+    std::sort(order.begin(), order.end(), [&lines](size_t a, size_t b) {
+      return (int64_t) pixGetWidth(lines[a]) * pixGetHeight(lines[b])
+          < (int64_t) pixGetWidth(lines[b]) * pixGetHeight(lines[a]);
+    });
+
+    for (size_t start = 0; start < order.size(); start += kBatchLines) {
+      const size_t end = std::min(order.size(), start + kBatchLines);
+
+      // ImageData takes the ownership
+      std::vector<std::unique_ptr<tesseract::ImageData>> images;
+      std::vector<const tesseract::ImageData *> batch;
+      for (size_t i = start; i < end; i++) {
+        images.emplace_back(new tesseract::ImageData(false, lines[order[i]].clone()));
+        batch.push_back(images.back().get());
+      }
+
+      std::vector<float> scales;
+      std::vector<tesseract::NetworkIO> outputs;
+      recognizer.RecognizeLines(batch, kInvertThreshold, &scales, &outputs);
+      for (size_t i = start; i < end; i++) {
+        decode(outputs[i - start], results[order[i]]);
+      }
+    }
+  }
+
+private:
+  // Number of lines run through the network at once
+  static const size_t kBatchLines = 16;
+
+  void decode(const tesseract::NetworkIO &outputs, LineResult &result) {
+    if (outputs.Width() == 0)
+      return;
+
+    search->Decode(outputs, 1.0, 0.0, tesseract::RecodeBeamSearch::kMinCertainty, nullptr);
+    std::vector<int> ids, xcoords;
+    std::vector<float> certs, ratings;
+    search->ExtractBestPathAsUnicharIds(false, &recognizer.GetUnicharset(), &ids, &certs,
+                                        &ratings, &xcoords);
+
+    // Confidence of each word is derived from its worst character like
+    // ResultIterator::Confidence does, the line gets their mean
+    float sum = 0.0f;
+    int words = 0;
+    float wordCert = 0.0f;
+    bool inWord = false;
+    for (size_t i = 0; i <= ids.size(); i++) {
+      if (i == ids.size() || ids[i] == tesseract::UNICHAR_SPACE) {
+        if (inWord) {
+          sum += std::min(std::max(100.0f + 5.0f * wordCert, 0.0f), 100.0f);
+          words++;
+          inWord = false;
+          if (i < ids.size())
+            result.text += ' ';
+        }
+        continue;
+      }
+      result.text += recognizer.GetUnicharset().id_to_unichar_ext(ids[i]);
+      wordCert = inWord ? std::min(wordCert, certs[i]) : certs[i];
+      inWord = true;
+    }
+    // Space after the last word
+    if (!result.text.empty() && result.text.back() == ' ')
+      result.text.pop_back();
+    result.confidence = words > 0 ? sum / words : 0.0f;
+  }
+
+  tesseract::LSTMRecognizer recognizer;
+  std::unique_ptr<tesseract::RecodeBeamSearch> search;
+};
+
+#ifdef __cplusplus
+extern "C" {
+#endif  /* __cplusplus */
+
+jlong Java_com_googlecode_tesseract_android_TessLineRecognizer_nativeCreate(JNIEnv *env,
+                                                                           jclass clazz,
+                                                                           jstring path) {
+  const char *c_path = env->GetStringUTFChars(path, NULL);
+
+  // The network copies what it needs, so the mapping is released right after
+  LineRecognizer *recognizer = nullptr;
+  std::shared_ptr<const ModelData> model = loadModel(c_path, true);
+  if (model) {
+    recognizer = new LineRecognizer();
+    if (!recognizer->load(*model)) {
+      LOGE("Could not load LSTM network from %s", c_path);
+      delete recognizer;
+      recognizer = nullptr;
+    }
+  }
+
+  env->ReleaseStringUTFChars(path, c_path);
+
+  return (jlong) recognizer;
+}
+
+jobjectArray Java_com_googlecode_tesseract_android_TessLineRecognizer_nativeRecognize(JNIEnv *env,
+                                                                                      jclass clazz,
+                                                                                      jlong nativeRecognizer,
+                                                                                      jlong nativePixa,
+                                                                                      jfloatArray confidences) {
+  LineRecognizer *recognizer = (LineRecognizer *) nativeRecognizer;
+  PIXA *pixa = (PIXA *) nativePixa;
+
+  const l_int32 count = pixaGetCount(pixa);
+  std::vector<Image> lines(count);
+  for (l_int32 i = 0; i < count; i++) {
+    lines[i] = pixaGetPix(pixa, i, L_CLONE);
+  }
+  std::vector<LineResult> results;
+  recognizer->recognize(lines, results);
+  for (Image &line : lines) {
+    line.destroy();
+  }
+
+  jclass stringClass = env->FindClass("java/lang/String");
+  jobjectArray texts = env->NewObjectArray(count, stringClass, NULL);
+  env->DeleteLocalRef(stringClass);
+  if (texts == NULL)
+    return NULL;
+
+  std::vector<jfloat> confs(count);
+  for (l_int32 i = 0; i < count; i++) {
+    jstring text = env->NewStringUTF(results[i].text.c_str());
+    env->SetObjectArrayElement(texts, i, text);
+    env->DeleteLocalRef(text);
+    confs[i] = results[i].confidence;
+  }
+  env->SetFloatArrayRegion(confidences, 0, count, confs.data());
+
+  return texts;
+}
+
+void Java_com_googlecode_tesseract_android_TessLineRecognizer_nativeRecycle(JNIEnv *env,
+                                                                           jclass clazz,
+                                                                           jlong nativeRecognizer) {
+  delete (LineRecognizer *) nativeRecognizer;
+}
+
+#ifdef __cplusplus
+}
+#endif  /* __cplusplus */
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <errno.h>
+#include <stdio.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include "common.h"
+#include "modeldata.h"
+
+ModelData::~ModelData() {
+  if (mapping != nullptr)
+    munmap(mapping, mappingSize);
+}
+
+static bool readFile(int fd, off_t size, std::vector<char> &buffer) {
+  buffer.resize(size);
+
+  size_t offset = 0;
+  while (offset < (size_t) size) {
+    ssize_t count = read(fd, buffer.data() + offset, size - offset);
+    if (count < 0 && errno == EINTR)
+      continue;
+    if (count <= 0)
+      return false;
+    offset += count;
+  }
+  return true;
+}
+
+static bool mapFile(int fd, off_t size, ModelData &model) {
+  void *mapping = mmap(NULL, size, PROT_READ, MAP_PRIVATE, fd, 0);
+  if (mapping == MAP_FAILED)
+    return false;
+
+  // Components are read once, front to back
+  madvise(mapping, size, MADV_SEQUENTIAL);
+
+  model.mapping = mapping;
+  model.mappingSize = size;
+  return true;
+}
+
+std::shared_ptr<const ModelData> loadModel(const char *path, bool mapped) {
+  int fd = open(path, O_RDONLY | O_CLOEXEC);
+  if (fd < 0) {
+    LOGE("Could not open model file %s", path);
+    return nullptr;
+  }
+
+  struct stat st;
+  if (fstat(fd, &st) != 0 || st.st_size <= 0) {
+    LOGE("Could not stat model file %s", path);
+    close(fd);
+    return nullptr;
+  }
+
+  std::shared_ptr<ModelData> model = std::make_shared<ModelData>();
+  model->path = path;
+  model->fileSize = st.st_size;
+  model->fileModified = st.st_mtime;
+
+  bool res = mapped ? mapFile(fd, st.st_size, *model) : readFile(fd, st.st_size, model->buffer);
+  close(fd);
+
+  if (!res) {
+    LOGE("Could not %s model file %s", mapped ? "map" : "read", path);
+    return nullptr;
+  }
+  return model;
+}
+
+std::shared_ptr<const ModelData> mapModel(int fd, off_t offset, size_t length) {
+  if (offset < 0 || length == 0) {
+    LOGE("Invalid model region offset=%lld length=%zu", (long long) offset, length);
+    return nullptr;
+  }
+
+  // Offset of the mapping must be aligned to the page size
+  const off_t pageSize = sysconf(_SC_PAGESIZE);
+  const off_t alignedOffset = offset - offset % pageSize;
+  const size_t delta = offset - alignedOffset;
+
+  void *mapping = mmap(NULL, length + delta, PROT_READ, MAP_PRIVATE, fd, alignedOffset);
+  if (mapping == MAP_FAILED) {
+    LOGE("Could not map model region offset=%lld length=%zu", (long long) offset, length);
+    return nullptr;
+  }
+  madvise(mapping, length + delta, MADV_SEQUENTIAL);
+
+  std::shared_ptr<ModelData> model = std::make_shared<ModelData>();
+  model->fileSize = length;
+  model->mapping = mapping;
+  model->mappingSize = length + delta;
+  model->mappingOffset = delta;
+  return model;
+}
+
+long getResidentSetSize() {
+  FILE *fp = fopen("/proc/self/statm", "r");
+  if (fp == NULL)
+    return -1;
+
+  long pages = -1;
+  if (fscanf(fp, "%*s %ld", &pages) != 1)
+    pages = -1;
+  fclose(fp);
+
+  return pages < 0 ? -1 : pages * sysconf(_SC_PAGESIZE);
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef TESSERACT_JNI_MODELDATA_H
+#define TESSERACT_JNI_MODELDATA_H
+
+#include <sys/types.h>
+#include <ctime>
+#include <memory>
+#include <string>
+#include <vector>
+
+/**
+ * Immutable content of one traineddata file, either read into the heap or
+ * memory-mapped read-only.
+ *
+ * Tesseract deserializes the components it needs straight from it during
+ * Init, so the content is only held while an engine or recognizer is being
+ * initialized.
+ */
+struct ModelData {
+  std::string path;
+  off_t fileSize = 0;
+  time_t fileModified = 0;
+
+  // Exactly one of these holds the content
+  std::vector<char> buffer;
+  void *mapping = nullptr;
+  size_t mappingSize = 0;
+  // Start of the content within the mapping, which must begin on a page boundary
+  size_t mappingOffset = 0;
+
+  ModelData() = default;
+  ModelData(const ModelData&) = delete;
+  ModelData& operator=(const ModelData&) = delete;
+  ~ModelData();
+
+  const char *data() const {
+    return mapping != nullptr ? (const char *) mapping + mappingOffset : buffer.data();
+  }
+
+  size_t size() const {
+    return mapping != nullptr ? mappingSize - mappingOffset : buffer.size();
+  }
+};
+
+/**
+ * Reads or maps the given traineddata file for a single engine.
+ *
+ * @return the model or nullptr if the file can't be read
+ */
+std::shared_ptr<const ModelData> loadModel(const char *path, bool mapped);
+
+/**
+ * Maps a region of an open file containing traineddata, e.g. an uncompressed
+ * asset inside the APK. The descriptor may be closed once this returns.
+ *
+ * @return the model or nullptr if the region can't be mapped
+ */
+std::shared_ptr<const ModelData> mapModel(int fd, off_t offset, size_t length);
+
+/**
+ * Returns resident set size of the current process in bytes, or -1 if unknown.
+ */
+long getResidentSetSize();
+
+#endif
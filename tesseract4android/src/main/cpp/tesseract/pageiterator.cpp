@@ -17,6 +17,7 @@
 
 #include <stdio.h>
 #include "common.h"
+#include "boxmapping.h"
 #include <tesseract/pageiterator.h>
 #include "allheaders.h"
 #include "helpers.h"
@@ -43,7 +44,7 @@ jboolean Java_com_googlecode_tesseract_android_PageIterator_nativeNext(JNIEnv *e
 }
 
 jintArray Java_com_googlecode_tesseract_android_PageIterator_nativeBoundingBox(JNIEnv *env, jclass clazz,
-    jlong nativePageIterator, jint level) {
+    jlong nativePageIterator, jlong nativeData, jint level) {
   int size = 4;
   jintArray result = env->NewIntArray(size);
 
@@ -53,6 +54,7 @@ jintArray Java_com_googlecode_tesseract_android_PageIterator_nativeBoundingBox(J
   PageIteratorLevel enumLevel = (PageIteratorLevel) level;
   int x1, y1, x2, y2;
   pageIterator->BoundingBox(enumLevel, &x1, &y1, &x2, &y2);
+  mapResultBox(nativeData, &x1, &y1, &x2, &y2);
   
   // fill a temp structure to use to populate the java int array
   jint fill[4];
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <dirent.h>
+#include <errno.h>
+#include <fcntl.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <unistd.h>
+#include <sys/stat.h>
+#include <chrono>
+#include <cinttypes>
+#include <cstring>
+#include <map>
+#include <mutex>
+#include <string>
+#include <vector>
+#include "common.h"
+#include "lstmrecognizer.h"
+#include "quantizedmodel.h"
+#include "serialis.h"
+#include "tessdatamanager.h"
+
+static const char *CACHE_SUFFIX = ".int8";
+// Appended to the name of the cache to store the time its conversion took
+static const char *TIME_SUFFIX = ".ms";
+
+struct SourceHash {
+  off_t fileSize;
+  time_t fileModified;
+  uint64_t hash;
+};
+
+// Hashes of files seen by this process, so they are read only once
+static std::mutex hashesMutex;
+static std::map<std::string, SourceHash> hashes;
+
+/**
+ * FNV-1a over 64-bit words (and the remaining bytes), which is enough to
+ * tell versions of a file apart and fast enough for tens of megabytes.
+ */
+static uint64_t hashContent(const char *data, size_t size) {
+  uint64_t hash = 14695981039346656037ULL;
+  size_t i = 0;
+  for (; i + sizeof(uint64_t) <= size; i += sizeof(uint64_t)) {
+    uint64_t word;
+    memcpy(&word, data + i, sizeof(word));
+    hash = (hash ^ word) * 1099511628211ULL;
+  }
+  for (; i < size; i++) {
+    hash = (hash ^ (uint8_t) data[i]) * 1099511628211ULL;
+  }
+  return hash ^ size;
+}
+
+static bool writeCache(const std::string &cachePath, const char *data, size_t size) {
+  // Written aside and renamed, so readers never see a partial file. Each
+  // writer gets its own file, as threads may convert the same model at once.
+  std::vector<char> tmpPath(cachePath.begin(), cachePath.end());
+  const char *pattern = ".XXXXXX";
+  tmpPath.insert(tmpPath.end(), pattern, pattern + strlen(pattern) + 1);
+
+  int fd = mkstemp(tmpPath.data());
+  if (fd < 0)
+    return false;
+  fcntl(fd, F_SETFD, FD_CLOEXEC);
+  fchmod(fd, 0644);
+
+  size_t offset = 0;
+  while (offset < size) {
+    ssize_t count = write(fd, data + offset, size - offset);
+    if (count < 0 && errno == EINTR)
+      continue;
+    if (count <= 0)
+      break;
+    offset += count;
+  }
+
+  bool res = offset == size && fsync(fd) == 0;
+  res = close(fd) == 0 && res;
+  if (!res || rename(tmpPath.data(), cachePath.c_str()) != 0) {
+    unlink(tmpPath.data());
+    return false;
+  }
+  return true;
+}
+
+/**
+ * Returns the conversion time stored next to the cache, 0 if unknown.
+ */
+static long readConvertMillis(const std::string &cachePath) {
+  FILE *fp = fopen((cachePath + TIME_SUFFIX).c_str(), "re");
+  if (fp == NULL)
+    return 0;
+
+  long millis = 0;
+  if (fscanf(fp, "%ld", &millis) != 1 || millis < 0)
+    millis = 0;
+  fclose(fp);
+  return millis;
+}
+
+static bool endsWith(const std::string &str, const std::string &suffix) {
+  return str.size() >= suffix.size()
+      && str.compare(str.size() - suffix.size(), suffix.size(), suffix) == 0;
+}
+
+/**
+ * Removes caches (and their conversion times) of other versions of the given
+ * traineddata file.
+ */
+static void removeStaleCaches(const std::string &path, const std::string &cachePath) {
+  const size_t slash = path.rfind('/');
+  const std::string dir = slash == std::string::npos ? "." : path.substr(0, slash);
+  const std::string prefix = path.substr(slash == std::string::npos ? 0 : slash + 1) + ".";
+  const std::string keep = cachePath.substr(dir.size() + 1);
+  const std::string timeSuffix = std::string(CACHE_SUFFIX) + TIME_SUFFIX;
+
+  DIR *d = opendir(dir.c_str());
+  if (d == NULL)
+    return;
+
+  struct dirent *entry;
+  while ((entry = readdir(d)) != NULL) {
+    const std::string name = entry->d_name;
+    if (name != keep && name != keep + TIME_SUFFIX && name.size() > prefix.size()
+        && name.compare(0, prefix.size(), prefix) == 0
+        && (endsWith(name, CACHE_SUFFIX) || endsWith(name, timeSuffix))) {
+      unlink((dir + "/" + name).c_str());
+    }
+  }
+  closedir(d);
+}
+
+std::shared_ptr<const ModelData> loadQuantizedModel(const char *path, bool mapped,
+                                                      int *result, long *convertMillis,
+                                                      long *savedMillis) {
+  *result = QUANTIZE_NONE;
+  *convertMillis = 0;
+  *savedMillis = 0;
+
+  struct stat st;
+  if (stat(path, &st) != 0) {
+    LOGE("Could not find model file %s", path);
+    return nullptr;
+  }
+
+  // The content is mapped just for hashing and converting, it's cheap to drop
+  std::shared_ptr<const ModelData> source;
+  uint64_t hash = 0;
+  bool hashed = false;
+  {
+    std::lock_guard<std::mutex> lock(hashesMutex);
+    auto it = hashes.find(path);
+    if (it != hashes.end() && it->second.fileSize == st.st_size
+        && it->second.fileModified == st.st_mtime) {
+      hash = it->second.hash;
+      hashed = true;
+    }
+  }
+  if (!hashed) {
+    source = loadModel(path, true);
+    if (!source)
+      return nullptr;
+    hash = hashContent(source->data(), source->size());
+
+    std::lock_guard<std::mutex> lock(hashesMutex);
+    hashes[path] = {st.st_size, st.st_mtime, hash};
+  }
+
+  char hex[17];
+  snprintf(hex, sizeof(hex), "%016" PRIx64, hash);
+  const std::string cachePath = std::string(path) + "." + hex + CACHE_SUFFIX;
+
+  // Empty cache marks a file which already has an integer network
+  struct stat cacheSt;
+  if (stat(cachePath.c_str(), &cacheSt) == 0) {
+    if (cacheSt.st_size == 0) {
+      *result = QUANTIZE_ALREADY_INT;
+      return loadModel(path, mapped);
+    }
+    std::shared_ptr<const ModelData> model = loadModel(cachePath.c_str(), mapped);
+    if (model) {
+      *result = QUANTIZE_CACHED;
+      *savedMillis = readConvertMillis(cachePath);
+      return model;
+    }
+  }
+
+  if (!source) {
+    source = loadModel(path, true);
+    if (!source)
+      return nullptr;
+  }
+
+  const auto start = std::chrono::steady_clock::now();
+
+  tesseract::TessdataManager mgr;
+  tesseract::TFile fp;
+  tesseract::LSTMRecognizer recognizer;
+  if (!mgr.LoadMemBuffer(path, source->data(), (int) source->size(), true)
+      || !mgr.GetComponent(tesseract::TESSDATA_LSTM, &fp)
+      || !recognizer.DeSerialize(&mgr, &fp)) {
+    LOGW("No LSTM network to quantize in %s", path);
+    return loadModel(path, mapped);
+  }
+
+  if (recognizer.IsIntMode()) {
+    *result = QUANTIZE_ALREADY_INT;
+    if (writeCache(cachePath, nullptr, 0))
+      removeStaleCaches(path, cachePath);
+    return loadModel(path, mapped);
+  }
+
+  recognizer.ConvertToInt();
+  std::vector<char> lstmData;
+  fp.OpenWrite(&lstmData);
+  if (!recognizer.Serialize(&mgr, &fp)) {
+    LOGE("Could not serialize quantized LSTM network of %s", path);
+    return loadModel(path, mapped);
+  }
+  mgr.OverwriteEntry(tesseract::TESSDATA_LSTM, lstmData.data(), (int) lstmData.size());
+
+  std::shared_ptr<ModelData> converted = std::make_shared<ModelData>();
+  mgr.Serialize(&converted->buffer);
+  converted->path = cachePath;
+  converted->fileSize = converted->buffer.size();
+
+  *result = QUANTIZE_CONVERTED;
+  *convertMillis = (long) std::chrono::duration_cast<std::chrono::milliseconds>(
+      std::chrono::steady_clock::now() - start).count();
+  LOGI("Quantized LSTM network of %s in %ld ms (%zu -> %zu bytes)", path, *convertMillis,
+       source->size(), converted->size());
+  source.reset();
+
+  if (!writeCache(cachePath, converted->data(), converted->size())) {
+    LOGW("Could not write quantized model cache %s, using it from memory", cachePath.c_str());
+    return converted;
+  }
+  const std::string millis = std::to_string(*convertMillis);
+  writeCache(cachePath + TIME_SUFFIX, millis.data(), millis.size());
+  removeStaleCaches(path, cachePath);
+
+  // Mapped model must come from the file to be mapped
+  if (mapped) {
+    std::shared_ptr<const ModelData> model = loadModel(cachePath.c_str(), mapped);
+    if (model)
+      return model;
+  }
+  return converted;
+}
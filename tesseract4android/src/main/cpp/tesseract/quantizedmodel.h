@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef TESSERACT_JNI_QUANTIZEDMODEL_H
+#define TESSERACT_JNI_QUANTIZEDMODEL_H
+
+#include <memory>
+#include "modeldata.h"
+
+/**
+ * How the LSTM network of a model passed to loadQuantizedModel was obtained.
+ * Values match TessBaseAPI.Quantization.
+ */
+enum QuantizeResult {
+  // Quantization wasn't requested or the model has no usable LSTM network
+  QUANTIZE_NONE = 0,
+  // The network in the traineddata file is already an integer one
+  QUANTIZE_ALREADY_INT = 1,
+  // The float network was converted during this load
+  QUANTIZE_CONVERTED = 2,
+  // The network converted earlier was loaded from the cache
+  QUANTIZE_CACHED = 3,
+};
+
+/**
+ * Returns the given traineddata file with its float LSTM network converted
+ * to the 8-bit integer one, which runs on the faster IntSimdMatrix paths.
+ *
+ * The converted model is written next to the original file, named after the
+ * hash of its content ("eng.traineddata.<hash>.int8"), and loaded from there
+ * the next time. Caches of older versions of the file are removed. If the
+ * cache can't be written, the converted model is used from the memory.
+ *
+ * @param result        receives one of QuantizeResult
+ * @param convertMillis receives time spent converting the network, 0 if it
+ *                      wasn't converted
+ * @param savedMillis   receives time the conversion took when the cache was
+ *                      created, if loaded from it, otherwise 0
+ * @return the model or nullptr if the file can't be read
+ */
+std::shared_ptr<const ModelData> loadQuantizedModel(const char *path, bool mapped,
+                                                      int *result, long *convertMillis,
+                                                      long *savedMillis);
+
+#endif
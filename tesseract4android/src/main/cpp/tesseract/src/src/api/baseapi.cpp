@@ -334,7 +334,8 @@ int TessBaseAPI::Init(const char *data, int data_size, const char *language, Ocr
     }
     TessdataManager mgr(reader_);
     if (data_size != 0) {
-      mgr.LoadMemBuffer(language, data, data_size);
+      // The components are read straight from data, which outlives mgr
+      mgr.LoadMemBuffer(language, data, data_size, true);
     }
     if (tesseract_->init_tesseract(datapath, output_file_, language, oem, configs,
                                    configs_size, vars_vec, vars_values, set_only_non_debug_params,
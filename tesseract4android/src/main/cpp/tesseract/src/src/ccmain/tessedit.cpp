@@ -170,6 +170,7 @@ bool Tesseract::init_tesseract_lang_data(const std::string &arg0,
 #endif // ndef DISABLED_LEGACY_ENGINE
     if (mgr->IsComponentAvailable(TESSDATA_LSTM)) {
       lstm_recognizer_ = new LSTMRecognizer(language_data_path_prefix.c_str());
+      lstm_recognizer_->SetShareNetwork(lstm_share_network);
       ASSERT_HOST(lstm_recognizer_->Load(this->params(), lstm_use_matrix ? language : "", mgr));
     } else {
       tprintf("Error: LSTM requested, but not present!! Loading tesseract.\n");
@@ -228,6 +228,9 @@ Tesseract::Tesseract()
                   "(more accurate)",
                   this->params())
     , BOOL_MEMBER(lstm_use_matrix, 1, "Use ratings matrix/beam search with lstm", this->params())
+    , BOOL_MEMBER(lstm_share_network, false,
+                  "Share the LSTM network with other instances loading the same one",
+                  this->params())
     , STRING_MEMBER(outlines_odd, "%| ", "Non standard number of outlines", this->params())
     , STRING_MEMBER(outlines_2, "ij!?%\":;", "Non standard number of outlines", this->params())
     , BOOL_MEMBER(tessedit_good_quality_unrej, true, "Reduce rejection on good docs",
@@ -831,6 +831,7 @@ public:
   INT_VAR_H(paragraph_debug_level);
   BOOL_VAR_H(paragraph_text_based);
   BOOL_VAR_H(lstm_use_matrix);
+  BOOL_VAR_H(lstm_share_network);
   STRING_VAR_H(outlines_odd);
   STRING_VAR_H(outlines_2);
   BOOL_VAR_H(tessedit_good_quality_unrej);
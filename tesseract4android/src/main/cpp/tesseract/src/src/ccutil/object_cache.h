@@ -94,6 +94,12 @@ public:
     return false;
   }
 
+  // Return the number of objects in the cache, including unused ones.
+  int NumObjects() {
+    std::lock_guard<std::mutex> guard(mu_);
+    return cache_.size();
+  }
+
   void DeleteUnusedObjects() {
     std::lock_guard<std::mutex> guard(mu_);
     cache_.erase(std::remove_if(cache_.begin(), cache_.end(),
@@ -74,7 +74,7 @@ bool TFile::DeSerializeSize(int32_t *pSize) {
   if (FReadEndian(&size, sizeof(size), 1) != 1) {
     return false;
   }
-  if (size > data_->size() / 4) {
+  if (size > read_size_ / 4) {
     // Reverse endianness.
     swap_ = !swap_;
     ReverseN(&size, 4);
@@ -137,6 +137,12 @@ bool TFile::Skip(size_t count) {
   return true;
 }
 
+const char *TFile::Remaining(size_t *size) const {
+  ASSERT_HOST(!is_writing_);
+  *size = offset_ < read_size_ ? read_size_ - offset_ : 0;
+  return read_data_ + offset_;
+}
+
 bool TFile::Open(const char *filename, FileReader reader) {
   if (!data_is_owned_) {
     data_ = new std::vector<char>;
@@ -145,11 +151,14 @@ bool TFile::Open(const char *filename, FileReader reader) {
   offset_ = 0;
   is_writing_ = false;
   swap_ = false;
+  bool result;
   if (reader == nullptr) {
-    return LoadDataFromFile(filename, data_);
+    result = LoadDataFromFile(filename, data_);
   } else {
-    return (*reader)(filename, data_);
+    result = (*reader)(filename, data_);
   }
+  ReadOwnData();
+  return result;
 }
 
 bool TFile::Open(const char *data, size_t size) {
@@ -162,9 +171,29 @@ bool TFile::Open(const char *data, size_t size) {
   swap_ = false;
   data_->resize(size); // TODO: optimize no init
   memcpy(&(*data_)[0], data, size);
+  ReadOwnData();
   return true;
 }
 
+bool TFile::OpenInPlace(const char *data, size_t size) {
+  offset_ = 0;
+  if (data_is_owned_) {
+    delete data_;
+    data_ = nullptr;
+    data_is_owned_ = false;
+  }
+  is_writing_ = false;
+  swap_ = false;
+  read_data_ = data;
+  read_size_ = size;
+  return true;
+}
+
+void TFile::ReadOwnData() {
+  read_data_ = data_->data();
+  read_size_ = data_->size();
+}
+
 bool TFile::Open(FILE *fp, int64_t end_offset) {
   offset_ = 0;
   auto current_pos = std::ftell(fp);
@@ -189,15 +218,17 @@ bool TFile::Open(FILE *fp, int64_t end_offset) {
     data_is_owned_ = true;
   }
   data_->resize(size); // TODO: optimize no init
-  return fread(&(*data_)[0], 1, size, fp) == size;
+  bool result = fread(&(*data_)[0], 1, size, fp) == size;
+  ReadOwnData();
+  return result;
 }
 
 char *TFile::FGets(char *buffer, int buffer_size) {
   ASSERT_HOST(!is_writing_);
   int size = 0;
-  while (size + 1 < buffer_size && offset_ < data_->size()) {
-    buffer[size++] = (*data_)[offset_++];
-    if ((*data_)[offset_ - 1] == '\n') {
+  while (size + 1 < buffer_size && offset_ < read_size_) {
+    buffer[size++] = read_data_[offset_++];
+    if (read_data_[offset_ - 1] == '\n') {
       break;
     }
   }
@@ -224,15 +255,15 @@ size_t TFile::FRead(void *buffer, size_t size, size_t count) {
   size_t required_size;
   if (SIZE_MAX / size <= count) {
     // Avoid integer overflow.
-    required_size = data_->size() - offset_;
+    required_size = read_size_ - offset_;
   } else {
     required_size = size * count;
-    if (data_->size() - offset_ < required_size) {
-      required_size = data_->size() - offset_;
+    if (read_size_ - offset_ < required_size) {
+      required_size = read_size_ - offset_;
     }
   }
   if (required_size > 0 && buffer != nullptr) {
-    memcpy(buffer, &(*data_)[offset_], required_size);
+    memcpy(buffer, read_data_ + offset_, required_size);
   }
   offset_ += required_size;
   return required_size / size;
@@ -69,6 +69,9 @@ public:
   bool Open(const char *filename, FileReader reader);
   // From an existing memory buffer.
   bool Open(const char *data, size_t size);
+  // From an existing memory buffer, which is read in place instead of being
+  // copied, so it must stay valid while reading.
+  bool OpenInPlace(const char *data, size_t size);
   // From an open file and an end offset.
   bool Open(FILE *fp, int64_t end_offset);
   // Sets the value of the swap flag, so that FReadEndian does the right thing.
@@ -191,6 +194,9 @@ public:
 
   // Skip data.
   bool Skip(size_t count);
+  // Returns the data which is still to be read and its size in *size, e.g.
+  // to identify it without reading it.
+  const char *Remaining(size_t *size) const;
 
   // Reads a line like fgets. Returns nullptr on EOF, otherwise buffer.
   // Reads at most buffer_size bytes, including '\0' terminator, even if
@@ -217,8 +223,15 @@ public:
   size_t FWrite(const void *buffer, size_t size, size_t count);
 
 private:
+  // Reads from the buffered data.
+  void ReadOwnData();
+
   // The buffered data from the file.
   std::vector<char> *data_ = nullptr;
+  // The data being read, either the content of data_ or a buffer opened
+  // in place.
+  const char *read_data_ = nullptr;
+  size_t read_size_ = 0;
   // The number of bytes used so far.
   unsigned offset_ = 0;
   // True if the data_ pointer is owned by *this.
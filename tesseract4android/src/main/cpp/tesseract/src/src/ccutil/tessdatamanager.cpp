@@ -71,8 +71,9 @@ bool TessdataManager::LoadArchiveFile(const char *filename) {
           if (TessdataTypeFromFileName(component, &type)) {
             int64_t size = archive_entry_size(ae);
             if (size > 0) {
-              entries_[type].resize(size);
-              if (archive_read_data(a, &entries_[type][0], size) == size) {
+              std::vector<char> &entry = OwnedEntry(type);
+              entry.resize(size);
+              if (archive_read_data(a, &entry[0], size) == size) {
                 is_loaded_ = true;
               }
             }
@@ -107,12 +108,17 @@ bool TessdataManager::Init(const char *data_file_name) {
 }
 
 // Loads from the given memory buffer as if a file.
-bool TessdataManager::LoadMemBuffer(const char *name, const char *data, int size) {
+bool TessdataManager::LoadMemBuffer(const char *name, const char *data, int size,
+                                    bool in_place) {
   // TODO: This method supports only the proprietary file format.
   Clear();
   data_file_name_ = name;
   TFile fp;
-  fp.Open(data, size);
+  if (in_place) {
+    fp.OpenInPlace(data, size);
+  } else {
+    fp.Open(data, size);
+  }
   uint32_t num_entries;
   if (!fp.DeSerialize(&num_entries)) {
     return false;
@@ -130,6 +136,8 @@ bool TessdataManager::LoadMemBuffer(const char *name, const char *data, int size
   if (!fp.DeSerialize(&offset_table[0], num_entries)) {
     return false;
   }
+  // Entries are read one after another, as if from fp.
+  int64_t position = sizeof(num_entries) + num_entries * sizeof(offset_table[0]);
   for (unsigned i = 0; i < num_entries && i < TESSDATA_NUM_ENTRIES; ++i) {
     if (offset_table[i] >= 0) {
       int64_t entry_size = size - offset_table[i];
@@ -140,13 +148,22 @@ bool TessdataManager::LoadMemBuffer(const char *name, const char *data, int size
       if (j < num_entries) {
         entry_size = offset_table[j] - offset_table[i];
       }
+      if (in_place) {
+        if (entry_size < 0 || size - position < entry_size) {
+          return false;
+        }
+        in_place_entries_[i] = data + position;
+        in_place_sizes_[i] = entry_size;
+        position += entry_size;
+        continue;
+      }
       entries_[i].resize(entry_size);
       if (!fp.DeSerialize(&entries_[i][0], entry_size)) {
         return false;
       }
     }
   }
-  if (entries_[TESSDATA_VERSION].empty()) {
+  if (EntrySize(TESSDATA_VERSION) == 0) {
     SetVersionString("Pre-4.0.0");
   }
   is_loaded_ = true;
@@ -156,8 +173,9 @@ bool TessdataManager::LoadMemBuffer(const char *name, const char *data, int size
 // Overwrites a single entry of the given type.
 void TessdataManager::OverwriteEntry(TessdataType type, const char *data, int size) {
   is_loaded_ = true;
-  entries_[type].resize(size);
-  memcpy(&entries_[type][0], data, size);
+  std::vector<char> &entry = OwnedEntry(type);
+  entry.resize(size);
+  memcpy(&entry[0], data, size);
 }
 
 // Saves to the given filename.
@@ -181,11 +199,12 @@ void TessdataManager::Serialize(std::vector<char> *data) const {
   int64_t offset_table[TESSDATA_NUM_ENTRIES];
   int64_t offset = sizeof(int32_t) + sizeof(offset_table);
   for (unsigned i = 0; i < TESSDATA_NUM_ENTRIES; ++i) {
-    if (entries_[i].empty()) {
+    const auto size = EntrySize(static_cast<TessdataType>(i));
+    if (size == 0) {
       offset_table[i] = -1;
     } else {
       offset_table[i] = offset;
-      offset += entries_[i].size();
+      offset += size;
     }
   }
   data->resize(offset, 0);
@@ -194,17 +213,18 @@ void TessdataManager::Serialize(std::vector<char> *data) const {
   fp.OpenWrite(data);
   fp.Serialize(&num_entries);
   fp.Serialize(&offset_table[0], countof(offset_table));
-  for (const auto &entry : entries_) {
-    if (!entry.empty()) {
-      fp.Serialize(&entry[0], entry.size());
+  for (unsigned i = 0; i < TESSDATA_NUM_ENTRIES; ++i) {
+    const auto type = static_cast<TessdataType>(i);
+    if (EntrySize(type) != 0) {
+      fp.Serialize(EntryData(type), EntrySize(type));
     }
   }
 }
 
 // Resets to the initial state, keeping the reader.
 void TessdataManager::Clear() {
-  for (auto &entry : entries_) {
-    entry.clear();
+  for (unsigned i = 0; i < TESSDATA_NUM_ENTRIES; ++i) {
+    OwnedEntry(static_cast<TessdataType>(i)).clear();
   }
   is_loaded_ = false;
 }
@@ -214,10 +234,10 @@ void TessdataManager::Directory() const {
   printf("Version:%s\n", VersionString().c_str());
   auto offset = TESSDATA_NUM_ENTRIES * sizeof(int64_t);
   for (unsigned i = 0; i < TESSDATA_NUM_ENTRIES; ++i) {
-    if (!entries_[i].empty()) {
-      printf("%u:%s:size=%zu, offset=%zu\n", i, kTessdataFileSuffixes[i], entries_[i].size(),
-              offset);
-      offset += entries_[i].size();
+    const auto size = EntrySize(static_cast<TessdataType>(i));
+    if (size != 0) {
+      printf("%u:%s:size=%zu, offset=%zu\n", i, kTessdataFileSuffixes[i], size, offset);
+      offset += size;
     }
   }
 }
@@ -236,23 +256,28 @@ bool TessdataManager::GetComponent(TessdataType type, TFile *fp) {
 // loaded.
 bool TessdataManager::GetComponent(TessdataType type, TFile *fp) const {
   ASSERT_HOST(is_loaded_);
-  if (entries_[type].empty()) {
+  if (EntrySize(type) == 0) {
     return false;
   }
-  fp->Open(&entries_[type][0], entries_[type].size());
+  if (entries_[type].empty()) {
+    fp->OpenInPlace(in_place_entries_[type], in_place_sizes_[type]);
+  } else {
+    fp->Open(&entries_[type][0], entries_[type].size());
+  }
   fp->set_swap(swap_);
   return true;
 }
 
 // Returns the current version string.
 std::string TessdataManager::VersionString() const {
-  return std::string(&entries_[TESSDATA_VERSION][0], entries_[TESSDATA_VERSION].size());
+  return std::string(EntryData(TESSDATA_VERSION), EntrySize(TESSDATA_VERSION));
 }
 
 // Sets the version string to the given v_str.
 void TessdataManager::SetVersionString(const std::string &v_str) {
-  entries_[TESSDATA_VERSION].resize(v_str.size());
-  memcpy(&entries_[TESSDATA_VERSION][0], v_str.data(), v_str.size());
+  std::vector<char> &entry = OwnedEntry(TESSDATA_VERSION);
+  entry.resize(v_str.size());
+  memcpy(&entry[0], v_str.data(), v_str.size());
 }
 
 bool TessdataManager::CombineDataFiles(const char *language_data_path_prefix,
@@ -266,7 +291,7 @@ bool TessdataManager::CombineDataFiles(const char *language_data_path_prefix,
     FILE *fp = fopen(filename.c_str(), "rb");
     if (fp != nullptr) {
       fclose(fp);
-      if (!LoadDataFromFile(filename.c_str(), &entries_[type])) {
+      if (!LoadDataFromFile(filename.c_str(), &OwnedEntry(type))) {
         tprintf("Load of file %s failed!\n", filename.c_str());
         return false;
       }
@@ -292,7 +317,7 @@ bool TessdataManager::OverwriteComponents(const char *new_traineddata_filename,
   for (int i = 0; i < num_new_components; ++i) {
     TessdataType type;
     if (TessdataTypeFromFileName(component_filenames[i], &type)) {
-      if (!LoadDataFromFile(component_filenames[i], &entries_[type])) {
+      if (!LoadDataFromFile(component_filenames[i], &OwnedEntry(type))) {
         tprintf("Failed to read component file:%s\n", component_filenames[i]);
         return false;
       }
@@ -306,10 +331,11 @@ bool TessdataManager::OverwriteComponents(const char *new_traineddata_filename,
 bool TessdataManager::ExtractToFile(const char *filename) {
   TessdataType type = TESSDATA_NUM_ENTRIES;
   ASSERT_HOST(tesseract::TessdataManager::TessdataTypeFromFileName(filename, &type));
-  if (entries_[type].empty()) {
+  if (EntrySize(type) == 0) {
     return false;
   }
-  return SaveDataToFile(entries_[type], filename);
+  std::vector<char> entry(EntryData(type), EntryData(type) + EntrySize(type));
+  return SaveDataToFile(entry, filename);
 }
 
 bool TessdataManager::TessdataTypeFromFileSuffix(const char *suffix, TessdataType *type) {
@@ -147,8 +147,10 @@ public:
    */
   bool Init(const char *data_file_name);
   // Loads from the given memory buffer as if a file, remembering name as some
-  // arbitrary source id for caching.
-  bool LoadMemBuffer(const char *name, const char *data, int size);
+  // arbitrary source id for caching. If in_place is true, the components are
+  // read from the buffer instead of being copied, so it must stay valid until
+  // this is cleared or destroyed.
+  bool LoadMemBuffer(const char *name, const char *data, int size, bool in_place = false);
   // Overwrites a single entry of the given type.
   void OverwriteEntry(TessdataType type, const char *data, int size);
 
@@ -164,7 +166,7 @@ public:
 
   // Returns true if the component requested is present.
   bool IsComponentAvailable(TessdataType type) const {
-    return !entries_[type].empty();
+    return EntrySize(type) != 0;
   }
   // Opens the given TFile pointer to the given component type.
   // Returns false in case of failure.
@@ -180,12 +182,12 @@ public:
 
   // Returns true if the base Tesseract components are present.
   bool IsBaseAvailable() const {
-    return !entries_[TESSDATA_UNICHARSET].empty() && !entries_[TESSDATA_INTTEMP].empty();
+    return EntrySize(TESSDATA_UNICHARSET) != 0 && EntrySize(TESSDATA_INTTEMP) != 0;
   }
 
   // Returns true if the LSTM components are present.
   bool IsLSTMAvailable() const {
-    return !entries_[TESSDATA_LSTM].empty();
+    return EntrySize(TESSDATA_LSTM) != 0;
   }
 
   // Return the name of the underlying data file.
@@ -224,6 +226,21 @@ private:
   // Use libarchive.
   bool LoadArchiveFile(const char *filename);
 
+  // Returns the content of the given component, either owned or in the
+  // buffer loaded in place.
+  const char *EntryData(TessdataType type) const {
+    return entries_[type].empty() ? in_place_entries_[type] : &entries_[type][0];
+  }
+  size_t EntrySize(TessdataType type) const {
+    return entries_[type].empty() ? in_place_sizes_[type] : entries_[type].size();
+  }
+  // Replaces the given component with an owned one, which is returned.
+  std::vector<char> &OwnedEntry(TessdataType type) {
+    in_place_entries_[type] = nullptr;
+    in_place_sizes_[type] = 0;
+    return entries_[type];
+  }
+
   /**
    * Fills type with TessdataType of the tessdata component represented by the
    * given file name. E.g. tessdata/eng.unicharset -> TESSDATA_UNICHARSET.
@@ -248,6 +265,9 @@ private:
   bool swap_;
   // Contents of each element of the traineddata file.
   std::vector<char> entries_[TESSDATA_NUM_ENTRIES];
+  // Elements of the buffer loaded in place, used where entries_ are empty.
+  const char *in_place_entries_[TESSDATA_NUM_ENTRIES] = {};
+  size_t in_place_sizes_[TESSDATA_NUM_ENTRIES] = {};
 };
 
 } // namespace tesseract
@@ -55,9 +55,20 @@ bool Convolve::DeSerialize(TFile *fp) {
 void Convolve::Forward(bool debug, const NetworkIO &input, const TransposedArray *input_transpose,
                        NetworkScratch *scratch, NetworkIO *output) {
   output->Resize(input, no_);
+  TRand *randomizer = scratch->randomizer() != nullptr ? scratch->randomizer() : randomizer_;
+  // Each element of a batch gets the same noise as it would on its own.
+  TRand element_start;
+  if (randomizer != nullptr) {
+    element_start = *randomizer;
+  }
+  int batch = 0;
   int y_scale = 2 * half_y_ + 1;
   StrideMap::Index dest_index(output->stride_map());
   do {
+    if (dest_index.index(FD_BATCH) != batch && randomizer != nullptr) {
+      batch = dest_index.index(FD_BATCH);
+      *randomizer = element_start;
+    }
     // Stack x_scale groups of y_scale * ni_ inputs together.
     int t = dest_index.t();
     int out_ix = 0;
@@ -65,14 +76,14 @@ void Convolve::Forward(bool debug, const NetworkIO &input, const TransposedArray
       StrideMap::Index x_index(dest_index);
       if (!x_index.AddOffset(x, FD_WIDTH)) {
         // This x is outside the image.
-        output->Randomize(t, out_ix, y_scale * ni_, randomizer_);
+        output->Randomize(t, out_ix, y_scale * ni_, randomizer);
       } else {
         int out_iy = out_ix;
         for (int y = -half_y_; y <= half_y_; ++y, out_iy += ni_) {
           StrideMap::Index y_index(x_index);
           if (!y_index.AddOffset(y, FD_HEIGHT)) {
             // This y is outside the image.
-            output->Randomize(t, out_iy, ni_, randomizer_);
+            output->Randomize(t, out_iy, ni_, randomizer);
           } else {
             output->CopyTimeStepGeneral(t, out_iy, ni_, input, y_index.t(), 0);
           }
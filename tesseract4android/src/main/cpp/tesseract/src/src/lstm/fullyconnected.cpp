@@ -146,13 +146,29 @@ void FullyConnected::Forward(bool debug, const NetworkIO &input,
     temp_lines[i].Init(ro, scratch);
     curr_input[i].Init(ni_, scratch);
   }
+  // Timesteps to run. The padding around the elements of a batch is left out,
+  // it is zeroed below.
+  std::vector<int> steps;
+  if (input.stride_map().Size(FD_BATCH) > 1) {
+    StrideMap::Index index(input.stride_map());
+    do {
+      steps.push_back(index.t());
+    } while (index.Increment());
+  } else {
+    for (int t = 0; t < width; ++t) {
+      steps.push_back(t);
+    }
+  }
+  int num_steps = steps.size();
 #ifdef _OPENMP
 #  pragma omp parallel for num_threads(kNumThreads)
-  for (int t = 0; t < width; ++t) {
+  for (int s = 0; s < num_steps; ++s) {
+    int t = steps[s];
     // Thread-local pointer to temporary storage.
     int thread_id = omp_get_thread_num();
 #else
-  for (int t = 0; t < width; ++t) {
+  for (int s = 0; s < num_steps; ++s) {
+    int t = steps[s];
     // Thread-local pointer to temporary storage.
     int thread_id = 0;
 #endif
@@ -188,9 +204,9 @@ void FullyConnected::Forward(bool debug, const NetworkIO &input,
 
 // Components of Forward so FullyConnected can be reused inside LSTM.
 void FullyConnected::SetupForward(const NetworkIO &input, const TransposedArray *input_transpose) {
-  // Softmax output is always float, so save the input type.
-  int_mode_ = input.int_mode();
   if (IsTraining()) {
+    // Softmax output is always float, so save the input type.
+    int_mode_ = input.int_mode();
     acts_.Resize(input, no_);
     // Source_ is a transposed copy of input. It isn't needed if provided.
     external_source_ = input_transpose;
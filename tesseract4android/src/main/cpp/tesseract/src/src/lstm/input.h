@@ -92,6 +92,10 @@ public:
   // NOTE: It isn't safe for multiple threads to call this on the same pix.
   static void PreparePixInput(const StaticShape &shape, const Image pix,
                               TRand *randomizer, NetworkIO *input);
+  // Converts the given pixes like PreparePixInput to a single NetworkIO with
+  // an element of the batch for each of them.
+  static void PreparePixesInput(const StaticShape &shape, const std::vector<Image> &pixes,
+                                TRand *randomizer, NetworkIO *input);
 
 private:
   void DebugWeights() override {
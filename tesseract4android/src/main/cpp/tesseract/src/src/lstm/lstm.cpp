@@ -24,6 +24,7 @@
 #ifdef _OPENMP
 #  include <omp.h>
 #endif
+#include <algorithm>
 #include <cstdio>
 #include <cstdlib>
 #include <sstream> // for std::ostringstream
@@ -290,8 +291,7 @@ bool LSTM::DeSerialize(TFile *fp) {
 // See NetworkCpp for a detailed discussion of the arguments.
 void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *input_transpose,
                    NetworkScratch *scratch, NetworkIO *output) {
-  input_map_ = input.stride_map();
-  input_width_ = input.Width();
+  const StrideMap &input_map = input.stride_map();
   if (softmax_ != nullptr) {
     output->ResizeFloat(input, no_);
   } else if (type_ == NT_LSTM_SUMMARY) {
@@ -299,11 +299,32 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
   } else {
     output->Resize(input, no_);
   }
-  ResizeForward(input);
+  // The padded input and the state are kept in the layer only for backprop.
+  // Otherwise they are in the scratch space, so the network can run in
+  // several threads at once.
+  NetworkScratch::IO inference_source;
+  NetworkIO *source = &source_;
+  if (IsTraining()) {
+    input_map_ = input_map;
+    input_width_ = input.Width();
+    ResizeForward(input);
+  } else {
+    inference_source.Resize(input, gate_weights_[CI].RoundInputs(na_), scratch);
+    source = inference_source;
+  }
+  if (!IsTraining() && !Is2D() && input_map.Size(FD_BATCH) > 1) {
+    ForwardBatch(input, source, scratch, output);
+#ifndef GRAPHICS_DISABLED
+    if (debug) {
+      DisplayForward(*output);
+    }
+#endif
+    return;
+  }
   // Temporary storage of forward computation for each gate.
   NetworkScratch::FloatVec temp_lines[WT_COUNT];
   int ro = ns_;
-  if (source_.int_mode() && IntSimdMatrix::intSimdMatrix) {
+  if (source->int_mode() && IntSimdMatrix::intSimdMatrix) {
     ro = IntSimdMatrix::intSimdMatrix->RoundOutputs(ro);
   }
   for (auto &temp_line : temp_lines) {
@@ -318,7 +339,7 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
   // Rotating buffers of width buf_width allow storage of the state and output
   // for the other dimension, used only when working in true 2D mode. The width
   // is enough to hold an entire strip of the major direction.
-  int buf_width = Is2D() ? input_map_.Size(FD_WIDTH) : 1;
+  int buf_width = Is2D() ? input_map.Size(FD_WIDTH) : 1;
   std::vector<NetworkScratch::FloatVec> states, outputs;
   if (Is2D()) {
     states.resize(buf_width);
@@ -344,7 +365,7 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
   }
   NetworkScratch::FloatVec curr_input;
   curr_input.Init(na_, scratch);
-  StrideMap::Index src_index(input_map_);
+  StrideMap::Index src_index(input_map);
   // Used only by NT_LSTM_SUMMARY.
   StrideMap::Index dest_index(output->stride_map());
   do {
@@ -360,16 +381,16 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
     // Index of the 2-D revolving buffers (outputs, states).
     int mod_t = Modulo(t, buf_width); // Current timestep.
     // Setup the padded input in source.
-    source_.CopyTimeStepGeneral(t, 0, ni_, input, t, 0);
+    source->CopyTimeStepGeneral(t, 0, ni_, input, t, 0);
     if (softmax_ != nullptr) {
-      source_.WriteTimeStepPart(t, ni_, nf_, softmax_output);
+      source->WriteTimeStepPart(t, ni_, nf_, softmax_output);
     }
-    source_.WriteTimeStepPart(t, ni_ + nf_, ns_, curr_output);
+    source->WriteTimeStepPart(t, ni_ + nf_, ns_, curr_output);
     if (Is2D()) {
-      source_.WriteTimeStepPart(t, ni_ + nf_ + ns_, ns_, outputs[mod_t]);
+      source->WriteTimeStepPart(t, ni_ + nf_ + ns_, ns_, outputs[mod_t]);
     }
-    if (!source_.int_mode()) {
-      source_.ReadTimeStep(t, curr_input);
+    if (!source->int_mode()) {
+      source->ReadTimeStep(t, curr_input);
     }
     // Matrix multiply the inputs with the source.
     PARALLEL_IF_OPENMP(GFS)
@@ -377,8 +398,8 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
     // alternative of putting the parallel outside the t loop, a single around
     // the t-loop and then tasks in place of the sections is a *lot* slower.
     // Cell inputs.
-    if (source_.int_mode()) {
-      gate_weights_[CI].MatrixDotVector(source_.i(t), temp_lines[CI]);
+    if (source->int_mode()) {
+      gate_weights_[CI].MatrixDotVector(source->i(t), temp_lines[CI]);
     } else {
       gate_weights_[CI].MatrixDotVector(curr_input, temp_lines[CI]);
     }
@@ -386,8 +407,8 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
 
     SECTION_IF_OPENMP
     // Input Gates.
-    if (source_.int_mode()) {
-      gate_weights_[GI].MatrixDotVector(source_.i(t), temp_lines[GI]);
+    if (source->int_mode()) {
+      gate_weights_[GI].MatrixDotVector(source->i(t), temp_lines[GI]);
     } else {
       gate_weights_[GI].MatrixDotVector(curr_input, temp_lines[GI]);
     }
@@ -395,8 +416,8 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
 
     SECTION_IF_OPENMP
     // 1-D forget gates.
-    if (source_.int_mode()) {
-      gate_weights_[GF1].MatrixDotVector(source_.i(t), temp_lines[GF1]);
+    if (source->int_mode()) {
+      gate_weights_[GF1].MatrixDotVector(source->i(t), temp_lines[GF1]);
     } else {
       gate_weights_[GF1].MatrixDotVector(curr_input, temp_lines[GF1]);
     }
@@ -404,8 +425,8 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
 
     // 2-D forget gates.
     if (Is2D()) {
-      if (source_.int_mode()) {
-        gate_weights_[GFS].MatrixDotVector(source_.i(t), temp_lines[GFS]);
+      if (source->int_mode()) {
+        gate_weights_[GFS].MatrixDotVector(source->i(t), temp_lines[GFS]);
       } else {
         gate_weights_[GFS].MatrixDotVector(curr_input, temp_lines[GFS]);
       }
@@ -414,8 +435,8 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
 
     SECTION_IF_OPENMP
     // Output gates.
-    if (source_.int_mode()) {
-      gate_weights_[GO].MatrixDotVector(source_.i(t), temp_lines[GO]);
+    if (source->int_mode()) {
+      gate_weights_[GO].MatrixDotVector(source->i(t), temp_lines[GO]);
     } else {
       gate_weights_[GO].MatrixDotVector(curr_input, temp_lines[GO]);
     }
@@ -426,14 +447,18 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
     MultiplyVectorsInPlace(ns_, temp_lines[GF1], curr_state);
     if (Is2D()) {
       // Max-pool the forget gates (in 2-d) instead of blindly adding.
-      int8_t *which_fg_col = which_fg_[t];
-      memset(which_fg_col, 1, ns_ * sizeof(which_fg_col[0]));
+      int8_t *which_fg_col = IsTraining() ? which_fg_[t] : nullptr;
+      if (which_fg_col != nullptr) {
+        memset(which_fg_col, 1, ns_ * sizeof(which_fg_col[0]));
+      }
       if (valid_2d) {
         const TFloat *stepped_state = states[mod_t];
         for (int i = 0; i < ns_; ++i) {
           if (temp_lines[GF1][i] < temp_lines[GFS][i]) {
             curr_state[i] = temp_lines[GFS][i] * stepped_state[i];
-            which_fg_col[i] = 2;
+            if (which_fg_col != nullptr) {
+              which_fg_col[i] = 2;
+            }
           }
         }
       }
@@ -489,7 +514,7 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
   } while (src_index.Increment());
 #if DEBUG_DETAIL > 0
   tprintf("Source:%s\n", name_.c_str());
-  source_.Print(10);
+  source->Print(10);
   tprintf("State:%s\n", name_.c_str());
   state_.Print(10);
   tprintf("Output:%s\n", name_.c_str());
@@ -502,6 +527,178 @@ void LSTM::Forward(bool debug, const NetworkIO &input, const TransposedArray *in
 #endif
 }
 
+// Runs Forward for inference of a 1-D LSTM on a batch of several elements,
+// with all the rows side by side, one x-coordinate at a time, so each weight
+// matrix is read once per timestep for all the rows. Gives the same output as
+// running the rows one after another.
+void LSTM::ForwardBatch(const NetworkIO &input, NetworkIO *source, NetworkScratch *scratch,
+                        NetworkIO *output) {
+  // Position of each row, its width and where a summary of it goes. Rows past
+  // their width (padding of the shorter elements) are skipped.
+  std::vector<StrideMap::Index> row_indices;
+  std::vector<int> row_widths;
+  std::vector<int> row_dests;
+  int max_width = 0;
+  StrideMap::Index src_index(input.stride_map());
+  StrideMap::Index dest_index(output->stride_map());
+  do {
+    if (src_index.index(FD_WIDTH) == 0) {
+      row_indices.push_back(src_index);
+      row_widths.push_back(src_index.MaxIndexOfDim(FD_WIDTH) + 1);
+      max_width = std::max(max_width, row_widths.back());
+      if (type_ == NT_LSTM_SUMMARY) {
+        row_dests.push_back(dest_index.t());
+        dest_index.Increment();
+      }
+    }
+  } while (src_index.Increment());
+  int num_rows = row_indices.size();
+  int ro = ns_;
+  if (source->int_mode() && IntSimdMatrix::intSimdMatrix) {
+    ro = IntSimdMatrix::intSimdMatrix->RoundOutputs(ro);
+  }
+  // The gates, state and output of each row. The states start at zero.
+  const WeightType kGates[] = {CI, GI, GF1, GO};
+  NetworkScratch::GradientStore gate_store[WT_COUNT];
+  for (auto gate : kGates) {
+    gate_store[gate].Init(num_rows, ro, scratch);
+  }
+  NetworkScratch::GradientStore state_store, output_store, input_store;
+  state_store.Init(num_rows, ns_, scratch);
+  output_store.Init(num_rows, ns_, scratch);
+  if (!source->int_mode()) {
+    input_store.Init(num_rows, na_, scratch);
+  }
+  // Used only if a softmax LSTM.
+  NetworkScratch::GradientStore softmax_store;
+  NetworkScratch::IO int_output;
+  if (softmax_ != nullptr) {
+    softmax_store.Init(num_rows, no_, scratch);
+    int rounded_softmax_inputs = gate_weights_[CI].RoundInputs(ns_);
+    if (input.int_mode()) {
+      int_output.Resize2d(true, 1, rounded_softmax_inputs, scratch);
+    }
+    softmax_->SetupForward(input, nullptr);
+  }
+  TransposedArray &states = *state_store.get();
+  TransposedArray &outputs = *output_store.get();
+  // Inputs and gate outputs of the rows still running at the current x.
+  std::vector<int> rows;
+  std::vector<const int8_t *> int_inputs;
+  std::vector<const TFloat *> float_inputs;
+  std::vector<TFloat *> gate_lines[WT_COUNT];
+  for (int x = 0; x < max_width; ++x) {
+    rows.clear();
+    int_inputs.clear();
+    float_inputs.clear();
+    for (auto gate : kGates) {
+      gate_lines[gate].clear();
+    }
+    for (int r = 0; r < num_rows; ++r) {
+      if (x >= row_widths[r]) {
+        continue;
+      }
+      rows.push_back(r);
+      // Setup the padded input in source.
+      int t = row_indices[r].t();
+      source->CopyTimeStepGeneral(t, 0, ni_, input, t, 0);
+      if (softmax_ != nullptr) {
+        source->WriteTimeStepPart(t, ni_, nf_, (*softmax_store.get())[r]);
+      }
+      source->WriteTimeStepPart(t, ni_ + nf_, ns_, outputs[r]);
+      if (source->int_mode()) {
+        int_inputs.push_back(source->i(t));
+      } else {
+        source->ReadTimeStep(t, (*input_store.get())[r]);
+        float_inputs.push_back((*input_store.get())[r]);
+      }
+      for (auto gate : kGates) {
+        gate_lines[gate].push_back((*gate_store[gate].get())[r]);
+      }
+    }
+    int num_active = rows.size();
+    // Matrix multiply the inputs of all the rows with each gate.
+    PARALLEL_IF_OPENMP(GFS)
+    // Cell inputs.
+    if (source->int_mode()) {
+      gate_weights_[CI].MatrixDotVectors(num_active, &int_inputs[0], &gate_lines[CI][0]);
+    } else {
+      gate_weights_[CI].MatrixDotVectors(num_active, &float_inputs[0], &gate_lines[CI][0]);
+    }
+    for (auto line : gate_lines[CI]) {
+      FuncInplace<GFunc>(ns_, line);
+    }
+
+    SECTION_IF_OPENMP
+    // Input Gates.
+    if (source->int_mode()) {
+      gate_weights_[GI].MatrixDotVectors(num_active, &int_inputs[0], &gate_lines[GI][0]);
+    } else {
+      gate_weights_[GI].MatrixDotVectors(num_active, &float_inputs[0], &gate_lines[GI][0]);
+    }
+    for (auto line : gate_lines[GI]) {
+      FuncInplace<FFunc>(ns_, line);
+    }
+
+    SECTION_IF_OPENMP
+    // 1-D forget gates.
+    if (source->int_mode()) {
+      gate_weights_[GF1].MatrixDotVectors(num_active, &int_inputs[0], &gate_lines[GF1][0]);
+    } else {
+      gate_weights_[GF1].MatrixDotVectors(num_active, &float_inputs[0], &gate_lines[GF1][0]);
+    }
+    for (auto line : gate_lines[GF1]) {
+      FuncInplace<FFunc>(ns_, line);
+    }
+
+    SECTION_IF_OPENMP
+    // Output gates.
+    if (source->int_mode()) {
+      gate_weights_[GO].MatrixDotVectors(num_active, &int_inputs[0], &gate_lines[GO][0]);
+    } else {
+      gate_weights_[GO].MatrixDotVectors(num_active, &float_inputs[0], &gate_lines[GO][0]);
+    }
+    for (auto line : gate_lines[GO]) {
+      FuncInplace<FFunc>(ns_, line);
+    }
+    END_PARALLEL_IF_OPENMP
+
+    for (int i = 0; i < num_active; ++i) {
+      int r = rows[i];
+      int t = row_indices[r].t();
+      TFloat *curr_state = states[r];
+      TFloat *curr_output = outputs[r];
+      // Apply forget gate to state.
+      MultiplyVectorsInPlace(ns_, gate_lines[GF1][i], curr_state);
+      MultiplyAccumulate(ns_, gate_lines[CI][i], gate_lines[GI][i], curr_state);
+      // Clip curr_state to a sane range.
+      ClipVector<TFloat>(ns_, -kStateClip, kStateClip, curr_state);
+      FuncMultiply<HFunc>(curr_state, gate_lines[GO][i], ns_, curr_output);
+      if (softmax_ != nullptr) {
+        TFloat *softmax_output = (*softmax_store.get())[r];
+        if (input.int_mode()) {
+          int_output->WriteTimeStepPart(0, 0, ns_, curr_output);
+          softmax_->ForwardTimeStep(int_output->i(0), t, softmax_output);
+        } else {
+          softmax_->ForwardTimeStep(curr_output, t, softmax_output);
+        }
+        output->WriteTimeStep(t, softmax_output);
+        if (type_ == NT_LSTM_SOFTMAX_ENCODED) {
+          CodeInBinary(no_, nf_, softmax_output);
+        }
+      } else if (type_ == NT_LSTM_SUMMARY) {
+        // Output only at the end of a row.
+        if (x == row_widths[r] - 1) {
+          output->WriteTimeStep(row_dests[r], curr_output);
+        }
+      } else {
+        output->WriteTimeStep(t, curr_output);
+      }
+      row_indices[r].AddOffset(1, FD_WIDTH);
+    }
+  }
+}
+
 // Runs backward propagation of errors on the deltas line.
 // See NetworkCpp for a detailed discussion of the arguments.
 bool LSTM::Backward(bool debug, const NetworkIO &fwd_deltas, NetworkScratch *scratch,
@@ -123,6 +123,12 @@ public:
 private:
   // Resizes forward data to cope with an input image of the given width.
   void ResizeForward(const NetworkIO &input);
+  // Runs Forward for inference of a 1-D LSTM on a batch of several elements,
+  // with all the rows side by side, one x-coordinate at a time, so each
+  // weight matrix is read once per timestep for all the rows. Gives the same
+  // output as running the rows one after another.
+  void ForwardBatch(const NetworkIO &input, NetworkIO *source, NetworkScratch *scratch,
+                    NetworkIO *output);
 
 private:
   // Size of padded input to weight matrices = ni_ + no_ for 1-D operation
@@ -30,6 +30,7 @@
 #include "input.h"
 #include "lstm.h"
 #include "normalis.h"
+#include "object_cache.h"
 #include "pageres.h"
 #include "ratngs.h"
 #include "recodebeam.h"
@@ -37,6 +38,9 @@
 #include "statistc.h"
 #include "tprintf.h"
 
+#include <cinttypes>
+#include <cstdio>
+#include <cstring>
 #include <unordered_set>
 #include <vector>
 
@@ -47,6 +51,38 @@ const double kDictRatio = 2.25;
 // Default certainty offset to give the dictionary a chance.
 const double kCertOffset = -0.085;
 
+// A network deserialized once and run by all the recognizers loading it.
+struct SharedNetwork {
+  ~SharedNetwork() {
+    delete network;
+  }
+
+  Network *network = nullptr;
+  // Number of bytes the network takes in the serialized data.
+  size_t size = 0;
+};
+
+// Networks shared between recognizers, identified by their serialized data.
+static ObjectCache<SharedNetwork> &SharedNetworks() {
+  static ObjectCache<SharedNetwork> cache;
+  return cache;
+}
+
+// FNV-1a hash over 64-bit words (and the remaining bytes) of data.
+static uint64_t HashData(const char *data, size_t size) {
+  uint64_t hash = 14695981039346656037ULL;
+  size_t i = 0;
+  for (; i + sizeof(uint64_t) <= size; i += sizeof(uint64_t)) {
+    uint64_t word;
+    memcpy(&word, data + i, sizeof(word));
+    hash = (hash ^ word) * 1099511628211ULL;
+  }
+  for (; i < size; ++i) {
+    hash = (hash ^ static_cast<uint8_t>(data[i])) * 1099511628211ULL;
+  }
+  return hash;
+}
+
 LSTMRecognizer::LSTMRecognizer(const std::string &language_data_path_prefix)
     : LSTMRecognizer::LSTMRecognizer() {
   ccutil_.language_data_path_prefix = language_data_path_prefix;
@@ -61,16 +97,26 @@ LSTMRecognizer::LSTMRecognizer()
     , learning_rate_(0.0f)
     , momentum_(0.0f)
     , adam_beta_(0.0f)
+    , share_network_(false)
+    , shared_network_(nullptr)
     , dict_(nullptr)
     , search_(nullptr)
-    , debug_win_(nullptr) {}
+    , debug_win_(nullptr) {
+  // Layers adding noise take it from the scratch space, as the network may
+  // be shared.
+  scratch_space_.set_randomizer(&randomizer_);
+}
 
 LSTMRecognizer::~LSTMRecognizer() {
-  delete network_;
+  FreeNetwork();
   delete dict_;
   delete search_;
 }
 
+int LSTMRecognizer::SharedNetworkCount() {
+  return SharedNetworks().NumObjects();
+}
+
 // Loads a model from mgr, including the dictionary only if lang is not null.
 bool LSTMRecognizer::Load(const ParamsVectors *params, const std::string &lang,
                           TessdataManager *mgr) {
@@ -131,10 +177,16 @@ bool LSTMRecognizer::Serialize(const TessdataManager *mgr, TFile *fp) const {
 
 // Reads from the given file. Returns false in case of error.
 bool LSTMRecognizer::DeSerialize(const TessdataManager *mgr, TFile *fp) {
-  delete network_;
-  network_ = Network::CreateFromFile(fp);
-  if (network_ == nullptr) {
-    return false;
+  FreeNetwork();
+  if (share_network_) {
+    if (!LoadSharedNetwork(fp)) {
+      return false;
+    }
+  } else {
+    network_ = Network::CreateFromFile(fp);
+    if (network_ == nullptr) {
+      return false;
+    }
   }
   bool include_charsets = mgr == nullptr || !mgr->IsComponentAvailable(TESSDATA_LSTM_RECODER) ||
                           !mgr->IsComponentAvailable(TESSDATA_LSTM_UNICHARSET);
@@ -171,11 +223,60 @@ bool LSTMRecognizer::DeSerialize(const TessdataManager *mgr, TFile *fp) {
   if (!include_charsets && !LoadCharsets(mgr)) {
     return false;
   }
-  network_->SetRandomizer(&randomizer_);
-  network_->CacheXScaleFactor(network_->XScaleFactor());
+  if (shared_network_ == nullptr) {
+    network_->SetRandomizer(&randomizer_);
+    network_->CacheXScaleFactor(network_->XScaleFactor());
+  }
   return true;
 }
 
+// Takes the network at the current position of fp from the shared networks,
+// deserializing it only if no other recognizer uses it.
+bool LSTMRecognizer::LoadSharedNetwork(TFile *fp) {
+  // The rest of the data identifies the network (with its charsets etc.)
+  size_t size;
+  const char *data = fp->Remaining(&size);
+  char id[40];
+  snprintf(id, sizeof(id), "%016" PRIx64 ":%zu", HashData(data, size), size);
+  bool loaded = false;
+  shared_network_ = SharedNetworks().Get(id, [fp, size, &loaded]() -> SharedNetwork * {
+    Network *network = Network::CreateFromFile(fp);
+    if (network == nullptr) {
+      return nullptr;
+    }
+    // Recognizers never train it, so running it writes nothing to it.
+    network->SetEnableTraining(TS_TEMP_DISABLE);
+    network->CacheXScaleFactor(network->XScaleFactor());
+    auto *shared = new SharedNetwork;
+    shared->network = network;
+    size_t remaining;
+    fp->Remaining(&remaining);
+    shared->size = size - remaining;
+    loaded = true;
+    return shared;
+  });
+  if (shared_network_ == nullptr) {
+    // Forget the failure, so the next load tries again.
+    SharedNetworks().DeleteUnusedObjects();
+    return false;
+  }
+  network_ = shared_network_->network;
+  return loaded || fp->Skip(shared_network_->size);
+}
+
+// Deletes the network, or releases it if shared.
+void LSTMRecognizer::FreeNetwork() {
+  if (shared_network_ != nullptr) {
+    SharedNetworks().Free(shared_network_);
+    // The network is deleted with its last user.
+    SharedNetworks().DeleteUnusedObjects();
+    shared_network_ = nullptr;
+  } else {
+    delete network_;
+  }
+  network_ = nullptr;
+}
+
 // Loads the charsets from mgr.
 bool LSTMRecognizer::LoadCharsets(const TessdataManager *mgr) {
   TFile fp;
@@ -389,6 +490,93 @@ bool LSTMRecognizer::RecognizeLine(const ImageData &image_data,
   return true;
 }
 
+// Recognizes the lines like RecognizeLine, but runs the network once on all
+// of them, packed in a batch and padded to the widest one. Returns the scale
+// factor and the outputs of each line, the same as those of RecognizeLine.
+// Outputs of lines which can't be recognized are empty.
+void LSTMRecognizer::RecognizeLines(const std::vector<const ImageData *> &image_data,
+                                    float invert_threshold, std::vector<float> *scale_factors,
+                                    std::vector<NetworkIO> *outputs) {
+  scale_factors->assign(image_data.size(), 0.0f);
+  outputs->clear();
+  outputs->resize(image_data.size());
+  int min_width = network_->XScaleFactor();
+  std::vector<Image> pixes;
+  // Index of the line of each of the pixes.
+  std::vector<int> lines;
+  for (size_t i = 0; i < image_data.size(); ++i) {
+    // This ensures consistent recognition results.
+    SetRandomSeed();
+    float scale_factor;
+    Image pix = Input::PrepareLSTMInputs(*image_data[i], network_, min_width, &randomizer_,
+                                         &scale_factor);
+    if (pix == nullptr) {
+      tprintf("Line cannot be recognized!!\n");
+      continue;
+    }
+    // Reduction factor from image to coords.
+    (*scale_factors)[i] = min_width / scale_factor;
+    pixes.push_back(pix);
+    lines.push_back(i);
+  }
+  std::vector<NetworkIO> line_outputs;
+  ForwardLines(pixes, &line_outputs);
+  for (size_t i = 0; i < pixes.size(); ++i) {
+    (*outputs)[lines[i]] = std::move(line_outputs[i]);
+  }
+  // Check for auto inversion.
+  if (invert_threshold > 0.0f) {
+    std::vector<Image> inv_pixes;
+    std::vector<int> inv_lines;
+    std::vector<float> pos_means;
+    for (size_t i = 0; i < pixes.size(); ++i) {
+      float pos_min, pos_mean, pos_sd;
+      OutputStats((*outputs)[lines[i]], &pos_min, &pos_mean, &pos_sd);
+      if (pos_mean < invert_threshold) {
+        // Run again inverted and see if it is any better.
+        pixInvert(pixes[i], pixes[i]);
+        inv_pixes.push_back(pixes[i]);
+        inv_lines.push_back(lines[i]);
+        pos_means.push_back(pos_mean);
+      }
+    }
+    std::vector<NetworkIO> inv_outputs;
+    ForwardLines(inv_pixes, &inv_outputs);
+    for (size_t i = 0; i < inv_pixes.size(); ++i) {
+      float inv_min, inv_mean, inv_sd;
+      OutputStats(inv_outputs[i], &inv_min, &inv_mean, &inv_sd);
+      if (inv_mean > pos_means[i]) {
+        // Inverted did better. Use inverted data.
+        (*outputs)[inv_lines[i]] = std::move(inv_outputs[i]);
+      }
+    }
+  }
+  for (auto &pix : pixes) {
+    pix.destroy();
+  }
+}
+
+// Runs the network on the line images prepared by PrepareLSTMInputs, all at
+// once, and returns the outputs of each of them.
+void LSTMRecognizer::ForwardLines(const std::vector<Image> &pixes,
+                                  std::vector<NetworkIO> *outputs) {
+  outputs->clear();
+  outputs->resize(pixes.size());
+  if (pixes.empty()) {
+    return;
+  }
+  NetworkIO inputs, batch_outputs;
+  inputs.set_int_mode(IsIntMode());
+  Input::PreparePixesInput(network_->InputShape(), pixes, &randomizer_, &inputs);
+  // Padding the shorter lines used the randomizer, the network must get it
+  // as in RecognizeLine.
+  SetRandomSeed();
+  network_->Forward(false, inputs, nullptr, &scratch_space_, &batch_outputs);
+  for (size_t i = 0; i < pixes.size(); ++i) {
+    (*outputs)[i].CopyBatchElement(batch_outputs, i);
+  }
+}
+
 // Converts an array of labels to utf-8, whether or not the labels are
 // augmented with character boundaries.
 std::string LSTMRecognizer::DecodeLabels(const std::vector<int> &labels) {
@@ -39,6 +39,7 @@ namespace tesseract {
 
 class Dict;
 class ImageData;
+struct SharedNetwork;
 
 // Enum indicating training mode control flags.
 enum TrainingFlags {
@@ -180,6 +181,7 @@ public:
   // Converts the network to int if not already.
   void ConvertToInt() {
     if ((training_flags_ & TF_INT_MODE) == 0) {
+      ASSERT_HOST(shared_network_ == nullptr);
       network_->ConvertToInt();
       training_flags_ |= TF_INT_MODE;
     }
@@ -219,6 +221,17 @@ public:
     return null_char_;
   }
 
+  // Sets whether to share the network with the other recognizers that load
+  // the same one, instead of deserializing a copy of it. The recognizers keep
+  // their own scratch space, beam search and dictionary, and run the shared
+  // network only forward, so it can't be trained or converted. Takes effect
+  // on the next load.
+  void SetShareNetwork(bool share_network) {
+    share_network_ = share_network;
+  }
+  // Returns the number of networks currently shared between recognizers.
+  static int SharedNetworkCount();
+
   // Loads a model from mgr, including the dictionary only if lang is not null.
   bool Load(const ParamsVectors *params, const std::string &lang, TessdataManager *mgr);
 
@@ -266,6 +279,12 @@ public:
   // inputs is filled with the used inputs to the network.
   bool RecognizeLine(const ImageData &image_data, float invert_threshold, bool debug, bool re_invert,
                      bool upside_down, float *scale_factor, NetworkIO *inputs, NetworkIO *outputs);
+  // Recognizes the lines like RecognizeLine, but runs the network once on all
+  // of them, packed in a batch and padded to the widest one. Returns the
+  // scale factor and the outputs of each line, the same as those of
+  // RecognizeLine. Outputs of lines which can't be recognized are empty.
+  void RecognizeLines(const std::vector<const ImageData *> &image_data, float invert_threshold,
+                      std::vector<float> *scale_factors, std::vector<NetworkIO> *outputs);
 
   // Converts an array of labels to utf-8, whether or not the labels are
   // augmented with character boundaries.
@@ -284,6 +303,15 @@ public:
                          std::vector<int> *xcoords);
 
 protected:
+  // Takes the network at the current position of fp from the shared networks,
+  // deserializing it only if no other recognizer uses it.
+  bool LoadSharedNetwork(TFile *fp);
+  // Deletes the network, or releases it if shared.
+  void FreeNetwork();
+  // Runs the network on the line images prepared by PrepareLSTMInputs, all
+  // at once, and returns the outputs of each of them.
+  void ForwardLines(const std::vector<Image> &pixes, std::vector<NetworkIO> *outputs);
+
   // Sets the random seed from the sample_iteration_;
   void SetRandomSeed() {
     int64_t seed = sample_iteration_ * 0x10000001LL;
@@ -354,6 +382,10 @@ protected:
   float adam_beta_;
 
   // === NOT SERIALIZED.
+  // If true, the network is loaded shared with other recognizers.
+  bool share_network_;
+  // The shared network network_ belongs to, nullptr if it is owned.
+  SharedNetwork *shared_network_;
   TRand randomizer_;
   NetworkScratch scratch_space_;
   // Language model (optional) to use with the beam search.
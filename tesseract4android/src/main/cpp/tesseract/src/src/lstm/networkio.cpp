@@ -923,6 +923,23 @@ void NetworkIO::CopyWithXYTranspose(const NetworkIO &src) {
   } while (src_b_index.AddOffset(1, FD_BATCH) && dest_b_index.AddOffset(1, FD_BATCH));
 }
 
+// Copies the given element of the batch in src to *this, as a batch of one.
+void NetworkIO::CopyBatchElement(const NetworkIO &src, int batch) {
+  StrideMap::Index src_index(src.stride_map_);
+  src_index.AddOffset(batch, FD_BATCH);
+  std::vector<std::pair<int, int>> h_w_pairs(
+      1, std::make_pair(src_index.MaxIndexOfDim(FD_HEIGHT) + 1,
+                        src_index.MaxIndexOfDim(FD_WIDTH) + 1));
+  StrideMap stride_map;
+  stride_map.SetStride(h_w_pairs);
+  ResizeToMap(src.int_mode_, stride_map, src.NumFeatures());
+  StrideMap::Index dest_index(stride_map_);
+  do {
+    CopyTimeStepFrom(dest_index.t(), src, src_index.t());
+    src_index.Increment();
+  } while (dest_index.Increment());
+}
+
 // Copies src to *this, at the given feature_offset, returning the total
 // feature offset after the copy. Multiple calls will stack outputs from
 // multiple sources in feature space.
@@ -240,6 +240,8 @@ public:
   void CopyWithXReversal(const NetworkIO &src);
   // Copies src to *this with independent transpose of the x and y dimensions.
   void CopyWithXYTranspose(const NetworkIO &src);
+  // Copies the given element of the batch in src to *this, as a batch of one.
+  void CopyBatchElement(const NetworkIO &src, int batch);
   // Copies src to *this, at the given feature_offset, returning the total
   // feature offset after the copy. Multiple calls will stack outputs from
   // multiple sources in feature space.
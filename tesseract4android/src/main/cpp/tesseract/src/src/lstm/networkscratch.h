@@ -32,7 +32,7 @@ namespace tesseract {
 // and don't have to be reallocated on each call.
 class NetworkScratch {
 public:
-  NetworkScratch() : int_mode_(false) {}
+  NetworkScratch() : int_mode_(false), randomizer_(nullptr) {}
   ~NetworkScratch() = default;
 
   // Sets the network representation. If the representation is integer, then
@@ -43,6 +43,15 @@ public:
   void set_int_mode(bool int_mode) {
     int_mode_ = int_mode;
   }
+  // Sets the random number generator for layers which add noise, used in
+  // place of the one of the network, so a network can run with several
+  // NetworkScratch at once. Borrowed pointer, which must outlive *this.
+  void set_randomizer(TRand *randomizer) {
+    randomizer_ = randomizer;
+  }
+  TRand *randomizer() const {
+    return randomizer_;
+  }
 
   // Class that acts like a NetworkIO (by having an implicit cast operator),
   // yet actually holds a pointer to NetworkIOs in the source NetworkScratch,
@@ -266,6 +275,8 @@ public:
 private:
   // If true, the network weights are int8_t, if false, float.
   bool int_mode_;
+  // Random number generator given to the layers, may be nullptr.
+  TRand *randomizer_;
   // Stacks of NetworkIO and vector<float>. Once allocated, they are not
   // deleted until the NetworkScratch is deleted.
   Stack<NetworkIO> int_stack_;
@@ -17,6 +17,7 @@
 
 #include "weightmatrix.h"
 
+#include <algorithm> // for std::max, std::min
 #include <cassert> // for assert
 #include "intsimdmatrix.h"
 #include "simddetect.h" // for DotProduct
@@ -400,6 +401,50 @@ void WeightMatrix::MatrixDotVector(const int8_t *u, TFloat *v) const {
   }
 }
 
+void WeightMatrix::MatrixDotVectors(int num_vectors, const TFloat *const *u,
+                                    TFloat *const *v) const {
+  assert(!int_mode_);
+  int num_results = wf_.dim1();
+  int extent = wf_.dim2() - 1;
+  for (int i = 0; i < num_results; ++i) {
+    const TFloat *wi = wf_[i];
+    for (int n = 0; n < num_vectors; ++n) {
+      TFloat total = DotProduct(wi, u[n], extent);
+      total += wi[extent]; // The bias value.
+      v[n][i] = total;
+    }
+  }
+}
+
+void WeightMatrix::MatrixDotVectors(int num_vectors, const int8_t *const *u,
+                                    TFloat *const *v) const {
+  assert(int_mode_);
+  const IntSimdMatrix *simd = IntSimdMatrix::intSimdMatrix;
+  if (simd == nullptr) {
+    for (int n = 0; n < num_vectors; ++n) {
+      IntSimdMatrix::MatrixDotVector(wi_, scales_, u[n], v[n]);
+    }
+    return;
+  }
+  // The shaped weights are stored in groups of rows, each followed by its
+  // biases, so any number of whole groups can be multiplied on its own.
+  int num_out = wi_.dim1();
+  int num_in = wi_.dim2() - 1;
+  int group_size = simd->num_outputs_per_register_ * simd->max_output_registers_;
+  int group_weights =
+      (IntSimdMatrix::Roundup(num_in, simd->num_inputs_per_group_) + 1) * group_size;
+  // Blocks of whole groups small enough to stay in the L1 cache.
+  const int kBlockBytes = 16384;
+  int block_size = std::max(1, kBlockBytes / group_weights) * group_size;
+  for (int output = 0; output < num_out; output += block_size) {
+    int size = std::min(block_size, num_out - output);
+    const int8_t *w = &shaped_w_[0] + output / group_size * group_weights;
+    for (int n = 0; n < num_vectors; ++n) {
+      simd->matrixDotVectorFunction(size, wi_.dim2(), w, &scales_[output], u[n], v[n] + output);
+    }
+  }
+}
+
 // MatrixDotVector for peep weights, MultiplyAccumulate adds the
 // component-wise products of *this[0] and v to inout.
 void WeightMatrix::MultiplyAccumulate(const TFloat *v, TFloat *inout) {
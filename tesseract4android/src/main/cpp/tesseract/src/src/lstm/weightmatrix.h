@@ -135,6 +135,12 @@ public:
   // Asserts that the call matches what we have.
   void MatrixDotVector(const TFloat *u, TFloat *v) const;
   void MatrixDotVector(const int8_t *u, TFloat *v) const;
+  // Computes v[n] = Wu[n] like MatrixDotVector for each of the num_vectors.
+  // Each block of rows is used for all the vectors before moving to the next
+  // one, so the weights are read once instead of once per vector. The
+  // results are the same as those of MatrixDotVector.
+  void MatrixDotVectors(int num_vectors, const TFloat *const *u, TFloat *const *v) const;
+  void MatrixDotVectors(int num_vectors, const int8_t *const *u, TFloat *const *v) const;
   // MatrixDotVector for peep weights, MultiplyAccumulate adds the
   // component-wise products of *this[0] and v to inout.
   void MultiplyAccumulate(const TFloat *v, TFloat *inout);
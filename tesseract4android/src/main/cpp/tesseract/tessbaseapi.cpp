@@ -18,24 +18,89 @@
 
 #include <stdio.h>
 #include <malloc.h>
-#include "android/bitmap.h"
+#include <algorithm>
+#include <atomic>
+#include <chrono>
+#include <cmath>
+#include <cstring>
+#include <string>
 #include "common.h"
 #include <tesseract/baseapi.h>
 #include <tesseract/ocrclass.h>
 #include "allheaders.h"
 #include <tesseract/renderer.h>
+#include <tesseract/resultiterator.h>
+#include <vector>
+#include "autoscale.h"
+#include "boxmapping.h"
+#include "dotproduct.h"
+#include "intsimdmatrix.h"
+#include "lstmrecognizer.h"
+#include "modeldata.h"
+#include "quantizedmodel.h"
+#include "simddetect.h"
+#include "tesseractclass.h"
 
 static jmethodID method_onProgressValues;
+static jclass class_ResultSnapshot;
+static jmethodID method_ResultSnapshot_init;
+
+// Keep in sync with TessBaseAPI.RecognitionStatus
+enum RecognitionStatus {
+  STATUS_OK = 0,
+  STATUS_CANCELLED = 1,
+  STATUS_TIMED_OUT = 2,
+  STATUS_FAILED = 3
+};
+
+/**
+ * Exposes the recognition state which is not available through the public API.
+ */
+class TessBaseAPIJni : public tesseract::TessBaseAPI {
+public:
+  bool IsRecognitionDone() const {
+    return recognition_done_;
+  }
+
+  // Initialization from memory takes the language as the data directory,
+  // point it back to tessdata so configs and the PDF font can be found
+  void SetDataDir(const std::string &dir) {
+    tesseract()->datadir = dir;
+  }
+};
 
 struct native_data_t {
-  tesseract::TessBaseAPI api;
+  TessBaseAPIJni api;
   PIX *pix;
-  void *data;
   bool debug;
 
   Box* currentTextBox = NULL;
   l_int32 lastProgress;
-  bool cancel_ocr;
+  // Progress notifications and their throttling, checked before calling into Java
+  bool progressEnabled;
+  l_int32 minProgressDelta;
+  l_int64 minProgressInterval;
+  l_int64 lastProgressTime;
+  // Last notification skipped by the throttling, -1 if none, delivered when the recognition ends
+  l_int32 pendingProgress;
+  int pendingWordBox[4];
+  // Set from other threads to stop the ongoing recognition
+  std::atomic<bool> cancel_ocr;
+  // Result of the last recognition of the current image
+  RecognitionStatus lastStatus;
+
+  // Desired x-height of the text in pixels, 0 to keep images at their size
+  l_int32 autoScaleXHeight;
+  // Factor the current image was scaled by and its original size
+  l_float32 imageScale;
+  l_int32 imageWidth;
+  l_int32 imageHeight;
+  // Affine transform {a, b, c, d, tx, ty} from the current image to its source
+  // image and the size of the source, see PixTransform
+  bool hasTransform;
+  l_float32 transform[6];
+  l_int32 sourceWidth;
+  l_int32 sourceHeight;
 
   JNIEnv *cachedEnv;
   jobject* cachedObject;
@@ -53,11 +118,94 @@ struct native_data_t {
     boxSetGeometry(currentTextBox, x, y, width, height);
   }
 
-  void initStateVariables(JNIEnv* env, jobject *object) {
-    cancel_ocr = false;
+  void setImageSize(l_int32 width, l_int32 height, l_float32 scale) {
+    imageWidth = width;
+    imageHeight = height;
+    imageScale = scale;
+    hasTransform = false;
+  }
+
+  void setTransform(const l_float32 *values, l_int32 width, l_int32 height) {
+    std::copy(values, values + 6, transform);
+    sourceWidth = width;
+    sourceHeight = height;
+    hasTransform = true;
+  }
+
+  /**
+   * Maps a box of the scaled image given to Tesseract back to the original image.
+   */
+  void unscaleBox(int *left, int *top, int *right, int *bottom) const {
+    if (imageScale == 1.0f)
+      return;
+    *left = std::max(0, (int) std::floor(*left / imageScale));
+    *top = std::max(0, (int) std::floor(*top / imageScale));
+    *right = std::min(imageWidth, (int) std::ceil(*right / imageScale));
+    *bottom = std::min(imageHeight, (int) std::ceil(*bottom / imageScale));
+  }
+
+  /**
+   * Maps a box of the current image to the smallest box of its source image
+   * containing it.
+   */
+  void transformBox(int *left, int *top, int *right, int *bottom) const {
+    if (!hasTransform)
+      return;
+    const l_float32 xs[4] = {(l_float32) *left, (l_float32) *right,
+                             (l_float32) *left, (l_float32) *right};
+    const l_float32 ys[4] = {(l_float32) *top, (l_float32) *top,
+                             (l_float32) *bottom, (l_float32) *bottom};
+    l_float32 minX = 0, minY = 0, maxX = 0, maxY = 0;
+    for (int i = 0; i < 4; i++) {
+      const l_float32 x = transform[0] * xs[i] + transform[1] * ys[i] + transform[4];
+      const l_float32 y = transform[2] * xs[i] + transform[3] * ys[i] + transform[5];
+      minX = i == 0 ? x : std::min(minX, x);
+      maxX = i == 0 ? x : std::max(maxX, x);
+      minY = i == 0 ? y : std::min(minY, y);
+      maxY = i == 0 ? y : std::max(maxY, y);
+    }
+    *left = std::max(0, std::min(sourceWidth, (int) std::floor(minX)));
+    *top = std::max(0, std::min(sourceHeight, (int) std::floor(minY)));
+    *right = std::max(*left, std::min(sourceWidth, (int) std::ceil(maxX)));
+    *bottom = std::max(*top, std::min(sourceHeight, (int) std::ceil(maxY)));
+  }
+
+  /**
+   * Maps a box of the image given to Tesseract to the source image the caller
+   * wants the results in.
+   */
+  void mapBox(int *left, int *top, int *right, int *bottom) const {
+    unscaleBox(left, top, right, bottom);
+    transformBox(left, top, right, bottom);
+  }
+
+  /**
+   * Maps the boxes of images returned by Tesseract back to the source image.
+   */
+  void mapPixa(PIXA *pixa) const {
+    if (pixa == NULL || (imageScale == 1.0f && !hasTransform))
+      return;
+    for (l_int32 i = 0; i < pixaGetBoxaCount(pixa); i++) {
+      BOX *box = pixaGetBox(pixa, i, L_CLONE);
+      if (box == NULL)
+        continue;
+      l_int32 x, y, w, h;
+      boxGetGeometry(box, &x, &y, &w, &h);
+      int right = x + w, bottom = y + h;
+      mapBox(&x, &y, &right, &bottom);
+      boxSetGeometry(box, x, y, right - x, bottom - y);
+      boxDestroy(&box);
+    }
+  }
+
+  void initStateVariables(JNIEnv* env, jobject *object, bool resetCancel = true) {
+    if (resetCancel)
+      cancel_ocr = false;
     cachedEnv = env;
     cachedObject = object;
     lastProgress = 0;
+    lastProgressTime = 0;
+    pendingProgress = -1;
   }
 
   void resetStateVariables() {
@@ -71,12 +219,24 @@ struct native_data_t {
   native_data_t() {
     currentTextBox = boxCreate(0, 0, 0, 0);
     lastProgress = 0;
+    progressEnabled = true;
+    minProgressDelta = 0;
+    minProgressInterval = 0;
+    lastProgressTime = 0;
+    pendingProgress = -1;
     pix = NULL;
-    data = NULL;
     debug = false;
     cachedEnv = NULL;
     cachedObject = NULL;
     cancel_ocr = false;
+    lastStatus = STATUS_OK;
+    autoScaleXHeight = 0;
+    imageScale = 1.0f;
+    imageWidth = 0;
+    imageHeight = 0;
+    hasTransform = false;
+    sourceWidth = 0;
+    sourceHeight = 0;
   }
 
   ~native_data_t() {
@@ -92,25 +252,254 @@ bool cancelFunc(void* cancel_this, int words) {
   return nat->cancel_ocr;
 }
 
+/**
+ * Calls onProgressValues with the word box mapped to the source image.
+ */
+static void deliverProgress(native_data_t *nat, l_int32 progress, int left, int right, int top,
+                            int bottom) {
+  int x, y, width, height;
+  boxGetGeometry(nat->currentTextBox, &x, &y, &width, &height);
+
+  // Word is measured upwards from the bottom of the text, as in the scaled image
+  if (nat->imageScale != 1.0f || nat->hasTransform) {
+    const int scaledBottom = (int) std::ceil((y + height) * nat->imageScale);
+    int wordTop = scaledBottom - top, wordBottom = scaledBottom - bottom;
+    nat->mapBox(&left, &wordTop, &right, &wordBottom);
+    int textRight = x + width, textBottom = y + height;
+    nat->transformBox(&x, &y, &textRight, &textBottom);
+    width = textRight - x;
+    height = textBottom - y;
+    top = y + height - wordTop;
+    bottom = y + height - wordBottom;
+  }
+  nat->cachedEnv->CallVoidMethod(*(nat->cachedObject), method_onProgressValues, progress,
+          (jint) left, (jint) right, (jint) top, (jint) bottom,
+          (jint) x, (jint) (x + width), (jint) (y + height), (jint) y);
+  nat->lastProgress = progress;
+  nat->pendingProgress = -1;
+}
+
 /**
  * Callback for Tesseract's monitor to update progress.
  */
 bool progressJavaCallback(tesseract::ETEXT_DESC* monitor, int left, int right, int top, int bottom) {
   native_data_t *nat = (native_data_t*)monitor->cancel_this;
   l_int32 progress = monitor->progress;
-  if (nat->isStateValid() && nat->currentTextBox != NULL) {
+  if (nat->progressEnabled && nat->isStateValid() && nat->currentTextBox != NULL) {
     if (progress > nat->lastProgress || left != 0 || right != 0 || top != 0 || bottom != 0) {
-      int x, y, width, height;
-      boxGetGeometry(nat->currentTextBox, &x, &y, &width, &height);
-      nat->cachedEnv->CallVoidMethod(*(nat->cachedObject), method_onProgressValues, progress,
-              (jint) left, (jint) right, (jint) top, (jint) bottom,
-              (jint) x, (jint) (x + width), (jint) (y + height), (jint) y);
-      nat->lastProgress = progress;
+      // Throttle before the upcall, it is the expensive part. The final
+      // notification is never skipped.
+      bool skip = false;
+      if (progress < 100) {
+        if (nat->minProgressDelta > 0 && progress - nat->lastProgress < nat->minProgressDelta)
+          skip = true;
+        if (!skip && nat->minProgressInterval > 0) {
+          l_int64 now = std::chrono::duration_cast<std::chrono::milliseconds>(
+              std::chrono::steady_clock::now().time_since_epoch()).count();
+          if (nat->lastProgressTime != 0 && now - nat->lastProgressTime < nat->minProgressInterval)
+            skip = true;
+          else
+            nat->lastProgressTime = now;
+        }
+      }
+      if (skip) {
+        nat->pendingProgress = progress;
+        nat->pendingWordBox[0] = left;
+        nat->pendingWordBox[1] = right;
+        nat->pendingWordBox[2] = top;
+        nat->pendingWordBox[3] = bottom;
+        return true;
+      }
+
+      deliverProgress(nat, progress, left, right, top, bottom);
     }
   }
   return true;
 }
 
+/**
+ * Runs the recognition with progress notifications, stoppable by the cancel flag
+ * and limited by the timeout (if positive). Does nothing if the current image was
+ * already recognized. Partial results are kept when cancelled or timed out.
+ */
+static RecognitionStatus recognize(JNIEnv *env, jobject *thiz, native_data_t *nat,
+                                   jint timeoutMillis, bool resetCancel = true) {
+  if (nat->api.IsRecognitionDone())
+    return nat->lastStatus;
+
+  nat->initStateVariables(env, thiz, resetCancel);
+
+  tesseract::ETEXT_DESC monitor;
+  monitor.progress_callback2 = progressJavaCallback;
+  monitor.cancel = cancelFunc;
+  monitor.cancel_this = nat;
+  if (timeoutMillis > 0)
+    monitor.set_deadline_msecs(timeoutMillis);
+
+  RecognitionStatus status = STATUS_OK;
+  if (nat->api.Recognize(&monitor) < 0) {
+    if (monitor.deadline_exceeded())
+      status = STATUS_TIMED_OUT;
+    else if (nat->cancel_ocr)
+      status = STATUS_CANCELLED;
+    else
+      status = STATUS_FAILED;
+  }
+
+  // Let the listener know where the recognition ended, even if throttled
+  if (nat->pendingProgress >= 0 && (status == STATUS_OK || status == STATUS_TIMED_OUT)
+      && nat->isStateValid()) {
+    deliverProgress(nat, nat->pendingProgress, nat->pendingWordBox[0], nat->pendingWordBox[1],
+                    nat->pendingWordBox[2], nat->pendingWordBox[3]);
+  }
+
+  nat->resetStateVariables();
+  nat->lastStatus = status;
+
+  return status;
+}
+
+/**
+ * Converts Java arrays of variable names and values to vectors used by Init.
+ */
+static void getVariables(JNIEnv *env, jobjectArray vars, jobjectArray varsValues,
+                         std::vector<std::string> &vars_vec,
+                         std::vector<std::string> &vars_values) {
+  jsize size = env->GetArrayLength(vars);
+
+  for (int i = 0; i < size; i++) {
+    jstring var = (jstring) env->GetObjectArrayElement(vars, i);
+    jstring value = (jstring) env->GetObjectArrayElement(varsValues, i);
+
+    const char *c_var = env->GetStringUTFChars(var, NULL);
+    const char *c_value = env->GetStringUTFChars(value, NULL);
+
+    vars_vec.push_back(std::string(c_var));
+    vars_values.push_back(std::string(c_value));
+
+    env->ReleaseStringUTFChars(var, c_var);
+    env->ReleaseStringUTFChars(value, c_value);
+
+    env->DeleteLocalRef(var);
+    env->DeleteLocalRef(value);
+  }
+}
+
+/**
+ * Tesseract keeps the engine, without applying the variables, when it's
+ * initialized again with the same language, data path and mode. Ends it if
+ * the sharing of its LSTM network should change, so the network is loaded
+ * again.
+ */
+static void endIfSharingChanges(native_data_t *nat, const std::vector<std::string> &vars_vec,
+                                const std::vector<std::string> &vars_values) {
+  if (nat->api.tesseract() == nullptr)
+    return;
+
+  bool share = false;
+  for (size_t i = 0; i < vars_vec.size(); i++) {
+    if (vars_vec[i] == "lstm_share_network")
+      share = !vars_values[i].empty() && strchr("TtYy1", vars_values[i][0]) != nullptr;
+  }
+  if (share != (bool) nat->api.tesseract()->lstm_share_network)
+    nat->api.End();
+}
+
+/**
+ * Initializes the engine from traineddata content in memory. Tesseract reads
+ * what it needs during Init, so the memory may be released afterwards.
+ */
+static jboolean initFromMemory(JNIEnv *env, native_data_t *nat, const char *data, size_t size,
+                               jstring lang, jint mode, jobjectArray vars,
+                               jobjectArray varsValues) {
+  const char *c_lang = env->GetStringUTFChars(lang, NULL);
+
+  std::vector<std::string> vars_vec, vars_values;
+  getVariables(env, vars, varsValues, vars_vec, vars_values);
+  endIfSharingChanges(nat, vars_vec, vars_values);
+
+  jboolean res = JNI_TRUE;
+
+  if (nat->api.Init(data, (int) size, c_lang, (tesseract::OcrEngineMode) mode,
+          nullptr, 0, &vars_vec, &vars_values, false, nullptr)) {
+    LOGE("Could not initialize Tesseract API with language=%s!", c_lang);
+    res = JNI_FALSE;
+  } else {
+    LOGI("Initialized Tesseract API from memory with language=%s", c_lang);
+  }
+
+  env->ReleaseStringUTFChars(lang, c_lang);
+
+  return res;
+}
+
+/**
+ * Rewrites the "bbox left top right bottom" properties of hOCR elements to the
+ * coordinates of the source image.
+ */
+static std::string mapHocrBoxes(const native_data_t *nat, const char *hocr) {
+  static const char kBbox[] = "bbox ";
+  std::string result;
+  const char *p = hocr;
+  const char *match;
+
+  while ((match = strstr(p, kBbox)) != NULL) {
+    match += sizeof(kBbox) - 1;
+    result.append(p, match - p);
+
+    int left, top, right, bottom, length = 0;
+    if (sscanf(match, "%d %d %d %d%n", &left, &top, &right, &bottom, &length) == 4) {
+      nat->mapBox(&left, &top, &right, &bottom);
+      char box[64];
+      snprintf(box, sizeof(box), "%d %d %d %d", left, top, right, bottom);
+      result.append(box);
+      match += length;
+    }
+    p = match;
+  }
+  result.append(p);
+
+  return result;
+}
+
+/**
+ * Returns the name of the dot product kernel selected by SIMDDetect, as accepted
+ * by its dotproduct variable.
+ */
+static const char *getSimdKernel() {
+  const tesseract::DotProductFunction dotProduct = tesseract::DotProduct;
+
+#if defined(HAVE_AVX2)
+  if (dotProduct == tesseract::DotProductAVX
+      && tesseract::IntSimdMatrix::intSimdMatrix == &tesseract::IntSimdMatrix::intSimdMatrixAVX2)
+    return "avx2";
+#endif
+#if defined(HAVE_AVX)
+  if (dotProduct == tesseract::DotProductAVX)
+    return "avx";
+#endif
+#if defined(HAVE_FMA)
+  if (dotProduct == tesseract::DotProductFMA)
+    return "fma";
+#endif
+#if defined(HAVE_SSE4_1)
+  if (dotProduct == tesseract::DotProductSSE)
+    return "sse";
+#endif
+#if defined(HAVE_NEON) || defined(__aarch64__)
+  if (dotProduct == tesseract::DotProductNEON)
+    return "neon";
+#endif
+  if (dotProduct == tesseract::DotProductNative)
+    return "native";
+  return "generic";
+}
+
+void mapResultBox(jlong nativeData, int *left, int *top, int *right, int *bottom) {
+  if (nativeData != 0)
+    ((native_data_t*) nativeData)->mapBox(left, top, right, bottom);
+}
+
 #ifdef __cplusplus
 extern "C" {
 #endif
@@ -130,6 +519,11 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeClassInit(JNIEnv* e
                                                                        jclass clazz) {
 
   method_onProgressValues = env->GetMethodID(clazz, "onProgressValues", "(IIIIIIIII)V");
+
+  jclass snapshotClass = env->FindClass("com/googlecode/tesseract/android/ResultSnapshot");
+  class_ResultSnapshot = (jclass) env->NewGlobalRef(snapshotClass);
+  method_ResultSnapshot_init = env->GetMethodID(snapshotClass, "<init>", "(I[I[I[F[I[I[B)V");
+  env->DeleteLocalRef(snapshotClass);
 }
 
 jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeConstruct(JNIEnv* env,
@@ -178,6 +572,8 @@ jboolean Java_com_googlecode_tesseract_android_TessBaseAPI_nativeInitOem(JNIEnv
   const char *c_dir = env->GetStringUTFChars(dir, NULL);
   const char *c_lang = env->GetStringUTFChars(lang, NULL);
 
+  endIfSharingChanges(nat, {}, {});
+
   jboolean res = JNI_TRUE;
 
   if (nat->api.Init(c_dir, c_lang, (tesseract::OcrEngineMode) mode)) {
@@ -208,39 +604,140 @@ jboolean Java_com_googlecode_tesseract_android_TessBaseAPI_nativeInitParams(JNIE
   const char *c_lang = env->GetStringUTFChars(lang, NULL);
 
   std::vector<std::string> vars_vec, vars_values;
+  getVariables(env, vars, varsValues, vars_vec, vars_values);
+  endIfSharingChanges(nat, vars_vec, vars_values);
 
-  jsize size = env->GetArrayLength(vars);
+  jboolean res = JNI_TRUE;
 
-  for (int i = 0; i < size; i++) {
-    jstring var = (jstring) env->GetObjectArrayElement(vars, i);
-    jstring value = (jstring) env->GetObjectArrayElement(varsValues, i);
+  if (nat->api.Init(c_dir, c_lang, (tesseract::OcrEngineMode) mode,
+          nullptr, 0, &vars_vec, &vars_values, false)) {
+    LOGE("Could not initialize Tesseract API with language=%s!", c_lang);
+    res = JNI_FALSE;
+  } else {
+    LOGI("Initialized Tesseract API with language=%s", c_lang);
+  }
 
-    const char *c_var = env->GetStringUTFChars(var, NULL);
-    const char *c_value = env->GetStringUTFChars(value, NULL);
+  env->ReleaseStringUTFChars(dir, c_dir);
+  env->ReleaseStringUTFChars(lang, c_lang);
 
-    vars_vec.push_back(std::string(c_var));
-    vars_values.push_back(std::string(c_value));
+  return res;
+}
 
-    env->ReleaseStringUTFChars(var, c_var);
-    env->ReleaseStringUTFChars(value, c_value);
-  }
+jboolean Java_com_googlecode_tesseract_android_TessBaseAPI_nativeInitModel(JNIEnv *env,
+                                                                           jobject thiz,
+                                                                           jlong mNativeData,
+                                                                           jstring path,
+                                                                           jstring lang,
+                                                                           jint mode,
+                                                                           jobjectArray vars,
+                                                                           jobjectArray varsValues,
+                                                                           jboolean mapped,
+                                                                           jboolean quantize,
+                                                                           jintArray quantizeStats) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  const char *c_path = env->GetStringUTFChars(path, NULL);
+  const char *c_lang = env->GetStringUTFChars(lang, NULL);
+
+  std::vector<std::string> vars_vec, vars_values;
+  getVariables(env, vars, varsValues, vars_vec, vars_values);
+  endIfSharingChanges(nat, vars_vec, vars_values);
 
   jboolean res = JNI_TRUE;
 
-  if (nat->api.Init(c_dir, c_lang, (tesseract::OcrEngineMode) mode,
-          nullptr, 0, &vars_vec, &vars_values, false)) {
+  // Tesseract reads what it needs from the model during Init, so the model is
+  // released right away
+  std::shared_ptr<const ModelData> model;
+  if (quantize) {
+    int quantizeResult;
+    long convertMillis, savedMillis;
+    model = loadQuantizedModel(c_path, mapped, &quantizeResult, &convertMillis, &savedMillis);
+    const jint stats[] = {quantizeResult, (jint) convertMillis, (jint) savedMillis};
+    env->SetIntArrayRegion(quantizeStats, 0, 3, stats);
+  } else {
+    model = loadModel(c_path, mapped);
+  }
+
+  if (!model) {
+    res = JNI_FALSE;
+  } else if (nat->api.Init(model->data(), (int) model->size(), c_lang,
+          (tesseract::OcrEngineMode) mode, nullptr, 0, &vars_vec, &vars_values, false, nullptr)) {
     LOGE("Could not initialize Tesseract API with language=%s!", c_lang);
     res = JNI_FALSE;
   } else {
-    LOGI("Initialized Tesseract API with language=%s", c_lang);
+    LOGI("Initialized Tesseract API with %s model language=%s", mapped ? "mapped" : "loaded",
+         c_lang);
+    const std::string modelPath = c_path;
+    nat->api.SetDataDir(modelPath.substr(0, modelPath.rfind('/') + 1));
   }
 
-  env->ReleaseStringUTFChars(dir, c_dir);
+  env->ReleaseStringUTFChars(path, c_path);
   env->ReleaseStringUTFChars(lang, c_lang);
 
   return res;
 }
 
+jboolean Java_com_googlecode_tesseract_android_TessBaseAPI_nativeInitBuffer(JNIEnv *env,
+                                                                            jobject thiz,
+                                                                            jlong mNativeData,
+                                                                            jobject buffer,
+                                                                            jbyteArray array,
+                                                                            jint offset,
+                                                                            jint length,
+                                                                            jstring lang,
+                                                                            jint mode,
+                                                                            jobjectArray vars,
+                                                                            jobjectArray varsValues) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  jboolean res;
+
+  if (buffer != NULL) {
+    const char *data = (const char *) env->GetDirectBufferAddress(buffer);
+    if (data == NULL) {
+      LOGE("Could not get direct buffer address");
+      return JNI_FALSE;
+    }
+    res = initFromMemory(env, nat, data + offset, length, lang, mode, vars, varsValues);
+  } else {
+    jbyte *data = env->GetByteArrayElements(array, NULL);
+    res = initFromMemory(env, nat, (const char *) data + offset, length, lang, mode, vars,
+                         varsValues);
+    env->ReleaseByteArrayElements(array, data, JNI_ABORT);
+  }
+
+  return res;
+}
+
+jboolean Java_com_googlecode_tesseract_android_TessBaseAPI_nativeInitFd(JNIEnv *env,
+                                                                        jobject thiz,
+                                                                        jlong mNativeData,
+                                                                        jint fd,
+                                                                        jlong offset,
+                                                                        jlong length,
+                                                                        jstring lang,
+                                                                        jint mode,
+                                                                        jobjectArray vars,
+                                                                        jobjectArray varsValues) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  std::shared_ptr<const ModelData> model = mapModel(fd, offset, length);
+  if (!model)
+    return JNI_FALSE;
+
+  // The mapping is released when the model goes out of scope
+  return initFromMemory(env, nat, model->data(), model->size(), lang, mode, vars, varsValues);
+}
+
+jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetResidentSetSize(JNIEnv *env,
+                                                                                 jclass clazz) {
+
+  return (jlong) getResidentSetSize();
+}
+
 jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetInitLanguagesAsString(JNIEnv *env,
                                                                                          jobject thiz,
                                                                                          jlong mNativeData) {
@@ -256,6 +753,21 @@ jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetInitLanguages
 }
 
 
+/**
+ * Sets raw image data, which Tesseract converts into its own copy right away,
+ * so the data doesn't need to outlive this call.
+ */
+static void setImageData(native_data_t *nat, const unsigned char *imagedata, int width,
+                         int height, int bpp, int bpl) {
+  nat->api.SetImage(imagedata, width, height, bpp, bpl);
+  nat->setTextBoundaries(0, 0, static_cast<l_uint32>(width), static_cast<l_uint32>(height));
+  nat->setImageSize(width, height, 1.0f);
+  nat->lastStatus = STATUS_OK;
+
+  if (nat->pix != NULL)
+    pixDestroy(&nat->pix);
+}
+
 void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetImageBytes(JNIEnv *env,
                                                                            jobject thiz,
                                                                            jlong mNativeData,
@@ -265,30 +777,36 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetImageBytes(JNIEn
                                                                            jint bpp,
                                                                            jint bpl) {
 
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  // jbyte is always 8 bits, the array can be read directly
   jbyte *data_array = env->GetByteArrayElements(data, NULL);
-  int count = env->GetArrayLength(data);
-  unsigned char* imagedata = (unsigned char *) malloc(count * sizeof(unsigned char));
 
-  // This is painfully slow, but necessary because we don't know
-  // how many bits the JVM might be using to represent a byte
-  for (int i = 0; i < count; i++) {
-    imagedata[i] = (unsigned char) data_array[i];
-  }
+  setImageData(nat, (const unsigned char *) data_array, (int) width, (int) height,
+               (int) bpp, (int) bpl);
 
   env->ReleaseByteArrayElements(data, data_array, JNI_ABORT);
+}
+
+void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetImageBuffer(JNIEnv *env,
+                                                                            jobject thiz,
+                                                                            jlong mNativeData,
+                                                                            jobject buffer,
+                                                                            jint offset,
+                                                                            jint width,
+                                                                            jint height,
+                                                                            jint bpp,
+                                                                            jint bpl) {
 
   native_data_t *nat = (native_data_t*) mNativeData;
-  nat->api.SetImage(imagedata, (int) width, (int) height, (int) bpp, (int) bpl);
 
-  // Since Tesseract doesn't take ownership of the memory, we keep a pointer in the native
-  // code struct. We need to free that pointer when we release our instance of Tesseract or
-  // attempt to set a new image using one of the nativeSet* methods.
-  if (nat->data != NULL)
-    free(nat->data);
-  else if (nat->pix != NULL)
-    pixDestroy(&nat->pix);
-  nat->data = imagedata;
-  nat->pix = NULL;
+  const unsigned char *imagedata = (const unsigned char *) env->GetDirectBufferAddress(buffer);
+  if (imagedata == NULL) {
+    LOGE("Could not access direct buffer");
+    return;
+  }
+
+  setImageData(nat, imagedata + offset, (int) width, (int) height, (int) bpp, (int) bpl);
 }
 
 void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetImagePix(JNIEnv *env,
@@ -297,24 +815,28 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetImagePix(JNIEnv
                                                                          jlong nativePix) {
 
   PIX *pixs = (PIX *) nativePix;
-  PIX *pixd = pixClone(pixs);
-
   native_data_t *nat = (native_data_t*) mNativeData;
+
+  // Results are mapped back to the source, so the scaling isn't visible to the caller
+  l_float32 scale = 1.0f;
+  PIX *pixd = nat->autoScaleXHeight > 0
+      ? scaleToXHeight(pixs, nat->autoScaleXHeight, &scale)
+      : pixClone(pixs);
+
   if (pixd) {
-    l_int32 width = pixGetWidth(pixd);
-    l_int32 height = pixGetHeight(pixd);
+    l_int32 width = pixGetWidth(pixs);
+    l_int32 height = pixGetHeight(pixs);
     nat->setTextBoundaries(0, 0, static_cast<l_uint32>(width), static_cast<l_uint32>(height));
+    nat->setImageSize(width, height, scale);
   }
   nat->api.SetImage(pixd);
+  nat->lastStatus = STATUS_OK;
 
   // Since Tesseract doesn't take ownership of the memory, we keep a pointer in the native
   // code struct. We need to free that pointer when we release our instance of Tesseract or
   // attempt to set a new image using one of the nativeSet* methods.
-  if (nat->data != NULL)
-    free(nat->data);
-  else if (nat->pix != NULL)
+  if (nat->pix != NULL)
     pixDestroy(&nat->pix);
-  nat->data = NULL;
   nat->pix = pixd;
 }
 
@@ -331,22 +853,68 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetRectangle(JNIEnv
   nat->setTextBoundaries(static_cast<l_uint32>(left), static_cast<l_uint32>(top),
                          static_cast<l_uint32>(width), static_cast<l_uint32>(height));
 
+  if (nat->imageScale != 1.0f) {
+    const jint right = (jint) std::ceil((left + width) * nat->imageScale);
+    const jint bottom = (jint) std::ceil((top + height) * nat->imageScale);
+    left = (jint) std::floor(left * nat->imageScale);
+    top = (jint) std::floor(top * nat->imageScale);
+    width = right - left;
+    height = bottom - top;
+  }
+
   nat->api.SetRectangle(left, top, width, height);
+  nat->lastStatus = STATUS_OK;
 }
 
-jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetUTF8Text(JNIEnv *env,
+void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetAutoScale(JNIEnv *env,
+                                                                          jobject thiz,
+                                                                          jlong mNativeData,
+                                                                          jint targetXHeight) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  nat->autoScaleXHeight = targetXHeight;
+}
+
+void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetImageTransform(JNIEnv *env,
+                                                                              jobject thiz,
+                                                                              jlong mNativeData,
+                                                                              jfloatArray values,
+                                                                              jint sourceWidth,
+                                                                              jint sourceHeight) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  jfloat transform[6];
+  env->GetFloatArrayRegion(values, 0, 6, transform);
+  nat->setTransform(transform, sourceWidth, sourceHeight);
+}
+
+jfloat Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetImageScale(JNIEnv *env,
                                                                             jobject thiz,
                                                                             jlong mNativeData) {
 
   native_data_t *nat = (native_data_t*) mNativeData;
-  nat->initStateVariables(env, &thiz);
+
+  return (jfloat) nat->imageScale;
+}
+
+jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetUTF8Text(JNIEnv *env,
+                                                                            jobject thiz,
+                                                                            jlong mNativeData,
+                                                                            jint timeout) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  // Recognize first using the monitor, so it can be stopped or time out,
+  // GetUTF8Text then returns whatever was recognized.
+  recognize(env, &thiz, nat, timeout);
 
   char *text = nat->api.GetUTF8Text();
 
   jstring result = env->NewStringUTF(text);
 
-  free(text);
-  nat->resetStateVariables();
+  delete[] text;
 
   return result;
 }
@@ -362,6 +930,50 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeStop(JNIEnv *env,
   nat->cancel_ocr = true;
 }
 
+void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetProgressOptions(JNIEnv *env,
+                                                                              jobject thiz,
+                                                                              jlong mNativeData,
+                                                                              jboolean enabled,
+                                                                              jint minPercentDelta,
+                                                                              jlong minIntervalMillis) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+  nat->progressEnabled = enabled == JNI_TRUE;
+  nat->minProgressDelta = (l_int32) minPercentDelta;
+  nat->minProgressInterval = (l_int64) minIntervalMillis;
+}
+
+void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeSetCancelled(JNIEnv *env,
+                                                                          jobject thiz,
+                                                                          jlong mNativeData,
+                                                                          jboolean cancelled) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  // Unlike nativeStop, this doesn't touch the state used by the running recognition
+  nat->cancel_ocr = cancelled;
+}
+
+jint Java_com_googlecode_tesseract_android_TessBaseAPI_nativeRecognize(JNIEnv *env,
+                                                                       jobject thiz,
+                                                                       jlong mNativeData,
+                                                                       jint timeout,
+                                                                       jboolean resetCancel) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  return (jint) recognize(env, &thiz, nat, timeout, resetCancel);
+}
+
+jint Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetLastStatus(JNIEnv *env,
+                                                                           jobject thiz,
+                                                                           jlong mNativeData) {
+
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  return (jint) nat->lastStatus;
+}
+
 jint Java_com_googlecode_tesseract_android_TessBaseAPI_nativeMeanConfidence(JNIEnv *env,
                                                                             jobject thiz,
                                                                             jlong mNativeData) {
@@ -448,6 +1060,8 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeClear(JNIEnv *env,
   native_data_t *nat = (native_data_t*) mNativeData;
 
   nat->api.Clear();
+  nat->lastStatus = STATUS_OK;
+  nat->setImageSize(0, 0, 1.0f);
 
   // Call between pages or documents etc to free up memory and forget adaptive data.
   nat->api.ClearAdaptiveClassifier();
@@ -455,11 +1069,8 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeClear(JNIEnv *env,
   // Since Tesseract doesn't take ownership of the memory, we keep a pointer in the native
   // code struct. We need to free that pointer when we release our instance of Tesseract or
   // attempt to set a new image using one of the nativeSet* methods.
-  if (nat->data != NULL)
-    free(nat->data);
-  else if (nat->pix != NULL)
+  if (nat->pix != NULL)
     pixDestroy(&nat->pix);
-  nat->data = NULL;
   nat->pix = NULL;
 }
 
@@ -474,11 +1085,8 @@ void Java_com_googlecode_tesseract_android_TessBaseAPI_nativeRecycle(JNIEnv *env
   // Since Tesseract doesn't take ownership of the memory, we keep a pointer in the native
   // code struct. We need to free that pointer when we release our instance of Tesseract or
   // attempt to set a new image using one of the nativeSet* methods.
-  if (nat->data != NULL)
-    free(nat->data);
-  else if (nat->pix != NULL)
+  if (nat->pix != NULL)
     pixDestroy(&nat->pix);
-  nat->data = NULL;
   nat->pix = NULL;
 
   delete nat;
@@ -533,6 +1141,7 @@ jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetRegions(JNIEnv
   BOXA *boxa;
 
   boxa = nat->api.GetRegions(&pixa);
+  nat->mapPixa(pixa);
 
   boxaDestroy(&boxa);
 
@@ -548,6 +1157,7 @@ jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetTextlines(JNIEn
   BOXA *boxa;
 
   boxa = nat->api.GetTextlines(&pixa, NULL);
+  nat->mapPixa(pixa);
 
   boxaDestroy(&boxa);
 
@@ -563,6 +1173,7 @@ jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetStrips(JNIEnv *
   BOXA *boxa;
 
   boxa = nat->api.GetStrips(&pixa, NULL);
+  nat->mapPixa(pixa);
 
   boxaDestroy(&boxa);
 
@@ -578,6 +1189,7 @@ jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetWords(JNIEnv *e
   BOXA *boxa;
 
   boxa = nat->api.GetWords(&pixa);
+  nat->mapPixa(pixa);
 
   boxaDestroy(&boxa);
 
@@ -593,6 +1205,7 @@ jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetConnectedCompon
   BOXA *boxa;
 
   boxa = nat->api.GetConnectedComponents(&pixa);
+  nat->mapPixa(pixa);
   boxaDestroy(&boxa);
 
   return reinterpret_cast<jlong>(pixa);
@@ -606,25 +1219,162 @@ jlong Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetResultIterator(
   return (jlong) nat->api.GetIterator();
 }
 
+jobject Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetResultSnapshot(JNIEnv *env,
+                                                                                 jobject thiz,
+                                                                                 jlong mNativeData,
+                                                                                 jint level,
+                                                                                 jboolean sourceCoordinates) {
+  native_data_t *nat = (native_data_t*) mNativeData;
+
+  tesseract::ResultIterator *it = nat->api.GetIterator();
+  if (it == NULL)
+    return NULL;
+
+  const tesseract::PageIteratorLevel finest = (tesseract::PageIteratorLevel) level;
+
+  std::vector<jint> levels;
+  std::vector<jint> boxes;
+  std::vector<jfloat> confidences;
+  std::vector<jint> parents;
+  // Start and end of the text of each element within the text buffer
+  std::vector<jint> textRanges;
+  std::vector<jbyte> text;
+
+  // Index of the element currently open on each level, parent of the finer ones
+  jint current[tesseract::RIL_SYMBOL + 1];
+  std::fill(current, current + tesseract::RIL_SYMBOL + 1, -1);
+
+  // The text of the page is stored just once. Text of an element is a range
+  // of the buffer made of its children and the separators between them
+  // (taken from the element's own text), so only the text of the elements
+  // on the requested level is copied to it as a whole.
+  std::string openText[tesseract::RIL_SYMBOL + 1];
+  size_t openCursor[tesseract::RIL_SYMBOL + 1] = {};
+  int openLevel = tesseract::RIL_BLOCK - 1;
+
+  auto append = [&text](const std::string &str, size_t from, size_t to) {
+    text.insert(text.end(), str.begin() + from, str.begin() + to);
+  };
+  // Finishes the open elements down to the given level with their trailing separators
+  auto closeLevels = [&](int downTo) {
+    for (; openLevel >= downTo; openLevel--) {
+      append(openText[openLevel], openCursor[openLevel], openText[openLevel].size());
+      textRanges[current[openLevel] * 2 + 1] = (jint) text.size();
+      openText[openLevel].clear();
+    }
+  };
+
+  it->Begin();
+  do {
+    // Elements starting at this position, from the coarsest to the requested level
+    for (int lvl = tesseract::RIL_BLOCK; lvl <= level; lvl++) {
+      const tesseract::PageIteratorLevel ril = (tesseract::PageIteratorLevel) lvl;
+      if (!it->IsAtBeginningOf(ril))
+        continue;
+
+      closeLevels(lvl);
+
+      const jint index = (jint) levels.size();
+      levels.push_back(lvl);
+      parents.push_back(lvl > tesseract::RIL_BLOCK ? current[lvl - 1] : -1);
+      current[lvl] = index;
+
+      int left = 0, top = 0, right = 0, bottom = 0;
+      it->BoundingBox(ril, &left, &top, &right, &bottom);
+      if (sourceCoordinates)
+        nat->mapBox(&left, &top, &right, &bottom);
+      else
+        nat->unscaleBox(&left, &top, &right, &bottom);
+      boxes.push_back(left);
+      boxes.push_back(top);
+      boxes.push_back(right);
+      boxes.push_back(bottom);
+
+      confidences.push_back(it->Confidence(ril));
+
+      std::string elementText;
+      char *utf8 = it->GetUTF8Text(ril);
+      if (utf8 != NULL) {
+        elementText = utf8;
+        delete[] utf8;
+      }
+
+      // Separator since the previous sibling belongs to the parent. Should the
+      // text not be found in the parent's one, the rest of the parent's text
+      // is made of its children only.
+      if (lvl > tesseract::RIL_BLOCK) {
+        const size_t found = openText[lvl - 1].find(elementText, openCursor[lvl - 1]);
+        if (found != std::string::npos) {
+          append(openText[lvl - 1], openCursor[lvl - 1], found);
+          openCursor[lvl - 1] = found + elementText.size();
+        } else {
+          openCursor[lvl - 1] = openText[lvl - 1].size();
+        }
+      }
+
+      textRanges.push_back((jint) text.size());
+      textRanges.push_back((jint) text.size());
+      if (lvl == level) {
+        append(elementText, 0, elementText.size());
+        textRanges[index * 2 + 1] = (jint) text.size();
+      } else {
+        openLevel = lvl;
+        openText[lvl] = std::move(elementText);
+        openCursor[lvl] = 0;
+      }
+    }
+  } while (it->Next(finest));
+
+  closeLevels(tesseract::RIL_BLOCK);
+  delete it;
+
+  const jsize count = (jsize) levels.size();
+
+  jintArray jLevels = env->NewIntArray(count);
+  jintArray jBoxes = env->NewIntArray(count * 4);
+  jfloatArray jConfidences = env->NewFloatArray(count);
+  jintArray jParents = env->NewIntArray(count);
+  jintArray jTextRanges = env->NewIntArray(count * 2);
+  jbyteArray jText = env->NewByteArray((jsize) text.size());
+  if (jLevels == NULL || jBoxes == NULL || jConfidences == NULL || jParents == NULL
+      || jTextRanges == NULL || jText == NULL) {
+    // OutOfMemoryError is pending
+    return NULL;
+  }
+
+  env->SetIntArrayRegion(jLevels, 0, count, levels.data());
+  env->SetIntArrayRegion(jBoxes, 0, count * 4, boxes.data());
+  env->SetFloatArrayRegion(jConfidences, 0, count, confidences.data());
+  env->SetIntArrayRegion(jParents, 0, count, parents.data());
+  env->SetIntArrayRegion(jTextRanges, 0, count * 2, textRanges.data());
+  env->SetByteArrayRegion(jText, 0, (jsize) text.size(), text.data());
+
+  return env->NewObject(class_ResultSnapshot, method_ResultSnapshot_init, level, jLevels, jBoxes,
+                        jConfidences, jParents, jTextRanges, jText);
+}
+
 jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetHOCRText(JNIEnv *env,
                                                                             jobject thiz,
                                                                             jlong mNativeData,
-                                                                            jint page) {
+                                                                            jint page,
+                                                                            jint timeout) {
 
   native_data_t *nat = (native_data_t*) mNativeData;
-  nat->initStateVariables(env, &thiz);
 
-  tesseract::ETEXT_DESC monitor;
-  monitor.progress_callback2 = progressJavaCallback;
-  monitor.cancel = cancelFunc;
-  monitor.cancel_this = nat;
+  // GetHOCRText itself returns nothing when the recognition is stopped,
+  // recognizing first keeps the partial results.
+  recognize(env, &thiz, nat, timeout);
 
-  char *text = nat->api.GetHOCRText(&monitor, page);
+  char *text = nat->api.GetHOCRText(page);
 
-  jstring result = env->NewStringUTF(text);
+  jstring result;
+  if (text != NULL && (nat->imageScale != 1.0f || nat->hasTransform)) {
+    result = env->NewStringUTF(mapHocrBoxes(nat, text).c_str());
+  } else {
+    result = env->NewStringUTF(text);
+  }
 
-  free(text);
-  nat->resetStateVariables();
+  delete[] text;
 
   return result;
 }
@@ -645,6 +1395,16 @@ jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetBoxText(JNIEn
   return result;
 }
 
+jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetSimdKernel(JNIEnv *env,
+                                                                              jclass clazz) {
+  return env->NewStringUTF(getSimdKernel());
+}
+
+jint Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetSharedLstmCount(JNIEnv *env,
+                                                                              jclass clazz) {
+  return tesseract::LSTMRecognizer::SharedNetworkCount();
+}
+
 jstring Java_com_googlecode_tesseract_android_TessBaseAPI_nativeGetVersion(JNIEnv *env,
                                                                            jobject thiz,
                                                                            jlong mNativeData) {
@@ -737,7 +1497,8 @@ jboolean Java_com_googlecode_tesseract_android_TessBaseAPI_nativeAddPageToDocume
                                                                                    jlong mNativeData,
                                                                                    jlong jPix,
                                                                                    jstring jPath,
-                                                                                   jlong jRenderer) {
+                                                                                   jlong jRenderer,
+                                                                                   jint timeout) {
 
   tesseract::TessPDFRenderer* pdfRenderer = (tesseract::TessPDFRenderer*) jRenderer;
 
@@ -745,11 +1506,32 @@ jboolean Java_com_googlecode_tesseract_android_TessBaseAPI_nativeAddPageToDocume
   PIX* pix = (PIX*) jPix;
   const char *inputImage = env->GetStringUTFChars(jPath, NULL);
 
-  nat->api.ProcessPage(pix, 0, inputImage, NULL, 0, pdfRenderer);
+  jboolean res = JNI_TRUE;
+
+  // The page replaces the current image, drop the scale and transform of the previous one
+  nat->setImageSize(pixGetWidth(pix), pixGetHeight(pix), 1.0f);
+
+  tesseract::PageSegMode psm = nat->api.GetPageSegMode();
+  if (timeout <= 0 || psm == tesseract::PSM_AUTO_ONLY || psm == tesseract::PSM_OSD_ONLY) {
+    res = nat->api.ProcessPage(pix, 0, inputImage, NULL, 0, pdfRenderer) ? JNI_TRUE : JNI_FALSE;
+    nat->lastStatus = res ? STATUS_OK : STATUS_FAILED;
+  } else {
+    // Same as ProcessPage, but the page is added with partial results when timed out
+    nat->api.SetInputName(inputImage);
+    nat->api.SetImage(pix);
+    nat->setTextBoundaries(0, 0, pixGetWidth(pix), pixGetHeight(pix));
+    nat->lastStatus = STATUS_OK;
+
+    RecognitionStatus status = recognize(env, &thiz, nat, timeout);
+    if (status == STATUS_OK || status == STATUS_TIMED_OUT)
+      res = pdfRenderer->AddImage(&nat->api) ? JNI_TRUE : JNI_FALSE;
+    else
+      res = JNI_FALSE;
+  }
 
   env->ReleaseStringUTFChars(jPath, inputImage);
 
-  return JNI_TRUE;
+  return res;
 }
 
 #ifdef __cplusplus
@@ -35,17 +35,17 @@ public class AdaptiveMap {
 	/**
 	 * Image reduction value; possible values are 1, 2, 4, 8
 	 */
-	private final static int NORM_REDUCTION = 16;
+	final static int NORM_REDUCTION = 16;
 
 	/**
 	 * Desired tile size; actual size may vary
 	 */
-	private final static int NORM_SIZE = 3;
+	final static int NORM_SIZE = 3;
 
 	/**
 	 * Background brightness value; values over 200 may result in clipping
 	 */
-	private final static int NORM_BG_VALUE = 200;
+	final static int NORM_BG_VALUE = 200;
 
 	// Adaptive contrast normalization constants
 
@@ -116,7 +116,7 @@ public class AdaptiveMap {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to normalize image background");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	/**
@@ -180,7 +180,7 @@ public class AdaptiveMap {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to normalize image contrast");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	// ***************
@@ -144,7 +144,7 @@ public class Binarize {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to perform Otsu adaptive threshold on image");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	/**
@@ -167,7 +167,9 @@ public class Binarize {
 	 * <ol>
 	 * <li> The window width and height are 2 * whsize + 1.  The minimum
 	 * value for whsize is 2; typically it is &gt;= 7.
-	 * <li> For nx == ny == 1, this defaults to pixSauvolaBinarize().
+	 * <li> For nx == ny == 1, the image is split into horizontal strips,
+	 * one per thread (see {@link Parallelism}). Tiles overlap, so the
+	 * result is the same as of pixSauvolaBinarize().
 	 * <li> Why a tiled version?
 	 * (a) Because the mean value accumulator is a uint32, overflow
 	 * can occur for an image with more than 16M pixels.
@@ -175,7 +177,8 @@ public class Binarize {
 	 * The mean square accumulator array for 16M pixels is 128 MB.
 	 * Using tiles reduces the size of these arrays.
 	 * (c) Each tile can be processed independently, in parallel,
-	 * on a multicore processor.
+	 * on a multicore processor. Tiles are processed by
+	 * {@link Parallelism#getThreadCount()} threads.
 	 * <li> The Sauvola threshold is determined from the formula:
 	 * t = m * (1 - k * (1 - s / 128))
 	 * where:
@@ -210,7 +213,7 @@ public class Binarize {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to perform Sauvola binarization on image");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	// ***************
@@ -59,7 +59,16 @@ public class Clip {
 		long result = nativeClipRectangle(source.getNativePix(),
 				box.getNativeBox());
 		if (result != 0) {
-			return new Pix(result);
+			Pix pixd = new Pix(result);
+			PixTransform transform = source.getTransform();
+
+			if (transform != null) {
+				// The box was clipped to the source, its origin is then inside
+				int[] geometry = box.getGeometry();
+				pixd.setTransform(transform.appendClip(Math.max(0, geometry[Box.INDEX_X]),
+						Math.max(0, geometry[Box.INDEX_Y])));
+			}
+			return pixd;
 		}
 		return null;
 	}
@@ -44,7 +44,7 @@ public class Convert {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to natively convert pix");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	// ***************
@@ -96,7 +96,7 @@ public class Edge {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to perform Sobel edge filter on image");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	// ***************
@@ -77,7 +77,7 @@ public class Enhance {
 			throw new OutOfMemoryError();
 		}
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	// ***************
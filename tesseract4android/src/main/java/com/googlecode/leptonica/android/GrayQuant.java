@@ -54,7 +54,7 @@ public class GrayQuant {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to perform binarization");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	// ***************
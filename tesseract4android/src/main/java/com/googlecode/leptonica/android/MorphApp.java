@@ -82,7 +82,7 @@ public class MorphApp {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to perform Tophat on image");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	/**
@@ -152,7 +152,7 @@ public class MorphApp {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to perform pixFastTophat on image");
 
-		return new Pix(nativePix);
+		return Pix.derive(pixs, nativePix);
 	}
 
 	// ***************
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.googlecode.leptonica.android;
+
+import androidx.annotation.IntRange;
+
+/**
+ * Controls the number of threads used by the tiled operations
+ * {@link Binarize#sauvolaBinarizeTiled(Pix, int, float, int, int)},
+ * {@link Binarize#otsuAdaptiveThreshold(Pix, int, int, int, int, float)},
+ * {@link AdaptiveMap#backgroundNormMorph(Pix, int, int, int)} and
+ * {@link AdaptiveMap#pixContrastNorm(Pix, int, int, int, int, int)}, including
+ * the same steps of a {@link PixPipeline}.
+ * <p>
+ * Tiles are processed by a pool of native worker threads shared by all
+ * callers, or by OpenMP in the {@code openmp} flavor of the library. The
+ * result doesn't depend on the number of threads, it's always identical to
+ * the single-threaded one.
+ */
+public class Parallelism {
+	static {
+		System.loadLibrary("jpeg");
+		System.loadLibrary("pngx");
+		System.loadLibrary("leptonica");
+	}
+
+	/**
+	 * Thread count meaning one thread per available CPU core. This is the default.
+	 */
+	public static final int THREAD_COUNT_AUTO = 0;
+
+	private Parallelism() {
+	}
+
+	/**
+	 * Sets the number of threads used by a single operation, including the
+	 * calling thread. Use 1 to run the original Leptonica functions on the
+	 * calling thread.
+	 *
+	 * @param count number of threads or {@link #THREAD_COUNT_AUTO}
+	 */
+	public static void setThreadCount(@IntRange(from = 0) int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("Thread count must not be negative");
+
+		nativeSetThreadCount(count);
+	}
+
+	/**
+	 * Returns the number of threads used by a single operation, with
+	 * {@link #THREAD_COUNT_AUTO} resolved to the number of CPU cores.
+	 */
+	public static int getThreadCount() {
+		return nativeGetThreadCount();
+	}
+
+	// ***************
+	// * NATIVE CODE *
+	// ***************
+
+	private static native void nativeSetThreadCount(int count);
+
+	private static native int nativeGetThreadCount();
+}
@@ -21,9 +21,19 @@ import android.graphics.Rect;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.Size;
 
 import java.lang.annotation.Retention;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import static java.lang.annotation.RetentionPolicy.SOURCE;
 
@@ -96,6 +106,33 @@ public class Pix {
 
 	private boolean mRecycled;
 
+	/**
+	 * Geometry of this Pix relative to its source image, null when not tracked
+	 */
+	private PixTransform mTransform;
+
+	/**
+	 * Buffers returned by getDataBuffer() which may be still in use, each
+	 * holding a clone of the native PIX, so the raster outlives the recycled Pix
+	 */
+	private static final ReferenceQueue<ByteBuffer> sBufferQueue = new ReferenceQueue<>();
+	private static final Set<BufferReference> sBuffers = Collections.synchronizedSet(new HashSet<>());
+
+	/**
+	 * Releases the clones once their buffers are garbage collected, started
+	 * with the first buffer
+	 */
+	private static Thread sBufferReleaser;
+
+	private static final class BufferReference extends PhantomReference<ByteBuffer> {
+		final long nativePix;
+
+		BufferReference(ByteBuffer buffer, long nativePix) {
+			super(buffer, sBufferQueue);
+			this.nativePix = nativePix;
+		}
+	}
+
 	/**
 	 * Creates a new Pix wrapper for the specified native PIX object.
 	 *
@@ -150,6 +187,83 @@ public class Pix {
 		return buffer;
 	}
 
+	/**
+	 * Returns a direct buffer viewing the raster of the native PIX object
+	 * without copying it. Changes made through the buffer are visible to the
+	 * Pix and vice versa.
+	 * <p>
+	 * The raster consists of {@link #getHeight()} lines of {@link #getWpl()}
+	 * 32-bit words each. Pixels are packed into words starting from the most
+	 * significant bits and the words are stored in native byte order, which is
+	 * also the order of the returned buffer, so the words should be read with
+	 * {@link ByteBuffer#getInt(int)} or {@link ByteBuffer#asIntBuffer()}.
+	 * <p>
+	 * The buffer keeps the raster alive, so it stays valid even after this
+	 * Pix is recycled; the memory is released once the buffer is garbage
+	 * collected. Buffers created from it by {@link ByteBuffer#slice()} or
+	 * {@link ByteBuffer#duplicate()} don't hold the raster on all platforms,
+	 * so keep a reference to the returned buffer while using them.
+	 *
+	 * @return a buffer viewing this PIX object's raw data
+	 */
+	@NonNull
+	public ByteBuffer getDataBuffer() {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		long nativePix = nativeClone(mNativePix);
+		if (nativePix == 0) {
+			throw new OutOfMemoryError();
+		}
+
+		ByteBuffer buffer = nativeGetDataBuffer(nativePix);
+
+		if (buffer == null) {
+			nativeDestroy(nativePix);
+			throw new RuntimeException("native getDataBuffer failed");
+		}
+
+		sBuffers.add(new BufferReference(buffer, nativePix));
+		startBufferReleaser();
+		return buffer.order(ByteOrder.nativeOrder());
+	}
+
+	private static synchronized void startBufferReleaser() {
+		if (sBufferReleaser == null) {
+			sBufferReleaser = new Thread(Pix::releaseUnusedBuffers, "Pix-buffers");
+			sBufferReleaser.setDaemon(true);
+			sBufferReleaser.start();
+		}
+	}
+
+	/**
+	 * Releases clones held by the buffers as they are garbage collected. Runs
+	 * on the buffer releasing thread for the lifetime of the process.
+	 */
+	private static void releaseUnusedBuffers() {
+		while (true) {
+			try {
+				Reference<? extends ByteBuffer> reference = sBufferQueue.remove();
+				sBuffers.remove(reference);
+				nativeDestroy(((BufferReference) reference).nativePix);
+			} catch (InterruptedException e) {
+				// Nothing else to do, keep waiting for the buffers
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of 32-bit words in each line of the raster.
+	 *
+	 * @return the wpl of this Pix
+	 */
+	public int getWpl() {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		return nativeGetWpl(mNativePix);
+	}
+
 	/**
 	 * Returns an array of this image's dimensions. See Pix.INDEX_* for indices.
 	 *
@@ -200,7 +314,9 @@ public class Pix {
 			throw new OutOfMemoryError();
 		}
 
-		return new Pix(nativePix);
+		Pix pix = new Pix(nativePix);
+		pix.mTransform = mTransform;
+		return pix;
 	}
 
 	/**
@@ -219,7 +335,47 @@ public class Pix {
 			throw new OutOfMemoryError();
 		}
 
-		return new Pix(nativePix);
+		Pix pix = new Pix(nativePix);
+		pix.mTransform = mTransform;
+		return pix;
+	}
+
+	/**
+	 * Starts tracking the geometry of images made from this Pix, which
+	 * becomes their source image. See {@link PixTransform}.
+	 */
+	public void trackTransform() {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		mTransform = PixTransform.identity(getWidth(), getHeight());
+	}
+
+	/**
+	 * Returns the transform mapping coordinates of this Pix to its source
+	 * image, or <code>null</code> if it's not tracked.
+	 */
+	@Nullable
+	public PixTransform getTransform() {
+		return mTransform;
+	}
+
+	/**
+	 * Sets the transform mapping coordinates of this Pix to its source image.
+	 *
+	 * @param transform the transform, or <code>null</code> to stop tracking
+	 */
+	public void setTransform(@Nullable PixTransform transform) {
+		mTransform = transform;
+	}
+
+	/**
+	 * Wraps the result of an operation which keeps the geometry of its source.
+	 */
+	/* package */static Pix derive(Pix source, long nativePix) {
+		Pix pix = new Pix(nativePix);
+		pix.mTransform = source.mTransform;
+		return pix;
 	}
 
 	/**
@@ -382,6 +538,56 @@ public class Pix {
 		nativeSetPixel(mNativePix, x, y, color);
 	}
 
+	/**
+	 * Returns the {@link android.graphics.Color}s of the specified region in a
+	 * single call. The colors are the same as those returned by
+	 * {@link #getPixel(int, int)}.
+	 *
+	 * @param rect   The region of the image to read.
+	 * @param colors The array receiving the argb colors, row by row, with
+	 *               <code>rect.width()</code> colors per row.
+	 * @throws IllegalArgumentException If the region exceeds the image bounds
+	 *                                  or the array is too small.
+	 */
+	public void getPixels(@NonNull Rect rect, @NonNull int[] colors) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		checkRegion(rect, colors);
+
+		nativeGetPixels(mNativePix, rect.left, rect.top, rect.width(), rect.height(), colors);
+	}
+
+	/**
+	 * Sets the {@link android.graphics.Color}s of the specified region in a
+	 * single call. The colors are converted the same way as by
+	 * {@link #setPixel(int, int, int)}.
+	 *
+	 * @param rect   The region of the image to write.
+	 * @param colors The argb colors to set, row by row, with
+	 *               <code>rect.width()</code> colors per row.
+	 * @throws IllegalArgumentException If the region exceeds the image bounds
+	 *                                  or the array is too small.
+	 */
+	public void setPixels(@NonNull Rect rect, @NonNull @ColorInt int[] colors) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		checkRegion(rect, colors);
+
+		nativeSetPixels(mNativePix, rect.left, rect.top, rect.width(), rect.height(), colors);
+	}
+
+	private void checkRegion(Rect rect, int[] colors) {
+		if (rect.left < 0 || rect.right > getWidth() || rect.left >= rect.right) {
+			throw new IllegalArgumentException("Supplied rect exceeds image bounds");
+		} else if (rect.top < 0 || rect.bottom > getHeight() || rect.top >= rect.bottom) {
+			throw new IllegalArgumentException("Supplied rect exceeds image bounds");
+		} else if (colors.length < rect.width() * rect.height()) {
+			throw new IllegalArgumentException("Supplied array is smaller than the rect");
+		}
+	}
+
 	// ***************
 	// * NATIVE CODE *
 	// ***************
@@ -412,6 +618,14 @@ public class Pix {
 
 	private static native void nativeSetPixel(long nativePix, int x, int y, int color);
 
+	private static native void nativeGetPixels(long nativePix, int left, int top, int width, int height, int[] colors);
+
+	private static native void nativeSetPixels(long nativePix, int left, int top, int width, int height, int[] colors);
+
+	private static native ByteBuffer nativeGetDataBuffer(long nativePix);
+
+	private static native int nativeGetWpl(long nativePix);
+
 	private static native int nativeGetSpp(long nativePix);
 
 	private static native int nativeGetInputFormat(long nativePix);
@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.googlecode.leptonica.android;
+
+import android.graphics.Rect;
+
+import androidx.annotation.FloatRange;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Chain of image processing steps executed natively in a single call.
+ * <p>
+ * Compared to calling the individual methods (e.g. {@link Convert#convertTo8(Pix)},
+ * {@link AdaptiveMap#backgroundNormMorph(Pix)}, {@link Skew#deskew(Pix, float[])},
+ * {@link Binarize#sauvolaBinarizeTiled(Pix)} and {@link Scale#scale(Pix, float)}),
+ * no intermediate images are exposed to Java. Each of them is freed as soon as
+ * the next step is done with it, steps which don't change the image (e.g.
+ * conversion of an 8 bpp image to 8 bpp) are skipped and steps which support it
+ * modify the intermediate image in place.
+ * <p>
+ * The steps are described once and the pipeline can then process any number
+ * of images. The source image is never modified. A pipeline must not be
+ * modified while it's processing an image.
+ * <pre>
+ * PixPipeline pipeline = new PixPipeline()
+ *         .convertTo8()
+ *         .backgroundNormMorph()
+ *         .deskew()
+ *         .sauvolaBinarize()
+ *         .scale(0.5f);
+ * Pix result = pipeline.process(pix);
+ * </pre>
+ */
+public class PixPipeline {
+	static {
+		System.loadLibrary("jpeg");
+		System.loadLibrary("pngx");
+		System.loadLibrary("leptonica");
+	}
+
+	// Step codes and number of their parameters, must match pixpipeline.cpp
+
+	static final int STEP_CONVERT_TO_8 = 1;
+	static final int STEP_BACKGROUND_NORM_MORPH = 2;
+	static final int STEP_CONTRAST_NORM = 3;
+	static final int STEP_DESKEW = 4;
+	static final int STEP_SAUVOLA_BINARIZE = 5;
+	static final int STEP_OTSU_THRESHOLD = 6;
+	static final int STEP_THRESHOLD_TO_BINARY = 7;
+	static final int STEP_UNSHARP_MASKING = 8;
+	static final int STEP_SCALE = 9;
+	static final int STEP_ROTATE_ORTH = 10;
+	static final int STEP_INVERT = 11;
+	static final int STEP_CLIP = 12;
+
+	// Values describing the geometry of each step, see appendGeometry()
+	private static final int GEOMETRY_SIZE = 4;
+
+	private static final String[] STEP_NAMES = {null, "convertTo8", "backgroundNormMorph",
+			"contrastNorm", "deskew", "sauvolaBinarize", "otsuAdaptiveThreshold",
+			"thresholdToBinary", "unsharpMasking", "scale", "rotateOrth", "invert", "clip"};
+
+	private int[] steps = new int[8];
+	private int stepCount;
+	private float[] params = new float[32];
+	private int paramCount;
+
+	/**
+	 * Converts the image to 8 bpp grayscale. See {@link Convert#convertTo8(Pix)}.
+	 */
+	@NonNull
+	public PixPipeline convertTo8() {
+		return add(STEP_CONVERT_TO_8);
+	}
+
+	/**
+	 * Normalizes the background using default parameters.
+	 * See {@link AdaptiveMap#backgroundNormMorph(Pix)}.
+	 */
+	@NonNull
+	public PixPipeline backgroundNormMorph() {
+		return backgroundNormMorph(AdaptiveMap.NORM_REDUCTION, AdaptiveMap.NORM_SIZE,
+				AdaptiveMap.NORM_BG_VALUE);
+	}
+
+	/**
+	 * Normalizes the background to a specified value.
+	 * See {@link AdaptiveMap#backgroundNormMorph(Pix, int, int, int)}.
+	 */
+	@NonNull
+	public PixPipeline backgroundNormMorph(int normReduction, int normSize, int normBgValue) {
+		return add(STEP_BACKGROUND_NORM_MORPH, normReduction, normSize, normBgValue);
+	}
+
+	/**
+	 * Expands the contrast using default parameters.
+	 * See {@link AdaptiveMap#pixContrastNorm(Pix)}.
+	 */
+	@NonNull
+	public PixPipeline contrastNorm() {
+		return contrastNorm(AdaptiveMap.DEFAULT_TILE_WIDTH, AdaptiveMap.DEFAULT_TILE_HEIGHT,
+				AdaptiveMap.DEFAULT_MIN_COUNT, AdaptiveMap.DEFAULT_X_SMOOTH_SIZE,
+				AdaptiveMap.DEFAULT_Y_SMOOTH_SIZE);
+	}
+
+	/**
+	 * Expands the contrast. The image is modified in place when possible.
+	 * See {@link AdaptiveMap#pixContrastNorm(Pix, int, int, int, int, int)}.
+	 */
+	@NonNull
+	public PixPipeline contrastNorm(int sizeX, int sizeY, int minDiff, int smoothX, int smoothY) {
+		return add(STEP_CONTRAST_NORM, sizeX, sizeY, minDiff, smoothX, smoothY);
+	}
+
+	/**
+	 * Deskews the image using default parameters. See {@link Skew#deskew(Pix, float[])}.
+	 */
+	@NonNull
+	public PixPipeline deskew() {
+		return deskew(0, Skew.SWEEP_RANGE, Skew.SWEEP_DELTA, 0, 0);
+	}
+
+	/**
+	 * Deskews the image.
+	 * See {@link Skew#deskew(Pix, int, float, float, int, int, float[])}.
+	 */
+	@NonNull
+	public PixPipeline deskew(int sweepReduction, float sweepRange, float sweepDelta,
+			int searchReduction, int threshold) {
+		return add(STEP_DESKEW, sweepReduction, sweepRange, sweepDelta, searchReduction,
+				threshold);
+	}
+
+	/**
+	 * Binarizes the 8 bpp image using Sauvola's method with default parameters.
+	 * See {@link Binarize#sauvolaBinarizeTiled(Pix)}.
+	 */
+	@NonNull
+	public PixPipeline sauvolaBinarize() {
+		return sauvolaBinarize(Binarize.SAUVOLA_DEFAULT_WINDOW_HALFWIDTH,
+				Binarize.SAUVOLA_DEFAULT_REDUCTION_FACTOR, Binarize.SAUVOLA_DEFAULT_NUM_TILES_X,
+				Binarize.SAUVOLA_DEFAULT_NUM_TILES_Y);
+	}
+
+	/**
+	 * Binarizes the 8 bpp image using Sauvola's method.
+	 * See {@link Binarize#sauvolaBinarizeTiled(Pix, int, float, int, int)}.
+	 */
+	@NonNull
+	public PixPipeline sauvolaBinarize(int whsize, @FloatRange(from = 0.0) float factor, int nx,
+			int ny) {
+		return add(STEP_SAUVOLA_BINARIZE, whsize, factor, nx, ny);
+	}
+
+	/**
+	 * Binarizes the 8 bpp image using Otsu's method with default parameters.
+	 * See {@link Binarize#otsuAdaptiveThreshold(Pix)}.
+	 */
+	@NonNull
+	public PixPipeline otsuAdaptiveThreshold() {
+		return otsuAdaptiveThreshold(Binarize.OTSU_SIZE_X, Binarize.OTSU_SIZE_Y,
+				Binarize.OTSU_SMOOTH_X, Binarize.OTSU_SMOOTH_Y, Binarize.OTSU_SCORE_FRACTION);
+	}
+
+	/**
+	 * Binarizes the 8 bpp image using Otsu's method.
+	 * See {@link Binarize#otsuAdaptiveThreshold(Pix, int, int, int, int, float)}.
+	 */
+	@NonNull
+	public PixPipeline otsuAdaptiveThreshold(int sizeX, int sizeY, int smoothX, int smoothY,
+			float scoreFraction) {
+		return add(STEP_OTSU_THRESHOLD, sizeX, sizeY, smoothX, smoothY, scoreFraction);
+	}
+
+	/**
+	 * Binarizes the 4 or 8 bpp image with a global threshold.
+	 * See {@link GrayQuant#pixThresholdToBinary(Pix, int)}.
+	 */
+	@NonNull
+	public PixPipeline thresholdToBinary(int thresh) {
+		return add(STEP_THRESHOLD_TO_BINARY, thresh);
+	}
+
+	/**
+	 * Enhances edges using default parameters. See {@link Enhance#unsharpMasking(Pix)}.
+	 */
+	@NonNull
+	public PixPipeline unsharpMasking() {
+		return unsharpMasking(Enhance.DEFAULT_UNSHARP_HALFWIDTH, Enhance.DEFAULT_UNSHARP_FRACTION);
+	}
+
+	/**
+	 * Enhances edges. See {@link Enhance#unsharpMasking(Pix, int, float)}.
+	 */
+	@NonNull
+	public PixPipeline unsharpMasking(int halfwidth, float fraction) {
+		return add(STEP_UNSHARP_MASKING, halfwidth, fraction);
+	}
+
+	/**
+	 * Scales the image. Scaling by 1 is skipped. See {@link Scale#scale(Pix, float)}.
+	 */
+	@NonNull
+	public PixPipeline scale(float scale) {
+		return scale(scale, scale);
+	}
+
+	/**
+	 * Scales the image. Scaling by 1 is skipped.
+	 * See {@link Scale#scale(Pix, float, float)}.
+	 */
+	@NonNull
+	public PixPipeline scale(float scaleX, float scaleY) {
+		if (scaleX <= 0.0f)
+			throw new IllegalArgumentException("X scaling factor must be positive");
+		if (scaleY <= 0.0f)
+			throw new IllegalArgumentException("Y scaling factor must be positive");
+
+		return add(STEP_SCALE, scaleX, scaleY);
+	}
+
+	/**
+	 * Rotates the image by multiples of 90 degrees.
+	 * See {@link Rotate#rotateOrth(Pix, int)}.
+	 */
+	@NonNull
+	public PixPipeline rotateOrth(@IntRange(from = 0, to = 3) int quads) {
+		if (quads < 0 || quads > 3)
+			throw new IllegalArgumentException("quads not in {0,1,2,3}");
+
+		return add(STEP_ROTATE_ORTH, quads);
+	}
+
+	/**
+	 * Inverts the image. The image is modified in place when possible.
+	 * See {@link Pix#invert()}.
+	 */
+	@NonNull
+	public PixPipeline invert() {
+		return add(STEP_INVERT);
+	}
+
+	/**
+	 * Clips the image to the given rectangle.
+	 * See {@link Clip#clipRectangle(Pix, Box)}.
+	 */
+	@NonNull
+	public PixPipeline clip(@NonNull Rect rect) {
+		if (rect.isEmpty())
+			throw new IllegalArgumentException("Rectangle must not be empty");
+
+		return add(STEP_CLIP, rect.left, rect.top, rect.width(), rect.height());
+	}
+
+	/**
+	 * Returns number of steps of this pipeline.
+	 */
+	public int getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Runs all steps of this pipeline on the given image.
+	 *
+	 * If the source tracks its {@link PixTransform}, the result gets it with
+	 * the scale, rotateOrth, deskew and clip steps appended.
+	 *
+	 * @param pixs Source image, it's not modified.
+	 * @return a new Pix with the result; a copy of the source if none of the
+	 * steps changed it
+	 * @throws RuntimeException If any of the steps fails, e.g. because of
+	 *                          an unsupported depth of its input.
+	 */
+	@NonNull
+	public Pix process(@NonNull Pix pixs) {
+		int[] failedStep = {-1};
+		PixTransform transform = pixs.getTransform();
+		float[] geometry = transform != null ? new float[stepCount * GEOMETRY_SIZE] : null;
+		long nativePix = nativeProcess(pixs.getNativePix(), steps, stepCount, params,
+				geometry, failedStep);
+
+		if (nativePix == 0) {
+			int index = failedStep[0];
+			if (index < 0)
+				throw new RuntimeException("Failed to copy image");
+			throw new RuntimeException("Pipeline step " + index + " ("
+					+ STEP_NAMES[steps[index]] + ") failed");
+		}
+
+		Pix pixd = new Pix(nativePix);
+		if (transform != null)
+			pixd.setTransform(appendGeometry(transform, pixs.getWidth(), pixs.getHeight(),
+					geometry));
+		return pixd;
+	}
+
+	/**
+	 * Appends the geometric steps to the transform, using the size of the
+	 * result of each step and its details reported by the native code.
+	 */
+	private PixTransform appendGeometry(PixTransform transform, int width, int height,
+										float[] geometry) {
+		for (int i = 0; i < stepCount; i++) {
+			final int offset = i * GEOMETRY_SIZE;
+			final int widthd = (int) geometry[offset];
+			final int heightd = (int) geometry[offset + 1];
+
+			switch (steps[i]) {
+				case STEP_SCALE:
+					transform = transform.appendScale(width, height, widthd, heightd);
+					break;
+				case STEP_ROTATE_ORTH:
+					transform = transform.appendRotateOrth((int) geometry[offset + 2], width, height);
+					break;
+				case STEP_DESKEW:
+					if (geometry[offset + 2] != 0)
+						transform = transform.appendRotate(geometry[offset + 2], width, height,
+								widthd, heightd);
+					break;
+				case STEP_CLIP:
+					transform = transform.appendClip((int) geometry[offset + 2],
+							(int) geometry[offset + 3]);
+					break;
+			}
+			width = widthd;
+			height = heightd;
+		}
+		return transform;
+	}
+
+	private PixPipeline add(int step, float... stepParams) {
+		if (stepCount == steps.length)
+			steps = Arrays.copyOf(steps, steps.length * 2);
+		if (paramCount + stepParams.length > params.length)
+			params = Arrays.copyOf(params, Math.max(params.length * 2,
+					paramCount + stepParams.length));
+
+		steps[stepCount++] = step;
+		System.arraycopy(stepParams, 0, params, paramCount, stepParams.length);
+		paramCount += stepParams.length;
+		return this;
+	}
+
+	// ***************
+	// * NATIVE CODE *
+	// ***************
+
+	private static native long nativeProcess(long nativePix, int[] steps, int stepCount,
+			float[] params, float[] geometry, int[] failedStep);
+}
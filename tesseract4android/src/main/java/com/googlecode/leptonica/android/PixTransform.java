@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.leptonica.android;
+
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Size;
+
+/**
+ * Affine transform mapping coordinates of a preprocessed {@link Pix} back to
+ * the source image it was made from.
+ * <p>
+ * Tracking starts with {@link Pix#trackTransform()} on the source image.
+ * {@link Scale}, {@link Rotate}, {@link Skew#deskew(Pix, float[])},
+ * {@link Clip#clipRectangle(Pix, Box)} and the same steps of a
+ * {@link PixPipeline} then append their geometry to the transform of the
+ * returned Pix, the other operations pass it on unchanged. When such Pix is
+ * given to Tesseract, the boxes of the results are reported in the
+ * coordinates of the source image.
+ * <p>
+ * Coordinates are continuous, a pixel at (x, y) spans the square from
+ * (x, y) to (x + 1, y + 1). Instances are immutable.
+ */
+public final class PixTransform {
+	// Source x = a * x + b * y + tx, source y = c * x + d * y + ty
+	private final float a, b, c, d, tx, ty;
+
+	private final int mSourceWidth;
+	private final int mSourceHeight;
+
+	private PixTransform(float a, float b, float c, float d, float tx, float ty,
+						 int sourceWidth, int sourceHeight) {
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		this.d = d;
+		this.tx = tx;
+		this.ty = ty;
+		mSourceWidth = sourceWidth;
+		mSourceHeight = sourceHeight;
+	}
+
+	/**
+	 * Returns the transform of a source image which was not changed yet.
+	 *
+	 * @param sourceWidth  width of the source image
+	 * @param sourceHeight height of the source image
+	 */
+	public static PixTransform identity(int sourceWidth, int sourceHeight) {
+		if (sourceWidth <= 0 || sourceHeight <= 0)
+			throw new IllegalArgumentException("Source width and height must be > 0");
+
+		return new PixTransform(1, 0, 0, 1, 0, 0, sourceWidth, sourceHeight);
+	}
+
+	public int getSourceWidth() {
+		return mSourceWidth;
+	}
+
+	public int getSourceHeight() {
+		return mSourceHeight;
+	}
+
+	/**
+	 * Returns whether the coordinates are the same in both images.
+	 */
+	public boolean isIdentity() {
+		return a == 1 && b == 0 && c == 0 && d == 1 && tx == 0 && ty == 0;
+	}
+
+	/**
+	 * Returns the coefficients {a, b, c, d, tx, ty} of the transform, a point
+	 * (x, y) maps to (a * x + b * y + tx, c * x + d * y + ty).
+	 */
+	@NonNull
+	public float[] getValues() {
+		return new float[]{a, b, c, d, tx, ty};
+	}
+
+	/**
+	 * Maps points of the transformed image to the source image in place.
+	 *
+	 * @param points x and y coordinates of the points, one after another
+	 */
+	public void mapPoints(@NonNull float[] points) {
+		for (int i = 0; i + 1 < points.length; i += 2) {
+			final float x = points[i];
+			final float y = points[i + 1];
+			points[i] = a * x + b * y + tx;
+			points[i + 1] = c * x + d * y + ty;
+		}
+	}
+
+	/**
+	 * Maps a rectangle of the transformed image to the smallest rectangle of
+	 * the source image containing it, clipped to the source image.
+	 *
+	 * @param rect rectangle in the transformed image
+	 * @return the rectangle in the source image
+	 */
+	@NonNull
+	public Rect mapRect(@NonNull Rect rect) {
+		int[] bounds = {rect.left, rect.top, rect.right, rect.bottom};
+		mapBounds(bounds);
+		return new Rect(bounds[0], bounds[1], bounds[2], bounds[3]);
+	}
+
+	/**
+	 * Same as {@link #mapRect(Rect)} for {left, top, right, bottom} in place.
+	 */
+	public void mapBounds(@Size(4) int[] bounds) {
+		if (isIdentity())
+			return;
+
+		float[] corners = {
+				bounds[0], bounds[1], bounds[2], bounds[1],
+				bounds[0], bounds[3], bounds[2], bounds[3]
+		};
+		mapPoints(corners);
+
+		float left = corners[0], top = corners[1], right = corners[0], bottom = corners[1];
+		for (int i = 2; i < corners.length; i += 2) {
+			left = Math.min(left, corners[i]);
+			right = Math.max(right, corners[i]);
+			top = Math.min(top, corners[i + 1]);
+			bottom = Math.max(bottom, corners[i + 1]);
+		}
+
+		bounds[0] = Math.max(0, Math.min(mSourceWidth, (int) Math.floor(left)));
+		bounds[1] = Math.max(0, Math.min(mSourceHeight, (int) Math.floor(top)));
+		bounds[2] = Math.max(bounds[0], Math.min(mSourceWidth, (int) Math.ceil(right)));
+		bounds[3] = Math.max(bounds[1], Math.min(mSourceHeight, (int) Math.ceil(bottom)));
+	}
+
+	/**
+	 * Returns this transform preceded by the one mapping points of an image
+	 * made by some operation back to the image the operation was applied to.
+	 */
+	private PixTransform append(float a2, float b2, float c2, float d2, float tx2, float ty2) {
+		return new PixTransform(
+				a * a2 + b * c2, a * b2 + b * d2,
+				c * a2 + d * c2, c * b2 + d * d2,
+				a * tx2 + b * ty2 + tx, c * tx2 + d * ty2 + ty,
+				mSourceWidth, mSourceHeight);
+	}
+
+	/**
+	 * Appends scaling of a width x height image to widthd x heightd.
+	 */
+	/* package */PixTransform appendScale(int width, int height, int widthd, int heightd) {
+		return append(width / (float) widthd, 0, 0, height / (float) heightd, 0, 0);
+	}
+
+	/**
+	 * Appends {@link Rotate#rotateOrth(Pix, int)} of a width x height image.
+	 */
+	/* package */PixTransform appendRotateOrth(int quads, int width, int height) {
+		switch (quads) {
+			case 1:
+				return append(0, 1, -1, 0, 0, height);
+			case 2:
+				return append(-1, 0, 0, -1, width, height);
+			case 3:
+				return append(0, -1, 1, 0, width, 0);
+			default:
+				return this;
+		}
+	}
+
+	/**
+	 * Appends clockwise rotation about the center of a width x height image,
+	 * embedded in the middle of the widthd x heightd result when it's larger.
+	 */
+	/* package */PixTransform appendRotate(float degrees, int width, int height,
+										   int widthd, int heightd) {
+		final double radians = Math.toRadians(degrees);
+		final float cos = (float) Math.cos(radians);
+		final float sin = (float) Math.sin(radians);
+		// Same integer center and offsets as Leptonica's rotation and embedding
+		final int xcen = widthd / 2;
+		final int ycen = heightd / 2;
+		final int xoff = (widthd - width) / 2;
+		final int yoff = (heightd - height) / 2;
+
+		return append(cos, sin, -sin, cos,
+				xcen - xcen * cos - ycen * sin - xoff,
+				ycen - ycen * cos + xcen * sin - yoff);
+	}
+
+	/**
+	 * Appends cutting out a region whose top left corner is at (x, y).
+	 */
+	/* package */PixTransform appendClip(int x, int y) {
+		return append(1, 0, 0, 1, x, y);
+	}
+}
@@ -19,9 +19,17 @@ package com.googlecode.leptonica.android;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.Rect;
+import android.os.ParcelFileDescriptor;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Image input and output methods.
@@ -37,6 +45,10 @@ public class ReadFile {
 
 	private static final String LOG_TAG = ReadFile.class.getSimpleName();
 
+	private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+
+	private static final ReadOptions DEFAULT_OPTIONS = new ReadOptions();
+
 	/**
 	 * Creates a 32bpp Pix object from encoded data. Supported formats are BMP,
 	 * JPEG, and PNG.
@@ -62,6 +74,158 @@ public class ReadFile {
 		return pix;
 	}
 
+	/**
+	 * Creates a Pix object from encoded data in a direct buffer, without
+	 * copying the data to the Java heap. The data between the position and
+	 * the limit of the buffer is decoded. Supported formats are the same as
+	 * for {@link #readFile(File)}.
+	 *
+	 * @param encodedData Direct buffer with the encoded image.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 * @throws IllegalArgumentException If the buffer isn't direct.
+	 */
+	@Nullable
+	public static Pix readMem(@NonNull ByteBuffer encodedData) {
+		return readMem(encodedData, null);
+	}
+
+	/**
+	 * Creates a Pix object from encoded data in a direct buffer, applying
+	 * the given options while decoding. See {@link #readMem(ByteBuffer)}.
+	 *
+	 * @param encodedData Direct buffer with the encoded image.
+	 * @param options     Decoding options, or <code>null</code> for defaults.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 * @throws IllegalArgumentException If the buffer isn't direct.
+	 */
+	@Nullable
+	public static Pix readMem(@NonNull ByteBuffer encodedData, @Nullable ReadOptions options) {
+		if (!encodedData.isDirect())
+			throw new IllegalArgumentException("Buffer must be direct");
+		if (options == null)
+			options = DEFAULT_OPTIONS;
+
+		final long nativePix = nativeReadMemBuffer(encodedData, encodedData.position(),
+				encodedData.remaining(), options.getScaleDenominator(),
+				options.getTargetDimension(), options.isGrayscale());
+
+		if (nativePix == 0) {
+			Log.e(LOG_TAG, "Cannot decode image data");
+			return null;
+		}
+
+		return new Pix(nativePix);
+	}
+
+	/**
+	 * Creates a Pix object from encoded data read from a file descriptor,
+	 * e.g. one opened for a content URI.
+	 *
+	 * @param fd File descriptor to read from. See {@link #readFd(int)}.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 */
+	@Nullable
+	public static Pix readFd(@NonNull ParcelFileDescriptor fd) {
+		return readFd(fd.getFd(), null);
+	}
+
+	/**
+	 * Creates a Pix object from encoded data read from a file descriptor,
+	 * applying the given options while decoding. See {@link #readFd(int)}.
+	 *
+	 * @param fd      File descriptor to read from.
+	 * @param options Decoding options, or <code>null</code> for defaults.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 */
+	@Nullable
+	public static Pix readFd(@NonNull ParcelFileDescriptor fd, @Nullable ReadOptions options) {
+		return readFd(fd.getFd(), options);
+	}
+
+	/**
+	 * Creates a Pix object from encoded data read from a file descriptor.
+	 * <p>
+	 * The image is read from the current position of the descriptor to its
+	 * end. Regular files are memory-mapped, other descriptors (e.g. pipes)
+	 * are read sequentially. The descriptor is not closed.
+	 *
+	 * @param fd File descriptor to read from.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 */
+	@Nullable
+	public static Pix readFd(int fd) {
+		return readFd(fd, null);
+	}
+
+	/**
+	 * Creates a Pix object from encoded data read from a file descriptor,
+	 * applying the given options while decoding. See {@link #readFd(int)}.
+	 *
+	 * @param fd      File descriptor to read from.
+	 * @param options Decoding options, or <code>null</code> for defaults.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 */
+	@Nullable
+	public static Pix readFd(int fd, @Nullable ReadOptions options) {
+		if (fd < 0)
+			throw new IllegalArgumentException("Invalid file descriptor");
+		if (options == null)
+			options = DEFAULT_OPTIONS;
+
+		final long nativePix = nativeReadFd(fd, options.getScaleDenominator(),
+				options.getTargetDimension(), options.isGrayscale());
+
+		if (nativePix == 0) {
+			Log.e(LOG_TAG, "Cannot decode image from file descriptor");
+			return null;
+		}
+
+		return new Pix(nativePix);
+	}
+
+	/**
+	 * Creates a Pix object from encoded data read from a stream.
+	 * <p>
+	 * JPEG and PNG images are decoded while they are read, in small chunks,
+	 * so the encoded image is never held in memory as a whole. Other formats
+	 * are first read into native memory. The stream is not closed.
+	 *
+	 * @param stream Stream to read from.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 * @throws IOException If reading the stream fails.
+	 */
+	@Nullable
+	public static Pix readStream(@NonNull InputStream stream) throws IOException {
+		return readStream(stream, null);
+	}
+
+	/**
+	 * Creates a Pix object from encoded data read from a stream, applying
+	 * the given options while decoding. See {@link #readStream(InputStream)}.
+	 *
+	 * @param stream  Stream to read from.
+	 * @param options Decoding options, or <code>null</code> for defaults.
+	 * @return a Pix object or <code>null</code> if the data can't be decoded
+	 * @throws IOException If reading the stream fails.
+	 */
+	@Nullable
+	public static Pix readStream(@NonNull InputStream stream, @Nullable ReadOptions options)
+			throws IOException {
+		if (options == null)
+			options = DEFAULT_OPTIONS;
+
+		final long nativePix = nativeReadStream(stream, new byte[STREAM_BUFFER_SIZE],
+				options.getScaleDenominator(), options.getTargetDimension(),
+				options.isGrayscale());
+
+		if (nativePix == 0) {
+			Log.e(LOG_TAG, "Cannot decode image from stream");
+			return null;
+		}
+
+		return new Pix(nativePix);
+	}
+
 	/**
 	 * Creates an 8bpp Pix object from raw 8bpp grayscale pixels.
 	 *
@@ -120,6 +284,77 @@ public class ReadFile {
 				height);
 	}
 
+	/**
+	 * Creates an 8bpp Pix object from the luma (Y) plane of a camera frame,
+	 * e.g. the first plane of an {@link android.media.Image} in the
+	 * YUV_420_888 format.
+	 *
+	 * @param yPlane      direct buffer with the luma plane, read from its current position
+	 * @param width       width of the frame
+	 * @param height      height of the frame
+	 * @param rowStride   distance between the starts of two rows in bytes
+	 * @param pixelStride distance between two pixels of a row in bytes
+	 * @param crop        part of the frame to read or <code>null</code> for the whole frame
+	 * @return an 8bpp Pix object
+	 * @see #readYPlane(ByteBuffer, int, int, int, int, Rect, int)
+	 */
+	@NonNull
+	public static Pix readYPlane(@NonNull ByteBuffer yPlane, int width, int height, int rowStride,
+								 int pixelStride, @Nullable Rect crop) {
+		return readYPlane(yPlane, width, height, rowStride, pixelStride, crop, 0);
+	}
+
+	/**
+	 * Creates an 8bpp Pix object from the luma (Y) plane of a camera frame,
+	 * e.g. the first plane of an {@link android.media.Image} in the
+	 * YUV_420_888 format. Cropping and rotation are done while reading the
+	 * plane, in a single pass.
+	 * <p>
+	 * The buffer must not be modified while this method runs, it may be
+	 * released (e.g. the image closed) right after it returns.
+	 *
+	 * @param yPlane      direct buffer with the luma plane, read from its current position
+	 * @param width       width of the frame
+	 * @param height      height of the frame
+	 * @param rowStride   distance between the starts of two rows in bytes
+	 * @param pixelStride distance between two pixels of a row in bytes
+	 * @param crop        part of the frame to read, in coordinates of the frame before
+	 *                    the rotation, or <code>null</code> for the whole frame
+	 * @param rotation    clockwise rotation applied to the cropped frame in degrees;
+	 *                    one of 0, 90, 180 or 270 (e.g. the rotation degrees reported
+	 *                    by the camera)
+	 * @return an 8bpp Pix object
+	 */
+	@NonNull
+	public static Pix readYPlane(@NonNull ByteBuffer yPlane, int width, int height, int rowStride,
+								 int pixelStride, @Nullable Rect crop, int rotation) {
+		if (yPlane == null || !yPlane.isDirect())
+			throw new IllegalArgumentException("Plane must be a direct buffer");
+		if (width <= 0)
+			throw new IllegalArgumentException("Image width must be greater than 0");
+		if (height <= 0)
+			throw new IllegalArgumentException("Image height must be greater than 0");
+		if (pixelStride <= 0 || rowStride < (long) (width - 1) * pixelStride + 1)
+			throw new IllegalArgumentException("Invalid row or pixel stride");
+		if ((long) (height - 1) * rowStride + (long) (width - 1) * pixelStride + 1 > yPlane.remaining())
+			throw new IllegalArgumentException("Plane is too small for the given dimensions");
+		if (rotation != 0 && rotation != 90 && rotation != 180 && rotation != 270)
+			throw new IllegalArgumentException("Rotation must be 0, 90, 180 or 270");
+
+		final Rect area = crop != null ? crop : new Rect(0, 0, width, height);
+		if (area.isEmpty() || area.left < 0 || area.top < 0
+				|| area.right > width || area.bottom > height)
+			throw new IllegalArgumentException("Crop must be non-empty and inside the image");
+
+		long nativePix = nativeReadYPlane(yPlane, yPlane.position(), rowStride, pixelStride,
+				area.left, area.top, area.width(), area.height(), rotation);
+
+		if (nativePix == 0)
+			throw new RuntimeException("Failed to read pix from plane");
+
+		return new Pix(nativePix);
+	}
+
 	/**
 	 * Creates a Pix object from encoded file data. Supported formats are BMP,
 	 * JPEG, and PNG.
@@ -128,6 +363,19 @@ public class ReadFile {
 	 * @return a Pix object
 	 */
 	public static Pix readFile(File file) {
+		return readFile(file, null);
+	}
+
+	/**
+	 * Creates a Pix object from encoded file data, applying the given options
+	 * while decoding. See {@link ReadOptions}.
+	 *
+	 * @param file    The BMP, JPEG, or PNG-encoded file to read in as a Pix.
+	 * @param options Decoding options, or <code>null</code> to decode the
+	 *                image as it is.
+	 * @return a Pix object
+	 */
+	public static Pix readFile(File file, @Nullable ReadOptions options) {
 		if (file == null) {
 			Log.e(LOG_TAG, "File must be non-null");
 			return null;
@@ -141,7 +389,9 @@ public class ReadFile {
 			return null;
 		}
 
-		final long nativePix = nativeReadFile(file.getAbsolutePath());
+		final long nativePix = options == null ? nativeReadFile(file.getAbsolutePath())
+				: nativeReadFileOptions(file.getAbsolutePath(), options.getScaleDenominator(),
+				options.getTargetDimension(), options.isGrayscale());
 
 		if (nativePix != 0) {
 			return new Pix(nativePix);
@@ -149,19 +399,125 @@ public class ReadFile {
 
 		final BitmapFactory.Options opts = new BitmapFactory.Options();
 		opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+		if (options != null && options.getTargetDimension() == 0) {
+			opts.inSampleSize = options.getScaleDenominator();
+		}
 
 		final Bitmap bmp = BitmapFactory.decodeFile(file.getAbsolutePath(), opts);
 		if (bmp == null) {
 			Log.e(LOG_TAG, "Cannot decode bitmap");
 			return null;
 		}
-		final Pix pix = readBitmap(bmp);
+		final Pix pix = options != null && options.isGrayscale() ? readBitmapGray(bmp)
+				: readBitmap(bmp);
 
 		bmp.recycle();
 
 		return pix;
 	}
 
+	/**
+	 * Decodes only the given region of an image file. Equivalent to reading
+	 * the file with {@link #readFile(File)} and clipping the result, but much
+	 * faster for small regions of large images.
+	 * <p>
+	 * JPEG and PNG images are decoded only up to the bottom of the region,
+	 * and JPEG images skip the color conversion of pixels outside of it.
+	 * Their result is 8 bpp grayscale or 32 bpp color, regardless of
+	 * the original depth. Images in other formats are decoded as a whole.
+	 *
+	 * @param file   The encoded image file.
+	 * @param region The region to decode, it's clipped to the image bounds.
+	 * @return a Pix object or <code>null</code> if the image can't be decoded
+	 * or the region is outside of it
+	 */
+	@Nullable
+	public static Pix readRegion(@NonNull File file, @NonNull Rect region) {
+		return readRegion(file, region, null);
+	}
+
+	/**
+	 * Decodes only the given region of an image file, applying the given
+	 * options while decoding. The region is in coordinates of the decoded
+	 * image, i.e. after a reduction requested by the options.
+	 * See {@link #readRegion(File, Rect)}.
+	 *
+	 * @param file    The encoded image file.
+	 * @param region  The region to decode, it's clipped to the image bounds.
+	 * @param options Decoding options, or <code>null</code> for defaults.
+	 * @return a Pix object or <code>null</code> if the image can't be decoded
+	 * or the region is outside of it
+	 */
+	@Nullable
+	public static Pix readRegion(@NonNull File file, @NonNull Rect region,
+			@Nullable ReadOptions options) {
+		if (region.isEmpty())
+			throw new IllegalArgumentException("Region must not be empty");
+		if (options == null)
+			options = DEFAULT_OPTIONS;
+
+		final long nativePix = nativeReadRegionFile(file.getAbsolutePath(), region.left,
+				region.top, region.width(), region.height(), options.getScaleDenominator(),
+				options.getTargetDimension(), options.isGrayscale());
+
+		if (nativePix == 0) {
+			Log.e(LOG_TAG, "Cannot decode image region");
+			return null;
+		}
+
+		return new Pix(nativePix);
+	}
+
+	/**
+	 * Decodes only the given region of encoded data in a direct buffer.
+	 * See {@link #readRegion(File, Rect)}.
+	 *
+	 * @param encodedData Direct buffer with the encoded image.
+	 * @param region      The region to decode, it's clipped to the image bounds.
+	 * @return a Pix object or <code>null</code> if the image can't be decoded
+	 * or the region is outside of it
+	 * @throws IllegalArgumentException If the buffer isn't direct.
+	 */
+	@Nullable
+	public static Pix readRegion(@NonNull ByteBuffer encodedData, @NonNull Rect region) {
+		return readRegion(encodedData, region, null);
+	}
+
+	/**
+	 * Decodes only the given region of encoded data in a direct buffer,
+	 * applying the given options while decoding.
+	 * See {@link #readRegion(File, Rect, ReadOptions)}.
+	 *
+	 * @param encodedData Direct buffer with the encoded image.
+	 * @param region      The region to decode, it's clipped to the image bounds.
+	 * @param options     Decoding options, or <code>null</code> for defaults.
+	 * @return a Pix object or <code>null</code> if the image can't be decoded
+	 * or the region is outside of it
+	 * @throws IllegalArgumentException If the buffer isn't direct.
+	 */
+	@Nullable
+	public static Pix readRegion(@NonNull ByteBuffer encodedData, @NonNull Rect region,
+			@Nullable ReadOptions options) {
+		if (!encodedData.isDirect())
+			throw new IllegalArgumentException("Buffer must be direct");
+		if (region.isEmpty())
+			throw new IllegalArgumentException("Region must not be empty");
+		if (options == null)
+			options = DEFAULT_OPTIONS;
+
+		final long nativePix = nativeReadRegionBuffer(encodedData, encodedData.position(),
+				encodedData.remaining(), region.left, region.top, region.width(),
+				region.height(), options.getScaleDenominator(), options.getTargetDimension(),
+				options.isGrayscale());
+
+		if (nativePix == 0) {
+			Log.e(LOG_TAG, "Cannot decode image region");
+			return null;
+		}
+
+		return new Pix(nativePix);
+	}
+
 	/**
 	 * Creates a Pix object from Bitmap data. Currently supports only
 	 * ARGB_8888-formatted bitmaps.
@@ -189,17 +545,71 @@ public class ReadFile {
 		return new Pix(nativePix);
 	}
 
+	/**
+	 * Creates an 8bpp grayscale Pix object from Bitmap data, converting the
+	 * pixels to grayscale while reading them. Compared to {@link #readBitmap(Bitmap)}
+	 * followed by a conversion, no 32bpp copy of the image is created.
+	 * Currently supports only ARGB_8888-formatted bitmaps.
+	 *
+	 * @param bmp The Bitmap object to convert to a Pix.
+	 * @return an 8bpp Pix object
+	 */
+	public static Pix readBitmapGray(Bitmap bmp) {
+		if (bmp == null) {
+			Log.e(LOG_TAG, "Bitmap must be non-null");
+			return null;
+		}
+		if (bmp.getConfig() != Bitmap.Config.ARGB_8888) {
+			Log.e(LOG_TAG, "Bitmap config must be ARGB_8888");
+			return null;
+		}
+
+		long nativePix = nativeReadBitmapGray(bmp);
+
+		if (nativePix == 0) {
+			Log.e(LOG_TAG, "Failed to read pix from bitmap");
+			return null;
+		}
+
+		return new Pix(nativePix);
+	}
+
 	// ***************
 	// * NATIVE CODE *
 	// ***************
 
 	private static native long nativeReadMem(byte[] data, int size);
 
+	private static native long nativeReadMemBuffer(ByteBuffer buffer, int offset, int length,
+			int scaleDenominator, int targetDimension, boolean grayscale);
+
+	private static native long nativeReadRegionBuffer(ByteBuffer buffer, int offset, int length,
+			int x, int y, int width, int height, int scaleDenominator, int targetDimension,
+			boolean grayscale);
+
+	private static native long nativeReadRegionFile(String filename, int x, int y, int width,
+			int height, int scaleDenominator, int targetDimension, boolean grayscale);
+
+	private static native long nativeReadFd(int fd, int scaleDenominator, int targetDimension,
+			boolean grayscale);
+
+	private static native long nativeReadStream(InputStream stream, byte[] buffer,
+			int scaleDenominator, int targetDimension, boolean grayscale) throws IOException;
+
 	private static native long nativeReadBytes8(byte[] data, int w, int h);
 
 	private static native boolean nativeReplaceBytes8(long nativePix, byte[] data, int w, int h);
 
+	private static native long nativeReadYPlane(ByteBuffer yPlane, int offset, int rowStride,
+												int pixelStride, int cropLeft, int cropTop,
+												int cropWidth, int cropHeight, int rotation);
+
 	private static native long nativeReadFile(String filename);
 
+	private static native long nativeReadFileOptions(String filename, int scaleDenominator,
+			int targetDimension, boolean grayscale);
+
 	private static native long nativeReadBitmap(Bitmap bitmap);
+
+	private static native long nativeReadBitmapGray(Bitmap bitmap);
 }
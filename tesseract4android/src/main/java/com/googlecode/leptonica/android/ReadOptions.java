@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.googlecode.leptonica.android;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Options for decoding images in {@link ReadFile}.
+ * <p>
+ * Reduction is done by the JPEG decoder in the DCT domain, which is much
+ * faster and needs much less memory than decoding the image at full size and
+ * scaling it afterwards. Images in other formats are decoded at full size.
+ */
+public class ReadOptions {
+
+	private int scaleDenominator = 1;
+	private int targetDimension;
+	private boolean grayscale;
+
+	/**
+	 * Reduces JPEG images by the given factor.
+	 *
+	 * @param scaleDenominator 1, 2, 4 or 8
+	 */
+	@NonNull
+	public ReadOptions setScaleDenominator(int scaleDenominator) {
+		if (scaleDenominator != 1 && scaleDenominator != 2 && scaleDenominator != 4
+				&& scaleDenominator != 8)
+			throw new IllegalArgumentException("Scale denominator must be 1, 2, 4 or 8");
+
+		this.scaleDenominator = scaleDenominator;
+		return this;
+	}
+
+	public int getScaleDenominator() {
+		return scaleDenominator;
+	}
+
+	/**
+	 * Reduces JPEG images so that their longer side is close to the given
+	 * size, but not smaller. Images are never enlarged. Takes precedence over
+	 * {@link #setScaleDenominator(int)}.
+	 *
+	 * @param targetDimension size of the longer side in pixels, or 0 to disable
+	 */
+	@NonNull
+	public ReadOptions setTargetDimension(int targetDimension) {
+		if (targetDimension < 0)
+			throw new IllegalArgumentException("Target dimension must not be negative");
+
+		this.targetDimension = targetDimension;
+		return this;
+	}
+
+	public int getTargetDimension() {
+		return targetDimension;
+	}
+
+	/**
+	 * Produces 8bpp grayscale images. JPEG images are decoded as luminance
+	 * only, skipping the color conversion.
+	 */
+	@NonNull
+	public ReadOptions setGrayscale(boolean grayscale) {
+		this.grayscale = grayscale;
+		return this;
+	}
+
+	public boolean isGrayscale() {
+		return grayscale;
+	}
+}
@@ -96,7 +96,7 @@ public class Rotate {
 		if (nativePix == 0)
 			return null;
 
-		return new Pix(nativePix);
+		return rotated(pixs, nativePix, degrees);
 	}
 
 	/**
@@ -117,7 +117,32 @@ public class Rotate {
 		if (nativePix == 0)
 			return null;
 
-		return new Pix(nativePix);
+		Pix pixd = new Pix(nativePix);
+		PixTransform transform = pixs.getTransform();
+
+		if (transform != null) {
+			pixd.setTransform(transform.appendRotateOrth(quads, pixs.getWidth(),
+					pixs.getHeight()));
+		}
+		return pixd;
+	}
+
+	/**
+	 * Wraps the rotated pix, appending the rotation to the tracked transform.
+	 * Small angles are not rotated at all, the result is then a clone.
+	 */
+	/* package */static Pix rotated(Pix pixs, long nativePix, float degrees) {
+		Pix pixd = new Pix(nativePix);
+		PixTransform transform = pixs.getTransform();
+
+		if (transform != null) {
+			if (nativePix != pixs.getNativePix()) {
+				transform = transform.appendRotate(degrees, pixs.getWidth(), pixs.getHeight(),
+						pixd.getWidth(), pixd.getHeight());
+			}
+			pixd.setTransform(transform);
+		}
+		return pixd;
 	}
 
 	// ***************
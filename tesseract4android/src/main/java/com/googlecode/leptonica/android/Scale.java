@@ -113,7 +113,7 @@ public class Scale {
 		if (scale <= 0.0f)
 			throw new IllegalArgumentException("Scaling factor must be positive");
 
-		return new Pix(nativeScaleGeneral(pixs.getNativePix(), scale, scale,
+		return scaled(pixs, nativeScaleGeneral(pixs.getNativePix(), scale, scale,
 				0f, 0));
 	}
 
@@ -139,7 +139,21 @@ public class Scale {
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to natively scale pix");
 
-		return new Pix(nativePix);
+		return scaled(pixs, nativePix);
+	}
+
+	/**
+	 * Wraps the scaled pix, appending the scaling to the tracked transform.
+	 */
+	private static Pix scaled(Pix pixs, long nativePix) {
+		Pix pixd = new Pix(nativePix);
+		PixTransform transform = pixs.getTransform();
+
+		if (transform != null) {
+			pixd.setTransform(transform.appendScale(pixs.getWidth(), pixs.getHeight(),
+					pixd.getWidth(), pixd.getHeight()));
+		}
+		return pixd;
 	}
 
 	// ***************
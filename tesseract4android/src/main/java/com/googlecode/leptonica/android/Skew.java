@@ -152,13 +152,17 @@ public class Skew {
 		if (pixs == null)
 			throw new IllegalArgumentException("Source pix must be non-null");
 
+		// The angle is needed to track the transform
+		if (result == null && pixs.getTransform() != null)
+			result = new float[2];
+
 		long nativePix = nativeDeskew(pixs.getNativePix(), sweepReduction, sweepRange, sweepDelta,
 				searchReduction, threshold, result);
 
 		if (nativePix == 0)
 			throw new RuntimeException("Failed to deskew pix");
 
-		return new Pix(nativePix);
+		return Rotate.rotated(pixs, nativePix, result != null ? result[0] : 0);
 	}
 
 	// ***************
@@ -119,7 +119,11 @@ public class WriteFile {
 
 	/**
 	 * Writes a Pix to an Android Bitmap object. The output Bitmap will always
-	 * be in ARGB_8888 format, but the input Pixs may be any bit-depth.
+	 * be in ARGB_8888 format, but the input Pixs may be any bit-depth
+	 * (1, 2, 4, 8, 16 or 32), with or without colormap.
+	 * <p>
+	 * The source image is only read, not modified. Alpha is copied only from
+	 * 32bpp images with 4 samples per pixel, others give an opaque bitmap.
 	 *
 	 * @param pixs The source image.
 	 * @return a Bitmap containing a copy of the source image, or <code>null
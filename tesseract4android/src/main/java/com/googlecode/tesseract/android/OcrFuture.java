@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.tesseract.android;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Pending result of an asynchronous recognition.
+ * <p>
+ * Calling {@code cancel(true)} stops the recognition if it is already
+ * running, the same way as {@link TessBaseAPI#stop()}, but only if this
+ * particular recognition is the one running. {@code cancel(false)} only
+ * removes a recognition which has not started yet.
+ *
+ * @see TessBaseAPI#recognizeAsync(com.googlecode.leptonica.android.Pix, RecognitionOptions)
+ */
+public interface OcrFuture extends Future<OcrResult> {
+
+	/**
+	 * Adds a listener which is run once the recognition completes, fails or
+	 * is cancelled. If already done, the listener is run immediately.
+	 *
+	 * @param listener the listener, use {@link #get()} inside to obtain the result
+	 * @param executor the executor running the listener, e.g. {@code Runnable::run}
+	 *                 to run it on the recognition thread
+	 */
+	void addListener(@NonNull Runnable listener, @NonNull Executor executor);
+}
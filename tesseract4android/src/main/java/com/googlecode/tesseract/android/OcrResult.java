@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.tesseract.android;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Result of a recognition started by
+ * {@link TessBaseAPI#recognizeAsync(com.googlecode.leptonica.android.Pix, RecognitionOptions)}.
+ */
+public class OcrResult {
+
+	private final String text;
+	private final String hocrText;
+	private final int meanConfidence;
+	private final long recognitionTimeMillis;
+	private final int status;
+
+	OcrResult(@NonNull String text, @Nullable String hocrText, int meanConfidence,
+			  long recognitionTimeMillis, @TessBaseAPI.RecognitionStatus.Status int status) {
+		this.text = text;
+		this.hocrText = hocrText;
+		this.meanConfidence = meanConfidence;
+		this.recognitionTimeMillis = recognitionTimeMillis;
+		this.status = status;
+	}
+
+	/**
+	 * @return the recognized text
+	 * @see TessBaseAPI#getUTF8Text()
+	 */
+	@NonNull
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return the hOCR text or <code>null</code> if not requested
+	 * @see RecognitionOptions#setHOCRText(boolean, int)
+	 */
+	@Nullable
+	public String getHOCRText() {
+		return hocrText;
+	}
+
+	/**
+	 * @return the mean confidence of the recognized text, 0..100
+	 * @see TessBaseAPI#meanConfidence()
+	 */
+	public int getMeanConfidence() {
+		return meanConfidence;
+	}
+
+	/**
+	 * @return time spent by the recognition, without the time waiting in the queue
+	 */
+	public long getRecognitionTimeMillis() {
+		return recognitionTimeMillis;
+	}
+
+	/**
+	 * @return status of the recognition; when {@link TessBaseAPI.RecognitionStatus#TIMED_OUT},
+	 * the result contains only the text recognized until the timeout
+	 * @see RecognitionOptions#setTimeoutMillis(int)
+	 */
+	@TessBaseAPI.RecognitionStatus.Status
+	public int getStatus() {
+		return status;
+	}
+
+	@Override
+	public String toString() {
+		return "OcrResult{" +
+				"text='" + text + '\'' +
+				", meanConfidence=" + meanConfidence +
+				", recognitionTimeMillis=" + recognitionTimeMillis +
+				", status=" + status +
+				'}';
+	}
+}
@@ -19,6 +19,7 @@ package com.googlecode.tesseract.android;
 
 import android.graphics.Rect;
 
+import com.googlecode.leptonica.android.PixTransform;
 import com.googlecode.tesseract.android.TessBaseAPI.PageIteratorLevel;
 
 public class PageIterator {
@@ -34,10 +35,20 @@ public class PageIterator {
 	 */
 	private final long mNativePageIterator;
 
+	/**
+	 * Pointer to native data of the TessBaseAPI the results belong to, which
+	 * maps boxes back to the source image, 0 to keep them as they are.
+	 */
+	private long mNativeData;
+
 	/* package */PageIterator(long nativePageIterator) {
 		mNativePageIterator = nativePageIterator;
 	}
 
+	/* package */void setNativeData(long nativeData) {
+		mNativeData = nativeData;
+	}
+
 	/**
 	 * Resets the iterator to point to the start of the page.
 	 */
@@ -89,12 +100,16 @@ public class PageIterator {
 	 * See comment on coordinate system above.
 	 * <p>
 	 * The returned bounding box may clip foreground pixels from a grey image.
+	 * <p>
+	 * If the image was scaled by {@link TessBaseAPI#setAutoScale(int)}, the
+	 * box is mapped back to the image passed to setImage. If that image tracks
+	 * its {@link PixTransform}, the box is further mapped to its source image.
 	 *
 	 * @param level the page iterator level. See {@link PageIteratorLevel}.
 	 * @return the bounding rectangle of the current object at the given level
 	 */
 	public int[] getBoundingBox(@PageIteratorLevel.Level int level) {
-		return nativeBoundingBox(mNativePageIterator, level);
+		return nativeBoundingBox(mNativePageIterator, mNativeData, level);
 	}
 
 	/**
@@ -113,5 +128,5 @@ public class PageIterator {
 
 	private static native boolean nativeNext(long nativeIterator, int level);
 
-	private static native int[] nativeBoundingBox(long nativeIterator, int level);
+	private static native int[] nativeBoundingBox(long nativeIterator, long nativeData, int level);
 }
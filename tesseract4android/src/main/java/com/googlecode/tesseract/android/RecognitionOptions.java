@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.tesseract.android;
+
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Options for {@link TessBaseAPI#recognizeAsync(com.googlecode.leptonica.android.Pix, RecognitionOptions)}.
+ * <p>
+ * Setters return the same instance, so they can be chained. Options are
+ * read when the recognition is submitted, later changes have no effect
+ * on already submitted recognitions.
+ */
+public class RecognitionOptions {
+
+	private Executor executor;
+	private int pageSegMode = -1;
+	private Rect rectangle;
+	private boolean hocrText;
+	private int hocrPage;
+	private int timeoutMillis;
+
+	/**
+	 * Sets the executor running the recognition. By default, a shared pool
+	 * of background threads is used.
+	 * <p>
+	 * Recognitions submitted to the same {@link TessBaseAPI} instance always
+	 * run one at a time; to recognize in parallel, use multiple instances
+	 * (e.g. from {@link TessEnginePool}).
+	 *
+	 * @param executor the executor or <code>null</code> for the default one
+	 * @return this options instance
+	 */
+	@NonNull
+	public RecognitionOptions setExecutor(@Nullable Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	@Nullable
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the page segmentation mode used for the recognition. By default,
+	 * the mode currently set on the instance is used.
+	 *
+	 * @param pageSegMode the {@link TessBaseAPI.PageSegMode} to set
+	 * @return this options instance
+	 */
+	@NonNull
+	public RecognitionOptions setPageSegMode(@TessBaseAPI.PageSegMode.Mode int pageSegMode) {
+		this.pageSegMode = pageSegMode;
+		return this;
+	}
+
+	/**
+	 * @return the page segmentation mode or -1 if not set
+	 */
+	public int getPageSegMode() {
+		return pageSegMode;
+	}
+
+	/**
+	 * Restricts the recognition to a sub-rectangle of the image.
+	 *
+	 * @param rectangle the bounding rectangle or <code>null</code> for the whole image
+	 * @return this options instance
+	 */
+	@NonNull
+	public RecognitionOptions setRectangle(@Nullable Rect rectangle) {
+		this.rectangle = rectangle != null ? new Rect(rectangle) : null;
+		return this;
+	}
+
+	@Nullable
+	public Rect getRectangle() {
+		return rectangle;
+	}
+
+	/**
+	 * Sets whether the result should also contain the hOCR text.
+	 *
+	 * @param hocrText <code>true</code> to include the hOCR text
+	 * @param page     the page number, 0-based, used in the hOCR output
+	 * @return this options instance
+	 * @see OcrResult#getHOCRText()
+	 */
+	@NonNull
+	public RecognitionOptions setHOCRText(boolean hocrText, int page) {
+		this.hocrText = hocrText;
+		this.hocrPage = page;
+		return this;
+	}
+
+	public boolean isHOCRText() {
+		return hocrText;
+	}
+
+	public int getHOCRPage() {
+		return hocrPage;
+	}
+
+	/**
+	 * Limits the time of the recognition. When it elapses, the recognition
+	 * is stopped and the result contains the text recognized until then,
+	 * with the {@link TessBaseAPI.RecognitionStatus#TIMED_OUT} status.
+	 * The time waiting in the queue is not counted.
+	 *
+	 * @param timeoutMillis maximum time in milliseconds, 0 for no limit
+	 * @return this options instance
+	 * @see OcrResult#getStatus()
+	 */
+	@NonNull
+	public RecognitionOptions setTimeoutMillis(int timeoutMillis) {
+		if (timeoutMillis < 0)
+			throw new IllegalArgumentException("Timeout must be non-negative");
+
+		this.timeoutMillis = timeoutMillis;
+		return this;
+	}
+
+	public int getTimeoutMillis() {
+		return timeoutMillis;
+	}
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.googlecode.tesseract.android;
+
+import android.graphics.Rect;
+
+import androidx.annotation.Keep;
+import androidx.annotation.NonNull;
+
+import com.googlecode.leptonica.android.PixTransform;
+import com.googlecode.tesseract.android.TessBaseAPI.PageIteratorLevel;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recognition results of a page collected in a single pass, so they can be
+ * read without any further native calls.
+ * <p>
+ * Contains the elements of all levels from {@link PageIteratorLevel#RIL_BLOCK}
+ * down to the level the snapshot was created for, in reading order. Each
+ * element is preceded by its parent (the element of the coarser level
+ * containing it), e.g. for {@link PageIteratorLevel#RIL_WORD} the order is
+ * block, paragraph, line, word, word, ..., line, word, ...
+ * <p>
+ * Elements are addressed by their index, 0 to {@link #size()} - 1.
+ * The snapshot is immutable and independent of the {@link TessBaseAPI}
+ * instance it was created by.
+ *
+ * @see TessBaseAPI#getResultSnapshot(int)
+ */
+public class ResultSnapshot {
+
+	private final int level;
+	private final int[] levels;
+	// left, top, right, bottom for each element
+	private final int[] boxes;
+	private final float[] confidences;
+	private final int[] parents;
+	// Start and end of the text of each element in the text buffer. The text
+	// of the page is stored once, text of an element covers the texts of its
+	// children and the separators between them.
+	private final int[] textRanges;
+	private final byte[] text;
+
+	@Keep
+	/* package */ResultSnapshot(int level, int[] levels, int[] boxes, float[] confidences,
+								int[] parents, int[] textRanges, byte[] text) {
+		this.level = level;
+		this.levels = levels;
+		this.boxes = boxes;
+		this.confidences = confidences;
+		this.parents = parents;
+		this.textRanges = textRanges;
+		this.text = text;
+	}
+
+	/**
+	 * @return the finest level contained in this snapshot
+	 */
+	@PageIteratorLevel.Level
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return number of elements of all levels
+	 */
+	public int size() {
+		return levels.length;
+	}
+
+	/**
+	 * @param index index of the element
+	 * @return the level of the element
+	 */
+	@PageIteratorLevel.Level
+	public int getLevel(int index) {
+		return levels[index];
+	}
+
+	/**
+	 * @param index index of the element
+	 * @return index of the element containing this one or -1 for blocks
+	 */
+	public int getParent(int index) {
+		return parents[index];
+	}
+
+	/**
+	 * @param index index of the element
+	 * @return the mean confidence of the element (0-100)
+	 * @see ResultIterator#confidence(int)
+	 */
+	public float getConfidence(int index) {
+		return confidences[index];
+	}
+
+	public int getLeft(int index) {
+		return boxes[index * 4];
+	}
+
+	public int getTop(int index) {
+		return boxes[index * 4 + 1];
+	}
+
+	public int getRight(int index) {
+		return boxes[index * 4 + 2];
+	}
+
+	public int getBottom(int index) {
+		return boxes[index * 4 + 3];
+	}
+
+	/**
+	 * @param index index of the element
+	 * @return the bounding rectangle of the element in the image coordinates
+	 * @see PageIterator#getBoundingRect(int)
+	 */
+	@NonNull
+	public Rect getBoundingRect(int index) {
+		return new Rect(getLeft(index), getTop(index), getRight(index), getBottom(index));
+	}
+
+	/**
+	 * Returns the text of the element. Like {@link ResultIterator#getUTF8Text(int)},
+	 * it may end with spaces or line breaks.
+	 *
+	 * @param index index of the element
+	 * @return the recognized text of the element
+	 */
+	@NonNull
+	public String getText(int index) {
+		final int start = textRanges[index * 2];
+		return new String(text, start, textRanges[index * 2 + 1] - start, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the text of the whole page, i.e. the texts of all blocks
+	 * joined together, like {@link TessBaseAPI#getUTF8Text()}.
+	 *
+	 * @return the recognized text of the page
+	 */
+	@NonNull
+	public String getText() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size(); i++) {
+			if (levels[i] == PageIteratorLevel.RIL_BLOCK) {
+				sb.append(getText(i));
+			}
+		}
+		return sb.toString().trim();
+	}
+
+	/**
+	 * Creates a copy of this snapshot with texts and confidences of some
+	 * elements replaced. Texts of the elements containing them are updated
+	 * too, keeping the separators between their children. Confidences of the
+	 * containing elements are kept, elements inside a replaced one keep
+	 * their texts.
+	 *
+	 * @param newTexts       new text for each element or <code>null</code> to keep it
+	 * @param newConfidences new confidence for each element, used where the
+	 *                       text is replaced
+	 */
+	@NonNull
+	/* package */ResultSnapshot replace(@NonNull String[] newTexts, @NonNull float[] newConfidences) {
+		final int size = size();
+		final float[] conf = confidences.clone();
+
+		// Replaced elements which are not inside another replaced one. Parents
+		// always precede their children, so each element sees its parent's
+		// replaced ancestor.
+		final int[] replacedAncestor = new int[size];
+		final List<Integer> cuts = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			replacedAncestor[i] = parents[i] >= 0 ? replacedAncestor[parents[i]] : -1;
+			if (newTexts[i] != null) {
+				conf[i] = newConfidences[i];
+				if (replacedAncestor[i] < 0) {
+					replacedAncestor[i] = i;
+					cuts.add(i);
+				}
+			}
+		}
+		cuts.sort((first, second) -> Integer.compare(textRanges[first * 2], textRanges[second * 2]));
+
+		// Splice the new texts into the text buffer, replaced ranges don't overlap
+		final int cutCount = cuts.size();
+		final int[] cutOrder = new int[size];
+		final int[] cutStarts = new int[cutCount];
+		final int[] cutEnds = new int[cutCount];
+		final byte[][] cutTexts = new byte[cutCount][];
+		// Change of the buffer length caused by the first n cuts
+		final int[] shifts = new int[cutCount + 1];
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream(text.length);
+		int copied = 0;
+		for (int c = 0; c < cutCount; c++) {
+			final int index = cuts.get(c);
+			cutOrder[index] = c;
+			cutStarts[c] = textRanges[index * 2];
+			cutEnds[c] = textRanges[index * 2 + 1];
+			cutTexts[c] = newTexts[index].getBytes(StandardCharsets.UTF_8);
+			shifts[c + 1] = shifts[c] + cutTexts[c].length - (cutEnds[c] - cutStarts[c]);
+
+			buffer.write(text, copied, cutStarts[c] - copied);
+			buffer.write(cutTexts[c], 0, cutTexts[c].length);
+			copied = cutEnds[c];
+		}
+		buffer.write(text, copied, text.length - copied);
+
+		final int[] ranges = new int[size * 2];
+		for (int i = 0; i < size; i++) {
+			final int start = textRanges[i * 2];
+			final int end = textRanges[i * 2 + 1];
+			final int cut = replacedAncestor[i];
+			if (cut == i) {
+				final int c = cutOrder[i];
+				ranges[i * 2] = start + shifts[c];
+				ranges[i * 2 + 1] = ranges[i * 2] + cutTexts[c].length;
+			} else if (cut >= 0) {
+				// Its text is gone from the buffer, store a copy at the end
+				final byte[] bytes = newTexts[i] != null
+						? newTexts[i].getBytes(StandardCharsets.UTF_8)
+						: Arrays.copyOfRange(text, start, end);
+				ranges[i * 2] = buffer.size();
+				buffer.write(bytes, 0, bytes.length);
+				ranges[i * 2 + 1] = buffer.size();
+			} else {
+				ranges[i * 2] = start + shifts[countCutsBefore(cutStarts, cutEnds, start, false)];
+				ranges[i * 2 + 1] = end + shifts[countCutsBefore(cutStarts, cutEnds, end, true)];
+			}
+		}
+
+		return new ResultSnapshot(level, levels, boxes, conf, parents, ranges, buffer.toByteArray());
+	}
+
+	/**
+	 * Returns number of the (sorted) replaced ranges preceding the given
+	 * position of the text buffer. Empty ranges at the position count only
+	 * for the end of an element, which contains them.
+	 */
+	private static int countCutsBefore(int[] cutStarts, int[] cutEnds, int position, boolean isEnd) {
+		// Ranges don't overlap, so their ends are sorted too
+		int low = 0, high = cutEnds.length;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (cutEnds[middle] <= position)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		while (!isEnd && low > 0 && cutStarts[low - 1] >= position) {
+			low--;
+		}
+		return low;
+	}
+
+	/**
+	 * Creates a copy of this snapshot with the boxes mapped to the source
+	 * image of the given transform.
+	 */
+	@NonNull
+	/* package */ResultSnapshot mapBoxes(@NonNull PixTransform transform) {
+		final int[] mapped = boxes.clone();
+		final int[] bounds = new int[4];
+		for (int i = 0; i < size(); i++) {
+			System.arraycopy(mapped, i * 4, bounds, 0, 4);
+			transform.mapBounds(bounds);
+			System.arraycopy(bounds, 0, mapped, i * 4, 4);
+		}
+		return new ResultSnapshot(level, levels, mapped, confidences, parents, textRanges, text);
+	}
+
+	@Override
+	public String toString() {
+		return "ResultSnapshot{" +
+				"level=" + level +
+				", size=" + size() +
+				'}';
+	}
+}
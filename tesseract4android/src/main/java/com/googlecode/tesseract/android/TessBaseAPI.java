@@ -20,23 +20,40 @@ package com.googlecode.tesseract.android;
 
 import static java.lang.annotation.RetentionPolicy.SOURCE;
 
+import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
 import android.graphics.Rect;
 import android.util.Log;
 
 import androidx.annotation.IntDef;
+import androidx.annotation.IntRange;
 import androidx.annotation.Keep;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
 import com.googlecode.leptonica.android.Pix;
+import com.googlecode.leptonica.android.PixPipeline;
+import com.googlecode.leptonica.android.PixTransform;
 import com.googlecode.leptonica.android.Pixa;
 import com.googlecode.leptonica.android.ReadFile;
 
 import java.io.File;
 import java.lang.annotation.Retention;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import cz.adaptech.tesseract4android.BuildConfig;
 
@@ -163,6 +180,14 @@ public class TessBaseAPI {
 	 */
 	public static final String VAR_SAVE_BLOB_CHOICES = "save_blob_choices";
 
+	/**
+	 * Share the LSTM network with other instances, only applied at
+	 * initialization.
+	 *
+	 * @see InitFlags#SHARE_LSTM
+	 */
+	public static final String VAR_SHARE_LSTM = "lstm_share_network";
+
 	/**
 	 * String value used to assign a boolean variable to true.
 	 */
@@ -173,6 +198,16 @@ public class TessBaseAPI {
 	 */
 	public static final String VAR_FALSE = "F";
 
+	/**
+	 * Value for {@link #setAutoScale(int)} which keeps images at their size.
+	 */
+	public static final int AUTO_SCALE_DISABLED = 0;
+
+	/**
+	 * X-height in pixels the LSTM models recognize well, for {@link #setAutoScale(int)}.
+	 */
+	public static final int DEFAULT_AUTO_SCALE_X_HEIGHT = 25;
+
 	@Retention(SOURCE)
 	@IntDef({OEM_TESSERACT_ONLY, OEM_LSTM_ONLY, OEM_TESSERACT_LSTM_COMBINED, OEM_DEFAULT})
 	public @interface OcrEngineMode {
@@ -198,6 +233,272 @@ public class TessBaseAPI {
 	 */
 	public static final int OEM_DEFAULT = 3;
 
+	/**
+	 * Options changing how the language data is loaded during initialization.
+	 *
+	 * @see #init(String, String, int, Map, int)
+	 */
+	public static final class InitFlags {
+		@Retention(SOURCE)
+		@IntDef(flag = true, value = {MEMORY_MAPPED, QUANTIZE_LSTM, SHARE_LSTM})
+
+		public @interface Flags {
+		}
+
+		/**
+		 * Memory-map the traineddata file read-only instead of reading it
+		 * into a heap buffer. The LSTM network, dictionaries, unicharset and
+		 * other components are deserialized straight from the mapping, so
+		 * neither the whole file nor the individual components are copied to
+		 * the native heap. This lowers the peak memory use during the
+		 * initialization (by about the size of the file); the initialized
+		 * engine still keeps its own deserialized network and dictionaries.
+		 * <p>
+		 * The mapping is released right after the initialization. Only a
+		 * single language (no "eng+deu") is supported, otherwise this flag
+		 * is ignored.
+		 */
+		public static final int MEMORY_MAPPED = 1;
+
+		/**
+		 * Convert the float LSTM network of the model (e.g. from
+		 * {@code tessdata_best}) to the 8-bit integer one, which recognizes
+		 * considerably faster at the cost of slightly lower accuracy, like
+		 * {@code combine_tessdata -c} does.
+		 * <p>
+		 * The converted model is cached next to the traineddata file, named
+		 * after the hash of its content, so following initializations load it
+		 * directly. Caches of older versions of the file are removed. If the
+		 * directory is not writable, the model is converted on each
+		 * initialization. Models which already have an integer network are
+		 * used as they are. Only a single language (no "eng+deu") is
+		 * supported, otherwise this flag is ignored.
+		 *
+		 * @see InitStats#getQuantization()
+		 */
+		public static final int QUANTIZE_LSTM = 2;
+
+		/**
+		 * Share the LSTM network with the other instances initialized with
+		 * this flag which load the same network, instead of keeping a copy
+		 * of it in each instance. This saves the memory of the network (tens
+		 * of megabytes for {@code tessdata_best}) for each instance but the
+		 * first, e.g. when recognizing on several threads at once.
+		 * <p>
+		 * The shared network is never modified, so the instances may
+		 * recognize concurrently. Each instance keeps its own scratch space,
+		 * beam search, dictionaries and results. The network is freed when
+		 * the last instance using it is ended or recycled. It is shared
+		 * whether loaded from a file, the mapping or the quantized cache,
+		 * and for each language of "eng+deu". The same can be set for the
+		 * other initialization methods by the {@code lstm_share_network}
+		 * variable.
+		 *
+		 * @see #getSharedLstmCount()
+		 */
+		public static final int SHARE_LSTM = 4;
+	}
+
+	/**
+	 * How the LSTM network was obtained when initialized with
+	 * {@link InitFlags#QUANTIZE_LSTM}.
+	 *
+	 * @see InitStats#getQuantization()
+	 */
+	public static final class Quantization {
+		@Retention(SOURCE)
+		@IntDef({NONE, ALREADY_INT, CONVERTED, CACHED})
+
+		public @interface Result {
+		}
+
+		/**
+		 * The model was not quantized, either it was not requested or the
+		 * model has no LSTM network.
+		 */
+		public static final int NONE = 0;
+
+		/**
+		 * The model already contains an integer network and is used as it is.
+		 */
+		public static final int ALREADY_INT = 1;
+
+		/**
+		 * The float network was converted during this initialization.
+		 */
+		public static final int CONVERTED = 2;
+
+		/**
+		 * The network converted earlier was loaded from the cache.
+		 */
+		public static final int CACHED = 3;
+	}
+
+	/**
+	 * Outcome of the recognition of the current image.
+	 *
+	 * @see #recognize(int)
+	 * @see #getLastStatus()
+	 */
+	public static final class RecognitionStatus {
+		@Retention(SOURCE)
+		@IntDef({OK, CANCELLED, TIMED_OUT, FAILED})
+
+		public @interface Status {
+		}
+
+		/**
+		 * The recognition finished.
+		 */
+		public static final int OK = 0;
+
+		/**
+		 * The recognition was stopped by {@link #stop()} or by cancelling
+		 * the asynchronous recognition. Results contain the words recognized
+		 * until then.
+		 */
+		public static final int CANCELLED = 1;
+
+		/**
+		 * The recognition took longer than the given timeout. Results contain
+		 * the words recognized until then.
+		 */
+		public static final int TIMED_OUT = 2;
+
+		/**
+		 * The recognition failed, e.g. no image was set.
+		 */
+		public static final int FAILED = 3;
+	}
+
+	/**
+	 * Measurements of the last initialization.
+	 *
+	 * @see #getLastInitStats()
+	 */
+	public static final class InitStats {
+		private final int flags;
+		private final long initTimeMillis;
+		private final long residentSizeBefore;
+		private final long residentSizeAfter;
+		private final int quantization;
+		private final long quantizeTimeMillis;
+		private final long quantizeTimeSavedMillis;
+
+		InitStats(int flags, long initTimeMillis, long residentSizeBefore, long residentSizeAfter) {
+			this(flags, initTimeMillis, residentSizeBefore, residentSizeAfter, Quantization.NONE, 0, 0);
+		}
+
+		InitStats(int flags, long initTimeMillis, long residentSizeBefore, long residentSizeAfter,
+				  int quantization, long quantizeTimeMillis, long quantizeTimeSavedMillis) {
+			this.flags = flags;
+			this.initTimeMillis = initTimeMillis;
+			this.residentSizeBefore = residentSizeBefore;
+			this.residentSizeAfter = residentSizeAfter;
+			this.quantization = quantization;
+			this.quantizeTimeMillis = quantizeTimeMillis;
+			this.quantizeTimeSavedMillis = quantizeTimeSavedMillis;
+		}
+
+		/**
+		 * Return flags which were actually used for the initialization. These
+		 * may differ from the requested ones, e.g. for multiple languages.
+		 *
+		 * @return combination of {@link InitFlags}
+		 */
+		@InitFlags.Flags
+		public int getFlags() {
+			return flags;
+		}
+
+		/**
+		 * Return duration of the initialization.
+		 *
+		 * @return time in milliseconds
+		 */
+		public long getInitTimeMillis() {
+			return initTimeMillis;
+		}
+
+		/**
+		 * Return resident set size of the whole process before the initialization.
+		 *
+		 * @return size in bytes or -1 if unknown
+		 */
+		public long getResidentSizeBefore() {
+			return residentSizeBefore;
+		}
+
+		/**
+		 * Return resident set size of the whole process after the initialization.
+		 *
+		 * @return size in bytes or -1 if unknown
+		 */
+		public long getResidentSizeAfter() {
+			return residentSizeAfter;
+		}
+
+		/**
+		 * Return difference of the resident set size caused by the
+		 * initialization. Note this is measured for the whole process, so
+		 * other threads allocating memory at the same time affect it as well.
+		 * It does not include the temporary peak during the initialization,
+		 * which is what {@link InitFlags#MEMORY_MAPPED} mostly reduces.
+		 *
+		 * @return difference in bytes or 0 if unknown
+		 */
+		public long getResidentSizeDelta() {
+			if (residentSizeBefore < 0 || residentSizeAfter < 0)
+				return 0;
+			return residentSizeAfter - residentSizeBefore;
+		}
+
+		/**
+		 * Return how the LSTM network was obtained when initialized with
+		 * {@link InitFlags#QUANTIZE_LSTM}.
+		 *
+		 * @return one of {@link Quantization}
+		 */
+		@Quantization.Result
+		public int getQuantization() {
+			return quantization;
+		}
+
+		/**
+		 * Return time spent converting the LSTM network during this
+		 * initialization ({@link Quantization#CONVERTED}).
+		 *
+		 * @return time in milliseconds, 0 if the network was not converted
+		 */
+		public long getQuantizeTimeMillis() {
+			return quantizeTimeMillis;
+		}
+
+		/**
+		 * Return time saved by loading the converted LSTM network from the
+		 * cache ({@link Quantization#CACHED}). This is the conversion time
+		 * measured when the cache was created.
+		 *
+		 * @return time in milliseconds, 0 if the network was not loaded from
+		 * the cache or the conversion time is unknown
+		 */
+		public long getQuantizeTimeSavedMillis() {
+			return quantizeTimeSavedMillis;
+		}
+
+		@Override
+		public String toString() {
+			return "InitStats{" +
+					"flags=" + flags +
+					", initTimeMillis=" + initTimeMillis +
+					", residentSizeDelta=" + getResidentSizeDelta() +
+					", quantization=" + quantization +
+					", quantizeTimeMillis=" + quantizeTimeMillis +
+					", quantizeTimeSavedMillis=" + quantizeTimeSavedMillis +
+					'}';
+		}
+	}
+
 	/**
 	 * Elements of the page hierarchy, used in {@link ResultIterator} to provide
 	 * functions that operate on each level without having to have 5x as many
@@ -240,18 +541,71 @@ public class TessBaseAPI {
 
 	private ProgressNotifier progressNotifier;
 
+	private ProgressListener progressListener;
+
+	private int mMinProgressDelta;
+
+	private long mMinProgressIntervalMillis;
+
 	private boolean mRecycled;
 
+	/**
+	 * Transform from the current image to its source image, if it's tracked
+	 */
+	private PixTransform mImageTransform;
+
+	private InitStats mLastInitStats;
+
+	/**
+	 * Guards the state of asynchronous recognitions below and mRecycled.
+	 */
+	private final Object mAsyncLock = new Object();
+
+	/**
+	 * Held while an asynchronous recognition runs, so they run one at a time.
+	 */
+	private final Object mRecognitionLock = new Object();
+
+	private final Set<RecognitionTask> mAsyncTasks = new HashSet<>();
+
+	private RecognitionTask mActiveTask;
+
+	private static ExecutorService sDefaultExecutor;
+
 	/**
 	 * Interface that may be implemented by calling object in order to receive
 	 * progress callbacks during OCR.
 	 * <p>
-	 * Progress callbacks are available when {@link #getHOCRText(int)} is used.
+	 * Progress callbacks are available during the recognition, e.g. in {@link #getUTF8Text()}
+	 * or {@link #getHOCRText(int)}.
 	 */
 	public interface ProgressNotifier {
 		void onProgressValues(ProgressValues progressValues);
 	}
 
+	/**
+	 * Receives progress callbacks during OCR as primitive values, without
+	 * allocating any objects per callback.
+	 * <p>
+	 * Callbacks are invoked on the thread running the recognition.
+	 *
+	 * @see #setProgressListener(ProgressListener, int, long)
+	 */
+	public interface ProgressListener {
+		/**
+		 * Called when the recognition progresses. The bounds of the word
+		 * currently being recognized are in the Android coordinate system,
+		 * which has the origin in the top left.
+		 *
+		 * @param percent    progress of the recognition, 0 to 100
+		 * @param wordLeft   left bound of the current word
+		 * @param wordTop    top bound of the current word
+		 * @param wordRight  right bound of the current word
+		 * @param wordBottom bottom bound of the current word
+		 */
+		void onProgress(int percent, int wordLeft, int wordTop, int wordRight, int wordBottom);
+	}
+
 	/**
 	 * Represents values indicating recognition progress and status.
 	 */
@@ -322,6 +676,7 @@ public class TessBaseAPI {
 			throw new RuntimeException("Can't create TessBaseApi object");
 		}
 		mRecycled = false;
+		updateProgressOptions();
 	}
 
 	/**
@@ -336,6 +691,44 @@ public class TessBaseAPI {
 	public TessBaseAPI(ProgressNotifier progressNotifier) {
 		this();
 		this.progressNotifier = progressNotifier;
+		updateProgressOptions();
+	}
+
+	/**
+	 * Sets a listener receiving progress callbacks during OCR as primitive values,
+	 * and limits how often it is called. The limits are checked in native code,
+	 * so skipped updates cost no calls into Java. They apply to the
+	 * {@link ProgressNotifier} passed to the constructor as well.
+	 * <p>
+	 * Without limits, a callback comes for every recognized word. With
+	 * limits, the last skipped update is still delivered when the
+	 * recognition finishes or times out, so the final progress is never lost.
+	 *
+	 * @param listener          the listener or <code>null</code> to remove it
+	 * @param minPercentDelta   minimal increase of the percent since the last
+	 *                          callback, 0 for no limit
+	 * @param minIntervalMillis minimal time since the last callback in
+	 *                          milliseconds, 0 for no limit
+	 */
+	public void setProgressListener(@Nullable ProgressListener listener, int minPercentDelta,
+									long minIntervalMillis) {
+		if (mRecycled)
+			throw new IllegalStateException();
+		if (minPercentDelta < 0 || minIntervalMillis < 0)
+			throw new IllegalArgumentException("Limits must be non-negative");
+
+		progressListener = listener;
+		mMinProgressDelta = minPercentDelta;
+		mMinProgressIntervalMillis = minIntervalMillis;
+		updateProgressOptions();
+	}
+
+	private void updateProgressOptions() {
+		// Subclasses may override onProgressValues, so they always get the callbacks
+		boolean enabled = progressNotifier != null || progressListener != null
+				|| getClass() != TessBaseAPI.class;
+		nativeSetProgressOptions(mNativeData, enabled, mMinProgressDelta,
+				mMinProgressIntervalMillis);
 	}
 
 	/**
@@ -407,6 +800,24 @@ public class TessBaseAPI {
 	 */
 	public boolean init(String datapath, String language, @OcrEngineMode int ocrEngineMode,
 						Map<String, String> config) {
+		return init(datapath, language, ocrEngineMode, config, 0);
+	}
+
+	/**
+	 * Initializes the Tesseract engine with the specified language model(s). Returns
+	 * <code>true</code> on success.
+	 *
+	 * @param datapath      the parent directory of tessdata ending in a forward
+	 *                      slash
+	 * @param language      an ISO 639-3 string representing the language(s)
+	 * @param ocrEngineMode the OCR engine mode to be set
+	 * @param config        variables to be set at initialization; can be empty
+	 * @param flags         combination of {@link InitFlags}; can be 0
+	 * @return <code>true</code> on success
+	 * @see #init(String, String)
+	 */
+	public boolean init(String datapath, String language, @OcrEngineMode int ocrEngineMode,
+						Map<String, String> config, @InitFlags.Flags int flags) {
 		if (mRecycled)
 			throw new IllegalStateException();
 
@@ -423,24 +834,212 @@ public class TessBaseAPI {
 		if (!tessdata.exists() || !tessdata.isDirectory())
 			throw new IllegalArgumentException("Data path must contain subfolder tessdata!");
 
-		if (config.isEmpty()) {
-			return nativeInitOem(mNativeData, datapath + "tessdata", language, ocrEngineMode);
+		final int modelFlags = InitFlags.MEMORY_MAPPED | InitFlags.QUANTIZE_LSTM;
+		if ((flags & modelFlags) != 0
+				&& (language == null || language.isEmpty() || language.contains("+"))) {
+			Log.w(TAG, "Mapped or quantized model requires single language, ignoring for: " + language);
+			flags &= ~modelFlags;
+		}
+
+		if ((flags & InitFlags.SHARE_LSTM) != 0) {
+			config = new HashMap<>(config);
+			config.put(VAR_SHARE_LSTM, VAR_TRUE);
+		}
+
+		final long residentSizeBefore = nativeGetResidentSetSize();
+		final long start = System.nanoTime();
+
+		// Quantization result, time spent converting and time saved by the cache
+		final int[] quantizeStats = new int[3];
+
+		boolean result;
+		if ((flags & modelFlags) != 0) {
+			String[][] vars = toVarArrays(config);
+			result = nativeInitModel(mNativeData,
+					datapath + "tessdata" + File.separator + language + ".traineddata",
+					language, ocrEngineMode, vars[0], vars[1],
+					(flags & InitFlags.MEMORY_MAPPED) != 0, (flags & InitFlags.QUANTIZE_LSTM) != 0,
+					quantizeStats);
+		} else if (config.isEmpty()) {
+			result = nativeInitOem(mNativeData, datapath + "tessdata", language, ocrEngineMode);
 		} else {
-			int size = config.size();
+			String[][] vars = toVarArrays(config);
+			result = nativeInitParams(mNativeData, datapath + "tessdata", language, ocrEngineMode,
+					vars[0], vars[1]);
+		}
 
-			String[] vars = new String[size];
-			String[] varsValues = new String[size];
+		mLastInitStats = new InitStats(flags, (System.nanoTime() - start) / 1000000,
+				residentSizeBefore, nativeGetResidentSetSize(), quantizeStats[0], quantizeStats[1],
+				quantizeStats[2]);
+		return result;
+	}
 
-			int i = 0;
-			for (Map.Entry<String, String> entry : config.entrySet()) {
-				vars[i] = entry.getKey();
-				varsValues[i] = entry.getValue();
-				i++;
-			}
+	/**
+	 * Initializes the Tesseract engine with the content of a traineddata file
+	 * already loaded in memory, e.g. downloaded or read from the APK assets.
+	 * Returns <code>true</code> on success.
+	 * <p>
+	 * Only a single language can be initialized this way. The engine makes
+	 * its own copy of the data it needs, so the buffer may be modified or
+	 * released once this method returns. Without the data directory, the
+	 * {@link TessPdfRenderer} uses its built-in font.
+	 *
+	 * @param traineddata   content of the traineddata file between the buffer's
+	 *                      position and limit; direct buffers are not copied
+	 * @param language      an ISO 639-3 string representing the language
+	 * @param ocrEngineMode the OCR engine mode to be set
+	 * @return <code>true</code> on success
+	 */
+	public boolean init(@NonNull ByteBuffer traineddata, @NonNull String language,
+						@OcrEngineMode int ocrEngineMode) {
+		return init(traineddata, language, ocrEngineMode, Collections.emptyMap());
+	}
 
-			return nativeInitParams(mNativeData, datapath + "tessdata", language, ocrEngineMode,
-					vars, varsValues);
+	/**
+	 * Initializes the Tesseract engine with the content of a traineddata file
+	 * already loaded in memory. Returns <code>true</code> on success.
+	 *
+	 * @param traineddata   content of the traineddata file between the buffer's
+	 *                      position and limit; direct buffers are not copied
+	 * @param language      an ISO 639-3 string representing the language
+	 * @param ocrEngineMode the OCR engine mode to be set
+	 * @param config        variables to be set at initialization; can be empty
+	 * @return <code>true</code> on success
+	 * @see #init(ByteBuffer, String, int)
+	 */
+	public boolean init(@NonNull ByteBuffer traineddata, @NonNull String language,
+						@OcrEngineMode int ocrEngineMode, @NonNull Map<String, String> config) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		if (traineddata == null)
+			throw new IllegalArgumentException("Traineddata must be non-null");
+		checkSingleLanguage(language);
+
+		final String[][] vars = toVarArrays(config);
+		final int offset = traineddata.position();
+		final int length = traineddata.remaining();
+		if (length == 0)
+			throw new IllegalArgumentException("Traineddata must not be empty");
+
+		final long residentSizeBefore = nativeGetResidentSetSize();
+		final long start = System.nanoTime();
+
+		boolean result;
+		if (traineddata.isDirect()) {
+			result = nativeInitBuffer(mNativeData, traineddata, null, offset, length,
+					language, ocrEngineMode, vars[0], vars[1]);
+		} else if (traineddata.hasArray()) {
+			result = nativeInitBuffer(mNativeData, null, traineddata.array(),
+					traineddata.arrayOffset() + offset, length, language, ocrEngineMode,
+					vars[0], vars[1]);
+		} else {
+			// Read-only heap buffer doesn't expose its array
+			byte[] array = new byte[length];
+			traineddata.duplicate().get(array);
+			result = nativeInitBuffer(mNativeData, null, array, 0, length,
+					language, ocrEngineMode, vars[0], vars[1]);
 		}
+
+		mLastInitStats = new InitStats(0, (System.nanoTime() - start) / 1000000,
+				residentSizeBefore, nativeGetResidentSetSize());
+		return result;
+	}
+
+	/**
+	 * Initializes the Tesseract engine directly from an uncompressed
+	 * traineddata file inside the APK assets. The asset is memory-mapped, so
+	 * it is neither extracted to the storage nor copied to the Java heap.
+	 * Returns <code>true</code> on success.
+	 * <p>
+	 * The asset must be stored uncompressed, which can be set in the app's
+	 * build.gradle using {@code androidResources { noCompress 'traineddata' }}.
+	 * Otherwise {@link android.content.res.AssetManager#openFd(String)} throws.
+	 * Only a single language can be initialized this way. The descriptor
+	 * may be closed once this method returns.
+	 *
+	 * @param traineddata   descriptor of the traineddata asset
+	 * @param language      an ISO 639-3 string representing the language
+	 * @param ocrEngineMode the OCR engine mode to be set
+	 * @return <code>true</code> on success
+	 * @see #init(ByteBuffer, String, int)
+	 */
+	public boolean init(@NonNull AssetFileDescriptor traineddata, @NonNull String language,
+						@OcrEngineMode int ocrEngineMode) {
+		return init(traineddata, language, ocrEngineMode, Collections.emptyMap());
+	}
+
+	/**
+	 * Initializes the Tesseract engine directly from an uncompressed
+	 * traineddata file inside the APK assets. Returns <code>true</code> on success.
+	 *
+	 * @param traineddata   descriptor of the traineddata asset
+	 * @param language      an ISO 639-3 string representing the language
+	 * @param ocrEngineMode the OCR engine mode to be set
+	 * @param config        variables to be set at initialization; can be empty
+	 * @return <code>true</code> on success
+	 * @see #init(AssetFileDescriptor, String, int)
+	 */
+	public boolean init(@NonNull AssetFileDescriptor traineddata, @NonNull String language,
+						@OcrEngineMode int ocrEngineMode, @NonNull Map<String, String> config) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		if (traineddata == null)
+			throw new IllegalArgumentException("Traineddata must be non-null");
+		checkSingleLanguage(language);
+
+		final String[][] vars = toVarArrays(config);
+		final long offset = traineddata.getStartOffset();
+		long length = traineddata.getLength();
+		if (length == AssetFileDescriptor.UNKNOWN_LENGTH)
+			length = traineddata.getParcelFileDescriptor().getStatSize() - offset;
+
+		final long residentSizeBefore = nativeGetResidentSetSize();
+		final long start = System.nanoTime();
+
+		boolean result = nativeInitFd(mNativeData, traineddata.getParcelFileDescriptor().getFd(),
+				offset, length, language, ocrEngineMode, vars[0], vars[1]);
+
+		mLastInitStats = new InitStats(InitFlags.MEMORY_MAPPED, (System.nanoTime() - start) / 1000000,
+				residentSizeBefore, nativeGetResidentSetSize());
+		return result;
+	}
+
+	private static void checkSingleLanguage(String language) {
+		if (language == null || language.isEmpty())
+			throw new IllegalArgumentException("Language must be non-null");
+		if (language.contains("+"))
+			throw new IllegalArgumentException("Only single language can be initialized from memory");
+	}
+
+	/**
+	 * Returns measurements of the last initialization of this instance,
+	 * like the time it took and the change of the process memory usage.
+	 *
+	 * @return the stats or <code>null</code> if not initialized yet
+	 */
+	public InitStats getLastInitStats() {
+		return mLastInitStats;
+	}
+
+	/**
+	 * Splits the config map into arrays of variable names and their values.
+	 */
+	private static String[][] toVarArrays(Map<String, String> config) {
+		int size = config.size();
+
+		String[] vars = new String[size];
+		String[] varsValues = new String[size];
+
+		int i = 0;
+		for (Map.Entry<String, String> entry : config.entrySet()) {
+			vars[i] = entry.getKey();
+			varsValues[i] = entry.getValue();
+			i++;
+		}
+
+		return new String[][]{vars, varsValues};
 	}
 
 	/**
@@ -469,18 +1068,54 @@ public class TessBaseAPI {
 			throw new IllegalStateException();
 
 		nativeClear(mNativeData);
+		mImageTransform = null;
+	}
+
+	/**
+	 * Sets the image natively, together with the transform to its source
+	 * image if the image tracks it.
+	 *
+	 * @return the transform, or <code>null</code> if the coordinates are the
+	 * same in both images
+	 */
+	private PixTransform setNativeImagePix(Pix image) {
+		nativeSetImagePix(mNativeData, image.getNativePix());
+
+		PixTransform transform = image.getTransform();
+		if (transform == null || transform.isIdentity())
+			return null;
+
+		nativeSetImageTransform(mNativeData, transform.getValues(),
+				transform.getSourceWidth(), transform.getSourceHeight());
+		return transform;
 	}
 
 	/**
 	 * Closes down tesseract and free up all memory. No other methods may be used anymore.
 	 */
 	public void recycle() {
-		if (!mRecycled) {
-			nativeRecycle(mNativeData);
-			mNativeData = 0;
-
+		final List<RecognitionTask> tasks;
+		final boolean running;
+		synchronized (mAsyncLock) {
+			if (mRecycled)
+				return;
 			mRecycled = true;
+			tasks = new ArrayList<>(mAsyncTasks);
+			running = mActiveTask != null;
+		}
+
+		// Pending recognitions are cancelled, the running one is stopped.
+		// Not under the lock, as listeners may run on this thread.
+		for (RecognitionTask task : tasks) {
+			task.cancel(true);
 		}
+		if (running) {
+			// Native data is released once the running recognition returns
+			return;
+		}
+
+		nativeRecycle(mNativeData);
+		mNativeData = 0;
 	}
 
 	@Override
@@ -580,6 +1215,55 @@ public class TessBaseAPI {
 		nativeSetDebug(mNativeData, enabled);
 	}
 
+	/**
+	 * Enables scaling of images given as {@link Pix}, {@link Bitmap} or
+	 * {@link File} so that the x-height of their text is close to the given
+	 * size, which is what the LSTM models work best with. Photos often have
+	 * text much larger than needed and recognizing them then takes longer
+	 * without being any more accurate.
+	 * <p>
+	 * The x-height is estimated from the connected components of a reduced
+	 * copy of the image when it is set. Images without enough text to tell
+	 * and images whose text is already close to the target are used as they
+	 * are. Text is scaled up at most twice. The resolution of the scaled
+	 * image is set to match the size of its text, unless the
+	 * {@code user_defined_dpi} variable is set.
+	 * <p>
+	 * Rectangles passed to {@link #setRectangle(int, int, int, int)} and
+	 * boxes of the results ({@link #getResultIterator()},
+	 * {@link #getResultSnapshot(int)}, {@link #getRegions()} and the other
+	 * methods returning {@link Pixa}, progress notifications, hOCR) are mapped
+	 * between the original and the scaled image. Images returned by Tesseract
+	 * (e.g. {@link #getThresholdedImage()}), box text and PDF output stay in
+	 * the coordinates of the scaled image.
+	 *
+	 * @param targetXHeight desired x-height in pixels, e.g.
+	 *                      {@link #DEFAULT_AUTO_SCALE_X_HEIGHT}, or
+	 *                      {@link #AUTO_SCALE_DISABLED}
+	 * @see #getImageScale()
+	 */
+	public void setAutoScale(@IntRange(from = 0) int targetXHeight) {
+		if (mRecycled)
+			throw new IllegalStateException();
+		if (targetXHeight < 0)
+			throw new IllegalArgumentException("Target x-height must not be negative");
+
+		nativeSetAutoScale(mNativeData, targetXHeight);
+	}
+
+	/**
+	 * Returns the factor the current image was scaled by before recognition,
+	 * 1 if it was not scaled.
+	 *
+	 * @see #setAutoScale(int)
+	 */
+	public float getImageScale() {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		return nativeGetImageScale(mNativeData);
+	}
+
 	/**
 	 * Restricts recognition to a sub-rectangle of the image. Call after
 	 * SetImage. Each SetRectangle clears the recognition results so multiple
@@ -631,7 +1315,7 @@ public class TessBaseAPI {
 			throw new RuntimeException("Failed to read image file");
 		}
 
-		nativeSetImagePix(mNativeData, image.getNativePix());
+		mImageTransform = setNativeImagePix(image);
 
 		image.recycle();
 	}
@@ -647,16 +1331,36 @@ public class TessBaseAPI {
 	 */
 	@WorkerThread
 	public void setImage(Bitmap bmp) {
+		setImage(bmp, false);
+	}
+
+	/**
+	 * Provides an image for Tesseract to recognize. Copies the image buffer.
+	 * The source image may be destroyed immediately after SetImage is called.
+	 * SetImage clears all recognition results, and sets the rectangle to the
+	 * full image, so it may be followed immediately by a GetUTF8Text, and it
+	 * will automatically perform recognition.
+	 * <p>
+	 * Tesseract works with grayscale images anyway. Converting the bitmap to
+	 * grayscale while reading it avoids the 32bpp copy of the image, which is
+	 * four times bigger. Only the recognition needs to work without colors.
+	 *
+	 * @param bmp       bitmap representation of the image
+	 * @param grayscale <code>true</code> to read the bitmap as 8bpp grayscale
+	 * @see ReadFile#readBitmapGray(Bitmap)
+	 */
+	@WorkerThread
+	public void setImage(Bitmap bmp, boolean grayscale) {
 		if (mRecycled)
 			throw new IllegalStateException();
 
-		Pix image = ReadFile.readBitmap(bmp);
+		Pix image = grayscale ? ReadFile.readBitmapGray(bmp) : ReadFile.readBitmap(bmp);
 
 		if (image == null) {
 			throw new RuntimeException("Failed to read bitmap");
 		}
 
-		nativeSetImagePix(mNativeData, image.getNativePix());
+		mImageTransform = setNativeImagePix(image);
 
 		image.recycle();
 	}
@@ -665,6 +1369,13 @@ public class TessBaseAPI {
 	 * Provides a Leptonica pix format image for Tesseract to recognize. Clones
 	 * the pix object. The source image may be destroyed immediately after
 	 * SetImage is called, but its contents may not be modified.
+	 * <p>
+	 * If the image tracks its {@link PixTransform} (see
+	 * {@link Pix#trackTransform()}), the boxes of the results (result
+	 * iterator and snapshot, methods returning {@link Pixa}, progress
+	 * notifications and hOCR) are reported in the coordinates of its source
+	 * image. Rectangles given to {@link #setRectangle(Rect)} stay in the
+	 * coordinates of the image itself, as do box text and PDF output.
 	 *
 	 * @param image Leptonica pix representation of the image
 	 */
@@ -673,7 +1384,28 @@ public class TessBaseAPI {
 		if (mRecycled)
 			throw new IllegalStateException();
 
-		nativeSetImagePix(mNativeData, image.getNativePix());
+		mImageTransform = setNativeImagePix(image);
+	}
+
+	/**
+	 * Preprocesses a Leptonica pix format image with the given pipeline and
+	 * provides the result for Tesseract to recognize. The source image is not
+	 * modified and the intermediate images are never exposed to Java.
+	 *
+	 * @param image    Leptonica pix representation of the image
+	 * @param pipeline steps to run on the image before recognition
+	 * @throws RuntimeException if any step of the pipeline fails
+	 * @see PixPipeline#process(Pix)
+	 */
+	@WorkerThread
+	public void setImage(@NonNull Pix image, @NonNull PixPipeline pipeline) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		Pix processed = pipeline.process(image);
+		mImageTransform = setNativeImagePix(processed);
+
+		processed.recycle();
 	}
 
 	/**
@@ -695,23 +1427,146 @@ public class TessBaseAPI {
 			throw new IllegalStateException();
 
 		nativeSetImageBytes(mNativeData, imagedata, width, height, bpp, bpl);
+		mImageTransform = null;
+	}
+
+	/**
+	 * Provides an image for Tesseract to recognize, reading the pixels directly
+	 * from the memory of a direct buffer (e.g. a camera frame or a buffer
+	 * filled by native code), without copying them into the Java heap first.
+	 * <p>
+	 * The pixels are read starting at the current position of the buffer;
+	 * the position is not changed. The buffer must not be modified while
+	 * this method runs. Tesseract converts the pixels into its internal
+	 * image before this method returns, so the buffer may be reused or
+	 * released right afterwards.
+	 * <p>
+	 * SetImage clears all recognition results, and sets the rectangle to the
+	 * full image, so it may be followed immediately by a GetUTF8Text, and it
+	 * will automatically perform recognition.
+	 *
+	 * @param imagedata direct buffer with the image data
+	 * @param width     image width
+	 * @param height    image height
+	 * @param bpp       bytes per pixel, 0 for 1 bit per pixel
+	 * @param bpl       bytes per line
+	 * @throws IllegalArgumentException if the buffer is not direct or is too small
+	 */
+	@WorkerThread
+	public void setImage(@NonNull ByteBuffer imagedata, int width, int height, int bpp, int bpl) {
+		if (mRecycled)
+			throw new IllegalStateException();
+		if (imagedata == null || !imagedata.isDirect())
+			throw new IllegalArgumentException("Image data must be a direct buffer");
+		if (width <= 0 || height <= 0 || bpp < 0 || bpl <= 0)
+			throw new IllegalArgumentException("Invalid image dimensions");
+		if ((long) bpl * height > imagedata.remaining())
+			throw new IllegalArgumentException("Image data is too small, "
+					+ ((long) bpl * height) + " bytes needed");
+
+		nativeSetImageBuffer(mNativeData, imagedata, imagedata.position(), width, height, bpp, bpl);
+		mImageTransform = null;
+	}
+
+	/**
+	 * Provides the luma (Y) plane of a camera frame (e.g. an {@link android.media.Image}
+	 * in the YUV_420_888 format) for Tesseract to recognize. The plane is read
+	 * directly as a grayscale image, cropped and rotated in the same pass,
+	 * without converting the frame to a Bitmap first.
+	 * <p>
+	 * The buffer may be released (e.g. the image closed) right after this
+	 * method returns.
+	 *
+	 * @param yPlane      direct buffer with the luma plane, read from its current position
+	 * @param width       width of the frame
+	 * @param height      height of the frame
+	 * @param rowStride   distance between the starts of two rows in bytes
+	 * @param pixelStride distance between two pixels of a row in bytes
+	 * @param crop        part of the frame to recognize, in coordinates of the frame
+	 *                    before the rotation, or <code>null</code> for the whole frame
+	 * @param rotation    clockwise rotation of the frame in degrees; one of 0, 90, 180 or 270
+	 * @see ReadFile#readYPlane(ByteBuffer, int, int, int, int, Rect, int)
+	 */
+	@WorkerThread
+	public void setImage(@NonNull ByteBuffer yPlane, int width, int height, int rowStride,
+						 int pixelStride, @Nullable Rect crop, int rotation) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		Pix image = ReadFile.readYPlane(yPlane, width, height, rowStride, pixelStride, crop,
+				rotation);
+		mImageTransform = setNativeImagePix(image);
+		image.recycle();
+	}
+
+	/**
+	 * Recognizes the image, if it was not recognized yet. Interruptible by
+	 * {@link #stop()}.
+	 * <p>
+	 * The recognition is stopped once the timeout elapses and the words
+	 * recognized until then are kept as the results, so the methods
+	 * returning them (e.g. {@link #getUTF8Text()}, {@link #getHOCRText(int)},
+	 * {@link #getResultIterator()}) return partial results afterwards.
+	 * The timeout is checked by Tesseract between words, so the recognition
+	 * may take slightly longer than that.
+	 *
+	 * @param timeoutMillis maximum time of the recognition in milliseconds,
+	 *                      0 for no limit
+	 * @return status of the recognition
+	 */
+	@WorkerThread
+	@RecognitionStatus.Status
+	public int recognize(int timeoutMillis) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		return nativeRecognize(mNativeData, timeoutMillis, true);
+	}
+
+	/**
+	 * Returns the status of the recognition of the current image. It is
+	 * {@link RecognitionStatus#OK} also when the image was not recognized yet.
+	 *
+	 * @return status of the last recognition
+	 */
+	@RecognitionStatus.Status
+	public int getLastStatus() {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		return nativeGetLastStatus(mNativeData);
 	}
 
 	/**
 	 * The recognized text is returned as a String which is coded as UTF8.
-	 * This is a blocking operation that will not work with {@link #stop()}.
-	 * Call {@link #getHOCRText(int)} before calling this function to
-	 * interrupt a recognition task with {@link #stop()}
+	 * Interruptible by {@link #stop()}.
 	 *
 	 * @return the recognized text
 	 */
 	@WorkerThread
 	public String getUTF8Text() {
+		return getUTF8Text(0);
+	}
+
+	/**
+	 * The recognized text is returned as a String which is coded as UTF8.
+	 * Interruptible by {@link #stop()}.
+	 * <p>
+	 * When the recognition times out, the text recognized until then is
+	 * returned and {@link #getLastStatus()} returns {@link RecognitionStatus#TIMED_OUT}.
+	 *
+	 * @param timeoutMillis maximum time of the recognition in milliseconds,
+	 *                      0 for no limit
+	 * @return the recognized text
+	 * @see #recognize(int)
+	 */
+	@WorkerThread
+	public String getUTF8Text(int timeoutMillis) {
 		if (mRecycled)
 			throw new IllegalStateException();
 
 		// Trim because the text will have extra line breaks at the end
-		String text = nativeGetUTF8Text(mNativeData);
+		String text = nativeGetUTF8Text(mNativeData, timeoutMillis);
 
 		return text != null ? text.trim() : null;
 	}
@@ -729,68 +1584,169 @@ public class TessBaseAPI {
 	 */
 	@NonNull
 	public String getConfidentText(int minConfidence, @PageIteratorLevel.Level int level) {
+		ResultSnapshot snapshot = getResultSnapshot(level);
+		if (snapshot == null) {
+			return "";
+		}
+
 		StringBuilder sb = new StringBuilder();
 
-		ResultIterator it = getResultIterator();
-		try {
-			it.begin();
+		// Coarsest level starting between the previous element and the current one
+		int separatorLevel = level;
+		boolean addSeparator = false;
 
-			// Iterate to first instance of the target level
-			while (!it.isAtBeginningOf(level)) {
-				if (!it.next(level)) {
-					// End of the page, no data
-					return "";
-				}
+		for (int i = 0; i < snapshot.size(); i++) {
+			int elementLevel = snapshot.getLevel(i);
+			if (elementLevel != level) {
+				separatorLevel = Math.min(separatorLevel, elementLevel);
+				continue;
 			}
 
-			while (true) {
-				boolean addSeparator = false;
-
-				if (it.isAtBeginningOf(level)) {
-					String text = it.getUTF8Text(level);
-
-					// Trim text of unwanted trailing spaces and line endings
-					text = text.stripTrailing();
-
-					// Append the text of current element
-					if (it.confidence(level) >= minConfidence) {
-						if (!text.isEmpty()) {
-							addSeparator = true;
-							sb.append(text);
-						}
-					} /*else {
-						Log.d(TAG, "getConfidentText: Ignoring low confidence" +
-								" text '" + text + "' " +
-								" with confidence " + it.confidence(level));
-					}*/
-				}
-
-				if (!it.next(level)) {
-					// End of the page, exit the loop
-					break;
-				}
-
-				// Based on next element pick separator (new line for block/para, space for word)
-				if (!addSeparator) {
-					continue;
-				}
-				if (it.isAtBeginningOf(PageIteratorLevel.RIL_BLOCK)) {
+			// Based on this element pick separator (new line for block/para, space for word)
+			if (addSeparator) {
+				if (separatorLevel == PageIteratorLevel.RIL_BLOCK) {
 					sb.append("\n\n");
-				} else if (it.isAtBeginningOf(PageIteratorLevel.RIL_PARA)) {
+				} else if (separatorLevel == PageIteratorLevel.RIL_PARA
+						|| separatorLevel == PageIteratorLevel.RIL_TEXTLINE) {
 					sb.append("\n");
-				} else if (it.isAtBeginningOf(PageIteratorLevel.RIL_TEXTLINE)) {
-					sb.append("\n");
-				} else if (it.isAtBeginningOf(PageIteratorLevel.RIL_WORD)) {
+				} else if (separatorLevel == PageIteratorLevel.RIL_WORD) {
 					sb.append(' ');
 				}
 			}
-		} finally {
-			it.delete();
+			separatorLevel = level;
+			addSeparator = false;
+
+			// Trim text of unwanted trailing spaces and line endings
+			String text = snapshot.getText(i).stripTrailing();
+
+			// Append the text of current element
+			if (snapshot.getConfidence(i) >= minConfidence && !text.isEmpty()) {
+				addSeparator = true;
+				sb.append(text);
+			}
 		}
 
 		return sb.toString();
 	}
 
+	/**
+	 * Returns the recognition results of the page, down to the given level,
+	 * collected in a single native call. Unlike walking the {@link ResultIterator},
+	 * reading the snapshot needs no further native calls.
+	 * <p>
+	 * Important: Recognition results must be already available when calling this method.
+	 * This means {@link #getUTF8Text} or {@link #getHOCRText} needs to be called before this.
+	 *
+	 * @param level the finest level to include
+	 * @return the results or <code>null</code> if there are no results
+	 */
+	@Nullable
+	public ResultSnapshot getResultSnapshot(@PageIteratorLevel.Level int level) {
+		if (mRecycled)
+			throw new IllegalStateException();
+		if (level < PageIteratorLevel.RIL_BLOCK || level > PageIteratorLevel.RIL_SYMBOL)
+			throw new IllegalArgumentException("Invalid level " + level);
+
+		return nativeGetResultSnapshot(mNativeData, level, true);
+	}
+
+	/**
+	 * Recognizes the image with this instance and then re-recognizes the
+	 * lines or words it is not confident about with another instance,
+	 * typically initialized with a slower but more accurate model (e.g. this
+	 * one with {@code tessdata_fast} and the refiner with {@code tessdata_best}).
+	 * <p>
+	 * Each element of the given level with confidence below
+	 * {@code minConfidence} is recognized by the refiner on its own, using
+	 * {@link #setRectangle(int, int, int, int)} and
+	 * {@link PageSegMode#PSM_SINGLE_LINE} (or {@link PageSegMode#PSM_SINGLE_WORD}).
+	 * The refined text is used when the refiner is more confident about it.
+	 * When the page is mostly clean, the refiner runs only on a small part of it.
+	 * <p>
+	 * Both instances are left with the image set. The page segmentation mode
+	 * of the refiner is restored when done.
+	 *
+	 * @param image         the image to recognize
+	 * @param refiner       instance to re-recognize the uncertain elements with
+	 * @param minConfidence confidence (0-100) below which the elements are re-recognized
+	 * @param level         {@link PageIteratorLevel#RIL_TEXTLINE} or {@link PageIteratorLevel#RIL_WORD}
+	 * @return the merged results or <code>null</code> if there are no results
+	 */
+	@WorkerThread
+	@Nullable
+	public ResultSnapshot recognizeCascade(@NonNull Pix image, @NonNull TessBaseAPI refiner,
+										   int minConfidence, @PageIteratorLevel.Level int level) {
+		if (mRecycled || refiner.mRecycled)
+			throw new IllegalStateException();
+		if (refiner == this)
+			throw new IllegalArgumentException("Refiner must be another instance");
+		if (level != PageIteratorLevel.RIL_TEXTLINE && level != PageIteratorLevel.RIL_WORD)
+			throw new IllegalArgumentException("Invalid level " + level);
+
+		setImage(image);
+		getUTF8Text();
+
+		// The refiner takes rectangles of the image itself, boxes are mapped
+		// to its source only at the end
+		final ResultSnapshot snapshot = nativeGetResultSnapshot(mNativeData, level, false);
+		if (snapshot == null) {
+			return null;
+		}
+
+		final int size = snapshot.size();
+		final String[] newTexts = new String[size];
+		final float[] newConfidences = new float[size];
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		boolean imageSet = false;
+		int refinerMode = PageSegMode.PSM_SINGLE_BLOCK;
+		boolean replaced = false;
+
+		for (int i = 0; i < size; i++) {
+			if (snapshot.getLevel(i) != level || snapshot.getConfidence(i) >= minConfidence) {
+				continue;
+			}
+
+			if (!imageSet) {
+				refinerMode = refiner.getPageSegMode();
+				refiner.setImage(image);
+				refiner.setPageSegMode(level == PageIteratorLevel.RIL_WORD
+						? PageSegMode.PSM_SINGLE_WORD : PageSegMode.PSM_SINGLE_LINE);
+				imageSet = true;
+			}
+
+			// Tight boxes cut off parts of the glyphs, give the refiner some margin
+			final int margin = (snapshot.getBottom(i) - snapshot.getTop(i)) / 4;
+			final int left = Math.max(0, snapshot.getLeft(i) - margin);
+			final int top = Math.max(0, snapshot.getTop(i) - margin);
+			final int right = Math.min(width, snapshot.getRight(i) + margin);
+			final int bottom = Math.min(height, snapshot.getBottom(i) + margin);
+			if (right <= left || bottom <= top) {
+				continue;
+			}
+
+			refiner.setRectangle(left, top, right - left, bottom - top);
+			final String text = refiner.getUTF8Text();
+			final int confidence = refiner.meanConfidence();
+			if (text == null || text.isEmpty() || confidence <= snapshot.getConfidence(i)) {
+				continue;
+			}
+
+			// Keep the trailing separator the original element ended with
+			final String oldText = snapshot.getText(i);
+			newTexts[i] = text + oldText.substring(oldText.stripTrailing().length());
+			newConfidences[i] = confidence;
+			replaced = true;
+		}
+
+		if (imageSet) {
+			refiner.setPageSegMode(refinerMode);
+		}
+
+		final ResultSnapshot result = replaced ? snapshot.replace(newTexts, newConfidences) : snapshot;
+		return mImageTransform != null ? result.mapBoxes(mImageTransform) : result;
+	}
+
 	/**
 	 * Returns the (average) confidence value between 0 and 100.
 	 *
@@ -930,7 +1886,32 @@ public class TessBaseAPI {
 			return null;
 		}
 
-		return new ResultIterator(nativeResultIterator);
+		ResultIterator iterator = new ResultIterator(nativeResultIterator);
+		iterator.setNativeData(mNativeData);
+		return iterator;
+	}
+
+	/**
+	 * Recognizes the image, if it was not recognized yet, and returns
+	 * a reading-order iterator to the results. The returned iterator must
+	 * be deleted after use.
+	 * <p>
+	 * When the recognition times out, the iterator goes over the words
+	 * recognized until then.
+	 *
+	 * @param timeoutMillis maximum time of the recognition in milliseconds,
+	 *                      0 for no limit
+	 * @return iterator to the results or <code>null</code> if the recognition failed
+	 * @see #recognize(int)
+	 */
+	@WorkerThread
+	public ResultIterator getResultIterator(int timeoutMillis) {
+		if (mRecycled)
+			throw new IllegalStateException();
+
+		nativeRecognize(mNativeData, timeoutMillis, true);
+
+		return getResultIterator();
 	}
 
 	/**
@@ -942,10 +1923,28 @@ public class TessBaseAPI {
 	 */
 	@WorkerThread
 	public String getHOCRText(int page) {
+		return getHOCRText(page, 0);
+	}
+
+	/**
+	 * Make a HTML-formatted string with hOCR markup from the internal data
+	 * structures. Interruptible by {@link #stop()}.
+	 * <p>
+	 * When the recognition times out or is stopped, the markup of the words
+	 * recognized until then is returned.
+	 *
+	 * @param page          is 0-based but will appear in the output as 1-based.
+	 * @param timeoutMillis maximum time of the recognition in milliseconds,
+	 *                      0 for no limit
+	 * @return HTML-formatted string with hOCR markup
+	 * @see #recognize(int)
+	 */
+	@WorkerThread
+	public String getHOCRText(int page, int timeoutMillis) {
 		if (mRecycled)
 			throw new IllegalStateException();
 
-		return nativeGetHOCRText(mNativeData, page);
+		return nativeGetHOCRText(mNativeData, page, timeoutMillis);
 	}
 
 	/**
@@ -1016,6 +2015,31 @@ public class TessBaseAPI {
 		return nativeGetVersion(mNativeData);
 	}
 
+	/**
+	 * Returns the name of the SIMD kernel the LSTM recognizer uses for its dot
+	 * products, selected at runtime by the instruction sets the CPU supports.
+	 * <p>
+	 * On arm64-v8a and armeabi-v7a with NEON it's "neon", on x86 and x86_64 one
+	 * of "avx2", "avx" or "sse" and "generic" when the CPU supports none of
+	 * them. Names match the values of Tesseract's {@code dotproduct} variable.
+	 *
+	 * @return For example "neon" or "avx2".
+	 */
+	public static String getSimdKernel() {
+		return nativeGetSimdKernel();
+	}
+
+	/**
+	 * Returns the number of LSTM networks currently shared between instances
+	 * initialized with {@link InitFlags#SHARE_LSTM}, regardless of how many
+	 * instances use each of them.
+	 *
+	 * @return number of distinct shared networks
+	 */
+	public static int getSharedLstmCount() {
+		return nativeGetSharedLstmCount();
+	}
+
 	/**
 	 * Returns flavor of the library.
 	 *
@@ -1026,7 +2050,8 @@ public class TessBaseAPI {
 	}
 
 	/**
-	 * Cancel recognition started by {@link #getHOCRText(int)}.
+	 * Cancel recognition started by {@link #recognize(int)}, {@link #getUTF8Text()}
+	 * or {@link #getHOCRText(int)}.
 	 */
 	public void stop() {
 		if (mRecycled)
@@ -1035,6 +2060,207 @@ public class TessBaseAPI {
 		nativeStop(mNativeData);
 	}
 
+	/**
+	 * Recognizes the image in the background and returns its pending result.
+	 * <p>
+	 * The image is cloned, so the caller may recycle it right after this
+	 * method returns. Recognitions submitted to one instance run one at a
+	 * time, but not necessarily in the order of submission. While any of
+	 * them is pending, no other method of this instance
+	 * except {@link #stop()} and {@link #recycle()} may be called. Calling
+	 * {@link #recycle()} cancels the pending recognitions and releases the
+	 * native data once the running one is stopped.
+	 * <p>
+	 * Progress notifications are delivered to the {@link ProgressNotifier}
+	 * of this instance, on the recognition thread. The recognition results
+	 * and the image are cleared from the instance when done, everything is
+	 * returned in the {@link OcrResult}.
+	 *
+	 * @param image   the image to recognize
+	 * @param options options of the recognition; can be <code>null</code>
+	 * @return the pending result, use {@link OcrFuture#cancel(boolean)} to stop
+	 * the recognition
+	 */
+	@NonNull
+	public OcrFuture recognizeAsync(@NonNull Pix image, @Nullable RecognitionOptions options) {
+		if (image == null)
+			throw new IllegalArgumentException("Image must be non-null");
+
+		final RecognitionOptions opts = options != null ? options : new RecognitionOptions();
+		final Rect rectangle = opts.getRectangle();
+		final Executor executor = opts.getExecutor() != null ? opts.getExecutor() : getDefaultExecutor();
+
+		final RecognitionTask task;
+		synchronized (mAsyncLock) {
+			if (mRecycled)
+				throw new IllegalStateException();
+
+			task = new RecognitionTask(new Recognition(image.clone(), opts.getPageSegMode(),
+					rectangle != null ? new Rect(rectangle) : null,
+					opts.isHOCRText(), opts.getHOCRPage(), opts.getTimeoutMillis()));
+			mAsyncTasks.add(task);
+		}
+		executor.execute(task);
+		return task;
+	}
+
+	private static synchronized Executor getDefaultExecutor() {
+		if (sDefaultExecutor == null) {
+			sDefaultExecutor = Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, "TessBaseAPI-async");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return sDefaultExecutor;
+	}
+
+	private OcrResult runRecognition(Recognition recognition) {
+		final RecognitionTask task = recognition.task;
+		synchronized (mRecognitionLock) {
+			synchronized (mAsyncLock) {
+				if (task.isCancelled() || mRecycled)
+					throw new CancellationException();
+
+				// From now on, cancelling the task stops the native recognition.
+				// Cancel flag is reset only here, so no cancel can get lost.
+				mActiveTask = task;
+				nativeSetCancelled(mNativeData, false);
+				// The image is released by this thread, see RecognitionTask.done()
+				recognition.started = true;
+			}
+
+			try {
+				setNativeImagePix(recognition.image);
+				if (recognition.pageSegMode >= 0)
+					nativeSetPageSegMode(mNativeData, recognition.pageSegMode);
+				final Rect rect = recognition.rectangle;
+				if (rect != null)
+					nativeSetRectangle(mNativeData, rect.left, rect.top, rect.width(), rect.height());
+
+				final long start = System.nanoTime();
+				// Keep the cancel flag, it may have been already set by cancel()
+				final int status = nativeRecognize(mNativeData, recognition.timeoutMillis, false);
+				final long recognitionTime = (System.nanoTime() - start) / 1000000;
+
+				if (task.isCancelled())
+					throw new CancellationException();
+
+				// Already recognized, these only return the (possibly partial) results
+				String text = nativeGetUTF8Text(mNativeData, 0);
+				String hocrText = recognition.hocrText
+						? nativeGetHOCRText(mNativeData, recognition.hocrPage, 0) : null;
+				int meanConfidence = nativeMeanConfidence(mNativeData);
+
+				return new OcrResult(text != null ? text.trim() : "", hocrText, meanConfidence,
+						recognitionTime, status);
+			} finally {
+				nativeClear(mNativeData);
+				recognition.image.recycle();
+
+				synchronized (mAsyncLock) {
+					mActiveTask = null;
+					if (mRecycled) {
+						nativeRecycle(mNativeData);
+						mNativeData = 0;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parameters of one asynchronous recognition.
+	 */
+	private final class Recognition implements Callable<OcrResult> {
+		final Pix image;
+		final int pageSegMode;
+		final Rect rectangle;
+		final boolean hocrText;
+		final int hocrPage;
+		final int timeoutMillis;
+		RecognitionTask task;
+		// Set once the recognition thread started using the image, guarded by mAsyncLock
+		boolean started;
+
+		Recognition(Pix image, int pageSegMode, Rect rectangle, boolean hocrText, int hocrPage,
+					int timeoutMillis) {
+			this.image = image;
+			this.pageSegMode = pageSegMode;
+			this.rectangle = rectangle;
+			this.hocrText = hocrText;
+			this.hocrPage = hocrPage;
+			this.timeoutMillis = timeoutMillis;
+		}
+
+		@Override
+		public OcrResult call() {
+			return runRecognition(this);
+		}
+	}
+
+	private final class RecognitionTask extends FutureTask<OcrResult> implements OcrFuture {
+		private final Recognition recognition;
+		private final List<Runnable> listeners = new ArrayList<>();
+		private boolean notified;
+
+		RecognitionTask(Recognition recognition) {
+			super(recognition);
+			this.recognition = recognition;
+			recognition.task = this;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// The worker thread is never interrupted, native recognition is stopped instead
+			boolean cancelled = super.cancel(false);
+			if (cancelled && mayInterruptIfRunning) {
+				synchronized (mAsyncLock) {
+					if (mActiveTask == this)
+						nativeSetCancelled(mNativeData, true);
+				}
+			}
+			return cancelled;
+		}
+
+		@Override
+		protected void done() {
+			synchronized (mAsyncLock) {
+				mAsyncTasks.remove(this);
+
+				// May run on the cancelling thread, so the image is recycled here
+				// only if the recognition never started using it
+				if (!recognition.started)
+					recognition.image.recycle();
+			}
+
+			List<Runnable> toNotify;
+			synchronized (listeners) {
+				notified = true;
+				toNotify = new ArrayList<>(listeners);
+				listeners.clear();
+			}
+			for (Runnable listener : toNotify) {
+				listener.run();
+			}
+		}
+
+		@Override
+		public void addListener(@NonNull Runnable listener, @NonNull Executor executor) {
+			if (listener == null || executor == null)
+				throw new IllegalArgumentException("Listener and executor must be non-null");
+
+			Runnable wrapped = () -> executor.execute(listener);
+			synchronized (listeners) {
+				if (!notified) {
+					listeners.add(wrapped);
+					return;
+				}
+			}
+			wrapped.run();
+		}
+	}
+
 	/**
 	 * Called from native code to update progress of ongoing recognition passes.
 	 *
@@ -1053,6 +2279,11 @@ public class TessBaseAPI {
 									final int right, final int top, final int bottom,
 									final int textLeft, final int textRight, final int textTop, final int textBottom) {
 
+		final ProgressListener listener = progressListener;
+		if (listener != null) {
+			listener.onProgress(percent, left, textTop - top, right, textTop - bottom);
+		}
+
 		if (progressNotifier != null) {
 			Rect wordRect = new Rect(left, textTop - top, right, textTop - bottom);
 			Rect textRect = new Rect(textLeft, textBottom, textRight, textTop);
@@ -1117,11 +2348,34 @@ public class TessBaseAPI {
 	 */
 	public boolean addPageToDocument(Pix imageToProcess, String imageToWrite,
 									 TessPdfRenderer tessPdfRenderer) {
+		return addPageToDocument(imageToProcess, imageToWrite, tessPdfRenderer, 0);
+	}
+
+	/**
+	 * Adds the given data to the opened document (if any), limiting the time
+	 * spent by the recognition of the page.
+	 * <p>
+	 * When the recognition times out, the page is still added with the words
+	 * recognized until then and {@link #getLastStatus()} returns
+	 * {@link RecognitionStatus#TIMED_OUT}. The timeout has no effect with
+	 * {@link PageSegMode#PSM_AUTO_ONLY} and {@link PageSegMode#PSM_OSD_ONLY}.
+	 *
+	 * @param imageToProcess  image to be used for OCR
+	 * @param imageToWrite    path to image to be written into resulting document
+	 * @param tessPdfRenderer the renderer instance to use
+	 * @param timeoutMillis   maximum time of the recognition in milliseconds,
+	 *                        0 for no limit
+	 * @return {@code true} on success. {@code false} on failure
+	 */
+	public boolean addPageToDocument(Pix imageToProcess, String imageToWrite,
+									 TessPdfRenderer tessPdfRenderer, int timeoutMillis) {
 		if (mRecycled)
 			throw new IllegalStateException();
 
+		// The page replaces the current image
+		mImageTransform = null;
 		return nativeAddPageToDocument(mNativeData, imageToProcess.getNativePix(),
-				imageToWrite, tessPdfRenderer.getNativePdfRenderer());
+				imageToWrite, tessPdfRenderer.getNativePdfRenderer(), timeoutMillis);
 	}
 
 	/*package*/ long getNativeData() {
@@ -1157,6 +2411,19 @@ public class TessBaseAPI {
 	private native boolean nativeInitParams(long mNativeData, String datapath, String language,
 											int mode, String[] vars, String[] varsValues);
 
+	private native boolean nativeInitModel(long mNativeData, String modelPath, String language, int mode,
+										   String[] vars, String[] varsValues, boolean mapped, boolean quantize,
+										   int[] quantizeStats);
+
+	private native boolean nativeInitBuffer(long mNativeData, ByteBuffer buffer, byte[] array, int offset,
+											int length, String language, int mode,
+											String[] vars, String[] varsValues);
+
+	private native boolean nativeInitFd(long mNativeData, int fd, long offset, long length,
+										String language, int mode, String[] vars, String[] varsValues);
+
+	private static native long nativeGetResidentSetSize();
+
 	private native String nativeGetInitLanguagesAsString(long mNativeData);
 
 	private native void nativeClear(long mNativeData);
@@ -1164,11 +2431,21 @@ public class TessBaseAPI {
 	private native void nativeSetImageBytes(
 			long mNativeData, byte[] imagedata, int width, int height, int bpp, int bpl);
 
+	private native void nativeSetImageBuffer(
+			long mNativeData, ByteBuffer imagedata, int offset, int width, int height, int bpp, int bpl);
+
 	private native void nativeSetImagePix(long mNativeData, long nativePix);
 
+	private native void nativeSetAutoScale(long mNativeData, int targetXHeight);
+
+	private native float nativeGetImageScale(long mNativeData);
+
+	private native void nativeSetImageTransform(long mNativeData, float[] values, int sourceWidth,
+												int sourceHeight);
+
 	private native void nativeSetRectangle(long mNativeData, int left, int top, int width, int height);
 
-	private native String nativeGetUTF8Text(long mNativeData);
+	private native String nativeGetUTF8Text(long mNativeData, int timeoutMillis);
 
 	private native int nativeMeanConfidence(long mNativeData);
 
@@ -1199,9 +2476,12 @@ public class TessBaseAPI {
 
 	private native long nativeGetResultIterator(long mNativeData);
 
+	private native ResultSnapshot nativeGetResultSnapshot(long mNativeData, int level,
+														  boolean sourceCoordinates);
+
 	private native String nativeGetBoxText(long mNativeData, int page_number);
 
-	private native String nativeGetHOCRText(long mNativeData, int page_number);
+	private native String nativeGetHOCRText(long mNativeData, int page_number, int timeoutMillis);
 
 	private native void nativeSetInputName(long mNativeData, String name);
 
@@ -1211,11 +2491,26 @@ public class TessBaseAPI {
 
 	private native String nativeGetVersion(long mNativeData);
 
+	private static native String nativeGetSimdKernel();
+
+	private static native int nativeGetSharedLstmCount();
+
 	private native void nativeStop(long mNativeData);
 
+	private native void nativeSetProgressOptions(long mNativeData, boolean enabled,
+												 int minPercentDelta, long minIntervalMillis);
+
+	private native void nativeSetCancelled(long mNativeData, boolean cancelled);
+
+	@RecognitionStatus.Status
+	private native int nativeRecognize(long mNativeData, int timeoutMillis, boolean resetCancel);
+
+	@RecognitionStatus.Status
+	private native int nativeGetLastStatus(long mNativeData);
+
 	private native boolean nativeBeginDocument(long rendererPointer, String title);
 
 	private native boolean nativeEndDocument(long rendererPointer);
 
-	private native boolean nativeAddPageToDocument(long mNativeData, long nativePix, String imagePath, long rendererPointer);
+	private native boolean nativeAddPageToDocument(long mNativeData, long nativePix, String imagePath, long rendererPointer, int timeoutMillis);
 }
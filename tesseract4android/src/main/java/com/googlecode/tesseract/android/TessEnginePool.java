@@ -0,0 +1,540 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.googlecode.tesseract.android;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.googlecode.tesseract.android.TessBaseAPI.InitFlags;
+import com.googlecode.tesseract.android.TessBaseAPI.OcrEngineMode;
+import com.googlecode.tesseract.android.TessBaseAPI.PageSegMode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of initialized {@link TessBaseAPI} instances.
+ * <p>
+ * Initializing the engine loads the traineddata, which is slow, so instead of
+ * creating a new instance for every image, engines are borrowed from the pool
+ * and released back once the recognition is done. Released engines are cleared
+ * using {@link TessBaseAPI#clear()}, but keep their loaded language data, so
+ * the next borrower can use them right away.
+ * <p>
+ * Engines are grouped by their initialization parameters ({@link EngineKey}).
+ * At most {@code maxEnginesPerKey} engines exist for each key; when all of them
+ * are borrowed, {@link #borrow(EngineKey)} blocks until one is released.
+ * Engines which are not used for longer than the idle timeout are recycled.
+ * <p>
+ * Each borrowed engine must be used by one thread at a time, but different
+ * engines can be used in parallel. When the pool is no longer needed, its
+ * {@link #recycle} method must be invoked to dispose of the idle engines.
+ */
+public class TessEnginePool {
+
+	private static final String TAG = TessEnginePool.class.getSimpleName();
+
+	/**
+	 * Initialization parameters shared by all engines of one group.
+	 */
+	public static final class EngineKey {
+		private final String datapath;
+		private final String language;
+		private final int ocrEngineMode;
+		private final Map<String, String> config;
+		private final int flags;
+
+		/**
+		 * @param datapath      the parent directory of tessdata
+		 * @param language      an ISO 639-3 string representing the language(s)
+		 * @param ocrEngineMode the OCR engine mode to be set
+		 * @see TessBaseAPI#init(String, String, int)
+		 */
+		public EngineKey(@NonNull String datapath, @NonNull String language,
+						 @OcrEngineMode int ocrEngineMode) {
+			this(datapath, language, ocrEngineMode, Collections.emptyMap());
+		}
+
+		/**
+		 * @param datapath      the parent directory of tessdata
+		 * @param language      an ISO 639-3 string representing the language(s)
+		 * @param ocrEngineMode the OCR engine mode to be set
+		 * @param config        variables to be set at initialization; can be empty
+		 * @see TessBaseAPI#init(String, String, int, Map)
+		 */
+		public EngineKey(@NonNull String datapath, @NonNull String language,
+						 @OcrEngineMode int ocrEngineMode, @NonNull Map<String, String> config) {
+			this(datapath, language, ocrEngineMode, config, 0);
+		}
+
+		/**
+		 * @param datapath      the parent directory of tessdata
+		 * @param language      an ISO 639-3 string representing the language(s)
+		 * @param ocrEngineMode the OCR engine mode to be set
+		 * @param config        variables to be set at initialization; can be empty
+		 * @param flags         combination of {@link TessBaseAPI.InitFlags}; can be 0
+		 * @see TessBaseAPI#init(String, String, int, Map, int)
+		 */
+		public EngineKey(@NonNull String datapath, @NonNull String language,
+						 @OcrEngineMode int ocrEngineMode, @NonNull Map<String, String> config,
+						 @InitFlags.Flags int flags) {
+			if (datapath == null)
+				throw new IllegalArgumentException("Data path must not be null!");
+			if (language == null)
+				throw new IllegalArgumentException("Language must not be null!");
+			if (config == null)
+				throw new IllegalArgumentException("Config must not be null!");
+
+			this.datapath = datapath;
+			this.language = language;
+			this.ocrEngineMode = ocrEngineMode;
+			this.config = Collections.unmodifiableMap(new HashMap<>(config));
+			this.flags = flags;
+		}
+
+		public String getDatapath() {
+			return datapath;
+		}
+
+		public String getLanguage() {
+			return language;
+		}
+
+		@OcrEngineMode
+		public int getOcrEngineMode() {
+			return ocrEngineMode;
+		}
+
+		public Map<String, String> getConfig() {
+			return config;
+		}
+
+		@InitFlags.Flags
+		public int getFlags() {
+			return flags;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof EngineKey)) return false;
+			EngineKey other = (EngineKey) o;
+			return ocrEngineMode == other.ocrEngineMode
+					&& flags == other.flags
+					&& datapath.equals(other.datapath)
+					&& language.equals(other.language)
+					&& config.equals(other.config);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = datapath.hashCode();
+			result = 31 * result + language.hashCode();
+			result = 31 * result + ocrEngineMode;
+			result = 31 * result + config.hashCode();
+			result = 31 * result + flags;
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return "EngineKey{" +
+					"datapath='" + datapath + '\'' +
+					", language='" + language + '\'' +
+					", ocrEngineMode=" + ocrEngineMode +
+					", config=" + config +
+					", flags=" + flags +
+					'}';
+		}
+	}
+
+	private static final class IdleEngine {
+		final TessBaseAPI api;
+		final long idleSince;
+
+		IdleEngine(TessBaseAPI api, long idleSince) {
+			this.api = api;
+			this.idleSince = idleSince;
+		}
+	}
+
+	private static final class Group {
+		/**
+		 * Idle engines, the most recently released one is last.
+		 */
+		final ArrayDeque<IdleEngine> idle = new ArrayDeque<>();
+
+		/**
+		 * Number of idle, borrowed and currently initializing engines.
+		 */
+		int size;
+	}
+
+	private final int mMaxEnginesPerKey;
+	private final long mIdleTimeoutMillis;
+
+	private final Object mLock = new Object();
+	private final Map<EngineKey, Group> mGroups = new HashMap<>();
+	private final Map<TessBaseAPI, EngineKey> mBorrowed = new IdentityHashMap<>();
+	private final ScheduledExecutorService mExecutor;
+
+	private boolean mRecycled;
+
+	/**
+	 * Constructs an empty pool. Engines are created lazily on the first
+	 * {@link #borrow} or ahead of time using {@link #prewarm}.
+	 *
+	 * @param maxEnginesPerKey  maximum number of engines with the same
+	 *                          initialization parameters
+	 * @param idleTimeoutMillis time after which an unused engine is recycled;
+	 *                          0 to keep idle engines until the pool is recycled
+	 */
+	public TessEnginePool(int maxEnginesPerKey, long idleTimeoutMillis) {
+		if (maxEnginesPerKey < 1)
+			throw new IllegalArgumentException("Max engines per key must be positive");
+		if (idleTimeoutMillis < 0)
+			throw new IllegalArgumentException("Idle timeout must not be negative");
+
+		mMaxEnginesPerKey = maxEnginesPerKey;
+		mIdleTimeoutMillis = idleTimeoutMillis;
+
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread thread = new Thread(r, "TessEnginePool");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		mExecutor = executor;
+
+		if (idleTimeoutMillis > 0) {
+			long period = Math.max(idleTimeoutMillis / 2, 1);
+			mExecutor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Borrows an initialized engine, waiting for one to be released if all
+	 * engines for this key are in use. If there is no idle engine and the
+	 * limit was not reached yet, a new engine is initialized on the calling
+	 * thread.
+	 * <p>
+	 * The engine must be returned using {@link #release(TessBaseAPI)} and
+	 * must not be recycled by the caller.
+	 *
+	 * @param key initialization parameters of the engine
+	 * @return initialized engine
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@NonNull
+	public TessBaseAPI borrow(@NonNull EngineKey key) throws InterruptedException {
+		TessBaseAPI api = borrow(key, 0, null);
+		if (api == null)
+			throw new IllegalStateException("No engine was available for " + key);
+
+		return api;
+	}
+
+	/**
+	 * Borrows an initialized engine, waiting at most the given time for one
+	 * to be released if all engines for this key are in use.
+	 *
+	 * @param key     initialization parameters of the engine
+	 * @param timeout maximum time to wait
+	 * @param unit    unit of the timeout
+	 * @return initialized engine or <code>null</code> if the timeout elapsed
+	 * @throws InterruptedException if interrupted while waiting
+	 * @see #borrow(EngineKey)
+	 */
+	@Nullable
+	public TessBaseAPI borrow(@NonNull EngineKey key, long timeout, @Nullable TimeUnit unit)
+			throws InterruptedException {
+		if (key == null)
+			throw new IllegalArgumentException("Key must be non-null");
+
+		final boolean timed = unit != null;
+		final long deadline = timed ? SystemClock.uptimeMillis() + unit.toMillis(timeout) : 0;
+
+		synchronized (mLock) {
+			while (true) {
+				if (mRecycled)
+					throw new IllegalStateException("Pool was recycled");
+
+				Group group = getGroup(key);
+				IdleEngine idle = group.idle.pollLast();
+				if (idle != null) {
+					mBorrowed.put(idle.api, key);
+					return idle.api;
+				}
+				if (group.size < mMaxEnginesPerKey) {
+					// Reserve the slot, the engine is initialized outside the lock
+					group.size++;
+					break;
+				}
+
+				if (!timed) {
+					mLock.wait();
+				} else {
+					long remaining = deadline - SystemClock.uptimeMillis();
+					if (remaining <= 0)
+						return null;
+					mLock.wait(remaining);
+				}
+			}
+		}
+
+		TessBaseAPI api = createEngine(key);
+		synchronized (mLock) {
+			if (mRecycled) {
+				getGroup(key).size--;
+				api.recycle();
+				throw new IllegalStateException("Pool was recycled while initializing the engine");
+			}
+			mBorrowed.put(api, key);
+		}
+		return api;
+	}
+
+	/**
+	 * Returns a borrowed engine back to the pool. The engine is cleared and
+	 * its page segmentation mode is reset to {@link PageSegMode#PSM_SINGLE_BLOCK};
+	 * other variables changed by the borrower are kept.
+	 * <p>
+	 * The engine must not be used by the caller anymore.
+	 *
+	 * @param api engine obtained from {@link #borrow}
+	 */
+	public void release(@NonNull TessBaseAPI api) {
+		if (api == null)
+			throw new IllegalArgumentException("Engine must be non-null");
+
+		EngineKey key;
+		synchronized (mLock) {
+			key = mBorrowed.remove(api);
+		}
+		if (key == null)
+			throw new IllegalArgumentException("Engine was not borrowed from this pool");
+
+		boolean reusable;
+		try {
+			api.clear();
+			api.setPageSegMode(PageSegMode.PSM_SINGLE_BLOCK);
+			reusable = true;
+		} catch (IllegalStateException e) {
+			// Recycled by the borrower
+			reusable = false;
+		}
+
+		synchronized (mLock) {
+			Group group = getGroup(key);
+			if (reusable && !mRecycled) {
+				group.idle.addLast(new IdleEngine(api, SystemClock.uptimeMillis()));
+			} else {
+				group.size--;
+				api.recycle();
+			}
+			mLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Initializes engines in the background until there are at least
+	 * {@code count} engines for the given key (limited by the maximum
+	 * number of engines per key).
+	 *
+	 * @param key   initialization parameters of the engines
+	 * @param count wanted number of engines
+	 * @return future which completes once the engines are ready, or fails
+	 * with the initialization error
+	 */
+	@NonNull
+	public Future<?> prewarm(@NonNull EngineKey key, int count) {
+		if (key == null)
+			throw new IllegalArgumentException("Key must be non-null");
+
+		synchronized (mLock) {
+			if (mRecycled)
+				throw new IllegalStateException("Pool was recycled");
+
+			return mExecutor.submit(() -> {
+				final int wanted = Math.min(count, mMaxEnginesPerKey);
+				while (true) {
+					synchronized (mLock) {
+						if (mRecycled)
+							return;
+
+						Group group = getGroup(key);
+						if (group.size >= wanted)
+							return;
+						group.size++;
+					}
+
+					TessBaseAPI api = createEngine(key);
+					synchronized (mLock) {
+						if (mRecycled) {
+							getGroup(key).size--;
+							api.recycle();
+							return;
+						}
+						getGroup(key).idle.addLast(new IdleEngine(api, SystemClock.uptimeMillis()));
+						mLock.notifyAll();
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Recycles engines which have been idle for longer than the idle timeout.
+	 * This is called periodically by the pool, but may be also invoked
+	 * manually e.g. on low memory.
+	 *
+	 * @return number of recycled engines
+	 */
+	public int evictIdle() {
+		return evict(mIdleTimeoutMillis);
+	}
+
+	/**
+	 * Recycles all idle engines. Borrowed engines are not affected.
+	 *
+	 * @return number of recycled engines
+	 */
+	public int evictAll() {
+		return evict(0);
+	}
+
+	private int evict(long minIdleMillis) {
+		final List<TessBaseAPI> evicted = new ArrayList<>();
+		final long now = SystemClock.uptimeMillis();
+
+		synchronized (mLock) {
+			for (Iterator<Group> groups = mGroups.values().iterator(); groups.hasNext(); ) {
+				Group group = groups.next();
+				// Oldest engines are at the head of the queue
+				for (Iterator<IdleEngine> it = group.idle.iterator(); it.hasNext(); ) {
+					IdleEngine idle = it.next();
+					if (now - idle.idleSince < minIdleMillis)
+						break;
+					it.remove();
+					group.size--;
+					evicted.add(idle.api);
+				}
+				if (group.size == 0)
+					groups.remove();
+			}
+			if (!evicted.isEmpty())
+				mLock.notifyAll();
+		}
+
+		for (TessBaseAPI api : evicted) {
+			api.recycle();
+		}
+		return evicted.size();
+	}
+
+	/**
+	 * Returns number of engines for the given key, including borrowed ones
+	 * and the ones being initialized.
+	 *
+	 * @param key initialization parameters of the engines
+	 * @return number of engines
+	 */
+	public int getEngineCount(@NonNull EngineKey key) {
+		synchronized (mLock) {
+			Group group = mGroups.get(key);
+			return group != null ? group.size : 0;
+		}
+	}
+
+	/**
+	 * Returns number of idle engines for the given key.
+	 *
+	 * @param key initialization parameters of the engines
+	 * @return number of idle engines
+	 */
+	public int getIdleCount(@NonNull EngineKey key) {
+		synchronized (mLock) {
+			Group group = mGroups.get(key);
+			return group != null ? group.idle.size() : 0;
+		}
+	}
+
+	/**
+	 * Recycles all idle engines and stops the background work. Engines which
+	 * are borrowed at the moment are recycled once they are released.
+	 * No other methods may be used anymore.
+	 */
+	public void recycle() {
+		synchronized (mLock) {
+			if (mRecycled)
+				return;
+			mRecycled = true;
+			mExecutor.shutdown();
+			mLock.notifyAll();
+		}
+		evictAll();
+	}
+
+	@NonNull
+	private Group getGroup(@NonNull EngineKey key) {
+		Group group = mGroups.get(key);
+		if (group == null) {
+			group = new Group();
+			mGroups.put(key, group);
+		}
+		return group;
+	}
+
+	/**
+	 * Creates and initializes a new engine. The slot for the engine must be
+	 * already reserved, it is given back if the initialization fails.
+	 */
+	@NonNull
+	private TessBaseAPI createEngine(@NonNull EngineKey key) {
+		TessBaseAPI api = null;
+		try {
+			api = new TessBaseAPI();
+			if (!api.init(key.datapath, key.language, key.ocrEngineMode, key.config, key.flags)) {
+				Log.e(TAG, "Can't initialize engine for " + key);
+				throw new RuntimeException("Can't initialize engine for " + key);
+			}
+			return api;
+		} catch (RuntimeException e) {
+			if (api != null)
+				api.recycle();
+			synchronized (mLock) {
+				getGroup(key).size--;
+				mLock.notifyAll();
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 Adaptech s.r.o., Robert Pösel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.googlecode.tesseract.android;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.googlecode.leptonica.android.Pixa;
+
+import java.io.File;
+
+/**
+ * Recognizes images of single text lines with just the LSTM network of a
+ * traineddata file, e.g. lines found by {@link TessBaseAPI#getTextlines()}
+ * or by the app's own layout analysis.
+ * <p>
+ * Unlike recognizing each line by {@link TessBaseAPI#setRectangle(int, int, int, int)}
+ * with {@link TessBaseAPI.PageSegMode#PSM_SINGLE_LINE}, there is no page
+ * layout analysis, thresholding and word segmentation, and all the lines are
+ * recognized in a single native call. This makes a difference on pages with
+ * hundreds of short lines. Lines of similar width are run through the
+ * network together in batches, so its weights are read once per batch
+ * instead of once per line. The network output of each line is the same as
+ * when Tesseract recognizes it on its own, but it is decoded without the
+ * dictionary.
+ * <p>
+ * The instance is not thread-safe. When it is no longer needed, its
+ * {@link #recycle} method must be invoked to dispose of it.
+ */
+public class TessLineRecognizer {
+
+	/**
+	 * Recognized text of a single line.
+	 */
+	public static final class Result {
+		private final String text;
+		private final float confidence;
+
+		Result(@NonNull String text, float confidence) {
+			this.text = text;
+			this.confidence = confidence;
+		}
+
+		/**
+		 * @return the recognized text, empty if nothing was recognized
+		 */
+		@NonNull
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * @return the mean confidence of the words of the line (0-100)
+		 */
+		public float getConfidence() {
+			return confidence;
+		}
+
+		@Override
+		public String toString() {
+			return "Result{" +
+					"text='" + text + '\'' +
+					", confidence=" + confidence +
+					'}';
+		}
+	}
+
+	static {
+		System.loadLibrary("jpeg");
+		System.loadLibrary("pngx");
+		System.loadLibrary("leptonica");
+		System.loadLibrary("tesseract");
+	}
+
+	/**
+	 * Used by the native implementation of the class.
+	 */
+	private final long mNativeRecognizer;
+
+	private boolean mRecycled;
+
+	/**
+	 * Loads the LSTM network of the given traineddata file.
+	 *
+	 * @param traineddata the traineddata file, e.g. tessdata/eng.traineddata
+	 */
+	@WorkerThread
+	public TessLineRecognizer(@NonNull File traineddata) {
+		if (traineddata == null)
+			throw new IllegalArgumentException("Traineddata must be non-null");
+		if (!traineddata.isFile())
+			throw new IllegalArgumentException("Traineddata file does not exist!");
+
+		mNativeRecognizer = nativeCreate(traineddata.getAbsolutePath());
+		if (mNativeRecognizer == 0)
+			throw new RuntimeException("Failed to load LSTM network from " + traineddata);
+	}
+
+	/**
+	 * Recognizes the given line images.
+	 *
+	 * @param lines images of single text lines, any depth
+	 * @return result for each line, in the same order
+	 */
+	@WorkerThread
+	@NonNull
+	public Result[] recognize(@NonNull Pixa lines) {
+		if (mRecycled)
+			throw new IllegalStateException();
+		if (lines == null)
+			throw new IllegalArgumentException("Lines must be non-null");
+
+		final float[] confidences = new float[lines.size()];
+		final String[] texts = nativeRecognize(mNativeRecognizer, lines.getNativePixa(), confidences);
+		if (texts == null)
+			throw new RuntimeException("Failed to recognize lines");
+
+		final Result[] results = new Result[texts.length];
+		for (int i = 0; i < texts.length; i++) {
+			results[i] = new Result(texts[i], confidences[i]);
+		}
+		return results;
+	}
+
+	/**
+	 * Releases resources and frees any memory associated with this
+	 * TessLineRecognizer object. Must be called on object destruction.
+	 */
+	public void recycle() {
+		if (!mRecycled) {
+			nativeRecycle(mNativeRecognizer);
+			mRecycled = true;
+		}
+	}
+
+	private static native long nativeCreate(String traineddataPath);
+
+	private static native String[] nativeRecognize(long nativeRecognizer, long nativePixa,
+												   float[] confidences);
+
+	private static native void nativeRecycle(long nativeRecognizer);
+}